@@ -0,0 +1,93 @@
+-- Compares the access paths of the gradebook search before and after V18__gradebook_entry_index_create.sql
+-- at 1M gradebook entries. Requires MySQL 8.0.18+ for EXPLAIN ANALYZE, which prints the chosen plan along
+-- with the measured time of each step. Run it against a migrated database, e.g. the one of docker-compose.dev.yml:
+--
+--     mysql -u root gradebook < docs/benchmark/gradebook-entry-indexes.sql
+--
+-- The data is written into a separate schema, the gradebook schema is only read.
+
+CREATE DATABASE IF NOT EXISTS gradebook_benchmark;
+USE gradebook_benchmark;
+
+-- gradebook_entry as of V17: the indexes MySQL created for the foreign keys, and the unique key
+DROP TABLE IF EXISTS entry_before;
+CREATE TABLE entry_before
+(
+    id            bigint NOT NULL,
+    grade         integer,
+    assignment_id bigint,
+    subject_id    bigint,
+    student_id    bigint,
+    primary key (id),
+    key gradebook_entry_assignment_constraint (assignment_id),
+    key gradebook_entry_subject_constraint (subject_id),
+    unique key gradebook_entry_unique_key (student_id, subject_id, assignment_id)
+);
+
+-- gradebook_entry as of V18, without the foreign keys so the rows need no students, subjects and assignments
+DROP TABLE IF EXISTS entry_after;
+CREATE TABLE entry_after LIKE gradebook.gradebook_entry;
+
+-- gradebook_entry as of V18 with an additional (student_id, subject_id) index, to see whether it would be chosen
+DROP TABLE IF EXISTS entry_student_subject;
+CREATE TABLE entry_student_subject LIKE entry_after;
+CREATE INDEX gradebook_entry_student_subject_index ON entry_student_subject (student_id, subject_id);
+
+-- 4000 students, each of them graded in 5 of the 40 subjects, on the 50 assignments of the subject
+DROP TABLE IF EXISTS digit;
+CREATE TABLE digit (d int NOT NULL PRIMARY KEY);
+INSERT INTO digit VALUES (0), (1), (2), (3), (4), (5), (6), (7), (8), (9);
+
+INSERT INTO entry_before (id, grade, assignment_id, subject_id, student_id)
+SELECT row_number() OVER ()                         AS id,
+       (student.n * 31 + subject.k * 7 + assignment.k) % 5 + 1,
+       ((student.n + subject.k * 8) % 40) * 50 + assignment.k + 1,
+       (student.n + subject.k * 8) % 40 + 1,
+       student.n + 1
+FROM (SELECT a.d * 1000 + b.d * 100 + c.d * 10 + e.d AS n
+      FROM digit a, digit b, digit c, digit e
+      WHERE a.d < 4) student,
+     (SELECT d AS k FROM digit WHERE d < 5) subject,
+     (SELECT a.d * 10 + b.d AS k FROM digit a, digit b WHERE a.d < 5) assignment;
+
+INSERT INTO entry_after (id, grade, assignment_id, subject_id, student_id)
+SELECT id, grade, assignment_id, subject_id, student_id
+FROM entry_before;
+
+INSERT INTO entry_student_subject (id, grade, assignment_id, subject_id, student_id)
+SELECT id, grade, assignment_id, subject_id, student_id
+FROM entry_before;
+
+ANALYZE TABLE entry_before, entry_after, entry_student_subject;
+
+-- GET /api/gradebook/search?subjectId=
+EXPLAIN ANALYZE SELECT * FROM entry_before WHERE subject_id = 17 ORDER BY id LIMIT 101;
+EXPLAIN ANALYZE SELECT * FROM entry_after WHERE subject_id = 17 ORDER BY id LIMIT 101;
+
+-- GET /api/gradebook/search?studentId=
+EXPLAIN ANALYZE SELECT * FROM entry_before WHERE student_id = 1234 ORDER BY id LIMIT 101;
+EXPLAIN ANALYZE SELECT * FROM entry_after WHERE student_id = 1234 ORDER BY id LIMIT 101;
+
+-- GET /api/gradebook/search?studentId=&subjectId=
+EXPLAIN ANALYZE SELECT * FROM entry_before WHERE student_id = 1234 AND subject_id = 34 ORDER BY id LIMIT 101;
+EXPLAIN ANALYZE SELECT * FROM entry_after WHERE student_id = 1234 AND subject_id = 34 ORDER BY id LIMIT 101;
+EXPLAIN ANALYZE SELECT * FROM entry_student_subject WHERE student_id = 1234 AND subject_id = 34 ORDER BY id LIMIT 101;
+
+-- GET /api/gradebook/search?subjectId= without a limit, the subject in-use check of DELETE /api/subjects/{id}
+EXPLAIN ANALYZE SELECT * FROM entry_before WHERE subject_id = 17;
+EXPLAIN ANALYZE SELECT * FROM entry_after WHERE subject_id = 17;
+
+-- GET /api/gradebook/search?assignmentId=, the assignment in-use check of DELETE /api/assignments/{id}
+EXPLAIN ANALYZE SELECT * FROM entry_before WHERE assignment_id = 851 ORDER BY id LIMIT 101;
+EXPLAIN ANALYZE SELECT * FROM entry_after WHERE assignment_id = 851 ORDER BY id LIMIT 101;
+
+-- grade distribution of an assignment, answered from (assignment_id, grade) alone
+EXPLAIN ANALYZE SELECT grade, count(*) FROM entry_before WHERE assignment_id = 851 GROUP BY grade;
+EXPLAIN ANALYZE SELECT grade, count(*) FROM entry_after WHERE assignment_id = 851 GROUP BY grade;
+
+-- size of the table and its indexes
+SELECT table_name, table_rows, data_length, index_length
+FROM information_schema.tables
+WHERE table_schema = 'gradebook_benchmark';
+
+DROP DATABASE gradebook_benchmark;
@@ -0,0 +1,77 @@
+package org.vasvari.gradebookapi.benchmark;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.vasvari.gradebookapi.dto.GradebookOutput;
+import org.vasvari.gradebookapi.model.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The data measured by the benchmarks, the same for every run
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /**
+     * Binds a request to the benchmark threads, the assemblers build their links with its base URI
+     */
+    static void bindRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()), true);
+    }
+
+    static List<GradebookOutput> gradebookOutputs(int count) {
+        List<GradebookOutput> entries = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++)
+            entries.add(new GradebookOutput(id, id % 500 + 1, "John", "Doe", id % 20 + 1, "Algebra",
+                    id % 200 + 1, "Homework", (int) (id % 5) + 1));
+
+        return entries;
+    }
+
+    static List<GradebookEntry> gradebookEntries(int count) {
+        List<GradebookEntry> entries = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            Subject subject = Subject.builder().id(id % 20 + 1).name("Algebra").build();
+            entries.add(GradebookEntry.builder()
+                    .id(id)
+                    .student(student(id % 500 + 1))
+                    .subject(subject)
+                    .assignment(Assignment.builder().id(id % 200 + 1).name("Homework").subject(subject).build())
+                    .grade((int) (id % 5) + 1)
+                    .build());
+        }
+
+        return entries;
+    }
+
+    static Subject subject(int rosterSize) {
+        Set<Student> students = new HashSet<>();
+        for (long id = 1; id <= rosterSize; id++) students.add(student(id));
+
+        return Subject.builder()
+                .id(1L)
+                .name("Algebra")
+                .teacher(Teacher.builder().id(1L).firstname("Darrell").lastname("Bowen").build())
+                .students(students)
+                .build();
+    }
+
+    static Student student(long id) {
+        return Student.builder()
+                .id(id)
+                .firstname("John")
+                .lastname("Doe " + id)
+                .gradeLevel((int) (id % 12) + 1)
+                .email("johndoe" + id + "@email.com")
+                .birthdate(LocalDate.of(2005, 1, 1))
+                .build();
+    }
+}
@@ -0,0 +1,79 @@
+package org.vasvari.gradebookapi.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.server.RepresentationModelAssembler;
+import org.vasvari.gradebookapi.controller.AssignmentController;
+import org.vasvari.gradebookapi.controller.GradebookController;
+import org.vasvari.gradebookapi.controller.StudentController;
+import org.vasvari.gradebookapi.controller.SubjectController;
+import org.vasvari.gradebookapi.dto.GradebookOutput;
+import org.vasvari.gradebookapi.dto.assembler.GradebookModelAssembler;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+/**
+ * The assembling of a list of gradebook entries by {@link GradebookModelAssembler}, which expands link templates
+ * resolved once, against {@link LinkToGradebookModelAssembler}, the assembler building every link with
+ * {@code linkTo(methodOn(...))} as before.
+ * <p>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="GradebookModelAssemblerBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GradebookModelAssemblerBenchmark {
+
+    @Param({"100", "10000"})
+    private int entryCount;
+
+    private final GradebookModelAssembler assembler = new GradebookModelAssembler();
+    private final LinkToGradebookModelAssembler linkToAssembler = new LinkToGradebookModelAssembler();
+    private List<GradebookOutput> entries;
+
+    @Setup
+    public void setUp() {
+        Fixtures.bindRequest();
+        entries = Fixtures.gradebookOutputs(entryCount);
+    }
+
+    @Benchmark
+    public CollectionModel<EntityModel<GradebookOutput>> assembleWithLinkTemplates() {
+        return assembler.toCollectionModel(entries);
+    }
+
+    @Benchmark
+    public CollectionModel<EntityModel<GradebookOutput>> assembleWithLinkTo() {
+        return linkToAssembler.toCollectionModel(entries);
+    }
+
+    public static class LinkToGradebookModelAssembler implements RepresentationModelAssembler<GradebookOutput, EntityModel<GradebookOutput>> {
+
+        @Override
+        public EntityModel<GradebookOutput> toModel(GradebookOutput entry) {
+            return EntityModel.of(entry,
+                    linkTo(methodOn(GradebookController.class).getById(entry.getId())).withSelfRel(),
+                    linkTo(methodOn(StudentController.class).getById(entry.getStudent().getId())).withRel("student"),
+                    linkTo(methodOn(SubjectController.class).getById(entry.getSubject().getId())).withRel("subject"),
+                    linkTo(methodOn(AssignmentController.class).getById(entry.getAssignment().getId())).withRel("assignment"),
+                    linkTo(methodOn(GradebookController.class).getAll(null, null)).withRel("entries").expand());
+        }
+
+        @Override
+        public CollectionModel<EntityModel<GradebookOutput>> toCollectionModel(Iterable<? extends GradebookOutput> entities) {
+            CollectionModel<EntityModel<GradebookOutput>> entries = RepresentationModelAssembler.super.toCollectionModel(entities);
+
+            entries.add(linkTo(methodOn(GradebookController.class).getAll(null, null)).withSelfRel().expand());
+
+            return entries;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.vasvari.gradebookapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.core.AnnotationLinkRelationProvider;
+import org.springframework.hateoas.server.core.DefaultLinkRelationProvider;
+import org.springframework.hateoas.server.core.DelegatingLinkRelationProvider;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.vasvari.gradebookapi.dto.GradebookOutput;
+import org.vasvari.gradebookapi.dto.assembler.GradebookModelAssembler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The serialization of an assembled list of gradebook entries to HAL JSON, and to its CBOR and Smile encodings, by
+ * object mappers configured as the ones of the HAL message converters. The sizes of the payloads are logged by the
+ * setup, e.g. for 10000 entries
+ * <pre>
+ * HAL payload of 10000 entries: json 4423755 bytes, cbor 3759924 bytes, smile 2502105 bytes
+ * </pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="HalSerializationBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+@Slf4j
+public class HalSerializationBenchmark {
+
+    @Param({"100", "10000"})
+    private int entryCount;
+
+    private ObjectMapper halObjectMapper;
+    private ObjectMapper halCborObjectMapper;
+    private ObjectMapper halSmileObjectMapper;
+    private CollectionModel<EntityModel<GradebookOutput>> entries;
+
+    @Setup
+    public void setUp() throws Exception {
+        halObjectMapper = halObjectMapperOf(Jackson2ObjectMapperBuilder.json());
+        halCborObjectMapper = halObjectMapperOf(Jackson2ObjectMapperBuilder.cbor());
+        halSmileObjectMapper = halObjectMapperOf(Jackson2ObjectMapperBuilder.smile());
+
+        Fixtures.bindRequest();
+        entries = new GradebookModelAssembler().toCollectionModel(Fixtures.gradebookOutputs(entryCount));
+
+        log.info("HAL payload of {} entries: json {} bytes, cbor {} bytes, smile {} bytes", entryCount,
+                serializeToHalJson().length, serializeToHalCbor().length, serializeToHalSmile().length);
+    }
+
+    @Benchmark
+    public byte[] serializeToHalJson() throws Exception {
+        return halObjectMapper.writeValueAsBytes(entries);
+    }
+
+    @Benchmark
+    public byte[] serializeToHalCbor() throws Exception {
+        return halCborObjectMapper.writeValueAsBytes(entries);
+    }
+
+    @Benchmark
+    public byte[] serializeToHalSmile() throws Exception {
+        return halSmileObjectMapper.writeValueAsBytes(entries);
+    }
+
+    private static ObjectMapper halObjectMapperOf(Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper objectMapper = builder.build();
+        objectMapper.registerModule(new Jackson2HalModule());
+        objectMapper.setHandlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(
+                new DelegatingLinkRelationProvider(new AnnotationLinkRelationProvider(), new DefaultLinkRelationProvider()),
+                CurieProvider.NONE, MessageResolver.DEFAULTS_ONLY));
+        return objectMapper;
+    }
+}
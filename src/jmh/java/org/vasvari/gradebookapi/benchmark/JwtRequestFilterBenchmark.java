@@ -0,0 +1,96 @@
+package org.vasvari.gradebookapi.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.vasvari.gradebookapi.jwt.JwtClaims;
+import org.vasvari.gradebookapi.jwt.JwtRequestFilter;
+import org.vasvari.gradebookapi.jwt.JwtTokenUtil;
+import org.vasvari.gradebookapi.jwt.TokenRevocationList;
+import org.vasvari.gradebookapi.metrics.PrometheusScrapeToken;
+import org.vasvari.gradebookapi.repository.TokenRevocationRepository;
+import org.vasvari.gradebookapi.service.UserService;
+
+import javax.servlet.FilterChain;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.vasvari.gradebookapi.security.ApplicationUserRole.ADMIN;
+
+/**
+ * The authentication of a request by {@link JwtRequestFilter}, with the verified-token cache disabled (size 0) and
+ * enabled. The user lookup is stubbed, so only the token handling is measured. {@link #parseThreeTimes()} is the
+ * parsing the filter did before the claims were parsed once per request.
+ * <p>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="JwtRequestFilterBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtRequestFilterBenchmark {
+    private static final String SECRET = "very-very-very-very-very-very-very-very-very-very-very-very-secret";
+
+    @Param({"0", "10000"})
+    private long cacheMaximumSize;
+
+    private final FilterChain chain = (request, response) -> {
+    };
+
+    private JwtTokenUtil jwtTokenUtil;
+    private JwtRequestFilter filter;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        UserDetails user = User.builder()
+                .username("admin")
+                .password("admin")
+                .authorities(ADMIN.getGrantedAuthorities())
+                .build();
+        UserService userService = Mockito.mock(UserService.class);
+        Mockito.when(userService.loadUserByUsername("admin")).thenReturn(user);
+
+        jwtTokenUtil = new JwtTokenUtil(SECRET, cacheMaximumSize);
+        TokenRevocationList tokenRevocationList =
+                new TokenRevocationList(Mockito.mock(TokenRevocationRepository.class));
+        filter = new JwtRequestFilter(userService, jwtTokenUtil, tokenRevocationList,
+                new PrometheusScrapeToken(""));
+        token = jwtTokenUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public JwtClaims parseToken() {
+        return jwtTokenUtil.parseToken(token);
+    }
+
+    @Benchmark
+    public Authentication filterRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/students");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    @Benchmark
+    public boolean parseThreeTimes() {
+        String username = parse().getSubject();
+        return username.equals(parse().getSubject()) && !parse().getExpiration().before(new Date());
+    }
+
+    private Claims parse() {
+        return Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody();
+    }
+}
@@ -0,0 +1,50 @@
+package org.vasvari.gradebookapi.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.vasvari.gradebookapi.jwt.JwtClaims;
+import org.vasvari.gradebookapi.jwt.JwtTokenUtil;
+import org.vasvari.gradebookapi.security.ApplicationUserDetails;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.vasvari.gradebookapi.security.ApplicationUserRole.STUDENT;
+
+/**
+ * The generation of the token of a login, and the parsing of a token with and without the verified-token cache
+ * (size 0). The token carries the identity of a student.
+ * <p>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="JwtTokenUtilBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtTokenUtilBenchmark {
+    private static final String SECRET = "very-very-very-very-very-very-very-very-very-very-very-very-secret";
+
+    @Param({"0", "10000"})
+    private long cacheMaximumSize;
+
+    private final ApplicationUserDetails user =
+            new ApplicationUserDetails(1L, "johndoe", "password", STUDENT, true, 79L);
+    private JwtTokenUtil jwtTokenUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtTokenUtil = new JwtTokenUtil(SECRET, cacheMaximumSize);
+        token = jwtTokenUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtTokenUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public JwtClaims parseToken() {
+        return jwtTokenUtil.parseToken(token);
+    }
+}
@@ -0,0 +1,51 @@
+package org.vasvari.gradebookapi.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.vasvari.gradebookapi.dto.GradebookOutput;
+import org.vasvari.gradebookapi.dto.SubjectOutput;
+import org.vasvari.gradebookapi.dto.mapper.GradebookEntryMapper;
+import org.vasvari.gradebookapi.dto.mapper.SubjectMapper;
+import org.vasvari.gradebookapi.model.GradebookEntry;
+import org.vasvari.gradebookapi.model.Subject;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The mapping of loaded entities to outputs: a list of gradebook entries, and a subject with its roster. The
+ * repositories of {@link GradebookEntryMapper} are only used by the mapping of inputs, so they are left out.
+ * <p>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="MapperBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    @Param({"100", "10000"})
+    private int size;
+
+    private final GradebookEntryMapper gradebookEntryMapper = new GradebookEntryMapper(null, null, null);
+    private final SubjectMapper subjectMapper = new SubjectMapper();
+    private List<GradebookEntry> entries;
+    private Subject subject;
+
+    @Setup
+    public void setUp() {
+        entries = Fixtures.gradebookEntries(size);
+        subject = Fixtures.subject(size);
+    }
+
+    @Benchmark
+    public List<GradebookOutput> mapGradebookEntries() {
+        return gradebookEntryMapper.mapAll(entries);
+    }
+
+    @Benchmark
+    public SubjectOutput mapSubjectWithRoster() {
+        return subjectMapper.map(subject);
+    }
+}
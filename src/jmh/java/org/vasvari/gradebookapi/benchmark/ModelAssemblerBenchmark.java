@@ -0,0 +1,103 @@
+package org.vasvari.gradebookapi.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.vasvari.gradebookapi.dto.*;
+import org.vasvari.gradebookapi.dto.assembler.*;
+import org.vasvari.gradebookapi.dto.simpleTypes.InitialCredentials;
+import org.vasvari.gradebookapi.dto.simpleTypes.SimpleData;
+import org.vasvari.gradebookapi.model.AssignmentType;
+import org.vasvari.gradebookapi.security.ApplicationUserRole;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The assembling of the list outputs of every model assembler, with their links
+ * <p>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="ModelAssemblerBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ModelAssemblerBenchmark {
+
+    @Param({"100", "10000"})
+    private int size;
+
+    private final GradebookModelAssembler gradebookModelAssembler = new GradebookModelAssembler();
+    private final StudentModelAssembler studentModelAssembler = new StudentModelAssembler();
+    private final TeacherModelAssembler teacherModelAssembler = new TeacherModelAssembler();
+    private final SubjectModelAssembler subjectModelAssembler = new SubjectModelAssembler();
+    private final AssignmentModelAssembler assignmentModelAssembler = new AssignmentModelAssembler();
+    private final UserModelAssembler userModelAssembler = new UserModelAssembler();
+    private final InitialCredentialsModelAssembler initialCredentialsModelAssembler = new InitialCredentialsModelAssembler();
+
+    private List<GradebookOutput> entries;
+    private final List<StudentDto> students = new ArrayList<>();
+    private final List<TeacherDto> teachers = new ArrayList<>();
+    private final List<SubjectOutput> subjects = new ArrayList<>();
+    private final List<AssignmentOutput> assignments = new ArrayList<>();
+    private final List<UserDto> users = new ArrayList<>();
+    private final List<InitialCredentials> credentials = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        Fixtures.bindRequest();
+        entries = Fixtures.gradebookOutputs(size);
+        for (long id = 1; id <= size; id++) {
+            students.add(StudentDto.builder().id(id).firstname("John").lastname("Doe").gradeLevel(10)
+                    .email("johndoe@email.com").birthdate(LocalDate.of(2005, 1, 1)).build());
+            teachers.add(TeacherDto.builder().id(id).firstname("Darrell").lastname("Bowen")
+                    .email("darrellbowen@email.com").birthdate(LocalDate.of(1984, 2, 1)).build());
+            subjects.add(SubjectOutput.builder().id(id).name("Algebra").students(List.of()).build());
+            assignments.add(AssignmentOutput.builder().id(id).name("Homework").type(AssignmentType.HOMEWORK)
+                    .deadline(LocalDate.of(2051, 1, 1)).subject(new SimpleData(1L, "Algebra")).build());
+            users.add(UserDto.builder().id(id).username("johndoe" + id).role(ApplicationUserRole.STUDENT)
+                    .enabled(true).build());
+            credentials.add(InitialCredentials.builder().userId(id).username("johndoe" + id)
+                    .password("password1234").build());
+        }
+    }
+
+    @Benchmark
+    public CollectionModel<EntityModel<GradebookOutput>> gradebookEntries() {
+        return gradebookModelAssembler.toCollectionModel(entries);
+    }
+
+    @Benchmark
+    public CollectionModel<EntityModel<StudentDto>> students() {
+        return studentModelAssembler.toCollectionModel(students);
+    }
+
+    @Benchmark
+    public CollectionModel<EntityModel<TeacherDto>> teachers() {
+        return teacherModelAssembler.toCollectionModel(teachers);
+    }
+
+    @Benchmark
+    public CollectionModel<EntityModel<SubjectOutput>> subjects() {
+        return subjectModelAssembler.toCollectionModel(subjects);
+    }
+
+    @Benchmark
+    public CollectionModel<EntityModel<AssignmentOutput>> assignments() {
+        return assignmentModelAssembler.toCollectionModel(assignments);
+    }
+
+    @Benchmark
+    public CollectionModel<EntityModel<UserDto>> users() {
+        return userModelAssembler.toCollectionModel(users);
+    }
+
+    @Benchmark
+    public CollectionModel<EntityModel<InitialCredentials>> initialCredentials() {
+        return initialCredentialsModelAssembler.toCollectionModel(credentials);
+    }
+}
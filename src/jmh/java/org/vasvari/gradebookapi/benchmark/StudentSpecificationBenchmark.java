@@ -0,0 +1,62 @@
+package org.vasvari.gradebookapi.benchmark;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.jpa.domain.Specification;
+import org.vasvari.gradebookapi.model.Student;
+import org.vasvari.gradebookapi.model.request.StudentRequest;
+import org.vasvari.gradebookapi.model.specification.StudentSpecification;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The building of the predicate of a student search by {@link StudentSpecification}, by name and grade level, on
+ * the criteria builder of a Hibernate session factory mapping only students. No query is run.
+ * <p>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="StudentSpecificationBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StudentSpecificationBenchmark {
+
+    private final StudentSpecification specification = new StudentSpecification();
+    private final StudentRequest request = new StudentRequest("Doe", 10);
+    private SessionFactory sessionFactory;
+    private CriteriaBuilder criteriaBuilder;
+
+    @Setup
+    public void setUp() {
+        sessionFactory = new MetadataSources(new StandardServiceRegistryBuilder()
+                .applySetting("hibernate.connection.url", "jdbc:h2:mem:benchmark")
+                .applySetting("hibernate.dialect", "org.hibernate.dialect.H2Dialect")
+                .build())
+                .addAnnotatedClass(Student.class)
+                .buildMetadata()
+                .buildSessionFactory();
+        criteriaBuilder = sessionFactory.getCriteriaBuilder();
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public Predicate buildPredicate() {
+        CriteriaQuery<Student> query = criteriaBuilder.createQuery(Student.class);
+        Root<Student> root = query.from(Student.class);
+        Specification<Student> students = specification.getStudents(request);
+
+        return students.toPredicate(root, query, criteriaBuilder);
+    }
+}
@@ -12,6 +12,8 @@ import org.vasvari.gradebookapi.service.AssignmentService;
 import org.vasvari.gradebookapi.service.GradebookService;
 import org.vasvari.gradebookapi.service.SubjectService;
 import org.vasvari.gradebookapi.service.UserService;
+import org.vasvari.gradebookapi.etag.ConditionalGet;
+import org.vasvari.gradebookapi.etag.EntityTags;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -22,6 +24,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -31,6 +34,7 @@ import java.util.List;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+import static org.vasvari.gradebookapi.etag.VersionedResource.*;
 
 @RestController
 @RequestMapping("/api")
@@ -47,6 +51,7 @@ public class AssignmentController {
     private final AssignmentModelAssembler assembler;
 
     @GetMapping("/assignments")
+    @ConditionalGet({ASSIGNMENTS, SUBJECTS})
     @Operation(summary = "Lists all assignments")
     @ApiResponse(responseCode = "200", description = "Returned list of all assignments")
     public ResponseEntity<CollectionModel<EntityModel<AssignmentOutput>>> getAll() {
@@ -57,6 +62,7 @@ public class AssignmentController {
     }
 
     @GetMapping("/assignments/search")
+    @ConditionalGet({ASSIGNMENTS, SUBJECTS})
     @Operation(summary = "Lists all assignments, filtered by name, type and subject")
     @ApiResponse(responseCode = "200", description = "Returned list of assignments")
     public ResponseEntity<CollectionModel<EntityModel<AssignmentOutput>>> searchAssignments(
@@ -79,6 +85,7 @@ public class AssignmentController {
     }
 
     @GetMapping("/assignments/{id}")
+    @ConditionalGet({ASSIGNMENTS, SUBJECTS})
     @Operation(summary = "Finds an assignment by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Returned assignment with given ID"),
@@ -90,7 +97,9 @@ public class AssignmentController {
         log.info("Returned assignment {}", id);
 
         return ResponseEntity
-                .ok(assembler.toModel(assignmentFound));
+                .ok()
+                .headers(EntityTags.headersOf(assignmentFound.getVersion()))
+                .body(assembler.toModel(assignmentFound));
     }
 
     @PostMapping("/assignments")
@@ -103,7 +112,7 @@ public class AssignmentController {
     public ResponseEntity<EntityModel<AssignmentOutput>> add(@RequestBody @Valid AssignmentInput assignment) {
         long subjectId = assignment.getSubjectId();
         // TODO: return proper response with Problem
-        if (subjectService.findById(subjectId).isEmpty())
+        if (!subjectService.existsById(subjectId))
             return ResponseEntity.badRequest().build();
 
         AssignmentOutput assignmentCreated = assignmentService.save(assignment);
@@ -120,20 +129,27 @@ public class AssignmentController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Updated assignment with given ID"),
             @ApiResponse(responseCode = "400", description = "Could not update assignment due to invalid parameters"),
-            @ApiResponse(responseCode = "404", description = "Could not find assignment with given ID")
+            @ApiResponse(responseCode = "404", description = "Could not find assignment with given ID"),
+            @ApiResponse(responseCode = "412", description = "Assignment has been changed since the version given by If-Match"),
+            @ApiResponse(responseCode = "428", description = "No If-Match header, * overwrites any version")
     })
     @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
     public ResponseEntity<EntityModel<AssignmentOutput>> update(@RequestBody @Valid AssignmentInput assignment,
-                                                                @PathVariable("id") Long id) {
+                                                                @PathVariable("id") Long id,
+                                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         long subjectId = assignment.getSubjectId();
-        if (subjectService.findById(subjectId).isEmpty())
+        if (!subjectService.existsById(subjectId))
             return ResponseEntity.badRequest().build();
 
         assignmentService.findById(id).orElseThrow(() -> new AssignmentNotFoundException(id));
         log.info("Updated assignment {}", id);
 
-        return ResponseEntity
-                .ok(assembler.toModel(assignmentService.update(id, assignment)));
+        AssignmentOutput assignmentUpdated =
+                assignmentService.update(id, assignment, EntityTags.expectedVersionOf(ifMatch));
+
+        return ResponseEntity.ok()
+                .headers(EntityTags.headersOf(assignmentUpdated.getVersion()))
+                .body(assembler.toModel(assignmentUpdated));
     }
 
     @DeleteMapping("/assignments/{id}")
@@ -142,23 +158,25 @@ public class AssignmentController {
             @ApiResponse(responseCode = "204", description = "Deleted assignment with given ID"),
             @ApiResponse(responseCode = "404", description = "Could not find assignment with given ID"),
             @ApiResponse(responseCode = "405", description = "Could not delete assignment with given ID"),
+            @ApiResponse(responseCode = "412", description = "Assignment has been changed since the version given by If-Match"),
+            @ApiResponse(responseCode = "428", description = "No If-Match header, * overwrites any version")
     })
     @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
-    public ResponseEntity<?> delete(@PathVariable("id") Long id) {
+    public ResponseEntity<?> delete(@PathVariable("id") Long id, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         assignmentService.findById(id).orElseThrow(() -> new AssignmentNotFoundException(id));
         GradebookRequest request = GradebookRequest.builder().assignmentId(id).build();
         if (!gradebookService.findGradebookEntries(request).isEmpty()) throw new AssignmentInUseException(id);
-        assignmentService.deleteById(id);
+        assignmentService.deleteById(id, EntityTags.expectedVersionOf(ifMatch));
         log.info("Deleted assignment {}", id);
 
         return ResponseEntity.noContent().build();
     }
 
     @GetMapping("/teacher-user/assignments")
+    @ConditionalGet({ASSIGNMENTS, SUBJECTS, TEACHERS, USERS})
     @Operation(summary = "Finds all assignments the current user as teacher has created")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Returned list of assignments related to current user as teacher"),
-            @ApiResponse(responseCode = "404", description = "Could not find teacher with given ID")
+            @ApiResponse(responseCode = "200", description = "Returned list of assignments related to current user as teacher")
     })
     @PreAuthorize("hasRole('TEACHER')")
     public ResponseEntity<CollectionModel<EntityModel<AssignmentOutput>>> getAssignmentsOfCurrentUserAsTeacher(
@@ -170,14 +188,16 @@ public class AssignmentController {
         // filter by teacher
         List<AssignmentOutput> assignmentsOfTeacher = assignmentService.findAssignmentsOfTeacher(teacherId);
 
-        // filter by request params
-        AssignmentRequest request = new AssignmentRequest();
-        request.setTitle(title);
-        request.setType(type);
-        request.setSubjectId(subjectId);
-        List<AssignmentOutput> assignmentsFiltered = assignmentService.findAssignments(request);
+        // filter by request params, if any
+        if (title != null || type != null || subjectId != null) {
+            AssignmentRequest request = new AssignmentRequest();
+            request.setTitle(title);
+            request.setType(type);
+            request.setSubjectId(subjectId);
+            List<AssignmentOutput> assignmentsFiltered = assignmentService.findAssignments(request);
 
-        assignmentsOfTeacher.retainAll(assignmentsFiltered);
+            assignmentsOfTeacher.retainAll(assignmentsFiltered);
+        }
 
         log.info("Returned assignments created by teacher {}, " +
                 "with the following filters: title={}, type={}, subjectId={}", teacherId, title, type, subjectId);
@@ -189,10 +209,10 @@ public class AssignmentController {
     }
 
     @GetMapping("/student-user/assignments")
+    @ConditionalGet({ASSIGNMENTS, SUBJECTS, STUDENTS, USERS})
     @Operation(summary = "Find all assignments the current user as student has")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Returned list of assignments related to subjects of current user as student"),
-            @ApiResponse(responseCode = "404", description = "Could not find student with given ID")
+            @ApiResponse(responseCode = "200", description = "Returned list of assignments related to subjects of current user as student")
     })
     @PreAuthorize("hasRole('STUDENT')")
     public ResponseEntity<CollectionModel<EntityModel<AssignmentOutput>>> getAssignmentsOfCurrentUserAsStudent(
@@ -204,14 +224,16 @@ public class AssignmentController {
         // filter by student
         List<AssignmentOutput> assignmentsOfStudent = assignmentService.findAssignmentsOfStudent(studentId);
 
-        // filter by request params
-        AssignmentRequest request = new AssignmentRequest();
-        request.setTitle(title);
-        request.setType(type);
-        request.setSubjectId(subjectId);
-        List<AssignmentOutput> assignmentsFiltered = assignmentService.findAssignments(request);
+        // filter by request params, if any
+        if (title != null || type != null || subjectId != null) {
+            AssignmentRequest request = new AssignmentRequest();
+            request.setTitle(title);
+            request.setType(type);
+            request.setSubjectId(subjectId);
+            List<AssignmentOutput> assignmentsFiltered = assignmentService.findAssignments(request);
 
-        assignmentsOfStudent.retainAll(assignmentsFiltered);
+            assignmentsOfStudent.retainAll(assignmentsFiltered);
+        }
 
         log.info("Returned assignments of student {}, " +
                 "with the following filters: title={}, type={}, subjectId={}", studentId, title, type, subjectId);
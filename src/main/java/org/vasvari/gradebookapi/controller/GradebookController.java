@@ -10,25 +10,39 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.vasvari.gradebookapi.dto.CursorPage;
+import org.vasvari.gradebookapi.dto.GradeStatisticsOutput;
+import org.vasvari.gradebookapi.dto.GradebookBatchInput;
+import org.vasvari.gradebookapi.dto.GradebookBatchResult;
 import org.vasvari.gradebookapi.dto.GradebookInput;
 import org.vasvari.gradebookapi.dto.GradebookOutput;
-import org.vasvari.gradebookapi.dto.SubjectOutput;
-import org.vasvari.gradebookapi.dto.TeacherDto;
 import org.vasvari.gradebookapi.dto.assembler.GradebookModelAssembler;
+import org.vasvari.gradebookapi.dto.export.ExportFormat;
+import org.vasvari.gradebookapi.dto.export.GradebookExportWriter;
+import org.vasvari.gradebookapi.dto.simpleTypes.Cursor;
 import org.vasvari.gradebookapi.exception.*;
 import org.vasvari.gradebookapi.model.request.GradebookRequest;
 import org.vasvari.gradebookapi.service.*;
+import org.vasvari.gradebookapi.etag.ConditionalGet;
+import org.vasvari.gradebookapi.etag.EntityTags;
 
 import javax.validation.Valid;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+import static org.vasvari.gradebookapi.etag.VersionedResource.*;
 
 @RestController
 @RequestMapping("/api")
@@ -38,48 +52,122 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 @RequiredArgsConstructor
 public class GradebookController {
     private final UserService userService;
-    private final TeacherService teacherService;
     private final GradebookService gradebookService;
+    private final GradeStatisticsService gradeStatisticsService;
     private final StudentService studentService;
     private final SubjectService subjectService;
     private final AssignmentService assignmentService;
     private final GradebookModelAssembler gradebookModelAssembler;
 
     @GetMapping("/gradebook")
-    @Operation(summary = "Finds all gradebook entries")
-    @ApiResponse(responseCode = "200", description = "Returned list of all gradebook entries")
-    public ResponseEntity<CollectionModel<EntityModel<GradebookOutput>>> getAll() {
-        log.info("Returned list of all gradebook entries");
+    @ConditionalGet({GRADEBOOK_ENTRIES, STUDENTS, SUBJECTS, ASSIGNMENTS})
+    @Operation(summary = "Finds all gradebook entries, optionally a page at a time when cursor or limit is given")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Returned list of all gradebook entries"),
+            @ApiResponse(responseCode = "400", description = "Could not return gradebook entries due to invalid cursor")
+    })
+    public ResponseEntity<CollectionModel<EntityModel<GradebookOutput>>> getAll(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        if (cursor == null && limit == null) {
+            log.info("Returned list of all gradebook entries");
+
+            return ResponseEntity
+                    .ok(gradebookModelAssembler.toCollectionModel(gradebookService.findAll()));
+        }
+
+        CursorPage<GradebookOutput> page =
+                gradebookService.findGradebookEntries(new GradebookRequest(), Cursor.decode(cursor), pageLimitOf(limit));
+
+        log.info("Returned page of gradebook entries with cursor={}, limit={}", cursor, limit);
 
         return ResponseEntity
-                .ok(gradebookModelAssembler.toCollectionModel(gradebookService.findAll()));
+                .ok(CollectionModel.of(gradebookModelAssembler.toCollectionModel(page.getContent()),
+                        cursorLinks(page, cursor, pageCursor -> methodOn(GradebookController.class).getAll(pageCursor, limit))));
     }
 
     @GetMapping("/gradebook/search")
-    @Operation(summary = "Finds all gradebook entries, filtered by student, subject and assignment")
-    @ApiResponse(responseCode = "200", description = "Returned list of all gradebook entries")
+    @ConditionalGet({GRADEBOOK_ENTRIES, STUDENTS, SUBJECTS, ASSIGNMENTS})
+    @Operation(summary = "Finds all gradebook entries, filtered by student, subject and assignment, " +
+            "optionally a page at a time when cursor or limit is given")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Returned list of all gradebook entries"),
+            @ApiResponse(responseCode = "400", description = "Could not return gradebook entries due to invalid cursor")
+    })
     public ResponseEntity<CollectionModel<EntityModel<GradebookOutput>>> searchEntries(
             @RequestParam(value = "studentId", required = false) Long studentId,
             @RequestParam(value = "subjectId", required = false) Long subjectId,
-            @RequestParam(value = "assignmentId", required = false) Long assignmentId) {
+            @RequestParam(value = "assignmentId", required = false) Long assignmentId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
 
         GradebookRequest request = new GradebookRequest();
         request.setStudentId(studentId);
         request.setSubjectId(subjectId);
         request.setAssignmentId(assignmentId);
 
-        List<GradebookOutput> entries = gradebookService.findGradebookEntries(request);
+        if (cursor == null && limit == null) {
+            List<GradebookOutput> entries = gradebookService.findGradebookEntries(request);
 
-        log.info("Returned list of gradebook entries with the following filters: " +
-                "studentId={}, subjectId={}, assignmentId={}", studentId, subjectId, assignmentId);
+            log.info("Returned list of gradebook entries with the following filters: " +
+                    "studentId={}, subjectId={}, assignmentId={}", studentId, subjectId, assignmentId);
+
+            return ResponseEntity
+                    .ok(CollectionModel.of(gradebookModelAssembler.toCollectionModel(entries),
+                            linkTo(methodOn(GradebookController.class).searchEntries(studentId, subjectId, assignmentId, null, null))
+                                    .withRel("entries-filtered")));
+        }
+
+        CursorPage<GradebookOutput> page =
+                gradebookService.findGradebookEntries(request, Cursor.decode(cursor), pageLimitOf(limit));
+
+        log.info("Returned page of gradebook entries with the following filters: " +
+                "studentId={}, subjectId={}, assignmentId={}, cursor={}, limit={}", studentId, subjectId, assignmentId, cursor, limit);
 
         return ResponseEntity
-                .ok(CollectionModel.of(gradebookModelAssembler.toCollectionModel(entries),
-                        linkTo(methodOn(GradebookController.class).searchEntries(studentId, subjectId, assignmentId))
-                                .withRel("entries-filtered")));
+                .ok(CollectionModel.of(gradebookModelAssembler.toCollectionModel(page.getContent()),
+                        cursorLinks(page, cursor, pageCursor -> methodOn(GradebookController.class)
+                                .searchEntries(studentId, subjectId, assignmentId, pageCursor, limit))));
+    }
+
+    @GetMapping("/gradebook/export")
+    @Operation(summary = "Exports gradebook entries, filtered by student, subject and assignment, " +
+            "as newline delimited JSON or CSV")
+    @ApiResponse(responseCode = "200", description = "Exported gradebook entries")
+    @PreAuthorize("hasAnyRole('ADMIN','TEACHER')")
+    public ResponseEntity<StreamingResponseBody> exportEntries(
+            @RequestParam(value = "studentId", required = false) Long studentId,
+            @RequestParam(value = "subjectId", required = false) Long subjectId,
+            @RequestParam(value = "assignmentId", required = false) Long assignmentId,
+            @RequestParam(value = "format", defaultValue = "NDJSON") ExportFormat format) {
+
+        GradebookRequest request = new GradebookRequest();
+        request.setStudentId(studentId);
+        request.setSubjectId(subjectId);
+        request.setAssignmentId(assignmentId);
+
+        StreamingResponseBody body = outputStream -> {
+            GradebookExportWriter writer = new GradebookExportWriter(outputStream, format);
+            writer.writeHeader();
+            try {
+                long count = gradebookService.exportGradebookEntries(request, writer::write);
+                writer.flush();
+                log.info("Exported {} gradebook entries as {} with the following filters: " +
+                        "studentId={}, subjectId={}, assignmentId={}", count, format, studentId, subjectId, assignmentId);
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("gradebook." + format.getFileExtension()).build().toString())
+                .body(body);
     }
 
     @GetMapping("/gradebook/{id}")
+    @ConditionalGet({GRADEBOOK_ENTRIES, STUDENTS, SUBJECTS, ASSIGNMENTS})
     @Operation(summary = "Finds a gradebook entry by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Returned gradebook entry with given ID"),
@@ -91,19 +179,23 @@ public class GradebookController {
         log.info("Returned gradebook entry {}", id);
 
         return ResponseEntity
-                .ok(gradebookModelAssembler.toModel(entryFound));
+                .ok()
+                .headers(EntityTags.headersOf(entryFound.getVersion()))
+                .body(gradebookModelAssembler.toModel(entryFound));
     }
 
     @DeleteMapping("/gradebook/{id}")
     @Operation(summary = "Deletes a gradebook entry specified by ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Deleted gradebook entry with given ID"),
-            @ApiResponse(responseCode = "404", description = "Could not find gradebook entry with given ID")
+            @ApiResponse(responseCode = "404", description = "Could not find gradebook entry with given ID"),
+            @ApiResponse(responseCode = "412", description = "Gradebook entry has been changed since the version given by If-Match"),
+            @ApiResponse(responseCode = "428", description = "No If-Match header, * overwrites any version")
     })
     @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
-    public ResponseEntity<EntityModel<GradebookOutput>> delete(@PathVariable("id") Long id) {
+    public ResponseEntity<EntityModel<GradebookOutput>> delete(@PathVariable("id") Long id, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         gradebookService.findById(id).orElseThrow(() -> new GradebookEntryNotFoundException(id));
-        gradebookService.deleteById(id);
+        gradebookService.deleteById(id, EntityTags.expectedVersionOf(ifMatch));
         log.info("Deleted gradebook entry {}", id);
 
         return ResponseEntity.noContent().build();
@@ -134,6 +226,34 @@ public class GradebookController {
                 .body(entityModel);
     }
 
+    @PostMapping("/gradebook/batch")
+    @Operation(summary = "Creates gradebook entries for multiple students with the same subject and assignment")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Returned the outcome of each submitted grade"),
+            @ApiResponse(responseCode = "400", description =
+                    "Could not create gradebook entries due to invalid/missing parameters"),
+            @ApiResponse(responseCode = "404", description = "Could not find subject/assignment with given ID")
+    })
+    @PreAuthorize("hasAnyRole('ADMIN','TEACHER')")
+    public ResponseEntity<CollectionModel<GradebookBatchResult>> gradeAssignmentBatch(
+            @RequestBody @Valid GradebookBatchInput batchInput) {
+        Long subjectId = batchInput.getSubjectId();
+        Long assignmentId = batchInput.getAssignmentId();
+        if (!subjectService.existsById(subjectId)) throw new SubjectNotFoundException(subjectId);
+        assignmentService.findById(assignmentId).orElseThrow(() -> new AssignmentNotFoundException(assignmentId));
+
+        List<GradebookBatchResult> results = gradebookService.saveAll(batchInput);
+        long created = results.stream()
+                .filter(result -> result.getStatus() == GradebookBatchResult.Status.CREATED)
+                .count();
+        log.info("Created {} of {} gradebook entries for subject {} and assignment {}",
+                created, results.size(), subjectId, assignmentId);
+
+        return ResponseEntity
+                .ok(CollectionModel.of(results,
+                        linkTo(methodOn(GradebookController.class).getAll(null, null)).withRel("entries").expand()));
+    }
+
     @PutMapping("/gradebook/{id}")
     @ResponseStatus(HttpStatus.CREATED)
     @Operation(summary = "Updates a gradebook entry")
@@ -142,45 +262,93 @@ public class GradebookController {
             @ApiResponse(responseCode = "400", description =
                     "Could not update gradebook entry due to invalid/missing parameters " +
                             "or because student is not enrolled in given subject"),
-            @ApiResponse(responseCode = "404", description = "Could not find student/subject/assignment with given ID")
+            @ApiResponse(responseCode = "404", description = "Could not find gradebook entry/student/subject/assignment with given ID"),
+            @ApiResponse(responseCode = "412", description = "Gradebook entry has been changed since the version given by If-Match"),
+            @ApiResponse(responseCode = "428", description = "No If-Match header, * overwrites any version")
     })
     @PreAuthorize("hasAnyRole('ADMIN','TEACHER')")
     public ResponseEntity<EntityModel<GradebookOutput>> updateGradebookEntry(@RequestBody @Valid GradebookInput gradebookInput,
-                                                                             @PathVariable("id") Long id) {
+                                                                             @PathVariable("id") Long id,
+                                                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         checkForErrors(gradebookInput);
 
-        GradebookOutput entryUpdated = gradebookService.update(id, gradebookInput);
+        GradebookOutput entryUpdated =
+                gradebookService.update(id, gradebookInput, EntityTags.expectedVersionOf(ifMatch));
         EntityModel<GradebookOutput> entityModel = gradebookModelAssembler.toModel(entryUpdated);
         log.info("Updated gradebook entry {}", id);
 
+        return ResponseEntity.ok()
+                .headers(EntityTags.headersOf(entryUpdated.getVersion()))
+                .body(entityModel);
+    }
+
+    @PutMapping("/gradebook/by-key")
+    @Operation(summary = "Creates or overwrites the gradebook entry of a student, subject and assignment")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Created or updated the gradebook entry"),
+            @ApiResponse(responseCode = "400", description =
+                    "Could not save gradebook entry due to invalid/missing parameters " +
+                            "or because student is not enrolled in given subject"),
+            @ApiResponse(responseCode = "404", description = "Could not find student/subject/assignment with given ID"),
+            @ApiResponse(responseCode = "412", description = "Gradebook entry has been written by a concurrent request")
+    })
+    @PreAuthorize("hasAnyRole('ADMIN','TEACHER')")
+    public ResponseEntity<EntityModel<GradebookOutput>> upsertGradebookEntry(@RequestBody @Valid GradebookInput gradebookInput) {
+        checkForErrors(gradebookInput);
+
+        GradebookOutput entrySaved = gradebookService.upsert(gradebookInput);
+        EntityModel<GradebookOutput> entityModel = gradebookModelAssembler.toModel(entrySaved);
+        log.info("Saved gradebook entry {}", entrySaved.getId());
+
         return ResponseEntity.ok(entityModel);
     }
 
+    private int pageLimitOf(Integer limit) {
+        return limit == null ? GradebookService.DEFAULT_PAGE_LIMIT : limit;
+    }
+
+    /**
+     * Creates the self, next and prev links of a page
+     *
+     * @param page       the page the links are created for
+     * @param cursor     the cursor the page was requested with
+     * @param invocation invocation of the controller method returning the page at the given cursor
+     * @return list of links
+     */
+    private List<Link> cursorLinks(CursorPage<?> page, String cursor, Function<String, Object> invocation) {
+        List<Link> links = new ArrayList<>();
+        links.add(linkTo(invocation.apply(cursor)).withSelfRel().expand());
+        if (page.hasNext())
+            links.add(linkTo(invocation.apply(page.getNext().encode())).withRel(IanaLinkRelations.NEXT).expand());
+        if (page.hasPrevious())
+            links.add(linkTo(invocation.apply(page.getPrevious().encode())).withRel(IanaLinkRelations.PREV).expand());
+
+        return links;
+    }
+
     private void checkForErrors(GradebookInput gradebookInput) {
         Long studentId = gradebookInput.getStudentId();
         Long subjectId = gradebookInput.getSubjectId();
         Long assignmentId = gradebookInput.getAssignmentId();
 
         studentService.findById(studentId).orElseThrow(() -> new StudentNotFoundException(studentId));
-        subjectService.findById(subjectId).orElseThrow(() -> new SubjectNotFoundException(subjectId));
+        if (!subjectService.existsById(subjectId)) throw new SubjectNotFoundException(subjectId);
         assignmentService.findById(assignmentId).orElseThrow(() -> new AssignmentNotFoundException(assignmentId));
         if (!subjectService.isStudentAddedToSubject(studentId, subjectId))
             throw new SubjectRelationNotFoundException(studentId, subjectId);
     }
 
     @GetMapping("/student-user/gradebook-entries")
+    @ConditionalGet({GRADEBOOK_ENTRIES, STUDENTS, SUBJECTS, ASSIGNMENTS, USERS})
     @Operation(summary = "Finds all gradebook entries related to current user as student")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Returned list of all gradebook entries related to current user as student"),
-            @ApiResponse(responseCode = "404", description = "Could not find student with given ID"),
-            @ApiResponse(responseCode = "404", description = "Could not find subject with given ID")
+            @ApiResponse(responseCode = "200", description = "Returned list of all gradebook entries related to current user as student")
     })
     @PreAuthorize("hasRole('STUDENT')")
     public ResponseEntity<CollectionModel<EntityModel<GradebookOutput>>> getGradesOfCurrentUserAsStudent(
             @RequestParam(name = "subjectId", required = false) Long subjectId,
             @RequestParam(name = "assignmentId", required = false) Long assignmentId) {
         Long studentId = userService.getStudentIdOfCurrentUser();
-        studentService.findById(studentId).orElseThrow(() -> new StudentNotFoundException(studentId));
 
         GradebookRequest request = new GradebookRequest();
         request.setStudentId(studentId);
@@ -198,11 +366,30 @@ public class GradebookController {
                                 .withRel("gradebook-entries-of-student")));
     }
 
+    @GetMapping("/student-user/averages")
+    @ConditionalGet({GRADEBOOK_ENTRIES, STUDENTS, SUBJECTS, USERS})
+    @Operation(summary = "Finds the grade statistics of the current user as student in each subject graded")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Returned grade statistics of current user as student")
+    })
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<CollectionModel<GradeStatisticsOutput>> getAveragesOfCurrentUserAsStudent() {
+        Long studentId = userService.getStudentIdOfCurrentUser();
+
+        List<GradeStatisticsOutput> averages = gradeStatisticsService.findStatisticsOfStudent(studentId);
+        log.info("Returned grade statistics of student {}", studentId);
+
+        return ResponseEntity
+                .ok(CollectionModel.of(averages,
+                        linkTo(methodOn(GradebookController.class).getAveragesOfCurrentUserAsStudent())
+                                .withRel("averages-of-student")));
+    }
+
     @GetMapping("/teacher-user/gradebook-entries")
+    @ConditionalGet({GRADEBOOK_ENTRIES, STUDENTS, SUBJECTS, ASSIGNMENTS, TEACHERS, USERS})
     @Operation(summary = "Finds all gradebook entries related to the current user as teacher")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Returned list of gradebook entries related to current user as teacher"),
-            @ApiResponse(responseCode = "404", description = "Could not find teacher with given ID")
+            @ApiResponse(responseCode = "200", description = "Returned list of gradebook entries related to current user as teacher")
     })
     @PreAuthorize("hasRole('TEACHER')")
     public ResponseEntity<CollectionModel<EntityModel<GradebookOutput>>> getGradebookEntriesOfCurrentUserAsTeacher(
@@ -210,19 +397,13 @@ public class GradebookController {
             @RequestParam(value = "subjectId", required = false) Long subjectId,
             @RequestParam(value = "assignmentId", required = false) Long assignmentId) {
         Long teacherId = userService.getTeacherIdOfCurrentUser();
-        TeacherDto teacher = teacherService.findById(teacherId).orElseThrow(() -> new TeacherNotFoundException(teacherId));
 
-        // filtered by teacher
-        List<GradebookOutput> gradebookEntriesOfTeacher = findGradebookEntriesOfTeacher(teacher);
-
-        // filtered by student, subject and assignment
         GradebookRequest request = new GradebookRequest();
         request.setStudentId(studentId);
         request.setSubjectId(subjectId);
         request.setAssignmentId(assignmentId);
-        List<GradebookOutput> gradebookEntriesFiltered = gradebookService.findGradebookEntries(request);
-
-        gradebookEntriesOfTeacher.retainAll(gradebookEntriesFiltered);
+        request.setTeacherId(teacherId);
+        List<GradebookOutput> gradebookEntriesOfTeacher = gradebookService.findGradebookEntries(request);
 
         log.info("Returned gradebook entries related to teacher {} with the following filters: " +
                 "studentId={}, subjectId={}, assignmentId={}", teacherId, studentId, subjectId, assignmentId);
@@ -232,15 +413,4 @@ public class GradebookController {
                         linkTo(methodOn(GradebookController.class).getGradebookEntriesOfCurrentUserAsTeacher(studentId, subjectId, assignmentId))
                                 .withRel("gradebook-entries-of-teacher")));
     }
-
-    private List<GradebookOutput> findGradebookEntriesOfTeacher(TeacherDto teacher) {
-        List<GradebookOutput> gradebookEntries = new ArrayList<>();
-        List<SubjectOutput> subjectsOfTeacher = subjectService.findSubjectsOfTeacher(teacher);
-        for (SubjectOutput subject : subjectsOfTeacher) {
-            GradebookRequest request = GradebookRequest.builder().subjectId(subject.getId()).build();
-            gradebookEntries.addAll(gradebookService.findGradebookEntries(request));
-        }
-
-        return gradebookEntries;
-    }
 }
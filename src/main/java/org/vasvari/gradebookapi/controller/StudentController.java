@@ -10,27 +10,29 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.vasvari.gradebookapi.dto.StudentDto;
 import org.vasvari.gradebookapi.dto.SubjectOutput;
-import org.vasvari.gradebookapi.dto.TeacherDto;
 import org.vasvari.gradebookapi.dto.assembler.StudentModelAssembler;
 import org.vasvari.gradebookapi.dto.assembler.SubjectModelAssembler;
 import org.vasvari.gradebookapi.exception.StudentInUseException;
 import org.vasvari.gradebookapi.exception.StudentNotFoundException;
 import org.vasvari.gradebookapi.exception.SubjectNotFoundException;
-import org.vasvari.gradebookapi.exception.TeacherNotFoundException;
 import org.vasvari.gradebookapi.model.request.GradebookRequest;
 import org.vasvari.gradebookapi.model.request.StudentRequest;
 import org.vasvari.gradebookapi.service.*;
+import org.vasvari.gradebookapi.etag.ConditionalGet;
+import org.vasvari.gradebookapi.etag.EntityTags;
 
 import javax.validation.Valid;
 import java.util.List;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+import static org.vasvari.gradebookapi.etag.VersionedResource.*;
 
 @RestController
 @RequestMapping("/api")
@@ -42,13 +44,13 @@ public class StudentController {
 
     private final UserService userService;
     private final StudentService studentService;
-    private final TeacherService teacherService;
     private final SubjectService subjectService;
     private final GradebookService gradebookService;
     private final StudentModelAssembler studentModelAssembler;
     private final SubjectModelAssembler subjectModelAssembler;
 
     @GetMapping("/students")
+    @ConditionalGet(STUDENTS)
     @Operation(summary = "Lists all students")
     @ApiResponse(responseCode = "200", description = "Returned list of all students")
     public ResponseEntity<CollectionModel<EntityModel<StudentDto>>> getAll() {
@@ -60,6 +62,7 @@ public class StudentController {
     }
 
     @GetMapping("/students/search")
+    @ConditionalGet({STUDENTS, SUBJECTS})
     @Operation(summary = "Lists all students, filtered by name and grade level")
     @ApiResponse(responseCode = "200", description = "Returned list of students")
     public ResponseEntity<CollectionModel<EntityModel<StudentDto>>> searchStudents(@RequestParam(value = "studentName", required = false) String studentName,
@@ -77,6 +80,7 @@ public class StudentController {
     }
 
     @GetMapping("/students/{id}")
+    @ConditionalGet(STUDENTS)
     @Operation(summary = "Finds a student by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Returned student with given ID"),
@@ -87,7 +91,9 @@ public class StudentController {
         log.info("Returned student {}", id);
 
         return ResponseEntity
-                .ok(studentModelAssembler.toModel(studentFound));
+                .ok()
+                .headers(EntityTags.headersOf(studentFound.getVersion()))
+                .body(studentModelAssembler.toModel(studentFound));
     }
 
     @PostMapping("/students")
@@ -112,17 +118,21 @@ public class StudentController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Updated student with given ID"),
             @ApiResponse(responseCode = "400", description = "Could not update student due to invalid parameters"),
-            @ApiResponse(responseCode = "404", description = "Could not find student with given ID")
+            @ApiResponse(responseCode = "404", description = "Could not find student with given ID"),
+            @ApiResponse(responseCode = "412", description = "Student has been changed since the version given by If-Match"),
+            @ApiResponse(responseCode = "428", description = "No If-Match header, * overwrites any version")
     })
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<EntityModel<StudentDto>> update(@RequestBody @Valid StudentDto student,
-                                                          @PathVariable("id") Long id) {
+                                                          @PathVariable("id") Long id,
+                                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         studentService.findById(id).orElseThrow(() -> new StudentNotFoundException(id));
-        student.setId(id);
+        StudentDto studentUpdated = studentService.update(id, student, EntityTags.expectedVersionOf(ifMatch));
         log.info("Updated student {}", id);
 
-        return ResponseEntity
-                .ok(studentModelAssembler.toModel(studentService.save(student)));
+        return ResponseEntity.ok()
+                .headers(EntityTags.headersOf(studentUpdated.getVersion()))
+                .body(studentModelAssembler.toModel(studentUpdated));
     }
 
     @DeleteMapping("/students/{id}")
@@ -130,54 +140,52 @@ public class StudentController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Deleted student with given ID"),
             @ApiResponse(responseCode = "404", description = "Could not find student with given ID"),
-            @ApiResponse(responseCode = "405", description = "Could not delete student with given ID")
+            @ApiResponse(responseCode = "405", description = "Could not delete student with given ID"),
+            @ApiResponse(responseCode = "412", description = "Student has been changed since the version given by If-Match"),
+            @ApiResponse(responseCode = "428", description = "No If-Match header, * overwrites any version")
     })
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<?> delete(@PathVariable("id") Long id) {
+    public ResponseEntity<?> delete(@PathVariable("id") Long id, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         studentService.findById(id).orElseThrow(() -> new StudentNotFoundException(id));
         GradebookRequest request = GradebookRequest.builder().studentId(id).build();
         if (!gradebookService.findGradebookEntries(request).isEmpty()) throw new StudentInUseException(id);
-        studentService.deleteById(id);
+        studentService.deleteById(id, EntityTags.expectedVersionOf(ifMatch));
         log.info("Deleted student {}", id);
 
         return ResponseEntity.noContent().build();
     }
 
     @GetMapping("/students/{id}/subjects")
+    @ConditionalGet({STUDENTS, SUBJECTS, TEACHERS})
     @Operation(summary = "Lists all subjects of the student given by ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Returned list of all subjects related to student given by ID"),
             @ApiResponse(responseCode = "404", description = "Could not find student with given ID")
     })
     public ResponseEntity<CollectionModel<EntityModel<SubjectOutput>>> getSubjectsOfStudent(@PathVariable("id") Long id) {
-        StudentDto student = studentService.findById(id).orElseThrow(() -> new StudentNotFoundException(id));
+        studentService.findById(id).orElseThrow(() -> new StudentNotFoundException(id));
         log.info("Returned list of all subjects related to student {}", id);
 
         return ResponseEntity.
-                ok(subjectModelAssembler.toCollectionModel(studentService.findSubjectsOfStudent(student)));
+                ok(subjectModelAssembler.toCollectionModel(studentService.findSubjectsOfStudent(id)));
     }
 
     @GetMapping("/teacher-user/students")
+    @ConditionalGet({STUDENTS, SUBJECTS, TEACHERS, USERS})
     @Operation(summary = "Finds all students the current user as teacher is teacher of")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Returned list of students related to current user as teacher"),
-            @ApiResponse(responseCode = "404", description = "Could not find teacher with given ID")
+            @ApiResponse(responseCode = "200", description = "Returned list of students related to current user as teacher")
     })
     public ResponseEntity<CollectionModel<EntityModel<StudentDto>>> getStudentsOfCurrentUserAsTeacher(
             @RequestParam(name = "studentName", required = false) String studentName,
             @RequestParam(name = "gradeLevel", required = false) Integer gradeLevel,
             @RequestParam(name = "subjectId", required = false) Long subjectId) {
         Long teacherId = userService.getTeacherIdOfCurrentUser();
-        TeacherDto teacher = teacherService.findById(teacherId).orElseThrow(() -> new TeacherNotFoundException(teacherId));
-
-        // filter by studentName and gradeLevel
-        List<StudentDto> studentsFilteredByNameAndGradeLevel =
-                getStudentsFilteredByNameGradeLevelAndSubject(studentName, gradeLevel, subjectId);
 
         // filter by teacher and/or subject
         List<StudentDto> students;
         if (subjectId == null) {
-            students = subjectService.findStudentsOfTeacher(teacher);
+            students = subjectService.findStudentsOfTeacher(teacherId);
         } else {
             // check if this teacher is teaching the subject
             SubjectOutput subject = subjectService.findById(subjectId).orElseThrow(() -> new SubjectNotFoundException(subjectId));
@@ -186,7 +194,9 @@ public class StudentController {
             students = subjectService.getStudentsOfSubject(subjectId);
         }
 
-        students.retainAll(studentsFilteredByNameAndGradeLevel);
+        // filter by studentName and gradeLevel, if any, the students are of the subject already
+        if (studentName != null || gradeLevel != null)
+            students.retainAll(getStudentsFilteredByNameGradeLevelAndSubject(studentName, gradeLevel, null));
 
         log.info("Returned list of all students related to teacher {}", teacherId);
 
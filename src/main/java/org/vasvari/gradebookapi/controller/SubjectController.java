@@ -10,28 +10,33 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.vasvari.gradebookapi.dto.EnrollmentBatchInput;
+import org.vasvari.gradebookapi.dto.EnrollmentBatchResult;
 import org.vasvari.gradebookapi.dto.StudentDto;
 import org.vasvari.gradebookapi.dto.SubjectInput;
 import org.vasvari.gradebookapi.dto.SubjectOutput;
-import org.vasvari.gradebookapi.dto.TeacherDto;
+import org.vasvari.gradebookapi.dto.SubjectStatisticsOutput;
 import org.vasvari.gradebookapi.dto.assembler.StudentModelAssembler;
 import org.vasvari.gradebookapi.dto.assembler.SubjectModelAssembler;
 import org.vasvari.gradebookapi.exception.StudentNotFoundException;
 import org.vasvari.gradebookapi.exception.SubjectInUseException;
 import org.vasvari.gradebookapi.exception.SubjectNotFoundException;
-import org.vasvari.gradebookapi.exception.TeacherNotFoundException;
 import org.vasvari.gradebookapi.model.request.GradebookRequest;
 import org.vasvari.gradebookapi.model.request.SubjectRequest;
 import org.vasvari.gradebookapi.service.*;
+import org.vasvari.gradebookapi.etag.ConditionalGet;
+import org.vasvari.gradebookapi.etag.EntityTags;
 
 import javax.validation.Valid;
 import java.util.List;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+import static org.vasvari.gradebookapi.etag.VersionedResource.*;
 
 @RestController
 @RequestMapping("/api")
@@ -43,13 +48,14 @@ public class SubjectController {
 
     private final SubjectService subjectService;
     private final StudentService studentService;
-    private final TeacherService teacherService;
     private final UserService userService;
     private final GradebookService gradebookService;
+    private final GradeStatisticsService gradeStatisticsService;
     private final SubjectModelAssembler subjectModelAssembler;
     private final StudentModelAssembler studentModelAssembler;
 
     @GetMapping("/subjects")
+    @ConditionalGet({SUBJECTS, TEACHERS, STUDENTS})
     @Operation(summary = "Lists all subjects")
     @ApiResponse(responseCode = "200", description = "Returned list of all subjects")
     public ResponseEntity<CollectionModel<EntityModel<SubjectOutput>>> getAll() {
@@ -60,6 +66,7 @@ public class SubjectController {
     }
 
     @GetMapping("/subjects/search")
+    @ConditionalGet({SUBJECTS, TEACHERS, STUDENTS})
     @Operation(summary = "Lists all subjects, filtered by name")
     @ApiResponse(responseCode = "200", description = "Returned list of subjects")
     public ResponseEntity<CollectionModel<EntityModel<SubjectOutput>>> searchSubjects(
@@ -77,6 +84,7 @@ public class SubjectController {
     }
 
     @GetMapping("/subjects/{id}")
+    @ConditionalGet({SUBJECTS, TEACHERS, STUDENTS})
     @Operation(summary = "Finds a subject by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Returned subject with given ID"),
@@ -87,7 +95,9 @@ public class SubjectController {
         log.info("Returned subject {}", id);
 
         return ResponseEntity
-                .ok(subjectModelAssembler.toModel(subjectFound));
+                .ok()
+                .headers(EntityTags.headersOf(subjectFound.getVersion()))
+                .body(subjectModelAssembler.toModel(subjectFound));
     }
 
     @PostMapping("/subjects")
@@ -112,16 +122,21 @@ public class SubjectController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Updated subject with given ID"),
             @ApiResponse(responseCode = "400", description = "Could not update subject due to invalid parameters"),
-            @ApiResponse(responseCode = "404", description = "Could not find subject with given ID")
+            @ApiResponse(responseCode = "404", description = "Could not find subject with given ID"),
+            @ApiResponse(responseCode = "412", description = "Subject has been changed since the version given by If-Match"),
+            @ApiResponse(responseCode = "428", description = "No If-Match header, * overwrites any version")
     })
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<EntityModel<SubjectOutput>> update(@RequestBody @Valid SubjectInput subject,
-                                                             @PathVariable("id") Long id) {
-        subjectService.findById(id).orElseThrow(() -> new SubjectNotFoundException(id));
+                                                             @PathVariable("id") Long id,
+                                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (!subjectService.existsById(id)) throw new SubjectNotFoundException(id);
+        SubjectOutput subjectUpdated = subjectService.update(id, subject, EntityTags.expectedVersionOf(ifMatch));
         log.info("Updated subject {}", id);
 
-        return ResponseEntity
-                .ok(subjectModelAssembler.toModel(subjectService.update(id, subject)));
+        return ResponseEntity.ok()
+                .headers(EntityTags.headersOf(subjectUpdated.getVersion()))
+                .body(subjectModelAssembler.toModel(subjectUpdated));
     }
 
     @DeleteMapping("/subjects/{id}")
@@ -129,14 +144,16 @@ public class SubjectController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Deleted subject with given ID"),
             @ApiResponse(responseCode = "404", description = "Could not find subject with given ID"),
-            @ApiResponse(responseCode = "405", description = "Could not delete subject with given ID")
+            @ApiResponse(responseCode = "405", description = "Could not delete subject with given ID"),
+            @ApiResponse(responseCode = "412", description = "Subject has been changed since the version given by If-Match"),
+            @ApiResponse(responseCode = "428", description = "No If-Match header, * overwrites any version")
     })
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<?> delete(@PathVariable("id") Long id) {
-        subjectService.findById(id).orElseThrow(() -> new SubjectNotFoundException(id));
+    public ResponseEntity<?> delete(@PathVariable("id") Long id, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (!subjectService.existsById(id)) throw new SubjectNotFoundException(id);
         GradebookRequest request = GradebookRequest.builder().subjectId(id).build();
         if (!gradebookService.findGradebookEntries(request).isEmpty()) throw new SubjectInUseException(id);
-        subjectService.deleteById(id);
+        subjectService.deleteById(id, EntityTags.expectedVersionOf(ifMatch));
         log.info("Deleted subject {}", id);
 
         return ResponseEntity.noContent().build();
@@ -151,7 +168,7 @@ public class SubjectController {
     @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
     public ResponseEntity<EntityModel<SubjectOutput>> addStudentToSubject(@PathVariable("subjectId") Long subjectId,
                                                                           @PathVariable("studentId") Long studentId) {
-        subjectService.findById(subjectId).orElseThrow(() -> new SubjectNotFoundException(subjectId));
+        if (!subjectService.existsById(subjectId)) throw new SubjectNotFoundException(subjectId);
         studentService.findById(studentId).orElseThrow(() -> new StudentNotFoundException(studentId));
         log.info("Added student {} to subject {}", studentId, subjectId);
 
@@ -168,7 +185,7 @@ public class SubjectController {
     @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
     public ResponseEntity<EntityModel<SubjectOutput>> removeStudentFromSubject(@PathVariable("subjectId") Long subjectId,
                                                                                @PathVariable("studentId") Long studentId) {
-        subjectService.findById(subjectId).orElseThrow(() -> new SubjectNotFoundException(subjectId));
+        if (!subjectService.existsById(subjectId)) throw new SubjectNotFoundException(subjectId);
         studentService.findById(studentId).orElseThrow(() -> new StudentNotFoundException(studentId));
         log.info("Removed student {} from subject {}", studentId, subjectId);
 
@@ -176,7 +193,30 @@ public class SubjectController {
                 .ok(subjectModelAssembler.toModel(subjectService.removeStudentFromSubject(studentId, subjectId)));
     }
 
+    @PostMapping("/subjects/{subjectId}/students:batch")
+    @Operation(summary = "Enrolls or unenrolls many students, or every student of a grade level, at once")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Returned the number of students enrolled/unenrolled"),
+            @ApiResponse(responseCode = "400", description = "Could not change enrollments due to invalid parameters"),
+            @ApiResponse(responseCode = "404", description = "Could not find subject/students with given IDs")
+    })
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<EntityModel<EnrollmentBatchResult>> changeEnrollments(@PathVariable("subjectId") Long subjectId,
+                                                                              @RequestBody @Valid EnrollmentBatchInput batchInput) {
+        if (!subjectService.existsById(subjectId)) throw new SubjectNotFoundException(subjectId);
+        EnrollmentBatchResult result = subjectService.changeEnrollments(subjectId, batchInput);
+        log.info("Changed enrollments of subject {}: {} {} students",
+                subjectId, batchInput.getAction(), result.getStudentsAffected());
+
+        return ResponseEntity
+                .ok(EntityModel.of(result,
+                        linkTo(methodOn(SubjectController.class).getById(subjectId)).withRel("subject"),
+                        linkTo(methodOn(SubjectController.class).getStudentsOfSubject(subjectId))
+                                .withRel("students-of-subject")));
+    }
+
     @GetMapping("/subjects/{subjectId}/students")
+    @ConditionalGet({SUBJECTS, STUDENTS})
     @Operation(summary = "Finds all students of the subject specified by ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Returned list of students learning the subject"),
@@ -192,27 +232,45 @@ public class SubjectController {
                                 .withRel("students-of-subject")));
     }
 
+    @GetMapping("/subjects/{subjectId}/statistics")
+    @ConditionalGet({GRADEBOOK_ENTRIES, SUBJECTS, ASSIGNMENTS})
+    @Operation(summary = "Finds the grade statistics of the subject specified by ID and of its assignments")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Returned grade statistics of the subject"),
+            @ApiResponse(responseCode = "404", description = "Could not find subject with given ID")
+    })
+    @PreAuthorize("hasAnyRole('ADMIN','TEACHER')")
+    public ResponseEntity<EntityModel<SubjectStatisticsOutput>> getStatisticsOfSubject(@PathVariable("subjectId") Long subjectId) {
+        if (!subjectService.existsById(subjectId)) throw new SubjectNotFoundException(subjectId);
+        SubjectStatisticsOutput statistics = gradeStatisticsService.findStatisticsOfSubject(subjectId);
+        log.info("Returned grade statistics of subject {}", subjectId);
+
+        return ResponseEntity
+                .ok(EntityModel.of(statistics,
+                        linkTo(methodOn(SubjectController.class).getStatisticsOfSubject(subjectId)).withSelfRel(),
+                        linkTo(methodOn(SubjectController.class).getById(subjectId)).withRel("subject")));
+    }
+
     @GetMapping("/teacher-user/subjects")
+    @ConditionalGet({SUBJECTS, TEACHERS, STUDENTS, USERS})
     @Operation(summary = "Finds all subjects the current user as teacher is teaching")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Returned list of subjects related to current user as teacher"),
-            @ApiResponse(responseCode = "404", description = "Could not find teacher with given ID")
+            @ApiResponse(responseCode = "200", description = "Returned list of subjects related to current user as teacher")
     })
     @PreAuthorize("hasRole('TEACHER')")
     public ResponseEntity<CollectionModel<EntityModel<SubjectOutput>>> getSubjectsOfCurrentUserAsTeacher(
             @RequestParam(name = "subjectName", required = false) String subjectName) {
         Long teacherId = userService.getTeacherIdOfCurrentUser();
-        TeacherDto teacher = teacherService.findById(teacherId).orElseThrow(() -> new TeacherNotFoundException(teacherId));
 
         // filter by teacher
-        List<SubjectOutput> subjectsOfTeacher = subjectService.findSubjectsOfTeacher(teacher);
+        List<SubjectOutput> subjectsOfTeacher = subjectService.findSubjectsOfTeacher(teacherId);
 
-        // filter by name
-        SubjectRequest request = new SubjectRequest();
-        request.setName(subjectName);
-        List<SubjectOutput> subjectsFilteredByName = subjectService.findSubjects(request);
-
-        subjectsOfTeacher.retainAll(subjectsFilteredByName);
+        // filter by name, if any
+        if (subjectName != null) {
+            SubjectRequest request = new SubjectRequest();
+            request.setName(subjectName);
+            subjectsOfTeacher.retainAll(subjectService.findSubjects(request));
+        }
 
         log.info("Returned list of all subjects related to teacher {}, with the following filters: subjectName={}", teacherId, subjectName);
 
@@ -223,26 +281,25 @@ public class SubjectController {
     }
 
     @GetMapping("/student-user/subjects")
+    @ConditionalGet({SUBJECTS, TEACHERS, STUDENTS, USERS})
     @Operation(summary = "Find all subjects the current user as student is enrolled in")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Returned list of subjects related to current user as student"),
-            @ApiResponse(responseCode = "404", description = "Could not find student with given ID")
+            @ApiResponse(responseCode = "200", description = "Returned list of subjects related to current user as student")
     })
     @PreAuthorize("hasRole('STUDENT')")
     public ResponseEntity<CollectionModel<EntityModel<SubjectOutput>>> getSubjectsOfCurrentUserAsStudent(
             @RequestParam(name = "subjectName", required = false) String subjectName) {
         Long studentId = userService.getStudentIdOfCurrentUser();
-        StudentDto student = studentService.findById(studentId).orElseThrow(() -> new StudentNotFoundException(studentId));
 
         // filter by student
-        List<SubjectOutput> subjectsOfStudent = studentService.findSubjectsOfStudent(student);
-
-        // filter by name
-        SubjectRequest request = new SubjectRequest();
-        request.setName(subjectName);
-        List<SubjectOutput> subjectsFilteredByName = subjectService.findSubjects(request);
-
-        subjectsOfStudent.retainAll(subjectsFilteredByName);
+        List<SubjectOutput> subjectsOfStudent = studentService.findSubjectsOfStudent(studentId);
+
+        // filter by name, if any
+        if (subjectName != null) {
+            SubjectRequest request = new SubjectRequest();
+            request.setName(subjectName);
+            subjectsOfStudent.retainAll(subjectService.findSubjects(request));
+        }
 
         log.info("Returned list of all subjects related to student {}, with the following filters: subjectName={}", studentId, subjectName);
 
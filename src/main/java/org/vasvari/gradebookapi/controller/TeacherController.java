@@ -5,6 +5,8 @@ import org.vasvari.gradebookapi.dto.assembler.TeacherModelAssembler;
 import org.vasvari.gradebookapi.exception.TeacherNotFoundException;
 import org.vasvari.gradebookapi.model.request.TeacherRequest;
 import org.vasvari.gradebookapi.service.TeacherService;
+import org.vasvari.gradebookapi.etag.ConditionalGet;
+import org.vasvari.gradebookapi.etag.EntityTags;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -15,6 +17,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -23,6 +26,7 @@ import java.util.List;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+import static org.vasvari.gradebookapi.etag.VersionedResource.TEACHERS;
 
 @RestController
 @RequestMapping("/api/teachers")
@@ -36,6 +40,7 @@ public class TeacherController {
     private final TeacherModelAssembler assembler;
 
     @GetMapping
+    @ConditionalGet(TEACHERS)
     @Operation(summary = "Lists all teachers")
     @ApiResponse(responseCode = "200", description = "Returned list of all teachers")
     public ResponseEntity<CollectionModel<EntityModel<TeacherDto>>> getAll() {
@@ -46,6 +51,7 @@ public class TeacherController {
     }
 
     @GetMapping("/search")
+    @ConditionalGet(TEACHERS)
     @Operation(summary = "Lists all teachers, filtered by name")
     @ApiResponse(responseCode = "200", description = "Returned list of teachers")
     public ResponseEntity<CollectionModel<EntityModel<TeacherDto>>> searchTeachers(
@@ -63,6 +69,7 @@ public class TeacherController {
     }
 
     @GetMapping("/{id}")
+    @ConditionalGet(TEACHERS)
     @Operation(summary = "Finds a teacher by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Returned teacher with given ID"),
@@ -73,7 +80,9 @@ public class TeacherController {
         log.info("Returned teacher {}", id);
 
         return ResponseEntity
-                .ok(assembler.toModel(teacherFound));
+                .ok()
+                .headers(EntityTags.headersOf(teacherFound.getVersion()))
+                .body(assembler.toModel(teacherFound));
     }
 
     @PostMapping
@@ -97,16 +106,20 @@ public class TeacherController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Updated teacher with given ID"),
             @ApiResponse(responseCode = "400", description = "Could not update teacher due to invalid parameters"),
-            @ApiResponse(responseCode = "404", description = "Could not find teacher with given ID")
+            @ApiResponse(responseCode = "404", description = "Could not find teacher with given ID"),
+            @ApiResponse(responseCode = "412", description = "Teacher has been changed since the version given by If-Match"),
+            @ApiResponse(responseCode = "428", description = "No If-Match header, * overwrites any version")
     })
     public ResponseEntity<EntityModel<TeacherDto>> update(@RequestBody @Valid TeacherDto teacher,
-                                                          @PathVariable("id") Long id) {
+                                                          @PathVariable("id") Long id,
+                                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         service.findById(id).orElseThrow(() -> new TeacherNotFoundException(id));
-        teacher.setId(id);
+        TeacherDto teacherUpdated = service.update(id, teacher, EntityTags.expectedVersionOf(ifMatch));
         log.info("Updated teacher {}", id);
 
-        return ResponseEntity
-                .ok(assembler.toModel(service.save(teacher)));
+        return ResponseEntity.ok()
+                .headers(EntityTags.headersOf(teacherUpdated.getVersion()))
+                .body(assembler.toModel(teacherUpdated));
     }
 
     @DeleteMapping("/{id}")
@@ -114,11 +127,13 @@ public class TeacherController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Deleted teacher with given ID"),
             @ApiResponse(responseCode = "404", description = "Could not find teacher with given ID"),
-            @ApiResponse(responseCode = "405", description = "Could not delete teacher with given ID")
+            @ApiResponse(responseCode = "405", description = "Could not delete teacher with given ID"),
+            @ApiResponse(responseCode = "412", description = "Teacher has been changed since the version given by If-Match"),
+            @ApiResponse(responseCode = "428", description = "No If-Match header, * overwrites any version")
     })
-    public ResponseEntity<?> delete(@PathVariable("id") Long id) {
+    public ResponseEntity<?> delete(@PathVariable("id") Long id, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         service.findById(id).orElseThrow(() -> new TeacherNotFoundException(id));
-        service.deleteById(id);
+        service.deleteById(id, EntityTags.expectedVersionOf(ifMatch));
         log.info("Deleted teacher {}", id);
 
         return ResponseEntity.noContent().build();
@@ -12,26 +12,34 @@ import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.vasvari.gradebookapi.dto.AccountBatchInput;
 import org.vasvari.gradebookapi.dto.StudentDto;
 import org.vasvari.gradebookapi.dto.TeacherDto;
 import org.vasvari.gradebookapi.dto.UserDto;
 import org.vasvari.gradebookapi.dto.assembler.InitialCredentialsModelAssembler;
 import org.vasvari.gradebookapi.dto.assembler.UserModelAssembler;
+import org.vasvari.gradebookapi.dto.export.ExportFormat;
+import org.vasvari.gradebookapi.dto.export.InitialCredentialsWriter;
 import org.vasvari.gradebookapi.dto.simpleTypes.InitialCredentials;
 import org.vasvari.gradebookapi.dto.simpleTypes.UsernameInput;
 import org.vasvari.gradebookapi.exception.*;
 import org.vasvari.gradebookapi.model.request.PasswordChangeRequest;
+import org.vasvari.gradebookapi.model.request.StudentRequest;
 import org.vasvari.gradebookapi.model.request.UserRequest;
 import org.vasvari.gradebookapi.security.ApplicationUserRole;
 import org.vasvari.gradebookapi.service.StudentService;
 import org.vasvari.gradebookapi.service.TeacherService;
 import org.vasvari.gradebookapi.service.UserService;
+import org.vasvari.gradebookapi.etag.ConditionalGet;
 
 import javax.validation.Valid;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+import static org.vasvari.gradebookapi.etag.VersionedResource.USERS;
 
 @RestController
 @RequestMapping("/api/users")
@@ -48,6 +56,7 @@ public class UserController {
     private final InitialCredentialsModelAssembler credentialsModelAssembler;
 
     @GetMapping
+    @ConditionalGet(USERS)
     @Operation(summary = "Lists all users")
     @ApiResponse(responseCode = "200", description = "Returned list of all users")
     public ResponseEntity<CollectionModel<EntityModel<UserDto>>> getAll() {
@@ -58,6 +67,7 @@ public class UserController {
     }
 
     @GetMapping("/search")
+    @ConditionalGet(USERS)
     @Operation(summary = "Lists all users, filtered by username, role and enabled")
     @ApiResponse(responseCode = "200", description = "Returned list of users")
     public ResponseEntity<CollectionModel<EntityModel<UserDto>>> searchUsers(
@@ -82,6 +92,7 @@ public class UserController {
     }
 
     @GetMapping("/{id}")
+    @ConditionalGet(USERS)
     @Operation(summary = "Finds a user by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Returned user with given ID"),
@@ -99,7 +110,8 @@ public class UserController {
     @Operation(summary = "Creates user account for a student")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Created new user"),
-            @ApiResponse(responseCode = "400", description = "Could not create user due to invalid parameters")
+            @ApiResponse(responseCode = "400", description = "Could not create user due to invalid parameters"),
+            @ApiResponse(responseCode = "409", description = "Could not create user as every username of the name is taken")
     })
     public ResponseEntity<EntityModel<InitialCredentials>> createAccountForStudent(@RequestParam("studentId") Long studentId) {
         StudentDto student = studentService.findById(studentId)
@@ -118,7 +130,8 @@ public class UserController {
     @Operation(summary = "Creates user account for a teacher")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Created new user"),
-            @ApiResponse(responseCode = "400", description = "Could not create user due to invalid parameters")
+            @ApiResponse(responseCode = "400", description = "Could not create user due to invalid parameters"),
+            @ApiResponse(responseCode = "409", description = "Could not create user as every username of the name is taken")
     })
     public ResponseEntity<EntityModel<InitialCredentials>> createAccountForTeacher(@RequestParam("teacherId") Long teacherId) {
         TeacherDto teacher = teacherService.findById(teacherId)
@@ -150,7 +163,43 @@ public class UserController {
                 .body(entityModel);
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Creates user accounts for the students or teachers given by ID, or for every student of " +
+            "a grade level, and streams their initial credentials as newline delimited JSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Created new users, students and teachers not found " +
+                    "or already having an account are skipped"),
+            @ApiResponse(responseCode = "400", description = "Could not create users due to invalid parameters")
+    })
+    public ResponseEntity<StreamingResponseBody> createAccountsInBulk(@RequestBody @Valid AccountBatchInput batchInput) {
+        ApplicationUserRole role = batchInput.getRole();
+        List<StudentDto> students = role != ApplicationUserRole.STUDENT ? List.of()
+                : batchInput.getGradeLevel() != null
+                ? studentService.findStudents(new StudentRequest(null, batchInput.getGradeLevel()))
+                : studentService.findAllById(batchInput.getSchoolActorIds());
+        List<TeacherDto> teachers = role != ApplicationUserRole.TEACHER ? List.of()
+                : teacherService.findAllById(batchInput.getSchoolActorIds());
+
+        StreamingResponseBody body = outputStream -> {
+            InitialCredentialsWriter writer = new InitialCredentialsWriter(outputStream);
+            try {
+                int created = role == ApplicationUserRole.STUDENT
+                        ? userService.createStudentUsers(students, writer::write)
+                        : userService.createTeacherUsers(teachers, writer::write);
+                log.info("Created {} {} user accounts for {} students and teachers found",
+                        created, role, students.size() + teachers.size());
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(ExportFormat.NDJSON.getMediaType())
+                .body(body);
+    }
+
     @GetMapping("/students/{id}")
+    @ConditionalGet(USERS)
     @Operation(summary = "Finds a student-user related to a student entity with the given ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Returned user related to student"),
@@ -169,6 +218,7 @@ public class UserController {
     }
 
     @GetMapping("/teachers/{id}")
+    @ConditionalGet(USERS)
     @Operation(summary = "Finds a teacher-user related to a teacher entity with the given ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Returned user related to teacher"),
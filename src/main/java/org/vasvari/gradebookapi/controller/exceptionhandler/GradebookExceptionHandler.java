@@ -2,6 +2,7 @@ package org.vasvari.gradebookapi.controller.exceptionhandler;
 
 import org.vasvari.gradebookapi.exception.DuplicateEntryException;
 import org.vasvari.gradebookapi.exception.GradebookEntryNotFoundException;
+import org.vasvari.gradebookapi.exception.InvalidCursorException;
 import org.vasvari.gradebookapi.exception.SubjectRelationNotFoundException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -68,4 +69,21 @@ public class GradebookExceptionHandler {
                 .body(problem);
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    ResponseEntity<Problem> handleInvalidCursor(InvalidCursorException ex) {
+        Problem problem = Problem.builder()
+                .withType(URI.create("gradebook/bad-request"))
+                .withTitle("Invalid cursor")
+                .withStatus(Status.BAD_REQUEST)
+                .withDetail(ex.getMessage())
+                .build();
+
+        log.warn(ex.getMessage());
+
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(problem);
+    }
+
 }
@@ -1,12 +1,16 @@
 package org.vasvari.gradebookapi.controller.exceptionhandler;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.vasvari.gradebookapi.exception.AuthenticationOverloadedException;
 import org.zalando.problem.Problem;
 import org.zalando.problem.Status;
 
@@ -31,4 +35,60 @@ public class JwtAuthenticationExceptionHandler {
                 .contentType(MediaType.APPLICATION_PROBLEM_JSON)
                 .body(problem);
     }
+
+    @ExceptionHandler(AuthenticationOverloadedException.class)
+    ResponseEntity<Problem> handleAuthenticationOverloaded(AuthenticationOverloadedException ex) {
+        Problem problem = Problem.builder()
+                .withType(URI.create("authenticate/service-unavailable"))
+                .withTitle("Authentication overloaded")
+                .withStatus(Status.SERVICE_UNAVAILABLE)
+                .withDetail(ex.getMessage())
+                .build();
+
+        log.warn(ex.getMessage());
+
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfter().toSeconds()))
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(problem);
+    }
+
+    /**
+     * The requests denied by the security configuration are handed over here by the problem support of Spring
+     * Security, without these handlers they would be answered with an empty 200.
+     */
+    @ExceptionHandler(AuthenticationException.class)
+    ResponseEntity<Problem> handleAuthentication(AuthenticationException ex) {
+        Problem problem = Problem.builder()
+                .withType(URI.create("authenticate/unauthorized"))
+                .withTitle("Unauthorized")
+                .withStatus(Status.UNAUTHORIZED)
+                .withDetail(ex.getMessage())
+                .build();
+
+        log.warn(ex.getMessage());
+
+        return ResponseEntity
+                .status(HttpStatus.UNAUTHORIZED)
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(problem);
+    }
+
+    @ExceptionHandler(AccessDeniedException.class)
+    ResponseEntity<Problem> handleAccessDenied(AccessDeniedException ex) {
+        Problem problem = Problem.builder()
+                .withType(URI.create("authenticate/forbidden"))
+                .withTitle("Forbidden")
+                .withStatus(Status.FORBIDDEN)
+                .withDetail(ex.getMessage())
+                .build();
+
+        log.warn(ex.getMessage());
+
+        return ResponseEntity
+                .status(HttpStatus.FORBIDDEN)
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(problem);
+    }
 }
@@ -117,4 +117,21 @@ public class UserExceptionHandler {
                 .body(problem);
     }
 
+    @ExceptionHandler(UsernamesExhaustedException.class)
+    ResponseEntity<Problem> handleUsernamesExhausted(UsernamesExhaustedException ex) {
+        Problem problem = Problem.builder()
+                .withType(URI.create("users/usernames-exhausted"))
+                .withTitle("Usernames exhausted")
+                .withStatus(Status.CONFLICT)
+                .withDetail(ex.getMessage())
+                .build();
+
+        log.warn(ex.getMessage());
+
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(problem);
+    }
+
 }
@@ -0,0 +1,75 @@
+package org.vasvari.gradebookapi.controller.exceptionhandler;
+
+import org.vasvari.gradebookapi.exception.PreconditionRequiredException;
+import org.vasvari.gradebookapi.exception.VersionConflictException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.zalando.problem.Problem;
+import org.zalando.problem.Status;
+
+import java.net.URI;
+
+@ControllerAdvice
+@Slf4j
+public class VersionConflictExceptionHandler {
+    public static final String CONCURRENT_UPDATE_MESSAGE = "The resource has been changed by a concurrent request";
+
+    /**
+     * The version in the If-Match header of the request is not the current version
+     */
+    @ExceptionHandler(VersionConflictException.class)
+    ResponseEntity<Problem> handleVersionConflict(VersionConflictException ex) {
+        log.warn(ex.getMessage());
+
+        return preconditionFailed(ex.getMessage());
+    }
+
+    /**
+     * The row was updated or deleted by another transaction between reading and writing it
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    ResponseEntity<Problem> handleConcurrentUpdate(OptimisticLockingFailureException ex) {
+        log.warn(ex.getMessage());
+
+        return preconditionFailed(CONCURRENT_UPDATE_MESSAGE);
+    }
+
+    /**
+     * The update or delete has no If-Match header, so it could overwrite a change it has not seen
+     */
+    @ExceptionHandler(PreconditionRequiredException.class)
+    ResponseEntity<Problem> handlePreconditionRequired(PreconditionRequiredException ex) {
+        Problem problem = Problem.builder()
+                .withType(URI.create("precondition-required"))
+                .withTitle("If-Match required")
+                .withStatus(Status.PRECONDITION_REQUIRED)
+                .withDetail(ex.getMessage())
+                .build();
+
+        log.warn(ex.getMessage());
+
+        return ResponseEntity
+                .status(HttpStatus.PRECONDITION_REQUIRED)
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(problem);
+    }
+
+    private ResponseEntity<Problem> preconditionFailed(String detail) {
+        Problem problem = Problem.builder()
+                .withType(URI.create("precondition-failed"))
+                .withTitle("Resource changed")
+                .withStatus(Status.PRECONDITION_FAILED)
+                .withDetail(detail)
+                .build();
+
+        return ResponseEntity
+                .status(HttpStatus.PRECONDITION_FAILED)
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(problem);
+    }
+}
@@ -0,0 +1,283 @@
+package org.vasvari.gradebookapi.dataset;
+
+import com.google.common.collect.Lists;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.vasvari.gradebookapi.model.AssignmentType;
+import org.vasvari.gradebookapi.model.GradebookEntry;
+import org.vasvari.gradebookapi.repository.AssignmentRepository;
+import org.vasvari.gradebookapi.repository.GradebookEntryRepository;
+import org.vasvari.gradebookapi.repository.StudentRepository;
+import org.vasvari.gradebookapi.repository.SubjectRepository;
+import org.vasvari.gradebookapi.service.GradeStatisticsService;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Generates a school of the given number of gradebook entries, with the students, teachers, subjects, enrollments
+ * and assignments they need, for benchmarks and load tests. The data is skewed as in a school: a few subjects of a
+ * grade level are taken by most of its students, a few teachers teach many subjects, and good grades are more
+ * frequent than bad ones.
+ * <p>
+ * The data depends only on the seed, the same seed generates the same school, with the same checksum, whatever
+ * the database already holds. Only the IDs differ. The rows are inserted in JDBC batches; the gradebook entries
+ * and their statistics are written subject by subject, in transactions of at most {@link #BATCH_SIZE} entries.
+ */
+@Component
+@RequiredArgsConstructor
+public class DatasetGenerator {
+    // the rows are inserted, and the gradebook entries written, in batches of this size
+    public static final int BATCH_SIZE = 1000;
+    // fewer than the expected number of entries of a student, so the students are enough for the entries
+    private static final int ENTRIES_PER_STUDENT = 60;
+    private static final int MIN_STUDENTS = 10;
+    private static final int STUDENTS_PER_TEACHER = 15;
+    private static final int GRADE_LEVELS = 12;
+    private static final int MIN_SUBJECTS_PER_STUDENT = 6;
+    private static final int MAX_SUBJECTS_PER_STUDENT = 10;
+    private static final int AVERAGE_ROSTER_SIZE = 25;
+    private static final int MIN_ASSIGNMENTS_PER_SUBJECT = 4;
+    private static final int MAX_ASSIGNMENTS_PER_SUBJECT = 16;
+    // the share of the enrolled students graded for an assignment
+    private static final double GRADED_RATIO = 0.9;
+    // the weights of the grades 1 to 5
+    private static final double[] GRADE_WEIGHTS = {5, 10, 25, 35, 25};
+    // the weights of the assignment types, in the order of AssignmentType
+    private static final double[] ASSIGNMENT_TYPE_WEIGHTS = {20, 50, 5, 25};
+
+    private static final String[] FIRSTNAMES = {"John", "Jane", "Peter", "Anna", "David", "Emma", "Michael", "Olivia",
+            "Daniel", "Sophia", "James", "Mia", "Robert", "Lily", "Thomas", "Grace", "Andrew", "Chloe", "Mark", "Alice"};
+    private static final String[] LASTNAMES = {"Doe", "Smith", "Bowen", "Taylor", "Brown", "Wilson", "Moore", "Clark",
+            "Hall", "Young", "King", "Wright", "Scott", "Green", "Baker", "Adams", "Nelson", "Hill", "Carter", "Evans"};
+    private static final String[] SUBJECT_NAMES = {"Algebra", "Geometry", "Literature", "Grammar", "History",
+            "Biology", "Chemistry", "Physics", "Geography", "English", "German", "Informatics", "Music", "Art",
+            "Physical Education"};
+
+    private static final String INSERT_STUDENT = "insert into student " +
+            "(firstname, lastname, grade_level, email, birthdate) values (?, ?, ?, ?, ?)";
+    private static final String INSERT_TEACHER = "insert into teacher " +
+            "(firstname, lastname, email, birthdate) values (?, ?, ?, ?)";
+    private static final String INSERT_SUBJECT = "insert into subject (name, teacher_id) values (?, ?)";
+    private static final String INSERT_ENROLLMENT = "insert into subject_students (subject_id, students_id) values (?, ?)";
+    private static final String INSERT_ASSIGNMENT = "insert into assignment " +
+            "(name, type, deadline, subject_id) values (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StudentRepository studentRepository;
+    private final SubjectRepository subjectRepository;
+    private final AssignmentRepository assignmentRepository;
+    private final GradebookEntryRepository gradebookEntryRepository;
+    private final GradeStatisticsService gradeStatisticsService;
+
+    public DatasetSummary generate(long seed, int entryCount) {
+        Random random = new Random(seed);
+        Checksum checksum = new Checksum();
+
+        int studentCount = Math.max(MIN_STUDENTS, (entryCount + ENTRIES_PER_STUDENT - 1) / ENTRIES_PER_STUDENT);
+        List<Object[]> students = new ArrayList<>(studentCount);
+        List<List<Integer>> studentsOfGradeLevels = new ArrayList<>();
+        for (int level = 0; level < GRADE_LEVELS; level++) studentsOfGradeLevels.add(new ArrayList<>());
+        for (int student = 0; student < studentCount; student++) {
+            int gradeLevel = 1 + random.nextInt(GRADE_LEVELS);
+            String firstname = FIRSTNAMES[random.nextInt(FIRSTNAMES.length)];
+            String lastname = LASTNAMES[random.nextInt(LASTNAMES.length)];
+            LocalDate birthdate = LocalDate.of(2020 - 6 - gradeLevel, 1, 1).plusDays(random.nextInt(365));
+            students.add(new Object[]{firstname, lastname, gradeLevel, emailOf(firstname, lastname, student),
+                    Date.valueOf(birthdate)});
+            studentsOfGradeLevels.get(gradeLevel - 1).add(student);
+            checksum.add(firstname, lastname, gradeLevel, birthdate.toEpochDay());
+        }
+        List<Long> studentIds = insert("student", INSERT_STUDENT, students);
+
+        int teacherCount = Math.max(1, studentCount / STUDENTS_PER_TEACHER);
+        List<Object[]> teachers = new ArrayList<>(teacherCount);
+        for (int teacher = 0; teacher < teacherCount; teacher++) {
+            String firstname = FIRSTNAMES[random.nextInt(FIRSTNAMES.length)];
+            String lastname = LASTNAMES[random.nextInt(LASTNAMES.length)];
+            LocalDate birthdate = LocalDate.of(1960, 1, 1).plusDays(random.nextInt(35 * 365));
+            teachers.add(new Object[]{firstname, lastname, emailOf(firstname, lastname, teacher), Date.valueOf(birthdate)});
+            checksum.add(firstname, lastname, birthdate.toEpochDay());
+        }
+        List<Long> teacherIds = insert("teacher", INSERT_TEACHER, teachers);
+
+        // the subjects of each grade level, each taken by students of the level only
+        WeightedSampler teacherSampler = WeightedSampler.zipf(teacherCount, 0.5);
+        List<Object[]> subjects = new ArrayList<>();
+        List<List<Integer>> rosters = new ArrayList<>();
+        for (int level = 0; level < GRADE_LEVELS; level++) {
+            List<Integer> studentsOfGradeLevel = studentsOfGradeLevels.get(level);
+            if (studentsOfGradeLevel.isEmpty()) continue;
+
+            int averageSubjectsPerStudent = (MIN_SUBJECTS_PER_STUDENT + MAX_SUBJECTS_PER_STUDENT) / 2;
+            int subjectCount = Math.max(MAX_SUBJECTS_PER_STUDENT,
+                    studentsOfGradeLevel.size() * averageSubjectsPerStudent / AVERAGE_ROSTER_SIZE);
+            int firstSubject = subjects.size();
+            for (int subject = 0; subject < subjectCount; subject++) {
+                // e.g. Algebra 9/2, the second algebra class of the 9th grade
+                String name = SUBJECT_NAMES[subject % SUBJECT_NAMES.length]
+                        + " " + (level + 1) + "/" + (subject / SUBJECT_NAMES.length + 1);
+                int teacher = teacherSampler.next(random);
+                subjects.add(new Object[]{name, teacherIds.get(teacher)});
+                rosters.add(new ArrayList<>());
+                checksum.add(name, teacher);
+            }
+
+            WeightedSampler subjectSampler = WeightedSampler.zipf(subjectCount, 1);
+            for (int student : studentsOfGradeLevel) {
+                int subjectsOfStudent = MIN_SUBJECTS_PER_STUDENT
+                        + random.nextInt(MAX_SUBJECTS_PER_STUDENT - MIN_SUBJECTS_PER_STUDENT + 1);
+                Set<Integer> chosen = new TreeSet<>();
+                while (chosen.size() < subjectsOfStudent) chosen.add(subjectSampler.next(random));
+                for (int subject : chosen) {
+                    rosters.get(firstSubject + subject).add(student);
+                    checksum.add(student, firstSubject + subject);
+                }
+            }
+        }
+        List<Long> subjectIds = insert("subject", INSERT_SUBJECT, subjects);
+
+        List<Object[]> enrollments = new ArrayList<>();
+        for (int subject = 0; subject < rosters.size(); subject++)
+            for (int student : rosters.get(subject))
+                enrollments.add(new Object[]{subjectIds.get(subject), studentIds.get(student)});
+        insertInBatches(INSERT_ENROLLMENT, enrollments);
+
+        WeightedSampler typeSampler = new WeightedSampler(ASSIGNMENT_TYPE_WEIGHTS);
+        List<Object[]> assignments = new ArrayList<>();
+        List<Integer> assignmentCounts = new ArrayList<>();
+        for (int subject = 0; subject < subjects.size(); subject++) {
+            int assignmentCount = MIN_ASSIGNMENTS_PER_SUBJECT
+                    + random.nextInt(MAX_ASSIGNMENTS_PER_SUBJECT - MIN_ASSIGNMENTS_PER_SUBJECT + 1);
+            for (int assignment = 0; assignment < assignmentCount; assignment++) {
+                AssignmentType type = AssignmentType.values()[typeSampler.next(random)];
+                String name = nameOf(type) + " " + (assignment + 1);
+                LocalDate deadline = LocalDate.of(2021, 9, 1).plusDays(random.nextInt(300));
+                assignments.add(new Object[]{name, type.name(), Date.valueOf(deadline), subjectIds.get(subject)});
+                checksum.add(name, deadline.toEpochDay());
+            }
+            assignmentCounts.add(assignmentCount);
+        }
+        List<Long> assignmentIds = insert("assignment", INSERT_ASSIGNMENT, assignments);
+
+        WeightedSampler gradeSampler = new WeightedSampler(GRADE_WEIGHTS);
+        int entriesLeft = entryCount;
+        int firstAssignment = 0;
+        for (int subject = 0; subject < subjects.size() && entriesLeft > 0; subject++) {
+            // student, assignment and grade of each entry of the subject
+            List<int[]> entries = new ArrayList<>();
+            for (int assignment = firstAssignment; assignment < firstAssignment + assignmentCounts.get(subject); assignment++) {
+                for (int student : rosters.get(subject)) {
+                    if (entries.size() == entriesLeft || random.nextDouble() >= GRADED_RATIO) continue;
+
+                    int grade = gradeSampler.next(random) + 1;
+                    entries.add(new int[]{student, assignment, grade});
+                    checksum.add(student, subject, assignment, grade);
+                }
+            }
+            long subjectId = subjectIds.get(subject);
+            for (List<int[]> batch : Lists.partition(entries, BATCH_SIZE)) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    List<GradebookEntry> entriesOfBatch = new ArrayList<>(batch.size());
+                    for (int[] entry : batch) {
+                        entriesOfBatch.add(GradebookEntry.builder()
+                                .student(studentRepository.getById(studentIds.get(entry[0])))
+                                .subject(subjectRepository.getById(subjectId))
+                                .assignment(assignmentRepository.getById(assignmentIds.get(entry[1])))
+                                .grade(entry[2])
+                                .build());
+                    }
+                    gradebookEntryRepository.saveAll(entriesOfBatch);
+                    gradeStatisticsService.update(List.of(), entriesOfBatch);
+                });
+            }
+            entriesLeft -= entries.size();
+            firstAssignment += assignmentCounts.get(subject);
+        }
+
+        return DatasetSummary.builder()
+                .students(studentCount)
+                .teachers(teacherCount)
+                .subjects(subjects.size())
+                .enrollments(enrollments.size())
+                .assignments(assignments.size())
+                .entries(entryCount - entriesLeft)
+                .checksum(checksum.getValue())
+                .build();
+    }
+
+    /**
+     * Inserts the rows in batches, and returns their IDs in the order of the rows
+     */
+    private List<Long> insert(String table, String insert, List<Object[]> rows) {
+        Long lastIdBefore = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+        insertInBatches(insert, rows);
+
+        // the generated keys of a batch are not returned by every driver, the rows are the ones after the last ID
+        return jdbcTemplate.queryForList("select id from " + table + " where id > ? order by id", Long.class, lastIdBefore);
+    }
+
+    private void insertInBatches(String insert, List<Object[]> rows) {
+        for (List<Object[]> batch : Lists.partition(rows, BATCH_SIZE))
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(insert, batch));
+    }
+
+    private String emailOf(String firstname, String lastname, int index) {
+        return (firstname + lastname + index + "@email.com").toLowerCase();
+    }
+
+    private String nameOf(AssignmentType type) {
+        String name = type.name();
+        return name.charAt(0) + name.substring(1).toLowerCase();
+    }
+
+    /**
+     * Draws indexes with the given relative weights
+     */
+    private static final class WeightedSampler {
+        private final double[] cumulativeWeights;
+
+        WeightedSampler(double[] weights) {
+            cumulativeWeights = new double[weights.length];
+            double sum = 0;
+            for (int i = 0; i < weights.length; i++) {
+                sum += weights[i];
+                cumulativeWeights[i] = sum;
+            }
+        }
+
+        /**
+         * The weight of the index i is 1 / (i + 1)^exponent, so the first indexes are drawn the most often
+         */
+        static WeightedSampler zipf(int size, double exponent) {
+            double[] weights = new double[size];
+            for (int i = 0; i < size; i++) weights[i] = 1 / Math.pow(i + 1, exponent);
+            return new WeightedSampler(weights);
+        }
+
+        int next(Random random) {
+            double value = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+            int index = Arrays.binarySearch(cumulativeWeights, value);
+            return Math.min(index < 0 ? -index - 1 : index + 1, cumulativeWeights.length - 1);
+        }
+    }
+
+    /**
+     * A hash of the generated values, equal for the datasets generated from the same seed
+     */
+    private static final class Checksum {
+        private long value = 17;
+
+        void add(Object... values) {
+            for (Object v : values) value = 31 * value + v.hashCode();
+        }
+
+        long getValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.vasvari.gradebookapi.dataset;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generates a dataset at startup with the dataset profile, e.g.
+ * <pre>
+ * java -jar gradebook-api.jar --spring.profiles.active=dataset --dataset.entries=100000 --dataset.seed=42
+ * </pre>
+ * The application keeps running with the generated data, unless it is started without the web server by
+ * {@code --spring.main.web-application-type=none}.
+ */
+@Slf4j
+@Component
+@Profile("dataset")
+public class DatasetGeneratorRunner implements ApplicationRunner {
+    private final DatasetGenerator generator;
+    private final long seed;
+    private final int entries;
+
+    public DatasetGeneratorRunner(DatasetGenerator generator,
+                                  @Value("${dataset.seed:42}") long seed,
+                                  @Value("${dataset.entries:10000}") int entries) {
+        this.generator = generator;
+        this.seed = seed;
+        this.entries = entries;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("Generating dataset of {} gradebook entries with seed {}", entries, seed);
+        long start = System.nanoTime();
+        DatasetSummary summary = generator.generate(seed, entries);
+        log.info("Generated dataset in {} ms: {}", (System.nanoTime() - start) / 1_000_000, summary);
+    }
+}
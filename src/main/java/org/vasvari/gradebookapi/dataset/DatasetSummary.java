@@ -0,0 +1,20 @@
+package org.vasvari.gradebookapi.dataset;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * The number of rows generated by {@link DatasetGenerator}, and the checksum of the generated values, which is the
+ * same for every dataset generated from the same seed
+ */
+@Value
+@Builder
+public class DatasetSummary {
+    int students;
+    int teachers;
+    int subjects;
+    int enrollments;
+    int assignments;
+    int entries;
+    long checksum;
+}
@@ -0,0 +1,53 @@
+package org.vasvari.gradebookapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import org.vasvari.gradebookapi.security.ApplicationUserRole;
+
+import javax.validation.constraints.*;
+import java.util.List;
+
+/**
+ * Creates accounts either for the listed students or teachers, or for every student of a grade level
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+@EqualsAndHashCode
+public class AccountBatchInput {
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    @NotNull(message = "Role cannot be empty")
+    @Schema(example = "STUDENT")
+    private ApplicationUserRole role;
+
+    @Size(max = MAX_BATCH_SIZE, message = "At most " + MAX_BATCH_SIZE + " accounts can be created at once")
+    private List<@NotNull Long> schoolActorIds;
+
+    @Min(value = 1, message = "Grade level must be between 1-12")
+    @Max(value = 12, message = "Grade level must be between 1-12")
+    @Schema(example = "9")
+    private Integer gradeLevel;
+
+    @JsonIgnore
+    @AssertTrue(message = "Accounts can only be created in bulk for students and teachers")
+    public boolean isRoleStudentOrTeacher() {
+        return role != ApplicationUserRole.ADMIN;
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "Either IDs or a grade level has to be given")
+    public boolean isSchoolActorIdsOrGradeLevelGiven() {
+        boolean schoolActorIdsGiven = schoolActorIds != null && !schoolActorIds.isEmpty();
+        return schoolActorIdsGiven != (gradeLevel != null);
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "Grade level can only be given for students")
+    public boolean isGradeLevelGivenForStudents() {
+        return gradeLevel == null || role == ApplicationUserRole.STUDENT;
+    }
+}
@@ -2,6 +2,7 @@ package org.vasvari.gradebookapi.dto;
 
 import org.vasvari.gradebookapi.dto.simpleTypes.SimpleData;
 import org.vasvari.gradebookapi.model.AssignmentType;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateDeserializer;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -36,4 +37,9 @@ public class AssignmentOutput {
 
     private SimpleData subject;
 
+    // sent as the ETag of the responses instead of in their body, see EntityTags
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private Long version;
+
 }
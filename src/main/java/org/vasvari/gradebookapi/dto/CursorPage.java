@@ -0,0 +1,27 @@
+package org.vasvari.gradebookapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.vasvari.gradebookapi.dto.simpleTypes.Cursor;
+
+import java.util.List;
+
+/**
+ * A slice of an ID-ordered result set along with the cursors pointing to the neighbouring slices.
+ * A cursor is null if there is no slice in that direction.
+ */
+@AllArgsConstructor
+@Getter
+public class CursorPage<T> {
+    private final List<T> content;
+    private final Cursor next;
+    private final Cursor previous;
+
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    public boolean hasPrevious() {
+        return previous != null;
+    }
+}
@@ -0,0 +1,44 @@
+package org.vasvari.gradebookapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import javax.validation.constraints.*;
+import java.util.List;
+
+/**
+ * Enrolls or unenrolls either the listed students or every student of a grade level
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+@EqualsAndHashCode
+public class EnrollmentBatchInput {
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    public enum Action {
+        ENROLL, UNENROLL
+    }
+
+    @NotNull(message = "Action cannot be empty")
+    @Schema(example = "ENROLL")
+    private Action action;
+
+    @Size(max = MAX_BATCH_SIZE, message = "At most " + MAX_BATCH_SIZE + " students can be enrolled at once")
+    private List<@NotNull Long> studentIds;
+
+    @Min(value = 1, message = "Grade level must be between 1-12")
+    @Max(value = 12, message = "Grade level must be between 1-12")
+    @Schema(example = "11")
+    private Integer gradeLevel;
+
+    @JsonIgnore
+    @AssertTrue(message = "Either student IDs or a grade level has to be given")
+    public boolean isStudentIdsOrGradeLevelGiven() {
+        boolean studentIdsGiven = studentIds != null && !studentIds.isEmpty();
+        return studentIdsGiven != (gradeLevel != null);
+    }
+}
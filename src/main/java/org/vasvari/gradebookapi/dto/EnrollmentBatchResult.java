@@ -0,0 +1,25 @@
+package org.vasvari.gradebookapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+/**
+ * The outcome of a bulk enrollment, counting only the students whose enrollment actually changed
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+@EqualsAndHashCode
+public class EnrollmentBatchResult {
+
+    @Schema(example = "1")
+    private Long subjectId;
+
+    @Schema(example = "ENROLL")
+    private EnrollmentBatchInput.Action action;
+
+    @Schema(example = "25")
+    private Integer studentsAffected;
+}
@@ -0,0 +1,37 @@
+package org.vasvari.gradebookapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import org.springframework.hateoas.server.core.Relation;
+
+import java.util.Map;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+@EqualsAndHashCode
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Relation(collectionRelation = "statistics", itemRelation = "statistics")
+public class GradeStatisticsOutput {
+
+    @Schema(example = "1")
+    private Long studentId;
+
+    @Schema(example = "1")
+    private Long subjectId;
+
+    @Schema(example = "1")
+    private Long assignmentId;
+
+    @Schema(example = "4")
+    private int count;
+
+    @Schema(example = "3.75")
+    private Double average;
+
+    @Schema(example = "{\"1\": 0, \"2\": 1, \"3\": 0, \"4\": 2, \"5\": 1}")
+    private Map<Integer, Integer> distribution;
+}
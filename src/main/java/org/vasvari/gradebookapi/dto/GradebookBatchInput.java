@@ -0,0 +1,42 @@
+package org.vasvari.gradebookapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import org.vasvari.gradebookapi.dto.simpleTypes.StudentGrade;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+@EqualsAndHashCode
+public class GradebookBatchInput {
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    @NotNull(message = "Subject ID cannot be empty")
+    @Schema(example = "1")
+    private Long subjectId;
+
+    @NotNull(message = "Assignment ID cannot be empty")
+    @Schema(example = "1")
+    private Long assignmentId;
+
+    @NotEmpty(message = "Grades cannot be empty")
+    @Size(max = MAX_BATCH_SIZE, message = "At most " + MAX_BATCH_SIZE + " grades can be submitted at once")
+    private List<@Valid @NotNull StudentGrade> grades;
+
+    public GradebookInput toGradebookInput(StudentGrade studentGrade) {
+        return GradebookInput.builder()
+                .studentId(studentGrade.getStudentId())
+                .subjectId(subjectId)
+                .assignmentId(assignmentId)
+                .grade(studentGrade.getGrade())
+                .build();
+    }
+}
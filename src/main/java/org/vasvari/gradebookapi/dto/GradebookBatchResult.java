@@ -0,0 +1,35 @@
+package org.vasvari.gradebookapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import org.springframework.hateoas.server.core.Relation;
+
+/**
+ * The outcome of one item of a batch grade submission
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+@EqualsAndHashCode
+@Relation(collectionRelation = "results", itemRelation = "result")
+public class GradebookBatchResult {
+
+    public enum Status {
+        CREATED, STUDENT_NOT_FOUND, NOT_ENROLLED, DUPLICATE
+    }
+
+    @Schema(example = "0")
+    private Integer index;
+
+    @Schema(example = "1")
+    private Long studentId;
+
+    @Schema(example = "CREATED")
+    private Status status;
+
+    private String message;
+
+    private GradebookOutput entry;
+}
@@ -2,6 +2,7 @@ package org.vasvari.gradebookapi.dto;
 
 import org.vasvari.gradebookapi.dto.simpleTypes.SimpleData;
 import org.vasvari.gradebookapi.dto.simpleTypes.SimpleStudent;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.*;
 import org.springframework.hateoas.server.core.Relation;
@@ -25,4 +26,22 @@ public class GradebookOutput {
     private SimpleData assignment;
 
     private Integer grade;
+
+    // sent as the ETag of the responses instead of in their body, see EntityTags
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private Long version;
+
+    /**
+     * Used by the projection queries, which select the columns of the output in one query instead of loading entries
+     */
+    public GradebookOutput(Long id, Long studentId, String studentFirstname, String studentLastname,
+                           Long subjectId, String subjectName, Long assignmentId, String assignmentName, Integer grade) {
+        this(id,
+                new SimpleStudent(studentId, studentFirstname, studentLastname),
+                new SimpleData(subjectId, subjectName),
+                new SimpleData(assignmentId, assignmentName),
+                grade,
+                null);
+    }
 }
@@ -57,6 +57,11 @@ public class StudentDto {
     @JsonDeserialize(using = LocalDateDeserializer.class)
     private LocalDate birthdate;
 
+    // sent as the ETag of the responses instead of in their body, see EntityTags
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private Long version;
+
     @JsonIgnore
     public String getName() {
         return firstname + " " + lastname;
@@ -2,6 +2,7 @@ package org.vasvari.gradebookapi.dto;
 
 import org.vasvari.gradebookapi.dto.simpleTypes.SimpleStudent;
 import org.vasvari.gradebookapi.dto.simpleTypes.SimpleTeacher;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.*;
 import org.springframework.hateoas.server.core.Relation;
@@ -26,4 +27,9 @@ public class SubjectOutput {
 
     private List<SimpleStudent> students;
 
+    // sent as the ETag of the responses instead of in their body, see EntityTags
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private Long version;
+
 }
@@ -0,0 +1,18 @@
+package org.vasvari.gradebookapi.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+@EqualsAndHashCode
+public class SubjectStatisticsOutput {
+
+    private GradeStatisticsOutput subject;
+
+    private List<GradeStatisticsOutput> assignments;
+}
@@ -51,6 +51,11 @@ public class TeacherDto {
     @JsonDeserialize(using = LocalDateDeserializer.class)
     private LocalDate birthdate;
 
+    // sent as the ETag of the responses instead of in their body, see EntityTags
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private Long version;
+
     @JsonIgnore
     public String getName() {
         return firstname + " " + lastname;
@@ -4,27 +4,40 @@ import org.vasvari.gradebookapi.controller.AssignmentController;
 import org.vasvari.gradebookapi.dto.AssignmentOutput;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.LinkRelation;
 import org.springframework.hateoas.server.RepresentationModelAssembler;
 import org.springframework.stereotype.Component;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
 @Component
 public class AssignmentModelAssembler implements RepresentationModelAssembler<AssignmentOutput, EntityModel<AssignmentOutput>> {
+    private final LinkTemplate assignmentLink = LinkTemplate.of(methodOn(AssignmentController.class).getById(null));
+    private final LinkTemplate assignmentsLink = LinkTemplate.of(methodOn(AssignmentController.class).getAll());
 
     @Override
     public EntityModel<AssignmentOutput> toModel(AssignmentOutput assignment) {
+        return toModel(assignment, LinkTemplate.currentBaseUri());
+    }
+
+    private EntityModel<AssignmentOutput> toModel(AssignmentOutput assignment, String baseUri) {
         return EntityModel.of(assignment,
-                linkTo(methodOn(AssignmentController.class).getById(assignment.getId())).withSelfRel(),
-                linkTo(methodOn(AssignmentController.class).getAll()).withRel("assignments"));
+                assignmentLink.link(baseUri, assignment.getId(), IanaLinkRelations.SELF),
+                assignmentsLink.link(baseUri, LinkRelation.of("assignments")));
     }
 
     @Override
     public CollectionModel<EntityModel<AssignmentOutput>> toCollectionModel(Iterable<? extends AssignmentOutput> entities) {
-        CollectionModel<EntityModel<AssignmentOutput>> assignments = RepresentationModelAssembler.super.toCollectionModel(entities);
+        String baseUri = LinkTemplate.currentBaseUri();
+        CollectionModel<EntityModel<AssignmentOutput>> assignments = StreamSupport.stream(entities.spliterator(), false)
+                .map(entity -> toModel(entity, baseUri))
+                .collect(Collectors.collectingAndThen(Collectors.toList(), CollectionModel::of));
 
-        assignments.add(linkTo(methodOn(AssignmentController.class).getAll()).withSelfRel());
+        assignments.add(assignmentsLink.link(baseUri, IanaLinkRelations.SELF));
 
         return assignments;
     }
@@ -7,30 +7,46 @@ import org.vasvari.gradebookapi.controller.StudentController;
 import org.vasvari.gradebookapi.dto.GradebookOutput;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.LinkRelation;
 import org.springframework.hateoas.server.RepresentationModelAssembler;
 import org.springframework.stereotype.Component;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
 @Component
 public class GradebookModelAssembler implements RepresentationModelAssembler<GradebookOutput, EntityModel<GradebookOutput>> {
+    private final LinkTemplate entryLink = LinkTemplate.of(methodOn(GradebookController.class).getById(null));
+    private final LinkTemplate studentLink = LinkTemplate.of(methodOn(StudentController.class).getById(null));
+    private final LinkTemplate subjectLink = LinkTemplate.of(methodOn(SubjectController.class).getById(null));
+    private final LinkTemplate assignmentLink = LinkTemplate.of(methodOn(AssignmentController.class).getById(null));
+    private final LinkTemplate entriesLink = LinkTemplate.of(methodOn(GradebookController.class).getAll(null, null));
 
     @Override
     public EntityModel<GradebookOutput> toModel(GradebookOutput entry) {
+        return toModel(entry, LinkTemplate.currentBaseUri());
+    }
+
+    private EntityModel<GradebookOutput> toModel(GradebookOutput entry, String baseUri) {
         return EntityModel.of(entry,
-                linkTo(methodOn(GradebookController.class).getById(entry.getId())).withSelfRel(),
-                linkTo(methodOn(StudentController.class).getById(entry.getStudent().getId())).withRel("student"),
-                linkTo(methodOn(SubjectController.class).getById(entry.getSubject().getId())).withRel("subject"),
-                linkTo(methodOn(AssignmentController.class).getById(entry.getAssignment().getId())).withRel("assignment"),
-                linkTo(methodOn(GradebookController.class).getAll()).withRel("entries"));
+                entryLink.link(baseUri, entry.getId(), IanaLinkRelations.SELF),
+                studentLink.link(baseUri, entry.getStudent().getId(), LinkRelation.of("student")),
+                subjectLink.link(baseUri, entry.getSubject().getId(), LinkRelation.of("subject")),
+                assignmentLink.link(baseUri, entry.getAssignment().getId(), LinkRelation.of("assignment")),
+                entriesLink.link(baseUri, LinkRelation.of("entries")));
     }
 
     @Override
     public CollectionModel<EntityModel<GradebookOutput>> toCollectionModel(Iterable<? extends GradebookOutput> entities) {
-        CollectionModel<EntityModel<GradebookOutput>> entries = RepresentationModelAssembler.super.toCollectionModel(entities);
+        String baseUri = LinkTemplate.currentBaseUri();
+        CollectionModel<EntityModel<GradebookOutput>> entries = StreamSupport.stream(entities.spliterator(), false)
+                .map(entity -> toModel(entity, baseUri))
+                .collect(Collectors.collectingAndThen(Collectors.toList(), CollectionModel::of));
 
-        entries.add(linkTo(methodOn(GradebookController.class).getAll()).withSelfRel());
+        entries.add(entriesLink.link(baseUri, IanaLinkRelations.SELF));
 
         return entries;
     }
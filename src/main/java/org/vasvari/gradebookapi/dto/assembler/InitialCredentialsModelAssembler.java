@@ -4,26 +4,40 @@ import org.vasvari.gradebookapi.controller.UserController;
 import org.vasvari.gradebookapi.dto.simpleTypes.InitialCredentials;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.LinkRelation;
 import org.springframework.hateoas.server.RepresentationModelAssembler;
 import org.springframework.stereotype.Component;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
 @Component
 public class InitialCredentialsModelAssembler implements RepresentationModelAssembler<InitialCredentials, EntityModel<InitialCredentials>> {
+    private final LinkTemplate credentialsLink = LinkTemplate.of(methodOn(UserController.class).getById(null));
+    private final LinkTemplate usersLink = LinkTemplate.of(methodOn(UserController.class).getAll());
+
     @Override
     public EntityModel<InitialCredentials> toModel(InitialCredentials credentials) {
+        return toModel(credentials, LinkTemplate.currentBaseUri());
+    }
+
+    private EntityModel<InitialCredentials> toModel(InitialCredentials credentials, String baseUri) {
         return EntityModel.of(credentials,
-                linkTo(methodOn(UserController.class).getById(credentials.getUserId())).withSelfRel(),
-                linkTo(methodOn(UserController.class).getAll()).withRel("users"));
+                credentialsLink.link(baseUri, credentials.getUserId(), IanaLinkRelations.SELF),
+                usersLink.link(baseUri, LinkRelation.of("users")));
     }
 
     @Override
     public CollectionModel<EntityModel<InitialCredentials>> toCollectionModel(Iterable<? extends InitialCredentials> entities) {
-        CollectionModel<EntityModel<InitialCredentials>> credentials = RepresentationModelAssembler.super.toCollectionModel(entities);
+        String baseUri = LinkTemplate.currentBaseUri();
+        CollectionModel<EntityModel<InitialCredentials>> credentials = StreamSupport.stream(entities.spliterator(), false)
+                .map(entity -> toModel(entity, baseUri))
+                .collect(Collectors.collectingAndThen(Collectors.toList(), CollectionModel::of));
 
-        credentials.add(linkTo(methodOn(UserController.class).getAll()).withSelfRel());
+        credentials.add(usersLink.link(baseUri, IanaLinkRelations.SELF));
 
         return credentials;
     }
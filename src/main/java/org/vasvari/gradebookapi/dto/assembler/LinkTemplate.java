@@ -0,0 +1,65 @@
+package org.vasvari.gradebookapi.dto.assembler;
+
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.hateoas.server.core.AnnotationMappingDiscoverer;
+import org.springframework.hateoas.server.core.DummyInvocationUtils;
+import org.springframework.hateoas.server.core.MappingDiscoverer;
+import org.springframework.hateoas.server.core.MethodInvocation;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * The path of a controller method, resolved once from its mappings, so a link to the method costs a string
+ * concatenation instead of the proxy invocation and the reflective URI building of {@code linkTo(methodOn(...))}.
+ * The links start with the base URI of the current request, as the links of {@code linkTo}, which the assemblers
+ * look up once per model or collection.
+ * <p>
+ * The path may have a single variable, e.g. {@code /api/students/{id}}, the request parameters of the method are
+ * left out.
+ */
+public final class LinkTemplate {
+    private static final MappingDiscoverer MAPPING_DISCOVERER = new AnnotationMappingDiscoverer(RequestMapping.class);
+
+    // the path before and after its variable, the whole path in prefix if it has no variable
+    private final String prefix;
+    private final String suffix;
+
+    private LinkTemplate(String path) {
+        int variableStart = path.indexOf('{');
+        if (variableStart < 0) {
+            prefix = path;
+            suffix = "";
+        } else {
+            int variableEnd = path.indexOf('}', variableStart);
+            if (path.indexOf('{', variableEnd) >= 0)
+                throw new IllegalArgumentException("Only paths with a single variable are supported: " + path);
+            prefix = path.substring(0, variableStart);
+            suffix = path.substring(variableEnd + 1);
+        }
+    }
+
+    /**
+     * Resolves the path of the controller method invoked on a proxy, e.g.
+     * {@code LinkTemplate.of(methodOn(StudentController.class).getById(null))}
+     */
+    public static LinkTemplate of(Object invocationValue) {
+        MethodInvocation invocation = DummyInvocationUtils.getLastInvocationAware(invocationValue).getLastInvocation();
+        return new LinkTemplate(MAPPING_DISCOVERER.getMapping(invocation.getTargetType(), invocation.getMethod()));
+    }
+
+    /**
+     * @return the base URI of the current request, including its context path and servlet mapping
+     */
+    public static String currentBaseUri() {
+        return ServletUriComponentsBuilder.fromCurrentServletMapping().toUriString();
+    }
+
+    public Link link(String baseUri, LinkRelation relation) {
+        return Link.of(baseUri + prefix, relation);
+    }
+
+    public Link link(String baseUri, Object variable, LinkRelation relation) {
+        return Link.of(baseUri + prefix + variable + suffix, relation);
+    }
+}
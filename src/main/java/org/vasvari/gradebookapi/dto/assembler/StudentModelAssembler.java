@@ -4,27 +4,40 @@ import org.vasvari.gradebookapi.controller.StudentController;
 import org.vasvari.gradebookapi.dto.StudentDto;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.LinkRelation;
 import org.springframework.hateoas.server.RepresentationModelAssembler;
 import org.springframework.stereotype.Component;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
 @Component
 public class StudentModelAssembler implements RepresentationModelAssembler<StudentDto, EntityModel<StudentDto>> {
+    private final LinkTemplate studentLink = LinkTemplate.of(methodOn(StudentController.class).getById(null));
+    private final LinkTemplate studentsLink = LinkTemplate.of(methodOn(StudentController.class).getAll());
 
     @Override
     public EntityModel<StudentDto> toModel(StudentDto student) {
+        return toModel(student, LinkTemplate.currentBaseUri());
+    }
+
+    private EntityModel<StudentDto> toModel(StudentDto student, String baseUri) {
         return EntityModel.of(student,
-                linkTo(methodOn(StudentController.class).getById(student.getId())).withSelfRel(),
-                linkTo(methodOn(StudentController.class).getAll()).withRel("students"));
+                studentLink.link(baseUri, student.getId(), IanaLinkRelations.SELF),
+                studentsLink.link(baseUri, LinkRelation.of("students")));
     }
 
     @Override
     public CollectionModel<EntityModel<StudentDto>> toCollectionModel(Iterable<? extends StudentDto> entities) {
-        CollectionModel<EntityModel<StudentDto>> students = RepresentationModelAssembler.super.toCollectionModel(entities);
+        String baseUri = LinkTemplate.currentBaseUri();
+        CollectionModel<EntityModel<StudentDto>> students = StreamSupport.stream(entities.spliterator(), false)
+                .map(entity -> toModel(entity, baseUri))
+                .collect(Collectors.collectingAndThen(Collectors.toList(), CollectionModel::of));
 
-        students.add(linkTo(methodOn(StudentController.class).getAll()).withSelfRel());
+        students.add(studentsLink.link(baseUri, IanaLinkRelations.SELF));
 
         return students;
     }
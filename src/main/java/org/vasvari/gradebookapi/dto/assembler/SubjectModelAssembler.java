@@ -4,29 +4,41 @@ import org.vasvari.gradebookapi.controller.SubjectController;
 import org.vasvari.gradebookapi.dto.SubjectOutput;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.LinkRelation;
 import org.springframework.hateoas.server.RepresentationModelAssembler;
 import org.springframework.stereotype.Component;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
 @Component
 public class SubjectModelAssembler implements RepresentationModelAssembler<SubjectOutput, EntityModel<SubjectOutput>> {
+    private final LinkTemplate subjectLink = LinkTemplate.of(methodOn(SubjectController.class).getById(null));
+    private final LinkTemplate subjectsLink = LinkTemplate.of(methodOn(SubjectController.class).getAll());
 
     @Override
     public EntityModel<SubjectOutput> toModel(SubjectOutput subject) {
+        return toModel(subject, LinkTemplate.currentBaseUri());
+    }
+
+    private EntityModel<SubjectOutput> toModel(SubjectOutput subject, String baseUri) {
         return EntityModel.of(subject,
-                linkTo(methodOn(SubjectController.class).getById(subject.getId())).withSelfRel(),
-                linkTo(methodOn(SubjectController.class).getAll()).withRel("subjects"));
+                subjectLink.link(baseUri, subject.getId(), IanaLinkRelations.SELF),
+                subjectsLink.link(baseUri, LinkRelation.of("subjects")));
     }
 
     @Override
     public CollectionModel<EntityModel<SubjectOutput>> toCollectionModel(Iterable<? extends SubjectOutput> entities) {
-        CollectionModel<EntityModel<SubjectOutput>> classes = RepresentationModelAssembler.super.toCollectionModel(entities);
+        String baseUri = LinkTemplate.currentBaseUri();
+        CollectionModel<EntityModel<SubjectOutput>> classes = StreamSupport.stream(entities.spliterator(), false)
+                .map(entity -> toModel(entity, baseUri))
+                .collect(Collectors.collectingAndThen(Collectors.toList(), CollectionModel::of));
 
-        classes.add(linkTo(methodOn(SubjectController.class).getAll()).withSelfRel());
+        classes.add(subjectsLink.link(baseUri, IanaLinkRelations.SELF));
 
         return classes;
     }
 }
-
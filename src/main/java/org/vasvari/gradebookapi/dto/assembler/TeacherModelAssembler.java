@@ -4,26 +4,40 @@ import org.vasvari.gradebookapi.controller.TeacherController;
 import org.vasvari.gradebookapi.dto.TeacherDto;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.LinkRelation;
 import org.springframework.hateoas.server.RepresentationModelAssembler;
 import org.springframework.stereotype.Component;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
 @Component
 public class TeacherModelAssembler implements RepresentationModelAssembler<TeacherDto, EntityModel<TeacherDto>> {
+    private final LinkTemplate teacherLink = LinkTemplate.of(methodOn(TeacherController.class).getById(null));
+    private final LinkTemplate teachersLink = LinkTemplate.of(methodOn(TeacherController.class).getAll());
 
     @Override
     public EntityModel<TeacherDto> toModel(TeacherDto teacher) {
+        return toModel(teacher, LinkTemplate.currentBaseUri());
+    }
+
+    private EntityModel<TeacherDto> toModel(TeacherDto teacher, String baseUri) {
         return EntityModel.of(teacher,
-                linkTo(methodOn(TeacherController.class).getById(teacher.getId())).withSelfRel(),
-                linkTo(methodOn(TeacherController.class).getAll()).withRel("teachers"));
+                teacherLink.link(baseUri, teacher.getId(), IanaLinkRelations.SELF),
+                teachersLink.link(baseUri, LinkRelation.of("teachers")));
     }
 
     @Override
     public CollectionModel<EntityModel<TeacherDto>> toCollectionModel(Iterable<? extends TeacherDto> entities) {
-        CollectionModel<EntityModel<TeacherDto>> teachers = RepresentationModelAssembler.super.toCollectionModel(entities);
-        teachers.add(linkTo(methodOn(TeacherController.class).getAll()).withSelfRel());
+        String baseUri = LinkTemplate.currentBaseUri();
+        CollectionModel<EntityModel<TeacherDto>> teachers = StreamSupport.stream(entities.spliterator(), false)
+                .map(entity -> toModel(entity, baseUri))
+                .collect(Collectors.collectingAndThen(Collectors.toList(), CollectionModel::of));
+
+        teachers.add(teachersLink.link(baseUri, IanaLinkRelations.SELF));
 
         return teachers;
     }
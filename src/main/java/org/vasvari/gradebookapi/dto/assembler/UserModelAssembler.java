@@ -4,26 +4,40 @@ import org.vasvari.gradebookapi.controller.UserController;
 import org.vasvari.gradebookapi.dto.UserDto;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.LinkRelation;
 import org.springframework.hateoas.server.RepresentationModelAssembler;
 import org.springframework.stereotype.Component;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
 @Component
 public class UserModelAssembler implements RepresentationModelAssembler<UserDto, EntityModel<UserDto>> {
+    private final LinkTemplate userLink = LinkTemplate.of(methodOn(UserController.class).getById(null));
+    private final LinkTemplate usersLink = LinkTemplate.of(methodOn(UserController.class).getAll());
+
     @Override
     public EntityModel<UserDto> toModel(UserDto user) {
+        return toModel(user, LinkTemplate.currentBaseUri());
+    }
+
+    private EntityModel<UserDto> toModel(UserDto user, String baseUri) {
         return EntityModel.of(user,
-                linkTo(methodOn(UserController.class).getById(user.getId())).withSelfRel(),
-                linkTo(methodOn(UserController.class).getAll()).withRel("users"));
+                userLink.link(baseUri, user.getId(), IanaLinkRelations.SELF),
+                usersLink.link(baseUri, LinkRelation.of("users")));
     }
 
     @Override
     public CollectionModel<EntityModel<UserDto>> toCollectionModel(Iterable<? extends UserDto> entities) {
-        CollectionModel<EntityModel<UserDto>> users = RepresentationModelAssembler.super.toCollectionModel(entities);
+        String baseUri = LinkTemplate.currentBaseUri();
+        CollectionModel<EntityModel<UserDto>> users = StreamSupport.stream(entities.spliterator(), false)
+                .map(entity -> toModel(entity, baseUri))
+                .collect(Collectors.collectingAndThen(Collectors.toList(), CollectionModel::of));
 
-        users.add(linkTo(methodOn(UserController.class).getAll()).withSelfRel());
+        users.add(usersLink.link(baseUri, IanaLinkRelations.SELF));
 
         return users;
     }
@@ -0,0 +1,68 @@
+package org.vasvari.gradebookapi.dto.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.vasvari.gradebookapi.dto.GradebookOutput;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes gradebook entries to an output stream one line per entry, either as newline delimited JSON or as CSV.
+ * Nothing is kept after a line is written, so any number of entries can be written with constant memory.
+ */
+public class GradebookExportWriter {
+    private static final ObjectWriter JSON_WRITER = new ObjectMapper()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .writerFor(GradebookOutput.class);
+    private static final String CSV_HEADER =
+            "id,studentId,studentFirstname,studentLastname,subjectId,subjectName,assignmentId,assignmentName,grade";
+
+    private final Writer writer;
+    private final ExportFormat format;
+
+    public GradebookExportWriter(OutputStream outputStream, ExportFormat format) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        this.format = format;
+    }
+
+    public void writeHeader() throws IOException {
+        if (format == ExportFormat.CSV) writer.write(CSV_HEADER + "\n");
+    }
+
+    public void write(GradebookOutput entry) {
+        try {
+            if (format == ExportFormat.CSV) writeCsv(entry);
+            else JSON_WRITER.writeValue(writer, entry);
+            writer.write('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private void writeCsv(GradebookOutput entry) throws IOException {
+        writer.write(String.join(",",
+                String.valueOf(entry.getId()),
+                String.valueOf(entry.getStudent().getId()),
+                escapeCsv(entry.getStudent().getFirstname()),
+                escapeCsv(entry.getStudent().getLastname()),
+                String.valueOf(entry.getSubject().getId()),
+                escapeCsv(entry.getSubject().getName()),
+                String.valueOf(entry.getAssignment().getId()),
+                escapeCsv(entry.getAssignment().getName()),
+                String.valueOf(entry.getGrade())));
+    }
+
+    private String escapeCsv(String value) {
+        if (value == null) return "";
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r"))
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+
+        return value;
+    }
+}
@@ -0,0 +1,38 @@
+package org.vasvari.gradebookapi.dto.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.vasvari.gradebookapi.dto.simpleTypes.InitialCredentials;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes the credentials of accounts created in bulk as newline delimited JSON. Every batch is flushed once
+ * written, so the client receives the credentials while the next batch is being created.
+ */
+public class InitialCredentialsWriter {
+    private static final ObjectWriter JSON_WRITER = new ObjectMapper()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .writerFor(InitialCredentials.class);
+
+    private final Writer writer;
+
+    public InitialCredentialsWriter(OutputStream outputStream) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    }
+
+    public void write(List<InitialCredentials> batch) {
+        try {
+            for (InitialCredentials credentials : batch) {
+                JSON_WRITER.writeValue(writer, credentials);
+                writer.write('\n');
+            }
+            writer.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -38,6 +38,7 @@ public class AssignmentMapper {
                 .subject(
                         new SimpleData(assignment.getSubject().getId(), assignment.getSubject().getName())
                 )
+                .version(assignment.getVersion())
                 .build();
     }
 
@@ -0,0 +1,42 @@
+package org.vasvari.gradebookapi.dto.mapper;
+
+import org.springframework.stereotype.Component;
+import org.vasvari.gradebookapi.dto.GradeStatisticsOutput;
+import org.vasvari.gradebookapi.model.AssignmentStatistics;
+import org.vasvari.gradebookapi.model.GradeDistribution;
+import org.vasvari.gradebookapi.model.StudentSubjectStatistics;
+import org.vasvari.gradebookapi.model.SubjectStatistics;
+
+@Component
+public class GradeStatisticsMapper {
+
+    public GradeStatisticsOutput map(SubjectStatistics statistics) {
+        GradeStatisticsOutput output = map(statistics.getDistribution());
+        output.setSubjectId(statistics.getSubjectId());
+
+        return output;
+    }
+
+    public GradeStatisticsOutput map(AssignmentStatistics statistics) {
+        GradeStatisticsOutput output = map(statistics.getDistribution());
+        output.setAssignmentId(statistics.getAssignmentId());
+
+        return output;
+    }
+
+    public GradeStatisticsOutput map(StudentSubjectStatistics statistics) {
+        GradeStatisticsOutput output = map(statistics.getDistribution());
+        output.setStudentId(statistics.getStudentId());
+        output.setSubjectId(statistics.getSubjectId());
+
+        return output;
+    }
+
+    public GradeStatisticsOutput map(GradeDistribution distribution) {
+        return GradeStatisticsOutput.builder()
+                .count(distribution.getCount())
+                .average(distribution.getAverage())
+                .distribution(distribution.toMap())
+                .build();
+    }
+}
@@ -38,6 +38,7 @@ public class GradebookEntryMapper {
                         new SimpleData(gradebookEntry.getAssignment().getId(), gradebookEntry.getAssignment().getName())
                 )
                 .grade(gradebookEntry.getGrade())
+                .version(gradebookEntry.getVersion())
                 .build();
     }
 
@@ -21,6 +21,7 @@ public class StudentMapper {
                 .address(studentDto.getAddress())
                 .phone(studentDto.getPhone())
                 .birthdate(studentDto.getBirthdate())
+                .version(studentDto.getVersion())
                 .build();
     }
 
@@ -34,6 +35,7 @@ public class StudentMapper {
                 .address(student.getAddress())
                 .phone(student.getPhone())
                 .birthdate(student.getBirthdate())
+                .version(student.getVersion())
                 .build();
     }
 
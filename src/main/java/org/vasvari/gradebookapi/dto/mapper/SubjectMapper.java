@@ -26,6 +26,7 @@ public class SubjectMapper {
                                 )
                                 .collect(Collectors.toList())
                 )
+                .version(subject.getVersion())
                 .build();
 
         if (subject.getTeacher() != null) {
@@ -18,6 +18,7 @@ public class TeacherMapper {
                 .address(teacherDto.getAddress())
                 .phone(teacherDto.getPhone())
                 .birthdate(teacherDto.getBirthdate())
+                .version(teacherDto.getVersion())
                 .build();
     }
 
@@ -30,6 +31,7 @@ public class TeacherMapper {
                 .address(teacher.getAddress())
                 .phone(teacher.getPhone())
                 .birthdate(teacher.getBirthdate())
+                .version(teacher.getVersion())
                 .build();
     }
 
@@ -0,0 +1,59 @@
+package org.vasvari.gradebookapi.dto.simpleTypes;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.vasvari.gradebookapi.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in an ID-ordered result set. A cursor either points after or before the entity with the given ID,
+ * and is handed to the clients as an opaque string.
+ */
+@AllArgsConstructor
+@Getter
+@EqualsAndHashCode
+public class Cursor {
+    private static final String AFTER = "a";
+    private static final String BEFORE = "b";
+
+    private final Long id;
+    private final boolean backward;
+
+    public static Cursor after(Long id) {
+        return new Cursor(id, false);
+    }
+
+    public static Cursor before(Long id) {
+        return new Cursor(id, true);
+    }
+
+    public String encode() {
+        String raw = (backward ? BEFORE : AFTER) + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor previously created by {@link #encode()}
+     *
+     * @param encoded the opaque cursor string, may be null
+     * @return the decoded cursor, or null if no cursor was given
+     * @throws InvalidCursorException if the string is not a valid cursor
+     */
+    public static Cursor decode(String encoded) {
+        if (encoded == null || encoded.isEmpty()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 2);
+            if (parts.length != 2) throw new InvalidCursorException(encoded);
+            long id = Long.parseLong(parts[1]);
+            if (AFTER.equals(parts[0])) return after(id);
+            if (BEFORE.equals(parts[0])) return before(id);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidCursorException(encoded);
+        }
+        throw new InvalidCursorException(encoded);
+    }
+}
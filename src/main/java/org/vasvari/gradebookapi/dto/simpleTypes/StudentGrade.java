@@ -0,0 +1,27 @@
+package org.vasvari.gradebookapi.dto.simpleTypes;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+@EqualsAndHashCode
+public class StudentGrade {
+
+    @NotNull(message = "Student ID cannot be empty")
+    @Schema(example = "1")
+    private Long studentId;
+
+    @NotNull(message = "Grade field cannot be empty")
+    @Min(value = 1, message = "Grade value must be between 1-5")
+    @Max(value = 5, message = "Grade value must be between 1-5")
+    @Schema(example = "4")
+    private Integer grade;
+}
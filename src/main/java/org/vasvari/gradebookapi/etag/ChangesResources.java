@@ -0,0 +1,16 @@
+package org.vasvari.gradebookapi.etag;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method of a service writing the given resources, so their versions are bumped once it returns or
+ * throws, see {@link ResourceChangeAspect}
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ChangesResources {
+    VersionedResource[] value();
+}
@@ -0,0 +1,17 @@
+package org.vasvari.gradebookapi.etag;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a GET endpoint whose response depends only on the given resources, the request and the current user, so
+ * it is answered with an ETag, and with 304 by {@link ConditionalGetInterceptor} if the ETag of the client is still
+ * current
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConditionalGet {
+    VersionedResource[] value();
+}
@@ -0,0 +1,31 @@
+package org.vasvari.gradebookapi.etag;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Registers the {@link ResourceVersions} and the interceptor answering the conditional GET requests with them
+ */
+@Configuration
+public class ConditionalGetConfig implements WebMvcConfigurer {
+    private final ResourceVersions resourceVersions;
+
+    public ConditionalGetConfig(@Value("${resource-versions.time-to-live:60s}") Duration timeToLive) {
+        this.resourceVersions = new ResourceVersions(timeToLive);
+    }
+
+    @Bean
+    public ResourceVersions resourceVersions() {
+        return resourceVersions;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ConditionalGetInterceptor(resourceVersions));
+    }
+}
@@ -0,0 +1,39 @@
+package org.vasvari.gradebookapi.etag;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the ETag computed by {@link ConditionalGetInterceptor} to the successful responses without an ETag of their
+ * own, so the errors are not tagged
+ */
+@ControllerAdvice
+public class ConditionalGetEtagAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+                                  Class<? extends HttpMessageConverter<?>> converterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest) || !(response instanceof ServletServerHttpResponse))
+            return body;
+        Object etag = ((ServletServerHttpRequest) request).getServletRequest()
+                .getAttribute(ConditionalGetInterceptor.ETAG_ATTRIBUTE);
+        int status = ((ServletServerHttpResponse) response).getServletResponse().getStatus();
+
+        if (etag != null && status / 100 == 2 && response.getHeaders().getETag() == null)
+            response.getHeaders().setETag(etag.toString());
+        return body;
+    }
+}
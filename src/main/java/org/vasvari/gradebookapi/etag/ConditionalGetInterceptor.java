@@ -0,0 +1,46 @@
+package org.vasvari.gradebookapi.etag;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Collections;
+
+/**
+ * Computes the ETag of the responses of the endpoints marked with {@link ConditionalGet} from the
+ * {@link ResourceVersions}, and answers the requests whose If-None-Match header matches it with 304 before the
+ * endpoint runs, so the queries, the mapping and the assembly of the response are all skipped. Otherwise the ETag
+ * is added to the response by {@link ConditionalGetEtagAdvice}, unless the endpoint sets one of its own, see
+ * {@link EntityTags}.
+ */
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+    public static final String ETAG_ATTRIBUTE = ConditionalGetInterceptor.class.getName() + ".etag";
+
+    private final ResourceVersions resourceVersions;
+
+    public ConditionalGetInterceptor(ResourceVersions resourceVersions) {
+        this.resourceVersions = resourceVersions;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) return true;
+        ConditionalGet conditionalGet = ((HandlerMethod) handler).getMethodAnnotation(ConditionalGet.class);
+        if (conditionalGet == null) return true;
+
+        String etag = resourceVersions.etagOf(request, conditionalGet.value());
+        request.setAttribute(ETAG_ATTRIBUTE, etag);
+        for (String header : Collections.list(request.getHeaders(HttpHeaders.IF_NONE_MATCH))) {
+            for (String tag : header.split(",")) {
+                if (!EntityTags.matches(tag.trim(), etag)) continue;
+
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                response.setHeader(HttpHeaders.ETAG, tag.trim());
+                return false;
+            }
+        }
+        return true;
+    }
+}
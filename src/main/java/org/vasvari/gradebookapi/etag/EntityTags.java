@@ -0,0 +1,76 @@
+package org.vasvari.gradebookapi.etag;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.vasvari.gradebookapi.exception.PreconditionRequiredException;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The ETags of the versions of the entities. The ETag of a version is the version itself, e.g. "3", or in the
+ * responses tagged by {@link ConditionalGetInterceptor}, the version followed by the ETag of the response, e.g.
+ * "3-9f2c...". The ETag of the response lets a GET with the ETag be answered with 304 without loading the entity,
+ * and the version lets an update or delete with the ETag in its If-Match header check the version of the entity.
+ */
+public final class EntityTags {
+    /**
+     * The version expected by an If-Match header which is not the ETag of a version, which no entity has
+     */
+    public static final long NO_VERSION = -1;
+
+    private static final Pattern VERSION_TAG = Pattern.compile("\"(\\d{1,18})(?:-([0-9a-f]+))?\"");
+
+    private EntityTags() {
+    }
+
+    /**
+     * @return the ETag header of the version of the entity, none if the entity has no version
+     */
+    public static HttpHeaders headersOf(Long version) {
+        HttpHeaders headers = new HttpHeaders();
+        if (version != null) headers.setETag(etagOf(version));
+
+        return headers;
+    }
+
+    /**
+     * @return the ETag of the version of the entity, combined with the ETag of the current response if it has one
+     */
+    public static String etagOf(long version) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        Object responseEtag = attributes == null
+                ? null
+                : attributes.getAttribute(ConditionalGetInterceptor.ETAG_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (responseEtag == null) return "\"" + version + "\"";
+
+        return "\"" + version + "-" + responseEtag.toString().replace("\"", "") + "\"";
+    }
+
+    /**
+     * @param ifMatch the If-Match header of the request, a single strong ETag
+     * @return the version of the ETag, null if the header is *, which any version matches, or {@link #NO_VERSION}
+     * if it is not the ETag of a version
+     * @throws PreconditionRequiredException if the header is missing
+     */
+    public static Long expectedVersionOf(String ifMatch) {
+        if (ifMatch == null) throw new PreconditionRequiredException();
+        if (ifMatch.trim().equals("*")) return null;
+
+        Matcher matcher = VERSION_TAG.matcher(ifMatch.trim());
+        return matcher.matches() ? Long.valueOf(matcher.group(1)) : NO_VERSION;
+    }
+
+    /**
+     * @return whether the ETag of an If-None-Match header is the ETag of the response, or of a version in the
+     * response, compared weakly
+     */
+    static boolean matches(String tag, String responseEtag) {
+        String opaqueTag = tag.startsWith("W/") ? tag.substring(2) : tag;
+        if (opaqueTag.equals(responseEtag)) return true;
+
+        Matcher matcher = VERSION_TAG.matcher(opaqueTag);
+        return matcher.matches() && matcher.group(2) != null && responseEtag.equals("\"" + matcher.group(2) + "\"");
+    }
+}
@@ -0,0 +1,25 @@
+package org.vasvari.gradebookapi.etag;
+
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bumps the versions of the resources written by the methods marked with {@link ChangesResources}, once they return.
+ * A method throwing rolls its transaction back, the methods committing parts of their writes in transactions of their
+ * own bump the versions in those.
+ */
+@Aspect
+@Component
+public class ResourceChangeAspect {
+    private final ResourceVersions resourceVersions;
+
+    public ResourceChangeAspect(ResourceVersions resourceVersions) {
+        this.resourceVersions = resourceVersions;
+    }
+
+    @AfterReturning("@annotation(changesResources)")
+    public void bumpVersions(ChangesResources changesResources) {
+        resourceVersions.changed(changesResources.value());
+    }
+}
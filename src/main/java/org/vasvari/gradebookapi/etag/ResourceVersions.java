@@ -0,0 +1,86 @@
+package org.vasvari.gradebookapi.etag;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.springframework.http.HttpHeaders;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.servlet.http.HttpServletRequest;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A version counter of each {@link VersionedResource}, bumped by every write of the services, so the ETag of a
+ * response can be computed from the versions of the resources it was read from, without reading them.
+ * <p>
+ * The versions are bumped once the transaction writing the resources commits, so a response is never tagged
+ * with a version newer than its data, and a write rolled back changes no ETag. The counters are kept in memory, the
+ * writes of the other instances are not counted. So the ETags also include the current period of
+ * {@code resource-versions.time-to-live}, counted from the epoch: every ETag changes at the end of a period, which
+ * bounds how long a response of an instance stays current after another instance changed it, as the user details
+ * cache does, and costs a client at most one full response per period for data that did not change. The ETags of
+ * the instances differ, and so do those of the instance after a restart.
+ */
+public class ResourceVersions {
+    private final AtomicLongArray versions = new AtomicLongArray(VersionedResource.values().length);
+    private final long instance = ThreadLocalRandom.current().nextLong();
+    private final long timeToLiveMillis;
+
+    public ResourceVersions(Duration timeToLive) {
+        this.timeToLiveMillis = timeToLive.toMillis();
+    }
+
+    public long versionOf(VersionedResource resource) {
+        return versions.get(resource.ordinal());
+    }
+
+    /**
+     * Bumps the versions of the resources, once the current transaction commits if there is one
+     */
+    public void changed(VersionedResource... resources) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) bump(resources);
+                }
+            });
+        } else {
+            bump(resources);
+        }
+    }
+
+    private void bump(VersionedResource... resources) {
+        for (VersionedResource resource : resources) versions.incrementAndGet(resource.ordinal());
+    }
+
+    /**
+     * @return a strong ETag of the response to the request, read from the resources: a hash of their versions, the
+     * current period of the time to live, the URI and query of the request, the current user and the media types
+     * accepted
+     */
+    public String etagOf(HttpServletRequest request, VersionedResource... resources) {
+        Hasher hasher = Hashing.murmur3_128().newHasher()
+                .putLong(instance)
+                .putLong(System.currentTimeMillis() / timeToLiveMillis);
+        for (VersionedResource resource : resources)
+            hasher.putInt(resource.ordinal()).putLong(versionOf(resource));
+        putString(hasher, request.getRequestURI());
+        putString(hasher, request.getQueryString());
+        putString(hasher, request.getRemoteUser());
+        putString(hasher, request.getHeader(HttpHeaders.ACCEPT));
+
+        return "\"" + hasher.hash() + "\"";
+    }
+
+    // prefixed with its length, so the boundaries of the strings are part of the hash
+    private static void putString(Hasher hasher, String value) {
+        if (value == null) {
+            hasher.putInt(-1);
+        } else {
+            hasher.putInt(value.length()).putUnencodedChars(value);
+        }
+    }
+}
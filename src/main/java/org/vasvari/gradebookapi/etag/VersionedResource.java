@@ -0,0 +1,14 @@
+package org.vasvari.gradebookapi.etag;
+
+/**
+ * The resources whose changes are counted by {@link ResourceVersions}, each the rows of a table and the tables
+ * written with it, e.g. the enrollments with the subjects, or the grade statistics with the gradebook entries
+ */
+public enum VersionedResource {
+    GRADEBOOK_ENTRIES,
+    ASSIGNMENTS,
+    SUBJECTS,
+    STUDENTS,
+    TEACHERS,
+    USERS
+}
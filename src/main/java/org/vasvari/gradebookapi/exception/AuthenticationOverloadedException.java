@@ -0,0 +1,17 @@
+package org.vasvari.gradebookapi.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class AuthenticationOverloadedException extends RuntimeException {
+    public static final String ERROR_MESSAGE = "Too many authentications in progress, try again later";
+
+    private final Duration retryAfter;
+
+    public AuthenticationOverloadedException(Duration retryAfter) {
+        super(ERROR_MESSAGE);
+        this.retryAfter = retryAfter;
+    }
+}
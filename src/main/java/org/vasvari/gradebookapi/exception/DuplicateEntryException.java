@@ -1,12 +1,19 @@
 package org.vasvari.gradebookapi.exception;
 
+import org.vasvari.gradebookapi.dto.GradebookBatchInput;
 import org.vasvari.gradebookapi.dto.GradebookInput;
 
 public class DuplicateEntryException extends RuntimeException {
     public static final String ERROR_MESSAGE =
             "Entry with student %d, subject %d and assignment %d already exists";
+    public static final String BATCH_ERROR_MESSAGE =
+            "An entry of subject %d and assignment %d was created meanwhile for a student of the batch";
 
     public DuplicateEntryException(GradebookInput entry) {
         super(String.format(ERROR_MESSAGE, entry.getStudentId(), entry.getSubjectId(), entry.getAssignmentId()));
     }
+
+    public DuplicateEntryException(GradebookBatchInput batch) {
+        super(String.format(BATCH_ERROR_MESSAGE, batch.getSubjectId(), batch.getAssignmentId()));
+    }
 }
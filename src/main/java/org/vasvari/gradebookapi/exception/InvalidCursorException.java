@@ -0,0 +1,9 @@
+package org.vasvari.gradebookapi.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public static final String ERROR_MESSAGE = "Invalid cursor '%s'";
+
+    public InvalidCursorException(String cursor) {
+        super(String.format(ERROR_MESSAGE, cursor));
+    }
+}
@@ -0,0 +1,9 @@
+package org.vasvari.gradebookapi.exception;
+
+public class PreconditionRequiredException extends RuntimeException {
+    public static final String ERROR_MESSAGE = "The If-Match header is required, with the ETag of the version read or *";
+
+    public PreconditionRequiredException() {
+        super(ERROR_MESSAGE);
+    }
+}
@@ -1,9 +1,16 @@
 package org.vasvari.gradebookapi.exception;
 
+import java.util.Collection;
+
 public class StudentNotFoundException extends RuntimeException {
     public static final String ERROR_MESSAGE = "Student %d does not exist";
+    public static final String BATCH_ERROR_MESSAGE = "Students %s do not exist";
 
     public StudentNotFoundException(Long id) {
         super(String.format(ERROR_MESSAGE, id));
     }
+
+    public StudentNotFoundException(Collection<Long> ids) {
+        super(String.format(BATCH_ERROR_MESSAGE, ids));
+    }
 }
@@ -0,0 +1,9 @@
+package org.vasvari.gradebookapi.exception;
+
+public class UsernamesExhaustedException extends RuntimeException {
+    public static final String ERROR_MESSAGE = "Every username of %s with a suffix of up to %d digits is taken";
+
+    public UsernamesExhaustedException(String usernamePrefix, int maxSuffixDigits) {
+        super(String.format(ERROR_MESSAGE, usernamePrefix, maxSuffixDigits));
+    }
+}
@@ -0,0 +1,20 @@
+package org.vasvari.gradebookapi.exception;
+
+public class VersionConflictException extends RuntimeException {
+    public static final String ERROR_MESSAGE = "%s %d has been changed, it is at version %d instead of %d";
+
+    public VersionConflictException(String entity, Long id, Long version, Long expectedVersion) {
+        super(String.format(ERROR_MESSAGE, entity, id, version, expectedVersion));
+    }
+
+    /**
+     * Checks the version of the entity about to be overwritten or deleted
+     *
+     * @param expectedVersion the version given by the If-Match header, null if any version is expected
+     * @throws VersionConflictException if the entity is at another version
+     */
+    public static void check(String entity, Long id, Long version, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(version))
+            throw new VersionConflictException(entity, id, version, expectedVersion);
+    }
+}
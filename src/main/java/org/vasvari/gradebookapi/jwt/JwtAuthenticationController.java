@@ -30,6 +30,7 @@ public class JwtAuthenticationController {
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "User authenticated"),
             @ApiResponse(responseCode = "400", description = "Authentication failed"),
+            @ApiResponse(responseCode = "503", description = "Too many authentications in progress, retry later"),
     })
     public JwtResponse createAuthenticationToken(@RequestBody JwtRequest authenticationRequest) {
         Authentication authentication = authenticationManager.authenticate(
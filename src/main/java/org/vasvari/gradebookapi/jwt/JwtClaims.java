@@ -0,0 +1,44 @@
+package org.vasvari.gradebookapi.jwt;
+
+import io.jsonwebtoken.Claims;
+import lombok.Value;
+import org.vasvari.gradebookapi.security.ApplicationUserRole;
+
+import java.time.Instant;
+
+/**
+ * The claims of a token whose signature has been verified. Immutable, so the claims of a token can be cached and
+ * shared by the requests carrying the same token.
+ */
+@Value
+public class JwtClaims {
+    public static final String USER_ID = "userId";
+    public static final String ROLE = "role";
+    public static final String SCHOOL_ACTOR_ID = "schoolActorId";
+
+    String username;
+    Instant issuedAt;
+    Instant expiration;
+    // the identity of the user, null in tokens issued before it was added to the claims
+    Long userId;
+    ApplicationUserRole role;
+    Long schoolActorId;
+
+    public static JwtClaims of(Claims claims) {
+        String role = claims.get(ROLE, String.class);
+        return new JwtClaims(claims.getSubject(),
+                claims.getIssuedAt().toInstant(),
+                claims.getExpiration().toInstant(),
+                claims.get(USER_ID, Long.class),
+                role == null ? null : ApplicationUserRole.valueOf(role),
+                claims.get(SCHOOL_ACTOR_ID, Long.class));
+    }
+
+    public boolean hasIdentity() {
+        return userId != null && role != null;
+    }
+
+    public boolean isExpired() {
+        return expiration.isBefore(Instant.now());
+    }
+}
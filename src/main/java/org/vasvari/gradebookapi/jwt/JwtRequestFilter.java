@@ -1,9 +1,14 @@
 package org.vasvari.gradebookapi.jwt;
 
+import org.vasvari.gradebookapi.metrics.PrometheusScrapeToken;
+import org.vasvari.gradebookapi.security.ApplicationUserDetails;
+import org.vasvari.gradebookapi.security.AuthenticatedUser;
 import org.vasvari.gradebookapi.service.UserService;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -15,6 +20,7 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.Collection;
 
 @Component
 @RequiredArgsConstructor
@@ -22,38 +28,69 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
     private final UserService userDetailsService;
     private final JwtTokenUtil jwtTokenUtil;
+    private final TokenRevocationList tokenRevocationList;
+    private final PrometheusScrapeToken prometheusScrapeToken;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // the scrape token is not a JWT, it is checked by the security configuration
+        return prometheusScrapeToken.isPresentIn(request);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
         final String requestTokenHeader = request.getHeader("Authorization");
-        String username = null;
-        String jwtToken = null;
+        JwtClaims claims = null;
         if (requestTokenHeader != null) {
             if (requestTokenHeader.startsWith("Bearer ")) {
-                jwtToken = requestTokenHeader.substring(7);
+                String jwtToken = requestTokenHeader.substring(7);
                 try {
-                    username = jwtTokenUtil.getUsernameFromToken(jwtToken);
+                    claims = jwtTokenUtil.parseToken(jwtToken);
                 } catch (IllegalArgumentException e) {
-                    System.out.println("Unable to get JWT token");
+                    logger.warn("Unable to get JWT token");
                 } catch (ExpiredJwtException e) {
-                    System.out.println("Jwt Token has expired");
+                    logger.warn("Jwt Token has expired");
+                } catch (JwtException e) {
+                    logger.warn("Jwt Token is invalid");
                 }
             } else {
                 logger.warn("JWT Token does not begin with Bearer string");
             }
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            if (jwtTokenUtil.validateToken(jwtToken, userDetails)) {
-                UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                usernamePasswordAuthenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
+        if (claims != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            if (claims.hasIdentity()) {
+                // the user is not looked up: the tokens of disabled, deleted or changed users are revoked
+                if (!isRevoked(claims.getUserId(), claims))
+                    authenticate(request, AuthenticatedUser.of(claims), claims.getRole().getGrantedAuthorities());
+            } else {
+                // tokens issued before the identity was added to the claims, accepted until they expire
+                UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getUsername());
+                if (jwtTokenUtil.validateToken(claims, userDetails) && !isRevokedWithoutIdentity(claims, userDetails))
+                    authenticate(request, userDetails, userDetails.getAuthorities());
             }
         }
         filterChain.doFilter(request, response);
     }
+
+    private void authenticate(HttpServletRequest request, Object principal,
+                              Collection<? extends GrantedAuthority> authorities) {
+        UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken =
+                new UsernamePasswordAuthenticationToken(principal, null, authorities);
+        usernamePasswordAuthenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
+    }
+
+    private boolean isRevokedWithoutIdentity(JwtClaims claims, UserDetails userDetails) {
+        return userDetails instanceof ApplicationUserDetails
+                && isRevoked(((ApplicationUserDetails) userDetails).getId(), claims);
+    }
+
+    private boolean isRevoked(long userId, JwtClaims claims) {
+        boolean revoked = tokenRevocationList.isRevoked(userId, claims.getIssuedAt());
+        if (revoked) logger.warn("Jwt Token has been revoked");
+        return revoked;
+    }
 }
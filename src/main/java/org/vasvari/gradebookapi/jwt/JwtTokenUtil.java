@@ -1,52 +1,84 @@
 package org.vasvari.gradebookapi.jwt;
 
-import io.jsonwebtoken.Claims;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
+import org.vasvari.gradebookapi.security.ApplicationUserDetails;
 
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.concurrent.TimeUnit;
 
 @Component
 @ConfigurationProperties(prefix = "application.jwt")
 public class JwtTokenUtil implements Serializable {
 
     public static final long JWT_TOKEN_VALIDITY = 8 * 60 * 60;
-    @Value("${jwt.secret}")
-    private String secret;
 
-    public String getUsernameFromToken(String token) {
-        return getClaimFromToken(token, Claims::getSubject);
-    }
+    private final String secret;
 
-    public Date getExpirationDateFromToken(String token) {
-        return getClaimFromToken(token, Claims::getExpiration);
+    // tokens already verified, keyed by their hash, so a token is only verified by its first request
+    private final transient Cache<HashCode, JwtClaims> verifiedTokens;
+
+    public JwtTokenUtil(@Value("${jwt.secret}") String secret,
+                        @Value("${jwt.cache.maximum-size:10000}") long cacheMaximumSize) {
+        this.secret = secret;
+        this.verifiedTokens = CacheBuilder.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfterWrite(JWT_TOKEN_VALIDITY, TimeUnit.SECONDS)
+                .build();
     }
 
-    public <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = getAllClaimsFromToken(token);
-        return claimsResolver.apply(claims);
+    public String getUsernameFromToken(String token) {
+        return parseToken(token).getUsername();
     }
 
-    private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parser().setSigningKey(secret).parseClaimsJws(token).getBody();
+    public Date getExpirationDateFromToken(String token) {
+        return Date.from(parseToken(token).getExpiration());
     }
 
-    private Boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
+    /**
+     * Verifies the signature and the expiration of the token and returns its claims. The signature of a token
+     * is only verified the first time it is parsed, while it is cached.
+     *
+     * @throws ExpiredJwtException if the token has expired
+     * @throws io.jsonwebtoken.JwtException if the token is malformed or its signature is invalid
+     * @throws IllegalArgumentException if the token is empty
+     */
+    public JwtClaims parseToken(String token) {
+        HashCode key = Hashing.sha256().hashString(token, StandardCharsets.UTF_8);
+        JwtClaims claims = verifiedTokens.getIfPresent(key);
+        if (claims == null) {
+            claims = JwtClaims.of(Jwts.parser().setSigningKey(secret).parseClaimsJws(token).getBody());
+            verifiedTokens.put(key, claims);
+        } else if (claims.isExpired()) {
+            verifiedTokens.invalidate(key);
+            throw new ExpiredJwtException(null, null, "JWT expired at " + claims.getExpiration());
+        }
+
+        return claims;
     }
 
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("authorities", userDetails.getAuthorities());
+        if (userDetails instanceof ApplicationUserDetails) {
+            ApplicationUserDetails user = (ApplicationUserDetails) userDetails;
+            claims.put(JwtClaims.USER_ID, user.getId());
+            claims.put(JwtClaims.ROLE, user.getRole().name());
+            if (user.getSchoolActorId() != null) claims.put(JwtClaims.SCHOOL_ACTOR_ID, user.getSchoolActorId());
+        }
 
         return doGenerateToken(claims, userDetails.getUsername());
     }
@@ -61,8 +93,7 @@ public class JwtTokenUtil implements Serializable {
                 .compact();
     }
 
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = getUsernameFromToken(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    public boolean validateToken(JwtClaims claims, UserDetails userDetails) {
+        return claims.getUsername().equals(userDetails.getUsername()) && !claims.isExpired();
     }
 }
@@ -0,0 +1,118 @@
+package org.vasvari.gradebookapi.jwt;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.vasvari.gradebookapi.model.TokenRevocation;
+import org.vasvari.gradebookapi.repository.TokenRevocationRepository;
+
+import javax.annotation.PostConstruct;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Revokes the tokens of a user issued until the revocation, e.g. when the user is disabled or deleted. The
+ * revocations are stored in the token_revocation table, and kept in memory as a hash table of primitives, so
+ * {@link #isRevoked(long, Instant)} costs a request neither a query nor an allocation.
+ * <p>
+ * The table is written only by the revocations. Every revocation publishes a new copy of it once its transaction
+ * commits, which the requests read without locking, so a revocation rolled back never revokes the tokens. The
+ * revocations are reloaded from the database by the {@link TokenRevocationRefresher}, which picks up the revocations
+ * of the other instances, and deleted once every token they revoke has expired.
+ */
+@Component
+public class TokenRevocationList {
+    private final TokenRevocationRepository repository;
+
+    // the revocations by user ID as epoch seconds, the source of the table, guarded by this
+    private final Map<Long, Long> revocations = new HashMap<>();
+    private volatile RevocationTable table = RevocationTable.EMPTY;
+
+    public TokenRevocationList(TokenRevocationRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Revokes the tokens of the user issued until now. The iat claim of the tokens is in seconds, so the tokens
+     * issued in the current second are revoked too, even if they were issued after this call. Within a transaction,
+     * the revocation takes effect when the transaction commits.
+     */
+    public void revokeTokensOf(long userId) {
+        long revokedBefore = Instant.now().getEpochSecond() + 1;
+        repository.save(new TokenRevocation(userId, Instant.ofEpochSecond(revokedBefore)));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(userId, revokedBefore);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(userId, revokedBefore);
+            }
+        });
+    }
+
+    private synchronized void publish(long userId, long revokedBefore) {
+        revocations.merge(userId, revokedBefore, Math::max);
+        table = new RevocationTable(revocations);
+    }
+
+    public boolean isRevoked(long userId, Instant issuedAt) {
+        return issuedAt.getEpochSecond() < table.revokedBefore(userId);
+    }
+
+    /**
+     * Deletes the revocations whose tokens have all expired, and reloads the others
+     */
+    @PostConstruct
+    public synchronized void refresh() {
+        repository.deleteRevokedBefore(Instant.now().minusSeconds(JwtTokenUtil.JWT_TOKEN_VALIDITY));
+        revocations.clear();
+        for (TokenRevocation revocation : repository.findAll())
+            revocations.put(revocation.getUserId(), revocation.getRevokedBefore().getEpochSecond());
+        table = new RevocationTable(revocations);
+    }
+
+    /**
+     * An immutable open addressing hash table from user IDs to epoch seconds, with linear probing. User IDs are
+     * positive, 0 marks the empty slots. It is at most half full, so a lookup ends after a probe or two.
+     */
+    private static final class RevocationTable {
+        static final RevocationTable EMPTY = new RevocationTable(Map.of());
+
+        private final long[] userIds;
+        private final long[] revokedBefore;
+        private final int mask;
+
+        RevocationTable(Map<Long, Long> revocations) {
+            int capacity = Integer.highestOneBit(Math.max(1, revocations.size()) * 2 - 1) << 1;
+            userIds = new long[capacity];
+            revokedBefore = new long[capacity];
+            mask = capacity - 1;
+            revocations.forEach((userId, epochSecond) -> {
+                int slot = slotOf(userId);
+                while (userIds[slot] != 0) slot = (slot + 1) & mask;
+                userIds[slot] = userId;
+                revokedBefore[slot] = epochSecond;
+            });
+        }
+
+        /**
+         * @return the epoch second before which the tokens of the user are revoked, or {@link Long#MIN_VALUE} if
+         * none of them is
+         */
+        long revokedBefore(long userId) {
+            for (int slot = slotOf(userId); userIds[slot] != 0; slot = (slot + 1) & mask)
+                if (userIds[slot] == userId) return revokedBefore[slot];
+            return Long.MIN_VALUE;
+        }
+
+        // the IDs are sequential, so they are scrambled to spread them over the table
+        private int slotOf(long userId) {
+            long hash = userId * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.vasvari.gradebookapi.jwt;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Refreshes the {@link TokenRevocationList} periodically, unless {@code token-revocation.scheduling.enabled} is
+ * false, e.g. in the tests, whose contexts share a database dropped when one of them closes
+ */
+@Component
+@ConditionalOnProperty(name = "token-revocation.scheduling.enabled", matchIfMissing = true)
+@RequiredArgsConstructor
+public class TokenRevocationRefresher {
+    private final TokenRevocationList tokenRevocationList;
+
+    @Scheduled(initialDelayString = "${token-revocation.refresh-interval:PT1M}",
+            fixedDelayString = "${token-revocation.refresh-interval:PT1M}")
+    public void refresh() {
+        tokenRevocationList.refresh();
+    }
+}
@@ -0,0 +1,49 @@
+package org.vasvari.gradebookapi.mediatype;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.hateoas.mediatype.hal.HalMediaTypeConfiguration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Answers the requests accepting {@code application/cbor} or {@code application/x-jackson-smile} with the binary
+ * encodings of the HAL documents of the JSON responses. The object mappers are configured as the one of the HAL JSON
+ * converter, so the links are written as {@code _links} and the embedded resources as {@code _embedded}, and the
+ * dates as in JSON.
+ * <p>
+ * The converters replace the plain CBOR and Smile converters registered by Spring MVC, which would write the links
+ * of the representation models as a {@code links} list. They come after the JSON converters, so the requests
+ * accepting any media type are still answered with JSON.
+ */
+@Configuration
+public class BinaryMediaTypeConfig implements WebMvcConfigurer {
+    private final Jackson2ObjectMapperBuilder objectMapperBuilder;
+    private final HalMediaTypeConfiguration halConfiguration;
+
+    public BinaryMediaTypeConfig(Jackson2ObjectMapperBuilder objectMapperBuilder,
+                                 HalMediaTypeConfiguration halConfiguration) {
+        this.objectMapperBuilder = objectMapperBuilder;
+        this.halConfiguration = halConfiguration;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new MappingJackson2SmileHttpMessageConverter(halObjectMapper(new SmileFactory())));
+        converters.add(new MappingJackson2CborHttpMessageConverter(halObjectMapper(new CBORFactory())));
+    }
+
+    private ObjectMapper halObjectMapper(JsonFactory factory) {
+        return halConfiguration.configureObjectMapper(objectMapperBuilder.factory(factory).build());
+    }
+}
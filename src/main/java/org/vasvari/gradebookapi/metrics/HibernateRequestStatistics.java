@@ -0,0 +1,122 @@
+package org.vasvari.gradebookapi.metrics;
+
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * The work done by Hibernate for the current thread between {@link #start()} and {@link #finish()}: the statements
+ * prepared, the entities loaded, the collections fetched and the lookups of the second level cache. The statistics
+ * of the session factory add up the work of every request, these count the work of a single one.
+ * <p>
+ * The counts are collected by {@link SessionListener}, which Hibernate creates for every session, and by the event
+ * listeners registered by {@link ListenerIntegrator}. Both do nothing on the threads not counting.
+ */
+public final class HibernateRequestStatistics {
+    private static final ThreadLocal<HibernateRequestStatistics> CURRENT = new ThreadLocal<>();
+
+    private long statements;
+    private long entityLoads;
+    private long collectionFetches;
+    private long secondLevelCacheHits;
+    private long secondLevelCacheMisses;
+
+    private HibernateRequestStatistics() {
+    }
+
+    /**
+     * Starts counting the work of the current thread
+     */
+    public static void start() {
+        CURRENT.set(new HibernateRequestStatistics());
+    }
+
+    /**
+     * Stops counting the work of the current thread
+     *
+     * @return the work done since {@link #start()}
+     */
+    public static HibernateRequestStatistics finish() {
+        HibernateRequestStatistics statistics = CURRENT.get();
+        CURRENT.remove();
+        return statistics;
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getEntityLoads() {
+        return entityLoads;
+    }
+
+    public long getCollectionFetches() {
+        return collectionFetches;
+    }
+
+    public long getSecondLevelCacheHits() {
+        return secondLevelCacheHits;
+    }
+
+    public long getSecondLevelCacheMisses() {
+        return secondLevelCacheMisses;
+    }
+
+    /**
+     * Counts the statements and the lookups of the second level cache of a session
+     */
+    public static class SessionListener extends BaseSessionEventListener {
+
+        @Override
+        public void jdbcPrepareStatementStart() {
+            HibernateRequestStatistics statistics = CURRENT.get();
+            if (statistics != null) statistics.statements++;
+        }
+
+        @Override
+        public void cacheGetEnd(boolean hit) {
+            HibernateRequestStatistics statistics = CURRENT.get();
+            if (statistics == null) return;
+            if (hit) statistics.secondLevelCacheHits++;
+            else statistics.secondLevelCacheMisses++;
+        }
+    }
+
+    /**
+     * Registers the listeners counting the entities loaded and the collections fetched
+     */
+    public static class ListenerIntegrator implements Integrator, PostLoadEventListener, InitializeCollectionEventListener {
+
+        @Override
+        public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                              SessionFactoryServiceRegistry serviceRegistry) {
+            EventListenerRegistry listeners = serviceRegistry.getService(EventListenerRegistry.class);
+            listeners.appendListeners(EventType.POST_LOAD, this);
+            listeners.appendListeners(EventType.INIT_COLLECTION, this);
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        }
+
+        @Override
+        public void onPostLoad(PostLoadEvent event) {
+            HibernateRequestStatistics statistics = CURRENT.get();
+            if (statistics != null) statistics.entityLoads++;
+        }
+
+        @Override
+        public void onInitializeCollection(InitializeCollectionEvent event) {
+            HibernateRequestStatistics statistics = CURRENT.get();
+            if (statistics != null) statistics.collectionFetches++;
+        }
+    }
+}
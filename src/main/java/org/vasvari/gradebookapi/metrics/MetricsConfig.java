@@ -0,0 +1,55 @@
+package org.vasvari.gradebookapi.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Registers the listeners of {@link HibernateRequestStatistics} with Hibernate, wraps the data source into a proxy
+ * counting the {@link SqlRequestStatistics}, and registers the filter recording both for each request
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateRequestStatisticsCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER,
+                    HibernateRequestStatistics.SessionListener.class.getName());
+            properties.put("hibernate.integrator_provider",
+                    (IntegratorProvider) () -> List.of(new HibernateRequestStatistics.ListenerIntegrator()));
+        };
+    }
+
+    // static, so the data source is wrapped before the beans depending on it are created
+    @Bean
+    public static BeanPostProcessor sqlStatisticsDataSourceProxy() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource) || bean instanceof ProxyDataSource) return bean;
+
+                return ProxyDataSourceBuilder.create(beanName, (DataSource) bean)
+                        .listener(new SqlStatisticsListener())
+                        .proxyResultSet()
+                        .build();
+            }
+        };
+    }
+
+    @Bean
+    public RequestMetricsFilter requestMetricsFilter(MeterRegistry meterRegistry,
+                                                     @Value("${sql.repeated-statements.threshold:5}") int repeatedStatementsThreshold) {
+        return new RequestMetricsFilter(meterRegistry, repeatedStatementsThreshold);
+    }
+}
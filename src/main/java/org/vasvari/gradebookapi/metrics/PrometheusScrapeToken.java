@@ -0,0 +1,35 @@
+package org.vasvari.gradebookapi.metrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * The token Prometheus sends as {@code Authorization: Bearer <token>} when scraping {@code /actuator/prometheus},
+ * set by {@code metrics.prometheus.scrape-token}. Without it only admins can scrape the metrics. Where the request
+ * comes from is not considered, as behind a reverse proxy every request comes from the proxy.
+ */
+@Component("prometheusScrapeToken")
+public class PrometheusScrapeToken {
+    private static final String BEARER = "Bearer ";
+
+    private final byte[] token;
+
+    public PrometheusScrapeToken(@Value("${metrics.prometheus.scrape-token:}") String token) {
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return whether the request carries the scrape token, compared in constant time
+     */
+    public boolean isPresentIn(HttpServletRequest request) {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (token.length == 0 || authorization == null || !authorization.startsWith(BEARER)) return false;
+
+        return MessageDigest.isEqual(token, authorization.substring(BEARER.length()).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,111 @@
+package org.vasvari.gradebookapi.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the work done by the database for each request, tagged with the method and the URI template of the
+ * request, as the latencies in {@code http.server.requests}:
+ * <ul>
+ * <li>the statements, see {@link SqlRequestStatistics}, as {@code sql.request.statements}, {@code sql.request.rows}
+ * and {@code sql.request.time}</li>
+ * <li>the work of Hibernate, see {@link HibernateRequestStatistics}, as {@code hibernate.request.statements},
+ * {@code hibernate.request.entity.loads}, {@code hibernate.request.collection.fetches} and
+ * {@code hibernate.request.cache.hits}/{@code .misses}</li>
+ * </ul>
+ * A statement executed at least {@code sql.repeated-statements.threshold} times by a request, most likely an N+1
+ * select, is logged as a warning and counted as {@code sql.request.repeated.statements}.
+ * <p>
+ * It is the first filter of the requests, so the lookups of the users authenticating them are counted too. It is
+ * registered by {@link MetricsConfig}.
+ */
+@Slf4j
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+    private final MeterRegistry meterRegistry;
+    private final int repeatedStatementsThreshold;
+
+    public RequestMetricsFilter(MeterRegistry meterRegistry, int repeatedStatementsThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.repeatedStatementsThreshold = repeatedStatementsThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlRequestStatistics.start();
+        HibernateRequestStatistics.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            HibernateRequestStatistics hibernateStatistics = HibernateRequestStatistics.finish();
+            SqlRequestStatistics sqlStatistics = SqlRequestStatistics.finish();
+            Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            Tags tags = Tags.of("method", request.getMethod(), "uri", uri == null ? "UNKNOWN" : uri.toString());
+
+            recordSqlStatistics(request, tags, sqlStatistics);
+            recordHibernateStatistics(tags, hibernateStatistics);
+        }
+    }
+
+    private void recordSqlStatistics(HttpServletRequest request, Tags tags, SqlRequestStatistics statistics) {
+        record("sql.request.statements", "The statements executed by a request", tags, statistics.getStatements());
+        record("sql.request.rows", "The rows read or updated by the statements of a request", tags, statistics.getRows());
+        Timer.builder("sql.request.time")
+                .description("The time of the statements of a request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(statistics.getNanos(), TimeUnit.NANOSECONDS);
+
+        for (Map.Entry<String, Integer> shape : statistics.getExecutionsByShape().entrySet()) {
+            if (shape.getValue() < repeatedStatementsThreshold) continue;
+
+            log.warn("{} {} executed the same statement {} times, possibly an N+1 select: {}",
+                    request.getMethod(), request.getRequestURI(), shape.getValue(), shape.getKey());
+            Counter.builder("sql.request.repeated.statements")
+                    .description("The statements executed repeatedly by a request, possibly N+1 selects")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .increment();
+        }
+        log.debug("{} {} executed {} statements with {} rows in {} ms", request.getMethod(), request.getRequestURI(),
+                statistics.getStatements(), statistics.getRows(), TimeUnit.NANOSECONDS.toMillis(statistics.getNanos()));
+    }
+
+    private void recordHibernateStatistics(Tags tags, HibernateRequestStatistics statistics) {
+        record("hibernate.request.statements", "The JDBC statements prepared by Hibernate for a request", tags,
+                statistics.getStatements());
+        record("hibernate.request.entity.loads", "The entities loaded by a request", tags,
+                statistics.getEntityLoads());
+        record("hibernate.request.collection.fetches", "The collections fetched by a request", tags,
+                statistics.getCollectionFetches());
+        record("hibernate.request.cache.hits", "The second level cache hits of a request", tags,
+                statistics.getSecondLevelCacheHits());
+        record("hibernate.request.cache.misses", "The second level cache misses of a request", tags,
+                statistics.getSecondLevelCacheMisses());
+    }
+
+    private void record(String name, String description, Tags tags, long amount) {
+        DistributionSummary.builder(name)
+                .description(description)
+                .tags(tags)
+                .register(meterRegistry)
+                .record(amount);
+    }
+}
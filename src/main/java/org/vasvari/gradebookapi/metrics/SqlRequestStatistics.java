@@ -0,0 +1,100 @@
+package org.vasvari.gradebookapi.metrics;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * The statements executed on the data source by the current thread between {@link #start()} and {@link #finish()},
+ * the rows they returned or updated and the time they took, counted by {@link SqlStatisticsListener}. Unlike
+ * {@link HibernateRequestStatistics}, these count the statements of every JDBC client, Hibernate, JdbcTemplate and
+ * the batch writers alike.
+ * <p>
+ * The statements are also counted by their shape, the SQL with its literals replaced, so a statement repeated for
+ * each row of an earlier result, the N+1 selects, shows up as a shape executed many times.
+ */
+public final class SqlRequestStatistics {
+    private static final ThreadLocal<SqlRequestStatistics> CURRENT = new ThreadLocal<>();
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private long statements;
+    private long rows;
+    private long nanos;
+    private final Map<String, Integer> executionsByShape = new HashMap<>();
+
+    private SqlRequestStatistics() {
+    }
+
+    /**
+     * Starts counting the statements of the current thread
+     */
+    public static void start() {
+        CURRENT.set(new SqlRequestStatistics());
+    }
+
+    /**
+     * Stops counting the statements of the current thread
+     *
+     * @return the statements executed since {@link #start()}
+     */
+    public static SqlRequestStatistics finish() {
+        SqlRequestStatistics statistics = CURRENT.get();
+        CURRENT.remove();
+        return statistics;
+    }
+
+    /**
+     * @return the statistics of the current thread, or null if it is not counting
+     */
+    static SqlRequestStatistics current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return the SQL with its literals and the lists of its IN clauses replaced by ?, so the statements differing
+     * only in their parameters have the same shape
+     */
+    public static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    void recordExecution(String sql, long rows, long nanos) {
+        statements++;
+        this.rows += rows;
+        this.nanos += nanos;
+        executionsByShape.merge(shapeOf(sql), 1, Integer::sum);
+    }
+
+    void recordRow() {
+        rows++;
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    /**
+     * @return the rows read from the results of the queries and the rows updated
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * @return the number of executions of each shape of statement
+     */
+    public Map<String, Integer> getExecutionsByShape() {
+        return Collections.unmodifiableMap(executionsByShape);
+    }
+}
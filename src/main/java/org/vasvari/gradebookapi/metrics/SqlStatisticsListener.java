@@ -0,0 +1,54 @@
+package org.vasvari.gradebookapi.metrics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.lifecycle.JdbcLifecycleEventListenerAdapter;
+
+import java.util.List;
+
+/**
+ * Counts the statements executed through the proxy of the data source into the {@link SqlRequestStatistics} of the
+ * thread executing them. The rows of a query are counted as they are read from its result.
+ */
+public class SqlStatisticsListener extends JdbcLifecycleEventListenerAdapter {
+    private static final String START_NANOS = "startNanos";
+
+    @Override
+    public void beforeQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+        if (SqlRequestStatistics.current() != null) execution.addCustomValue(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+        SqlRequestStatistics statistics = SqlRequestStatistics.current();
+        Long startNanos = execution.getCustomValue(START_NANOS, Long.class);
+        if (statistics == null || startNanos == null) return;
+
+        long nanos = System.nanoTime() - startNanos;
+        long rowsUpdated = rowsUpdatedBy(execution.getResult());
+        // a batch is a single execution of each of its statements
+        for (QueryInfo query : queries) {
+            statistics.recordExecution(query.getQuery(), rowsUpdated, nanos);
+            rowsUpdated = 0;
+            nanos = 0;
+        }
+    }
+
+    @Override
+    public void afterNext(MethodExecutionContext context) {
+        SqlRequestStatistics statistics = SqlRequestStatistics.current();
+        if (statistics != null && Boolean.TRUE.equals(context.getResult())) statistics.recordRow();
+    }
+
+    private long rowsUpdatedBy(Object result) {
+        if (result instanceof Integer) return Math.max(0, (Integer) result);
+        if (result instanceof Long) return Math.max(0, (Long) result);
+        if (result instanceof int[]) {
+            long rows = 0;
+            for (int count : (int[]) result) rows += Math.max(0, count);
+            return rows;
+        }
+        return 0;
+    }
+}
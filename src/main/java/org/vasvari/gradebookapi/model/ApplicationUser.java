@@ -16,7 +16,8 @@ import java.util.Collection;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "user")
+@Table(name = "user",
+        uniqueConstraints = @UniqueConstraint(name = "user_username_unique_key", columnNames = "username"))
 public class ApplicationUser implements UserDetails {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -30,4 +30,9 @@ public class Assignment {
     @ManyToOne
     private Subject subject;
 
+    // see GradebookEntry
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
 }
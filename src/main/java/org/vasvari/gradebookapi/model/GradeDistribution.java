@@ -0,0 +1,91 @@
+package org.vasvari.gradebookapi.model;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Number of grades and their sum, along with the number of each grade from 1 to 5. Also used for the change of
+ * the statistics caused by a write, in which case the counts can be negative.
+ */
+@Embeddable
+@Getter
+@NoArgsConstructor
+@EqualsAndHashCode
+public class GradeDistribution {
+    @Column(name = "grade_count", nullable = false)
+    private int count;
+
+    @Column(name = "grade_sum", nullable = false)
+    private int sum;
+
+    @Column(name = "grade_1_count", nullable = false)
+    private int ones;
+
+    @Column(name = "grade_2_count", nullable = false)
+    private int twos;
+
+    @Column(name = "grade_3_count", nullable = false)
+    private int threes;
+
+    @Column(name = "grade_4_count", nullable = false)
+    private int fours;
+
+    @Column(name = "grade_5_count", nullable = false)
+    private int fives;
+
+    public void add(int grade) {
+        change(grade, 1);
+    }
+
+    public void remove(int grade) {
+        change(grade, -1);
+    }
+
+    public void add(GradeDistribution other) {
+        count += other.count;
+        sum += other.sum;
+        ones += other.ones;
+        twos += other.twos;
+        threes += other.threes;
+        fours += other.fours;
+        fives += other.fives;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public Double getAverage() {
+        return count == 0 ? null : (double) sum / count;
+    }
+
+    public Map<Integer, Integer> toMap() {
+        Map<Integer, Integer> distribution = new LinkedHashMap<>();
+        distribution.put(1, ones);
+        distribution.put(2, twos);
+        distribution.put(3, threes);
+        distribution.put(4, fours);
+        distribution.put(5, fives);
+
+        return distribution;
+    }
+
+    private void change(int grade, int delta) {
+        switch (grade) {
+            case 1: ones += delta; break;
+            case 2: twos += delta; break;
+            case 3: threes += delta; break;
+            case 4: fours += delta; break;
+            case 5: fives += delta; break;
+            default: throw new IllegalArgumentException("Grade value must be between 1-5, got " + grade);
+        }
+        count += delta;
+        sum += delta * grade;
+    }
+}
@@ -0,0 +1,16 @@
+package org.vasvari.gradebookapi.model;
+
+import lombok.Getter;
+
+import javax.persistence.Embedded;
+import javax.persistence.MappedSuperclass;
+
+/**
+ * Grade aggregate maintained by the writes of gradebook entries, so it can be read without scanning the entries
+ */
+@MappedSuperclass
+@Getter
+public abstract class GradeStatistics {
+    @Embedded
+    private GradeDistribution distribution = new GradeDistribution();
+}
@@ -1,18 +1,38 @@
 package org.vasvari.gradebookapi.model;
 
 import lombok.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 
 @Entity
+@Table(
+        uniqueConstraints = @UniqueConstraint(
+                name = GradebookEntry.UNIQUE_KEY, columnNames = {"student_id", "subject_id", "assignment_id"}),
+        indexes = {
+                @Index(name = "gradebook_entry_subject_student_index", columnList = "subject_id, student_id"),
+                @Index(name = "gradebook_entry_assignment_grade_index", columnList = "assignment_id, grade")
+        })
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
 @Setter
 @Builder
 public class GradebookEntry {
+    public static final String UNIQUE_KEY = "gradebook_entry_unique_key";
+
+    // IDs are allocated from a pooled sequence instead of IDENTITY, so inserts can be sent in JDBC batches
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "gradebook_entry_seq")
+    @GenericGenerator(
+            name = "gradebook_entry_seq",
+            strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+            parameters = {
+                    @Parameter(name = "sequence_name", value = "gradebook_entry_seq"),
+                    @Parameter(name = "increment_size", value = "50"),
+                    @Parameter(name = "optimizer", value = "pooled-lo")
+            })
     private Long id;
 
     @ManyToOne
@@ -24,5 +44,12 @@ public class GradebookEntry {
     @ManyToOne
     private Subject subject;
 
+    @Column(nullable = false, columnDefinition = "tinyint")
     private Integer grade;
+
+    // incremented by every update, an update or delete of an older version fails instead of overwriting a newer one;
+    // defaults to 0 for the rows inserted with plain SQL
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
 }
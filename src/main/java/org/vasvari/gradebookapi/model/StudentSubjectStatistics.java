@@ -0,0 +1,49 @@
+package org.vasvari.gradebookapi.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import java.io.Serializable;
+import java.util.Comparator;
+
+@Entity
+@IdClass(StudentSubjectStatistics.Key.class)
+@Getter
+@NoArgsConstructor
+public class StudentSubjectStatistics extends GradeStatistics {
+    @Id
+    private Long studentId;
+
+    @Id
+    private Long subjectId;
+
+    public StudentSubjectStatistics(Key key) {
+        this.studentId = key.getStudentId();
+        this.subjectId = key.getSubjectId();
+    }
+
+    public Key getKey() {
+        return new Key(studentId, subjectId);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable, Comparable<Key> {
+        private static final Comparator<Key> ORDER =
+                Comparator.comparing(Key::getStudentId).thenComparing(Key::getSubjectId);
+
+        private Long studentId;
+        private Long subjectId;
+
+        @Override
+        public int compareTo(Key other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
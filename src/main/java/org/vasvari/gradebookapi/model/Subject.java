@@ -1,17 +1,23 @@
 package org.vasvari.gradebookapi.model;
 
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import javax.persistence.*;
 import java.util.Set;
 
 @Entity
+// subjects referenced by a list of assignments are loaded in batches
+@BatchSize(size = 50)
+@NamedEntityGraph(name = Subject.WITH_STUDENTS, attributeNodes = @NamedAttributeNode("students"))
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
 @Setter
 public class Subject {
+    public static final String WITH_STUDENTS = "Subject.students";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -21,10 +27,13 @@ public class Subject {
     @ManyToOne
     private Teacher teacher;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    // only loaded by the views of the roster, the rosters of a list of subjects are loaded in batches
+    @ManyToMany
+    @BatchSize(size = 50)
     private Set<Student> students;
 
-    public void addStudent(Student student) {
-        students.add(student);
-    }
+    // see GradebookEntry
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
 }
@@ -0,0 +1,17 @@
+package org.vasvari.gradebookapi.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+@Entity
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubjectStatistics extends GradeStatistics {
+    @Id
+    private Long subjectId;
+}
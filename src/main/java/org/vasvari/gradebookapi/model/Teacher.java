@@ -4,14 +4,14 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
-import javax.persistence.Entity;
-import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
-import javax.persistence.Id;
+import javax.persistence.*;
 import java.time.LocalDate;
 
 @Entity
+// the teachers of a list of subjects are loaded in batches
+@BatchSize(size = 50)
 @Data
 @Builder
 @NoArgsConstructor
@@ -27,6 +27,11 @@ public class Teacher {
     private String phone;
     private LocalDate birthdate;
 
+    // see GradebookEntry
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     public String getName() {
         return firstname + " " + lastname;
     }
@@ -0,0 +1,26 @@
+package org.vasvari.gradebookapi.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.Instant;
+
+/**
+ * Revokes the tokens of a user issued before the given time. It is not related to the user, so the tokens of a
+ * deleted user stay revoked.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TokenRevocation {
+    @Id
+    private Long userId;
+
+    private Instant revokedBefore;
+}
@@ -12,4 +12,5 @@ public class GradebookRequest {
     private Long studentId;
     private Long subjectId;
     private Long assignmentId;
+    private Long teacherId;
 }
@@ -1,5 +1,6 @@
 package org.vasvari.gradebookapi.model.specification;
 
+import org.vasvari.gradebookapi.dto.simpleTypes.Cursor;
 import org.vasvari.gradebookapi.model.GradebookEntry;
 import org.vasvari.gradebookapi.model.request.GradebookRequest;
 import org.springframework.data.jpa.domain.Specification;
@@ -28,7 +29,23 @@ public class GradebookEntrySpecification {
                 predicates.add(criteriaBuilder.equal(root.get("assignment").get("id"), request.getAssignmentId()));
             }
 
+            if (request.getTeacherId() != null) {
+                predicates.add(criteriaBuilder.equal(root.get("subject").get("teacher").get("id"), request.getTeacherId()));
+            }
+
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
         };
     }
+
+    /**
+     * Restricts the entries to the ones positioned after or before the given cursor in ID order
+     *
+     * @param cursor the position in the ID-ordered result set
+     * @return specification comparing the entry ID to the cursor
+     */
+    public Specification<GradebookEntry> getGradebookEntriesBeyond(Cursor cursor) {
+        return (root, criteriaQuery, criteriaBuilder) -> cursor.isBackward()
+                ? criteriaBuilder.lessThan(root.get("id"), cursor.getId())
+                : criteriaBuilder.greaterThan(root.get("id"), cursor.getId());
+    }
 }
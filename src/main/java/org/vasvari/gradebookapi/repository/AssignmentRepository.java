@@ -4,11 +4,19 @@ import org.vasvari.gradebookapi.model.Assignment;
 import org.vasvari.gradebookapi.model.Subject;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.support.JpaRepositoryImplementation;
 
 import java.util.List;
 
 public interface AssignmentRepository extends JpaRepositoryImplementation<Assignment, Long>, JpaSpecificationExecutor<Assignment> {
     List<Assignment> findAllBySubjectIn(List<Subject> subjects);
+
+    // the subjects and their teachers are fetched by the same query instead of a query for each of them
+    @Query("select assignment from Assignment assignment " +
+            "join fetch assignment.subject subject " +
+            "left join fetch subject.teacher " +
+            "where :studentId in (select student.id from subject.students student)")
+    List<Assignment> findAllOfStudent(Long studentId);
     List<Assignment> findAll(Specification<Assignment> specification);
 }
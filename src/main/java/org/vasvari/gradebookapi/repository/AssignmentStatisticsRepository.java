@@ -0,0 +1,21 @@
+package org.vasvari.gradebookapi.repository;
+
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.support.JpaRepositoryImplementation;
+import org.vasvari.gradebookapi.model.AssignmentStatistics;
+
+import javax.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+
+public interface AssignmentStatisticsRepository extends JpaRepositoryImplementation<AssignmentStatistics, Long>,
+        AssignmentStatisticsRepositoryCustom {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from AssignmentStatistics s where s.assignmentId in :assignmentIds order by s.assignmentId")
+    List<AssignmentStatistics> findAllForUpdate(Collection<Long> assignmentIds);
+
+    @Query("select s from AssignmentStatistics s, Assignment assignment " +
+            "where assignment.id = s.assignmentId and assignment.subject.id = :subjectId order by s.assignmentId")
+    List<AssignmentStatistics> findAllOfSubject(Long subjectId);
+}
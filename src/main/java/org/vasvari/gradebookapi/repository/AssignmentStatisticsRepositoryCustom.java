@@ -0,0 +1,10 @@
+package org.vasvari.gradebookapi.repository;
+
+import java.util.Collection;
+
+public interface AssignmentStatisticsRepositoryCustom {
+    /**
+     * Creates the statistics of the keys not stored yet, without grades, see {@link StatisticsRows}
+     */
+    void createMissing(Collection<Long> keys);
+}
@@ -0,0 +1,18 @@
+package org.vasvari.gradebookapi.repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class AssignmentStatisticsRepositoryImpl implements AssignmentStatisticsRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void createMissing(Collection<Long> keys) {
+        StatisticsRows.createMissing(entityManager, "assignment_statistics", List.of("assignment_id"),
+                keys.stream().map(key -> List.of(key)).collect(Collectors.toList()));
+    }
+}
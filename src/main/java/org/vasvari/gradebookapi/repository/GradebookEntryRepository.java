@@ -3,10 +3,21 @@ package org.vasvari.gradebookapi.repository;
 import org.vasvari.gradebookapi.model.GradebookEntry;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.support.JpaRepositoryImplementation;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
-public interface GradebookEntryRepository extends JpaRepositoryImplementation<GradebookEntry, Long>, JpaSpecificationExecutor<GradebookEntry> {
+public interface GradebookEntryRepository extends JpaRepositoryImplementation<GradebookEntry, Long>, JpaSpecificationExecutor<GradebookEntry>,
+        GradebookEntryRepositoryCustom {
     List<GradebookEntry> findAll(Specification<GradebookEntry> specification);
+
+    Optional<GradebookEntry> findByStudentIdAndSubjectIdAndAssignmentId(Long studentId, Long subjectId, Long assignmentId);
+
+    @Query("select entry.student.id from GradebookEntry entry " +
+            "where entry.subject.id = :subjectId and entry.assignment.id = :assignmentId and entry.student.id in :studentIds")
+    Set<Long> findIdsOfGradedStudents(Long subjectId, Long assignmentId, Collection<Long> studentIds);
 }
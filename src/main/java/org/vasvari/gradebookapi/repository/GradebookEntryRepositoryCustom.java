@@ -0,0 +1,83 @@
+package org.vasvari.gradebookapi.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.vasvari.gradebookapi.dto.GradebookOutput;
+import org.vasvari.gradebookapi.model.GradebookEntry;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface GradebookEntryRepositoryCustom {
+    /**
+     * Returns the entries matching the specification as outputs. The outputs are selected along with the names
+     * of the students, subjects and assignments in one joined query, without loading any entity.
+     *
+     * @param specification the filters to apply
+     * @param sort          the order of the result
+     * @return list of entries
+     */
+    List<GradebookOutput> findAllOutputs(Specification<GradebookEntry> specification, Sort sort);
+
+    /**
+     * Returns at most {@code limit} entries matching the specification as outputs, without issuing a count query
+     *
+     * @param specification the filters to apply
+     * @param sort          the order of the result
+     * @param limit         the maximum number of entries returned
+     * @return list of entries
+     */
+    List<GradebookOutput> findAllOutputs(Specification<GradebookEntry> specification, Sort sort, int limit);
+
+    /**
+     * Streams the entries matching the specification as outputs. The rows are fetched from the database in chunks
+     * of {@code fetchSize}, the caller has to consume the stream inside a transaction and close it afterwards.
+     *
+     * @param specification the filters to apply
+     * @param sort          the order of the result
+     * @param fetchSize     the number of rows fetched in one round trip
+     * @return stream of entries
+     */
+    Stream<GradebookOutput> streamOutputs(Specification<GradebookEntry> specification, Sort sort, int fetchSize);
+
+    /**
+     * Returns the entry with the ID as an output, selected in one joined query like {@link #findAllOutputs}
+     *
+     * @param id the ID of the entry
+     * @return the entry, or empty if there is no entry with the ID
+     */
+    Optional<GradebookOutput> findOutputById(Long id);
+
+    /**
+     * Returns the ID, the grade and the version of the entry of a student, subject and assignment, without loading
+     * the entry. The student, the subject and the assignment of the returned entry are references.
+     *
+     * @param studentId    the ID of the student
+     * @param subjectId    the ID of the subject
+     * @param assignmentId the ID of the assignment
+     * @return the entry, or empty if there is none
+     */
+    Optional<GradebookEntry> findGradeByKey(Long studentId, Long subjectId, Long assignmentId);
+
+    /**
+     * @return a new entry ID from the sequence of the entries
+     */
+    Long generateId();
+
+    /**
+     * Writes the grade of a student, subject and assignment in a single statement ({@code INSERT ... ON DUPLICATE
+     * KEY UPDATE} on MySQL, {@code MERGE} on H2) relying on the unique key of the table, without reading or locking
+     * the entry first. If there is no entry, it is inserted with the ID. If there is one at the expected version,
+     * its grade is overwritten and its version is incremented. Has to be called inside a transaction.
+     *
+     * @param id              the ID of the entry if it gets inserted
+     * @param studentId       the ID of the student
+     * @param subjectId       the ID of the subject
+     * @param assignmentId    the ID of the assignment
+     * @param grade           the grade to write
+     * @param expectedVersion the version of the entry to overwrite, or null if there was no entry
+     * @return whether the grade was written, false if the entry was created or changed by another transaction
+     */
+    boolean upsert(Long id, Long studentId, Long subjectId, Long assignmentId, Integer grade, Long expectedVersion);
+}
@@ -0,0 +1,160 @@
+package org.vasvari.gradebookapi.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.vasvari.gradebookapi.dto.GradebookOutput;
+import org.vasvari.gradebookapi.model.Assignment;
+import org.vasvari.gradebookapi.model.GradebookEntry;
+import org.vasvari.gradebookapi.model.Student;
+import org.vasvari.gradebookapi.model.Subject;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public class GradebookEntryRepositoryImpl implements GradebookEntryRepositoryCustom {
+    // the grade of an existing entry is only overwritten at the version read before, and then the version is incremented
+    private static final String MYSQL_UPSERT =
+            "insert into gradebook_entry (id, student_id, subject_id, assignment_id, grade, version) " +
+                    "values (:id, :studentId, :subjectId, :assignmentId, :grade, 0) " +
+                    "on duplicate key update " +
+                    "grade = if(version = :expectedVersion, values(grade), grade), " +
+                    "version = if(version = :expectedVersion, version + 1, version)";
+    private static final String H2_UPSERT =
+            "merge into gradebook_entry entry " +
+                    "using (select cast(:studentId as bigint) student_id, cast(:subjectId as bigint) subject_id, " +
+                    "cast(:assignmentId as bigint) assignment_id, cast(:grade as integer) grade) input " +
+                    "on (entry.student_id = input.student_id and entry.subject_id = input.subject_id " +
+                    "and entry.assignment_id = input.assignment_id) " +
+                    "when matched and entry.version = :expectedVersion then update " +
+                    "set grade = input.grade, version = entry.version + 1 " +
+                    "when not matched then insert (id, student_id, subject_id, assignment_id, grade, version) " +
+                    "values (:id, input.student_id, input.subject_id, input.assignment_id, input.grade, 0)";
+    // no entry has this version, so an entry created meanwhile is left as it is
+    private static final long NO_VERSION = -1;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<GradebookOutput> findAllOutputs(Specification<GradebookEntry> specification, Sort sort) {
+        return entityManager.createQuery(createOutputQuery(specification, sort))
+                .getResultList();
+    }
+
+    @Override
+    public List<GradebookOutput> findAllOutputs(Specification<GradebookEntry> specification, Sort sort, int limit) {
+        return entityManager.createQuery(createOutputQuery(specification, sort))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<GradebookOutput> streamOutputs(Specification<GradebookEntry> specification, Sort sort, int fetchSize) {
+        return entityManager.createQuery(createOutputQuery(specification, sort))
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream();
+    }
+
+    @Override
+    public Optional<GradebookOutput> findOutputById(Long id) {
+        return entityManager.createQuery(createOutputQuery((root, query, criteriaBuilder) ->
+                        criteriaBuilder.equal(root.get("id"), id), Sort.unsorted()))
+                .getResultStream()
+                .findFirst();
+    }
+
+    @Override
+    public Optional<GradebookEntry> findGradeByKey(Long studentId, Long subjectId, Long assignmentId) {
+        return entityManager.createQuery("select entry.id, entry.grade, entry.version from GradebookEntry entry " +
+                        "where entry.student.id = :studentId and entry.subject.id = :subjectId " +
+                        "and entry.assignment.id = :assignmentId", Object[].class)
+                .setParameter("studentId", studentId)
+                .setParameter("subjectId", subjectId)
+                .setParameter("assignmentId", assignmentId)
+                .getResultStream()
+                .findFirst()
+                .map(row -> GradebookEntry.builder()
+                        .id((Long) row[0])
+                        .student(entityManager.getReference(Student.class, studentId))
+                        .subject(entityManager.getReference(Subject.class, subjectId))
+                        .assignment(entityManager.getReference(Assignment.class, assignmentId))
+                        .grade((Integer) row[1])
+                        .version((Long) row[2])
+                        .build());
+    }
+
+    @Override
+    public Long generateId() {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        // from the same pooled sequence as the other entries
+        return (Long) session.getFactory().getMetamodel()
+                .entityPersister(GradebookEntry.class)
+                .getIdentifierGenerator()
+                .generate(session, null);
+    }
+
+    @Override
+    public boolean upsert(Long id, Long studentId, Long subjectId, Long assignmentId, Integer grade, Long expectedVersion) {
+        Dialect dialect = entityManager.unwrap(SharedSessionContractImplementor.class)
+                .getFactory().getJdbcServices().getDialect();
+        int count = entityManager.createNativeQuery(upsertStatementOf(dialect))
+                .setParameter("id", id)
+                .setParameter("studentId", studentId)
+                .setParameter("subjectId", subjectId)
+                .setParameter("assignmentId", assignmentId)
+                .setParameter("grade", grade)
+                .setParameter("expectedVersion", expectedVersion == null ? NO_VERSION : expectedVersion)
+                .executeUpdate();
+
+        if (dialect instanceof H2Dialect) return count == 1;
+        // MySQL counts an overwritten row twice, and a row left as it was, as well as an inserted one, once
+        if (count == 2) return true;
+        return expectedVersion == null && count == 1 && isInserted(id);
+    }
+
+    private boolean isInserted(Long id) {
+        return ((Number) entityManager.createNativeQuery("select count(*) from gradebook_entry where id = :id")
+                .setParameter("id", id)
+                .getSingleResult()).longValue() == 1;
+    }
+
+    private String upsertStatementOf(Dialect dialect) {
+        if (dialect instanceof MySQLDialect) return MYSQL_UPSERT;
+        if (dialect instanceof H2Dialect) return H2_UPSERT;
+
+        throw new UnsupportedOperationException("Upsert is not supported with " + dialect);
+    }
+
+    private CriteriaQuery<GradebookOutput> createOutputQuery(Specification<GradebookEntry> specification, Sort sort) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<GradebookOutput> query = criteriaBuilder.createQuery(GradebookOutput.class);
+        Root<GradebookEntry> root = query.from(GradebookEntry.class);
+        // implicit joins, shared with the paths used by the specification
+        Path<Object> student = root.get("student");
+        Path<Object> subject = root.get("subject");
+        Path<Object> assignment = root.get("assignment");
+
+        return query
+                .select(criteriaBuilder.construct(GradebookOutput.class,
+                        root.get("id"),
+                        student.get("id"), student.get("firstname"), student.get("lastname"),
+                        subject.get("id"), subject.get("name"),
+                        assignment.get("id"), assignment.get("name"),
+                        root.get("grade")))
+                .where(specification.toPredicate(root, query, criteriaBuilder))
+                .orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+    }
+}
@@ -2,14 +2,22 @@ package org.vasvari.gradebookapi.repository;
 
 import org.vasvari.gradebookapi.model.SchoolActorApplicationUserRelation;
 import org.vasvari.gradebookapi.security.ApplicationUserRole;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.support.JpaRepositoryImplementation;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
-public interface SchoolActorApplicationUserRelationRepository extends JpaRepositoryImplementation<SchoolActorApplicationUserRelation, Long> {
+public interface SchoolActorApplicationUserRelationRepository extends JpaRepositoryImplementation<SchoolActorApplicationUserRelation, Long>,
+        SchoolActorApplicationUserRelationRepositoryCustom {
     boolean existsSchoolActorApplicationUserRelationByUserRoleAndSchoolActorId(ApplicationUserRole role, Long schoolActorId);
 
     Optional<SchoolActorApplicationUserRelation> getByUserRoleAndSchoolActorId(ApplicationUserRole role, Long schoolActorId);
 
     Optional<SchoolActorApplicationUserRelation> findFirstByAppUserId(Long userId);
+
+    @Query("select r.schoolActorId from SchoolActorApplicationUserRelation r " +
+            "where r.userRole = :role and r.schoolActorId in :schoolActorIds")
+    Set<Long> findSchoolActorIdsWithAccount(ApplicationUserRole role, Collection<Long> schoolActorIds);
 }
@@ -0,0 +1,15 @@
+package org.vasvari.gradebookapi.repository;
+
+import org.vasvari.gradebookapi.model.SchoolActorApplicationUserRelation;
+
+import java.util.List;
+
+public interface SchoolActorApplicationUserRelationRepositoryCustom {
+    /**
+     * Inserts the relations in JDBC batches, without reading back their IDs. Has to be called inside a
+     * transaction.
+     *
+     * @param relations the relations to insert
+     */
+    void insertAll(List<SchoolActorApplicationUserRelation> relations);
+}
@@ -0,0 +1,34 @@
+package org.vasvari.gradebookapi.repository;
+
+import org.hibernate.Session;
+import org.vasvari.gradebookapi.model.SchoolActorApplicationUserRelation;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.PreparedStatement;
+import java.util.List;
+
+public class SchoolActorApplicationUserRelationRepositoryImpl implements SchoolActorApplicationUserRelationRepositoryCustom {
+    private static final String INSERT = "insert into school_actor_application_user_relation " +
+            "(app_user_id, user_role, school_actor_id) values (?, ?, ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertAll(List<SchoolActorApplicationUserRelation> relations) {
+        if (relations.isEmpty()) return;
+
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+                for (SchoolActorApplicationUserRelation relation : relations) {
+                    statement.setLong(1, relation.getAppUserId());
+                    statement.setString(2, relation.getUserRole().name());
+                    statement.setLong(3, relation.getSchoolActorId());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+}
@@ -0,0 +1,74 @@
+package org.vasvari.gradebookapi.repository;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Creates the rows of the grade statistics with a single statement, which leaves the rows already stored, also
+ * the ones stored by concurrent transactions, as they are. Once created, the rows can be locked and updated by
+ * every write of the grades, as locking a row which does not exist yet does not keep the other writes out.
+ */
+final class StatisticsRows {
+    private static final String GRADE_COLUMNS =
+            "grade_count, grade_sum, grade_1_count, grade_2_count, grade_3_count, grade_4_count, grade_5_count";
+    private static final String NO_GRADES = "0, 0, 0, 0, 0, 0, 0";
+
+    private StatisticsRows() {
+    }
+
+    /**
+     * @param table      the table of the statistics
+     * @param keyColumns the columns of the primary key of the table
+     * @param keys       the values of the key columns of each row, in the order of the columns
+     */
+    static void createMissing(EntityManager entityManager, String table, List<String> keyColumns, List<List<Long>> keys) {
+        if (keys.isEmpty()) return;
+
+        Dialect dialect = entityManager.unwrap(SharedSessionContractImplementor.class)
+                .getFactory().getJdbcServices().getDialect();
+        Query statement = entityManager.createNativeQuery(statementOf(dialect, table, keyColumns, keys.size()));
+        int position = 1;
+        for (List<Long> key : keys) {
+            for (Long value : key) statement.setParameter(position++, value);
+        }
+        statement.executeUpdate();
+    }
+
+    private static String statementOf(Dialect dialect, String table, List<String> keyColumns, int rows) {
+        String columns = String.join(", ", keyColumns);
+        if (dialect instanceof MySQLDialect) {
+            // the update of a duplicate key changes nothing, it only locks the stored row
+            return "insert into " + table + " (" + columns + ", " + GRADE_COLUMNS + ") values " +
+                    valuesOf(keyColumns.size(), rows, "?", ", " + NO_GRADES) +
+                    " on duplicate key update " + keyColumns.get(0) + " = " + keyColumns.get(0);
+        }
+        if (dialect instanceof H2Dialect) {
+            // the columns of the values are named C1, C2, ... by H2
+            return "merge into " + table + " stored using (select " +
+                    IntStream.range(0, keyColumns.size())
+                            .mapToObj(c -> "c" + (c + 1) + " " + keyColumns.get(c))
+                            .collect(Collectors.joining(", ")) +
+                    " from (values " + valuesOf(keyColumns.size(), rows, "cast(? as bigint)", "") + ")) input on (" +
+                    keyColumns.stream().map(c -> "stored." + c + " = input." + c).collect(Collectors.joining(" and ")) +
+                    ") when not matched then insert (" + columns + ", " + GRADE_COLUMNS + ") values (" +
+                    keyColumns.stream().map(c -> "input." + c).collect(Collectors.joining(", ")) + ", " + NO_GRADES + ")";
+        }
+
+        throw new UnsupportedOperationException("Creating statistics is not supported with " + dialect);
+    }
+
+    private static String valuesOf(int keyColumns, int rows, String parameter, String rest) {
+        String row = IntStream.range(0, keyColumns)
+                .mapToObj(c -> parameter)
+                .collect(Collectors.joining(", ", "(", rest + ")"));
+        return IntStream.range(0, rows).mapToObj(r -> row).collect(Collectors.joining(", "));
+    }
+}
@@ -3,10 +3,16 @@ package org.vasvari.gradebookapi.repository;
 import org.vasvari.gradebookapi.model.Student;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.support.JpaRepositoryImplementation;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 public interface StudentRepository extends JpaRepositoryImplementation<Student, Long>, JpaSpecificationExecutor<Student> {
     List<Student> findAll(Specification<Student> specification);
+
+    @Query("select student.id from Student student where student.id in :ids")
+    Set<Long> findExistingIds(Collection<Long> ids);
 }
@@ -0,0 +1,25 @@
+package org.vasvari.gradebookapi.repository;
+
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.support.JpaRepositoryImplementation;
+import org.vasvari.gradebookapi.model.StudentSubjectStatistics;
+
+import javax.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+
+public interface StudentSubjectStatisticsRepository
+        extends JpaRepositoryImplementation<StudentSubjectStatistics, StudentSubjectStatistics.Key>,
+        StudentSubjectStatisticsRepositoryCustom {
+    List<StudentSubjectStatistics> findAllByStudentIdOrderBySubjectId(Long studentId);
+
+    /**
+     * Locks the statistics of every combination of the given students and subjects, which is a superset of the
+     * statistics changed by a write
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from StudentSubjectStatistics s " +
+            "where s.studentId in :studentIds and s.subjectId in :subjectIds order by s.studentId, s.subjectId")
+    List<StudentSubjectStatistics> findAllForUpdate(Collection<Long> studentIds, Collection<Long> subjectIds);
+}
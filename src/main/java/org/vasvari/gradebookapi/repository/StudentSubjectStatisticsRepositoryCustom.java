@@ -0,0 +1,12 @@
+package org.vasvari.gradebookapi.repository;
+
+import org.vasvari.gradebookapi.model.StudentSubjectStatistics;
+
+import java.util.Collection;
+
+public interface StudentSubjectStatisticsRepositoryCustom {
+    /**
+     * Creates the statistics of the keys not stored yet, without grades, see {@link StatisticsRows}
+     */
+    void createMissing(Collection<StudentSubjectStatistics.Key> keys);
+}
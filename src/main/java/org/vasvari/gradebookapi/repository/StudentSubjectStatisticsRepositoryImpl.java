@@ -0,0 +1,20 @@
+package org.vasvari.gradebookapi.repository;
+
+import org.vasvari.gradebookapi.model.StudentSubjectStatistics;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class StudentSubjectStatisticsRepositoryImpl implements StudentSubjectStatisticsRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void createMissing(Collection<StudentSubjectStatistics.Key> keys) {
+        StatisticsRows.createMissing(entityManager, "student_subject_statistics", List.of("student_id", "subject_id"),
+                keys.stream().map(key -> List.of(key.getStudentId(), key.getSubjectId())).collect(Collectors.toList()));
+    }
+}
@@ -1,18 +1,41 @@
 package org.vasvari.gradebookapi.repository;
 
-import org.vasvari.gradebookapi.model.Student;
 import org.vasvari.gradebookapi.model.Subject;
 import org.vasvari.gradebookapi.model.Teacher;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.support.JpaRepositoryImplementation;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
-public interface SubjectRepository extends JpaRepositoryImplementation<Subject, Long>, JpaSpecificationExecutor<Subject> {
-    List<Subject> findSubjectsByStudentsContaining(Student student);
-    Optional<Subject> findSubjectsByStudentsContainingAndId(Student student, long subjectId);
+public interface SubjectRepository extends JpaRepositoryImplementation<Subject, Long>, JpaSpecificationExecutor<Subject>,
+        SubjectRepositoryCustom {
     List<Subject> findSubjectsByTeacher(Teacher teacher);
+    List<Subject> findSubjectsByTeacherId(Long teacherId);
+    List<Subject> findSubjectsByStudentsId(Long studentId);
     List<Subject> findAll(Specification<Subject> specification);
+
+    @EntityGraph(Subject.WITH_STUDENTS)
+    Optional<Subject> findWithStudentsById(Long id);
+
+    @Query("select student.id from Subject subject join subject.students student " +
+            "where subject.id = :subjectId and student.id in :studentIds")
+    Set<Long> findIdsOfEnrolledStudents(Long subjectId, Collection<Long> studentIds);
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = "delete from subject_students where subject_id = :subjectId and students_id in :studentIds",
+            nativeQuery = true)
+    int unenrollStudents(Long subjectId, Collection<Long> studentIds);
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = "delete from subject_students where subject_id = :subjectId " +
+            "and students_id in (select student.id from student where student.grade_level = :gradeLevel)",
+            nativeQuery = true)
+    int unenrollStudentsOfGradeLevel(Long subjectId, Integer gradeLevel);
 }
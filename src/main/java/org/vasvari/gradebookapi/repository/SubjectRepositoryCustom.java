@@ -0,0 +1,21 @@
+package org.vasvari.gradebookapi.repository;
+
+import java.util.Collection;
+
+/**
+ * The enrollment writes, which only touch the rows of the given students, whatever the size of the roster. Each is
+ * a single statement ({@code INSERT ... ON DUPLICATE KEY UPDATE} on MySQL, {@code MERGE} on H2) which skips the
+ * students already enrolled, also the ones enrolled by concurrent transactions. Have to be called inside a
+ * transaction.
+ */
+public interface SubjectRepositoryCustom {
+    /**
+     * @return the number of students enrolled, not counting the ones enrolled already
+     */
+    int enrollStudents(Long subjectId, Collection<Long> studentIds);
+
+    /**
+     * @return the number of students enrolled, not counting the ones enrolled already
+     */
+    int enrollStudentsOfGradeLevel(Long subjectId, Integer gradeLevel);
+}
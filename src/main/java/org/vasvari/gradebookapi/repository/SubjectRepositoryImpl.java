@@ -0,0 +1,64 @@
+package org.vasvari.gradebookapi.repository;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Collection;
+
+public class SubjectRepositoryImpl implements SubjectRepositoryCustom {
+    // the not exists filter keeps the count to the students enrolled now, the no-op update only skips the ones
+    // enrolled concurrently; unlike insert ignore, it does not turn other errors into warnings
+    private static final String MYSQL_ENROLL =
+            "insert into subject_students (subject_id, students_id) " +
+                    "select :subjectId, student.id from student where %s " +
+                    "and not exists (select 1 from subject_students enrollment " +
+                    "where enrollment.subject_id = :subjectId and enrollment.students_id = student.id) " +
+                    "on duplicate key update subject_id = subject_id";
+    private static final String H2_ENROLL =
+            "merge into subject_students enrollment " +
+                    "using (select cast(:subjectId as bigint) subject_id, student.id students_id " +
+                    "from student where %s) input " +
+                    "on (enrollment.subject_id = input.subject_id and enrollment.students_id = input.students_id) " +
+                    "when not matched then insert (subject_id, students_id) " +
+                    "values (input.subject_id, input.students_id)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int enrollStudents(Long subjectId, Collection<Long> studentIds) {
+        int enrolled = entityManager.createNativeQuery(enrollStatementOf("student.id in :studentIds"))
+                .setParameter("subjectId", subjectId)
+                .setParameter("studentIds", studentIds)
+                .executeUpdate();
+        // managed subjects may hold the previous roster
+        entityManager.clear();
+
+        return enrolled;
+    }
+
+    @Override
+    public int enrollStudentsOfGradeLevel(Long subjectId, Integer gradeLevel) {
+        int enrolled = entityManager.createNativeQuery(enrollStatementOf("student.grade_level = :gradeLevel"))
+                .setParameter("subjectId", subjectId)
+                .setParameter("gradeLevel", gradeLevel)
+                .executeUpdate();
+        // managed subjects may hold the previous roster
+        entityManager.clear();
+
+        return enrolled;
+    }
+
+    private String enrollStatementOf(String studentCondition) {
+        Dialect dialect = entityManager.unwrap(SharedSessionContractImplementor.class)
+                .getFactory().getJdbcServices().getDialect();
+        if (dialect instanceof MySQLDialect) return String.format(MYSQL_ENROLL, studentCondition);
+        if (dialect instanceof H2Dialect) return String.format(H2_ENROLL, studentCondition);
+
+        throw new UnsupportedOperationException("Enrollment is not supported with " + dialect);
+    }
+}
@@ -0,0 +1,17 @@
+package org.vasvari.gradebookapi.repository;
+
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.support.JpaRepositoryImplementation;
+import org.vasvari.gradebookapi.model.SubjectStatistics;
+
+import javax.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+
+public interface SubjectStatisticsRepository extends JpaRepositoryImplementation<SubjectStatistics, Long>,
+        SubjectStatisticsRepositoryCustom {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from SubjectStatistics s where s.subjectId in :subjectIds order by s.subjectId")
+    List<SubjectStatistics> findAllForUpdate(Collection<Long> subjectIds);
+}
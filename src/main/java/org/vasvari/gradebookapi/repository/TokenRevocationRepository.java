@@ -0,0 +1,16 @@
+package org.vasvari.gradebookapi.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import org.vasvari.gradebookapi.model.TokenRevocation;
+
+import java.time.Instant;
+
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+    @Transactional
+    @Modifying
+    @Query("delete from TokenRevocation r where r.revokedBefore < :revokedBefore")
+    int deleteRevokedBefore(Instant revokedBefore);
+}
@@ -1,10 +1,18 @@
 package org.vasvari.gradebookapi.repository;
 
 import org.vasvari.gradebookapi.model.ApplicationUser;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.support.JpaRepositoryImplementation;
 
 import java.util.Optional;
+import java.util.Set;
 
-public interface UserRepository extends JpaRepositoryImplementation<ApplicationUser, Long> {
+public interface UserRepository extends JpaRepositoryImplementation<ApplicationUser, Long>, UserRepositoryCustom {
     Optional<ApplicationUser> findByUsername(String username);
+
+    @Query("select u.username from ApplicationUser u")
+    Set<String> findAllUsernames();
+
+    @Query("select u.username from ApplicationUser u where u.username like concat(:prefix, '%')")
+    Set<String> findUsernamesStartingWith(String prefix);
 }
@@ -0,0 +1,15 @@
+package org.vasvari.gradebookapi.repository;
+
+import org.vasvari.gradebookapi.model.ApplicationUser;
+
+import java.util.List;
+
+public interface UserRepositoryCustom {
+    /**
+     * Inserts the users in JDBC batches, then sets their generated IDs, which are read back in one query by
+     * username. The users are not managed afterwards. Has to be called inside a transaction.
+     *
+     * @param users the users to insert, with unique usernames
+     */
+    void insertAll(List<ApplicationUser> users);
+}
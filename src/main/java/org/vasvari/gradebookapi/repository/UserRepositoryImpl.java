@@ -0,0 +1,44 @@
+package org.vasvari.gradebookapi.repository;
+
+import org.hibernate.Session;
+import org.vasvari.gradebookapi.model.ApplicationUser;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class UserRepositoryImpl implements UserRepositoryCustom {
+    private static final String INSERT = "insert into user (username, password, role, enabled) values (?, ?, ?, ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertAll(List<ApplicationUser> users) {
+        if (users.isEmpty()) return;
+
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+                for (ApplicationUser user : users) {
+                    statement.setString(1, user.getUsername());
+                    statement.setString(2, user.getPassword());
+                    statement.setString(3, user.getRole().name());
+                    statement.setBoolean(4, user.isEnabled());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+
+        // the generated keys of a batch are not returned by every driver, the usernames are unique
+        Map<String, Long> ids = entityManager
+                .createQuery("select u.username, u.id from ApplicationUser u where u.username in :usernames", Object[].class)
+                .setParameter("usernames", users.stream().map(ApplicationUser::getUsername).collect(Collectors.toList()))
+                .getResultStream()
+                .collect(Collectors.toMap(row -> (String) row[0], row -> (Long) row[1]));
+        users.forEach(user -> user.setId(ids.get(user.getUsername())));
+    }
+}
@@ -14,7 +14,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
@@ -26,7 +25,7 @@ public class ApplicationSecurityConfig extends WebSecurityConfigurerAdapter {
     private final JwtAuthenticationEntryPoint entryPoint;
     private final UserService userService;
     private final JwtRequestFilter requestFilter;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingExecutor passwordHashingExecutor;
 
     @Override
     protected void configure(AuthenticationManagerBuilder auth) {
@@ -60,6 +59,11 @@ public class ApplicationSecurityConfig extends WebSecurityConfigurerAdapter {
                 ).hasRole(ApplicationUserRole.TEACHER.name())
 
                 .antMatchers("/api/authenticate/**").permitAll()
+                .antMatchers("/actuator/health").permitAll()
+                // scraped by Prometheus with the scrape token, or by admins
+                .antMatchers("/actuator/prometheus").access(String.format(
+                        "@prometheusScrapeToken.isPresentIn(request) or hasRole('%s')", ApplicationUserRole.ADMIN.name()))
+                .antMatchers("/actuator/**").hasRole(ApplicationUserRole.ADMIN.name())
                 // Reject every unauthenticated request and send error code 401.
                 .and().exceptionHandling().authenticationEntryPoint(entryPoint)
                 // We don't need sessions to be created.
@@ -73,7 +77,8 @@ public class ApplicationSecurityConfig extends WebSecurityConfigurerAdapter {
     @Bean
     public DaoAuthenticationProvider daoAuthenticationProvider() {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
-        provider.setPasswordEncoder(passwordEncoder);
+        // the passwords of logins are verified on the bounded pool, not on the request threads
+        provider.setPasswordEncoder(new PooledPasswordEncoder(passwordHashingExecutor));
         provider.setUserDetailsService(userService);
 
         return provider;
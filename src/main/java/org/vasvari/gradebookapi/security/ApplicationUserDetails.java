@@ -0,0 +1,50 @@
+package org.vasvari.gradebookapi.security;
+
+import lombok.ToString;
+import lombok.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.vasvari.gradebookapi.model.ApplicationUser;
+
+import java.util.Collection;
+
+/**
+ * An immutable copy of the authentication data of an {@link ApplicationUser}, which can be cached and shared by
+ * concurrent requests unlike the entity. It does not let Spring Security erase its password after a login.
+ */
+@Value
+public class ApplicationUserDetails implements UserDetails {
+    Long id;
+    String username;
+    @ToString.Exclude
+    String password;
+    ApplicationUserRole role;
+    boolean enabled;
+    // the ID of the student or teacher related to the user, null for admins
+    Long schoolActorId;
+
+    public static ApplicationUserDetails of(ApplicationUser user, Long schoolActorId) {
+        return new ApplicationUserDetails(user.getId(), user.getUsername(), user.getPassword(), user.getRole(),
+                user.isEnabled(), schoolActorId);
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return role.getGrantedAuthorities();
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+}
@@ -0,0 +1,28 @@
+package org.vasvari.gradebookapi.security;
+
+import lombok.Value;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.vasvari.gradebookapi.jwt.JwtClaims;
+
+/**
+ * The principal of a request authenticated by a token carrying the identity of the user, so the user and the
+ * student or teacher related to the user are known without a query
+ */
+@Value
+public class AuthenticatedUser implements AuthenticatedPrincipal {
+    Long userId;
+    String username;
+    ApplicationUserRole role;
+    // the ID of the student or teacher related to the user, null for admins
+    Long schoolActorId;
+
+    public static AuthenticatedUser of(JwtClaims claims) {
+        return new AuthenticatedUser(claims.getUserId(), claims.getUsername(), claims.getRole(),
+                claims.getSchoolActorId());
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
@@ -0,0 +1,120 @@
+package org.vasvari.gradebookapi.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.vasvari.gradebookapi.exception.AuthenticationOverloadedException;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+
+/**
+ * Hashes and verifies passwords on fixed pools of threads, so a burst of BCrypt hashing neither occupies every
+ * request thread nor leaves no CPU for the other requests.
+ * <p>
+ * The logins are hashed on a pool of by default half of the CPUs, waiting for their result in a queue of
+ * {@code queue-capacity}. A login beyond that fails at once with {@link AuthenticationOverloadedException}, answered
+ * with 503 and Retry-After. The accounts created in bulk are hashed on a pool of their own, by default a quarter of
+ * the CPUs, so they never queue before the logins. Once its queue of {@code bulk-queue-capacity} is full, the
+ * creating request hashes on its own thread, which holds it back until the pool catches up.
+ * <p>
+ * The pools are monitored as {@code executor.*} with the names {@code passwordHashing} and
+ * {@code bulkPasswordHashing}, their queues as {@code password.hashing.queued} and the time of the hashes as
+ * {@code password.hashing}.
+ */
+@Component
+public class PasswordHashingExecutor implements DisposableBean {
+    private final PasswordEncoder passwordEncoder;
+    private final ExecutorService executor;
+    private final ExecutorService bulkExecutor;
+    private final Timer encodeTimer;
+    private final Timer verifyTimer;
+    private final Counter rejectedHashes;
+
+    public PasswordHashingExecutor(PasswordEncoder passwordEncoder,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${password-hashing.pool-size:0}") int poolSize,
+                                   @Value("${password-hashing.queue-capacity:50}") int queueCapacity,
+                                   @Value("${password-hashing.bulk-pool-size:0}") int bulkPoolSize,
+                                   @Value("${password-hashing.bulk-queue-capacity:100}") int bulkQueueCapacity,
+                                   @Value("${password-hashing.retry-after:1s}") Duration retryAfter) {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        this.passwordEncoder = passwordEncoder;
+        this.rejectedHashes = meterRegistry.counter("password.hashing.rejected");
+        this.executor = newPool(meterRegistry, "passwordHashing", "password-hashing-", "login",
+                poolSize > 0 ? poolSize : Math.max(1, cpus / 2), queueCapacity,
+                (task, pool) -> {
+                    rejectedHashes.increment();
+                    throw new AuthenticationOverloadedException(retryAfter);
+                });
+        this.bulkExecutor = newPool(meterRegistry, "bulkPasswordHashing", "bulk-password-hashing-", "bulk",
+                bulkPoolSize > 0 ? bulkPoolSize : Math.max(1, cpus / 4), bulkQueueCapacity,
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.encodeTimer = meterRegistry.timer("password.hashing", Tags.of("operation", "encode"));
+        this.verifyTimer = meterRegistry.timer("password.hashing", Tags.of("operation", "verify"));
+    }
+
+    private static ExecutorService newPool(MeterRegistry meterRegistry, String name, String threadNamePrefix,
+                                           String queueTag, int threads, int queueCapacity,
+                                           RejectedExecutionHandler rejectionHandler) {
+        // a queue of no capacity hands the tasks over to idle threads only
+        BlockingQueue<Runnable> queue = queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>();
+        meterRegistry.gaugeCollectionSize("password.hashing.queued", Tags.of("pool", queueTag), queue);
+        return ExecutorServiceMetrics.monitor(meterRegistry,
+                new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, queue,
+                        new CustomizableThreadFactory(threadNamePrefix),
+                        rejectionHandler),
+                name);
+    }
+
+    /**
+     * Hashes the password on the pool of the logins and waits for the result
+     *
+     * @throws AuthenticationOverloadedException if the pool and its queue are full
+     */
+    public String encode(CharSequence rawPassword) {
+        return join(CompletableFuture.supplyAsync(
+                () -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword)), executor));
+    }
+
+    /**
+     * Hashes the password of an account created in bulk on the pool of the bulk creations, on the calling thread
+     * if its queue is full
+     */
+    public CompletableFuture<String> encodeInBulk(CharSequence rawPassword) {
+        return CompletableFuture.supplyAsync(
+                () -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword)), bulkExecutor);
+    }
+
+    /**
+     * Verifies the password on the pool of the logins and waits for the result
+     *
+     * @throws AuthenticationOverloadedException if the pool and its queue are full
+     */
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return join(CompletableFuture.supplyAsync(
+                () -> verifyTimer.record(() -> passwordEncoder.matches(rawPassword, encodedPassword)), executor));
+    }
+
+    private static <T> T join(CompletableFuture<T> hash) {
+        try {
+            return hash.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) throw (RuntimeException) ex.getCause();
+            throw ex;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+        bulkExecutor.shutdownNow();
+    }
+}
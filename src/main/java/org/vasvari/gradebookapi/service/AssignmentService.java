@@ -3,32 +3,30 @@ package org.vasvari.gradebookapi.service;
 import org.vasvari.gradebookapi.dto.AssignmentInput;
 import org.vasvari.gradebookapi.dto.AssignmentOutput;
 import org.vasvari.gradebookapi.dto.mapper.AssignmentMapper;
-import org.vasvari.gradebookapi.exception.StudentNotFoundException;
-import org.vasvari.gradebookapi.exception.TeacherNotFoundException;
 import org.vasvari.gradebookapi.model.Assignment;
-import org.vasvari.gradebookapi.model.Student;
 import org.vasvari.gradebookapi.model.Subject;
-import org.vasvari.gradebookapi.model.Teacher;
 import org.vasvari.gradebookapi.model.request.AssignmentRequest;
 import org.vasvari.gradebookapi.model.specification.AssignmentSpecification;
 import org.vasvari.gradebookapi.repository.AssignmentRepository;
-import org.vasvari.gradebookapi.repository.StudentRepository;
 import org.vasvari.gradebookapi.repository.SubjectRepository;
-import org.vasvari.gradebookapi.repository.TeacherRepository;
+import org.vasvari.gradebookapi.etag.ChangesResources;
+import org.vasvari.gradebookapi.exception.AssignmentNotFoundException;
+import org.vasvari.gradebookapi.exception.VersionConflictException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 
+import static org.vasvari.gradebookapi.etag.VersionedResource.ASSIGNMENTS;
+
 @Service
 @RequiredArgsConstructor
 public class AssignmentService {
 
     private final AssignmentRepository assignmentRepository;
-    private final TeacherRepository teacherRepository;
     private final SubjectRepository subjectRepository;
-    private final StudentRepository studentRepository;
     private final AssignmentMapper mapper;
     private final AssignmentSpecification specification;
 
@@ -40,6 +38,7 @@ public class AssignmentService {
         return mapper.mapAll(assignmentRepository.findAll(specification.getAssignments(request)));
     }
 
+    @ChangesResources(ASSIGNMENTS)
     public AssignmentOutput save(AssignmentInput assignmentInput) {
         Assignment assignment = mapper.map(assignmentInput);
         Assignment assignmentSaved = assignmentRepository.save(assignment);
@@ -47,10 +46,16 @@ public class AssignmentService {
         return mapper.map(assignmentSaved);
     }
 
-    public AssignmentOutput update(Long id, AssignmentInput assignmentInput) {
+    @Transactional
+    @ChangesResources(ASSIGNMENTS)
+    public AssignmentOutput update(Long id, AssignmentInput assignmentInput, Long expectedVersion) {
+        Assignment assignment = assignmentRepository.findById(id).orElseThrow(() -> new AssignmentNotFoundException(id));
+        VersionConflictException.check("Assignment", assignment.getId(), assignment.getVersion(), expectedVersion);
         Assignment update = mapper.map(assignmentInput);
         update.setId(id);
-        Assignment assignmentUpdated = assignmentRepository.save(update);
+        update.setVersion(assignment.getVersion());
+        // flushed, so the output has the incremented version
+        Assignment assignmentUpdated = assignmentRepository.saveAndFlush(update);
 
         return mapper.map(assignmentUpdated);
     }
@@ -59,20 +64,23 @@ public class AssignmentService {
         return assignmentRepository.findById(id).map(mapper::map);
     }
 
-    public void deleteById(Long id) {
-        assignmentRepository.deleteById(id);
+    @Transactional
+    @ChangesResources(ASSIGNMENTS)
+    public void deleteById(Long id, Long expectedVersion) {
+        assignmentRepository.findById(id).ifPresent(assignment -> {
+            VersionConflictException.check("Assignment", assignment.getId(), assignment.getVersion(), expectedVersion);
+            assignmentRepository.delete(assignment);
+        });
     }
 
     /**
      * Returns the list of assignments created by the teacher specified by the teacherId param
      *
      * @param teacherId the ID of the teacher whose assignments are looked for
-     * @return list of assignments
-     * @throws TeacherNotFoundException if teacher does not exist with the given ID
+     * @return list of assignments, empty if teacher does not exist with the given ID
      */
     public List<AssignmentOutput> findAssignmentsOfTeacher(Long teacherId) {
-        Teacher teacher = teacherRepository.findById(teacherId).orElseThrow(() -> new TeacherNotFoundException(teacherId));
-        List<Subject> subjectsOfTeacher = subjectRepository.findSubjectsByTeacher(teacher);
+        List<Subject> subjectsOfTeacher = subjectRepository.findSubjectsByTeacherId(teacherId);
         List<Assignment> assignmentsOfTeacher = assignmentRepository.findAllBySubjectIn(subjectsOfTeacher);
 
         return mapper.mapAll(assignmentsOfTeacher);
@@ -82,13 +90,10 @@ public class AssignmentService {
      * Returns the list of assignments created for the student specified by the studentId param
      *
      * @param studentId the ID of the student whose assignments are looked for
-     * @return list of assignments
-     * @throws StudentNotFoundException if student does not exist with the given ID
+     * @return list of assignments, empty if student does not exist with the given ID
      */
     public List<AssignmentOutput> findAssignmentsOfStudent(Long studentId) {
-        Student student = studentRepository.findById(studentId).orElseThrow(() -> new StudentNotFoundException(studentId));
-        List<Subject> subjectsOfStudent = subjectRepository.findSubjectsByStudentsContaining(student);
-        List<Assignment> assignmentsOfStudent = assignmentRepository.findAllBySubjectIn(subjectsOfStudent);
+        List<Assignment> assignmentsOfStudent = assignmentRepository.findAllOfStudent(studentId);
 
         return mapper.mapAll(assignmentsOfStudent);
     }
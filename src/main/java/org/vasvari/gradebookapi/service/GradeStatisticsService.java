@@ -0,0 +1,115 @@
+package org.vasvari.gradebookapi.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.vasvari.gradebookapi.dto.GradeStatisticsOutput;
+import org.vasvari.gradebookapi.dto.SubjectStatisticsOutput;
+import org.vasvari.gradebookapi.dto.mapper.GradeStatisticsMapper;
+import org.vasvari.gradebookapi.model.*;
+import org.vasvari.gradebookapi.repository.AssignmentStatisticsRepository;
+import org.vasvari.gradebookapi.repository.StudentSubjectStatisticsRepository;
+import org.vasvari.gradebookapi.repository.SubjectStatisticsRepository;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class GradeStatisticsService {
+    private final SubjectStatisticsRepository subjectStatisticsRepository;
+    private final AssignmentStatisticsRepository assignmentStatisticsRepository;
+    private final StudentSubjectStatisticsRepository studentSubjectStatisticsRepository;
+    private final GradeStatisticsMapper mapper;
+
+    @Transactional(readOnly = true)
+    public SubjectStatisticsOutput findStatisticsOfSubject(Long subjectId) {
+        GradeStatisticsOutput statisticsOfSubject = subjectStatisticsRepository.findById(subjectId)
+                .map(mapper::map)
+                .orElseGet(() -> mapper.map(new SubjectStatistics(subjectId)));
+        List<GradeStatisticsOutput> statisticsOfAssignments =
+                assignmentStatisticsRepository.findAllOfSubject(subjectId).stream()
+                        .map(mapper::map)
+                        .collect(Collectors.toList());
+
+        return new SubjectStatisticsOutput(statisticsOfSubject, statisticsOfAssignments);
+    }
+
+    @Transactional(readOnly = true)
+    public List<GradeStatisticsOutput> findStatisticsOfStudent(Long studentId) {
+        return studentSubjectStatisticsRepository.findAllByStudentIdOrderBySubjectId(studentId).stream()
+                .map(mapper::map)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Applies the grades removed and added by a write of gradebook entries to the statistics of the subjects,
+     * the assignments and the students in the subjects. The statistics not stored yet are created first, so all
+     * the changed statistics can be locked until the end of the transaction, which has to be the transaction of
+     * the write, and concurrent writes cannot lose updates or create the same statistics twice.
+     *
+     * @param removed the entries deleted or overwritten by the write, as they were before the write
+     * @param added   the entries created or overwritten by the write, as they are after the write
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void update(Collection<GradebookEntry> removed, Collection<GradebookEntry> added) {
+        // sorted, so the statistics are locked in the same order by every write
+        Map<Long, GradeDistribution> subjectChanges = new TreeMap<>();
+        Map<Long, GradeDistribution> assignmentChanges = new TreeMap<>();
+        Map<StudentSubjectStatistics.Key, GradeDistribution> studentSubjectChanges = new TreeMap<>();
+        for (GradebookEntry entry : removed) {
+            changeOf(subjectChanges, entry.getSubject().getId()).remove(entry.getGrade());
+            changeOf(assignmentChanges, entry.getAssignment().getId()).remove(entry.getGrade());
+            changeOf(studentSubjectChanges, keyOf(entry)).remove(entry.getGrade());
+        }
+        for (GradebookEntry entry : added) {
+            changeOf(subjectChanges, entry.getSubject().getId()).add(entry.getGrade());
+            changeOf(assignmentChanges, entry.getAssignment().getId()).add(entry.getGrade());
+            changeOf(studentSubjectChanges, keyOf(entry)).add(entry.getGrade());
+        }
+        if (subjectChanges.isEmpty()) return;
+
+        subjectStatisticsRepository.createMissing(subjectChanges.keySet());
+        apply(subjectChanges,
+                subjectStatisticsRepository.findAllForUpdate(subjectChanges.keySet()),
+                SubjectStatistics::getSubjectId, subjectStatisticsRepository);
+        assignmentStatisticsRepository.createMissing(assignmentChanges.keySet());
+        apply(assignmentChanges,
+                assignmentStatisticsRepository.findAllForUpdate(assignmentChanges.keySet()),
+                AssignmentStatistics::getAssignmentId, assignmentStatisticsRepository);
+        studentSubjectStatisticsRepository.createMissing(studentSubjectChanges.keySet());
+        apply(studentSubjectChanges,
+                studentSubjectStatisticsRepository.findAllForUpdate(
+                        studentSubjectChanges.keySet().stream().map(StudentSubjectStatistics.Key::getStudentId).collect(Collectors.toSet()),
+                        studentSubjectChanges.keySet().stream().map(StudentSubjectStatistics.Key::getSubjectId).collect(Collectors.toSet())),
+                StudentSubjectStatistics::getKey, studentSubjectStatisticsRepository);
+    }
+
+    private <K> GradeDistribution changeOf(Map<K, GradeDistribution> changes, K key) {
+        return changes.computeIfAbsent(key, k -> new GradeDistribution());
+    }
+
+    private StudentSubjectStatistics.Key keyOf(GradebookEntry entry) {
+        return new StudentSubjectStatistics.Key(entry.getStudent().getId(), entry.getSubject().getId());
+    }
+
+    /**
+     * Adds the changes to the locked statistics, deleting the ones left without grades. The statistics deleted are
+     * created again by the next write of their grades, which waits for the lock of the deleting transaction.
+     */
+    private <K, S extends GradeStatistics> void apply(Map<K, GradeDistribution> changes, List<S> lockedStatistics,
+                                                      Function<S, K> keyOfStatistics, JpaRepository<S, K> repository) {
+        Map<K, S> storedStatistics = lockedStatistics.stream()
+                .collect(Collectors.toMap(keyOfStatistics, Function.identity()));
+        changes.forEach((key, change) -> {
+            S statistics = storedStatistics.get(key);
+            if (statistics == null) throw new IllegalStateException("Statistics " + key + " were not created");
+
+            statistics.getDistribution().add(change);
+            if (statistics.getDistribution().isEmpty()) repository.delete(statistics);
+        });
+    }
+}
@@ -1,92 +1,310 @@
 package org.vasvari.gradebookapi.service;
 
+import org.vasvari.gradebookapi.dto.CursorPage;
+import org.vasvari.gradebookapi.dto.GradebookBatchInput;
+import org.vasvari.gradebookapi.dto.GradebookBatchResult;
 import org.vasvari.gradebookapi.dto.GradebookInput;
 import org.vasvari.gradebookapi.dto.GradebookOutput;
 import org.vasvari.gradebookapi.dto.mapper.GradebookEntryMapper;
+import org.vasvari.gradebookapi.dto.simpleTypes.Cursor;
+import org.vasvari.gradebookapi.dto.simpleTypes.StudentGrade;
 import org.vasvari.gradebookapi.exception.DuplicateEntryException;
+import org.vasvari.gradebookapi.exception.GradebookEntryNotFoundException;
+import org.vasvari.gradebookapi.exception.VersionConflictException;
 import org.vasvari.gradebookapi.model.GradebookEntry;
+import org.vasvari.gradebookapi.model.Student;
 import org.vasvari.gradebookapi.model.request.GradebookRequest;
 import org.vasvari.gradebookapi.model.specification.GradebookEntrySpecification;
+import org.vasvari.gradebookapi.repository.AssignmentRepository;
 import org.vasvari.gradebookapi.repository.GradebookEntryRepository;
+import org.vasvari.gradebookapi.repository.StudentRepository;
+import org.vasvari.gradebookapi.repository.SubjectRepository;
+import org.vasvari.gradebookapi.etag.ChangesResources;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.vasvari.gradebookapi.etag.VersionedResource.GRADEBOOK_ENTRIES;
 
 @Service
 @RequiredArgsConstructor
 public class GradebookService {
+    public static final int DEFAULT_PAGE_LIMIT = 100;
+    public static final int MAX_PAGE_LIMIT = 1000;
+    public static final int EXPORT_FETCH_SIZE = 500;
 
     private final GradebookEntryRepository repository;
     private final GradebookEntryMapper mapper;
     private final GradebookEntrySpecification specification;
+    private final StudentRepository studentRepository;
+    private final SubjectRepository subjectRepository;
+    private final AssignmentRepository assignmentRepository;
+    private final GradeStatisticsService gradeStatisticsService;
 
     public List<GradebookOutput> findAll() {
-        return mapper.mapAll(repository.findAll());
+        return findGradebookEntries(new GradebookRequest());
     }
 
     public List<GradebookOutput> findGradebookEntries(GradebookRequest request) {
-        List<GradebookEntry> entries = repository.findAll(specification.getGradebookEntries(request));
+        return repository.findAllOutputs(specification.getGradebookEntries(request), Sort.by("id"));
+    }
+
+    /**
+     * Returns a slice of the entries matching the request, in ID order. The slice is read with a range query
+     * on the primary key, so the cost of the query does not depend on the position of the slice.
+     *
+     * @param request the filters to apply
+     * @param cursor  the position to continue from, or null to start from the first entry
+     * @param limit   the maximum number of entries returned, capped at {@value MAX_PAGE_LIMIT}
+     * @return the slice of entries along with the cursors of the neighbouring slices
+     */
+    public CursorPage<GradebookOutput> findGradebookEntries(GradebookRequest request, Cursor cursor, int limit) {
+        int pageLimit = Math.max(1, Math.min(limit, MAX_PAGE_LIMIT));
+        Specification<GradebookEntry> filter = specification.getGradebookEntries(request);
+        boolean backward = cursor != null && cursor.isBackward();
+        if (cursor != null) filter = filter.and(specification.getGradebookEntriesBeyond(cursor));
+        Sort sort = backward ? Sort.by("id").descending() : Sort.by("id").ascending();
+
+        // fetch one extra entry to find out if there are more entries in this direction
+        List<GradebookOutput> content = repository.findAllOutputs(filter, sort, pageLimit + 1);
+        boolean hasMore = content.size() > pageLimit;
+        if (hasMore) content = content.subList(0, pageLimit);
+        if (backward) Collections.reverse(content);
+
+        if (content.isEmpty()) return new CursorPage<>(content, null, null);
+
+        Long firstId = content.get(0).getId();
+        Long lastId = content.get(content.size() - 1).getId();
+        boolean hasNext = backward || hasMore;
+        boolean hasPrevious = backward ? hasMore : cursor != null;
+
+        return new CursorPage<>(content,
+                hasNext ? Cursor.after(lastId) : null,
+                hasPrevious ? Cursor.before(firstId) : null);
+    }
+
+    /**
+     * Passes the entries matching the request to the consumer one at a time, in ID order. The entries are
+     * streamed from the database, so the memory used does not depend on the number of entries.
+     *
+     * @param request  the filters to apply
+     * @param consumer the consumer of the entries
+     * @return the number of entries exported
+     */
+    @Transactional(readOnly = true)
+    public long exportGradebookEntries(GradebookRequest request, Consumer<GradebookOutput> consumer) {
+        long count = 0;
+        try (Stream<GradebookOutput> entries =
+                     repository.streamOutputs(specification.getGradebookEntries(request), Sort.by("id"), EXPORT_FETCH_SIZE)) {
+            for (GradebookOutput entry : (Iterable<GradebookOutput>) entries::iterator) {
+                consumer.accept(entry);
+                count++;
+            }
+        }
 
-        return mapper.mapAll(entries);
+        return count;
     }
 
     public Optional<GradebookOutput> findById(Long id) {
         return repository.findById(id).map(mapper::map);
     }
 
+    @Transactional
+    @ChangesResources(GRADEBOOK_ENTRIES)
     public GradebookOutput save(GradebookInput gradebookInput) {
-        if (isDuplicateEntry(gradebookInput)) throw new DuplicateEntryException(gradebookInput);
         GradebookEntry entryToSave = mapper.map(gradebookInput);
-        GradebookEntry entrySaved = repository.save(entryToSave);
+        GradebookEntry entrySaved = saveUnique(entryToSave, gradebookInput);
+        gradeStatisticsService.update(List.of(), List.of(entrySaved));
 
         return mapper.map(entrySaved);
     }
 
-    public GradebookOutput update(Long id, GradebookInput gradebookInput) {
-        GradebookEntry oldEntry = repository.getById(id);
-        GradebookEntry update = mapper.map(gradebookInput);
-        if (!areEntriesOnlyDifferInGrade(oldEntry, update) && isDuplicateEntry(gradebookInput)) {
-            throw new DuplicateEntryException(gradebookInput);
+    /**
+     * Saves the grade, overwriting the grade of the entry with the same student, subject and assignment if
+     * there is one. The grade and the version of the entry are read without a lock, then the grade is written in a
+     * single statement, which overwrites the entry only if it is still at the version read, so the statistics are
+     * changed by the grade actually overwritten.
+     *
+     * @param gradebookInput the grade to save
+     * @return the saved entry
+     * @throws ObjectOptimisticLockingFailureException if the entry was created or changed by another request
+     *                                                 after it was read
+     */
+    @Transactional
+    @ChangesResources(GRADEBOOK_ENTRIES)
+    public GradebookOutput upsert(GradebookInput gradebookInput) {
+        Long studentId = gradebookInput.getStudentId();
+        Long subjectId = gradebookInput.getSubjectId();
+        Long assignmentId = gradebookInput.getAssignmentId();
+        Optional<GradebookEntry> entryOverwritten = repository.findGradeByKey(studentId, subjectId, assignmentId);
+        Long id = entryOverwritten.map(GradebookEntry::getId).orElseGet(repository::generateId);
+        Long expectedVersion = entryOverwritten.map(GradebookEntry::getVersion).orElse(null);
+
+        if (!repository.upsert(id, studentId, subjectId, assignmentId, gradebookInput.getGrade(), expectedVersion))
+            throw new ObjectOptimisticLockingFailureException(GradebookEntry.class, id);
+
+        GradebookEntry entrySaved = GradebookEntry.builder()
+                .id(id)
+                .student(studentRepository.getById(studentId))
+                .subject(subjectRepository.getById(subjectId))
+                .assignment(assignmentRepository.getById(assignmentId))
+                .grade(gradebookInput.getGrade())
+                .build();
+        gradeStatisticsService.update(entryOverwritten.map(List::of).orElse(List.of()), List.of(entrySaved));
+
+        GradebookOutput output = repository.findOutputById(id).orElseThrow(IllegalStateException::new);
+        output.setVersion(expectedVersion == null ? 0 : expectedVersion + 1);
+        return output;
+    }
+
+    /**
+     * Saves the grades of a batch for the same subject and assignment. The students, their enrollment and the
+     * existing grades are checked with one query each, and the new entries are inserted in JDBC batches.
+     * Items that would be rejected by {@link #save(GradebookInput)} are skipped and reported in the result.
+     * The subject and the assignment are expected to exist.
+     *
+     * @param batch the grades to save
+     * @return the outcome of each item, in the order of the input
+     * @throws DuplicateEntryException if a grade of the batch was saved by another request after the check
+     */
+    @Transactional
+    @ChangesResources(GRADEBOOK_ENTRIES)
+    public List<GradebookBatchResult> saveAll(GradebookBatchInput batch) {
+        Long subjectId = batch.getSubjectId();
+        Long assignmentId = batch.getAssignmentId();
+        Set<Long> studentIds = batch.getGrades().stream()
+                .map(StudentGrade::getStudentId)
+                .collect(Collectors.toSet());
+
+        Map<Long, Student> students = studentRepository.findAllById(studentIds).stream()
+                .collect(Collectors.toMap(Student::getId, Function.identity()));
+        Set<Long> enrolledStudentIds = subjectRepository.findIdsOfEnrolledStudents(subjectId, studentIds);
+        Set<Long> gradedStudentIds = new HashSet<>(repository.findIdsOfGradedStudents(subjectId, assignmentId, studentIds));
+
+        List<GradebookBatchResult> results = new ArrayList<>();
+        List<GradebookBatchResult> createdResults = new ArrayList<>();
+        List<GradebookEntry> entriesToSave = new ArrayList<>();
+        for (int i = 0; i < batch.getGrades().size(); i++) {
+            StudentGrade studentGrade = batch.getGrades().get(i);
+            Long studentId = studentGrade.getStudentId();
+            GradebookBatchResult result = GradebookBatchResult.builder().index(i).studentId(studentId).build();
+            results.add(result);
+
+            if (!students.containsKey(studentId)) {
+                result.setStatus(GradebookBatchResult.Status.STUDENT_NOT_FOUND);
+                result.setMessage(String.format("Could not find student %d", studentId));
+            } else if (!enrolledStudentIds.contains(studentId)) {
+                result.setStatus(GradebookBatchResult.Status.NOT_ENROLLED);
+                result.setMessage(String.format("Student %d is not related to subject %d", studentId, subjectId));
+            } else if (!gradedStudentIds.add(studentId)) {
+                result.setStatus(GradebookBatchResult.Status.DUPLICATE);
+                result.setMessage(new DuplicateEntryException(batch.toGradebookInput(studentGrade)).getMessage());
+            } else {
+                result.setStatus(GradebookBatchResult.Status.CREATED);
+                createdResults.add(result);
+                entriesToSave.add(GradebookEntry.builder()
+                        .student(students.get(studentId))
+                        .subject(subjectRepository.getById(subjectId))
+                        .assignment(assignmentRepository.getById(assignmentId))
+                        .grade(studentGrade.getGrade())
+                        .build());
+            }
+        }
+
+        saveAllUnique(entriesToSave, batch);
+        gradeStatisticsService.update(List.of(), entriesToSave);
+        for (int i = 0; i < entriesToSave.size(); i++) {
+            createdResults.get(i).setEntry(mapper.map(entriesToSave.get(i)));
         }
 
+        return results;
+    }
+
+    /**
+     * @throws DuplicateEntryException if another entry exists with the same student, subject and assignment
+     */
+    @Transactional
+    @ChangesResources(GRADEBOOK_ENTRIES)
+    public GradebookOutput update(Long id, GradebookInput gradebookInput, Long expectedVersion) {
+        GradebookEntry entry = repository.findById(id).orElseThrow(() -> new GradebookEntryNotFoundException(id));
+        VersionConflictException.check("GradebookEntry", entry.getId(), entry.getVersion(), expectedVersion);
+        // copied, because saving the update overwrites the managed entry
+        List<GradebookEntry> entriesOverwritten = List.of(copyOf(entry));
+        GradebookEntry update = mapper.map(gradebookInput);
         update.setId(id);
-        GradebookEntry entryUpdated = repository.save(update);
+        update.setVersion(entry.getVersion());
+        GradebookEntry entryUpdated = saveUnique(update, gradebookInput);
+        gradeStatisticsService.update(entriesOverwritten, List.of(entryUpdated));
 
         return mapper.map(entryUpdated);
     }
 
-    public void deleteById(Long id) {
-        repository.deleteById(id);
+    @Transactional
+    @ChangesResources(GRADEBOOK_ENTRIES)
+    public void deleteById(Long id, Long expectedVersion) {
+        repository.findById(id).ifPresent(entry -> {
+            VersionConflictException.check("GradebookEntry", entry.getId(), entry.getVersion(), expectedVersion);
+            gradeStatisticsService.update(List.of(entry), List.of());
+            repository.delete(entry);
+        });
+    }
+
+
+    private GradebookEntry copyOf(GradebookEntry entry) {
+        return GradebookEntry.builder()
+                .id(entry.getId())
+                .student(entry.getStudent())
+                .subject(entry.getSubject())
+                .assignment(entry.getAssignment())
+                .grade(entry.getGrade())
+                .build();
     }
 
     /**
-     * Determines if an entry is a duplicate entry. An entry is duplicate if another entry already exists with
-     * the same subject, student and assignment
+     * Saves the entry and flushes it right away, so a violation of the unique key of the student, subject and
+     * assignment surfaces here and not at the end of the transaction.
      *
-     * @param entry the examined gradebook entry
-     * @return true if the entry is duplicate entry, false otherwise
+     * @param entry          the entry to save
+     * @param gradebookInput the input the entry was created from
+     * @return the saved entry
+     * @throws DuplicateEntryException if another entry exists with the same student, subject and assignment
      */
-    private boolean isDuplicateEntry(GradebookInput entry) {
-        GradebookRequest request = GradebookRequest.builder()
-                .subjectId(entry.getSubjectId())
-                .studentId(entry.getStudentId())
-                .assignmentId(entry.getAssignmentId())
-                .build();
-        return !findGradebookEntries(request).isEmpty();
+    private GradebookEntry saveUnique(GradebookEntry entry, GradebookInput gradebookInput) {
+        try {
+            return repository.saveAndFlush(entry);
+        } catch (DataIntegrityViolationException ex) {
+            if (isUniqueKeyViolation(ex)) throw new DuplicateEntryException(gradebookInput);
+            throw ex;
+        }
     }
 
     /**
-     * Compares two entries and determines if they only differ in grade value
+     * Saves the entries of a batch and flushes them right away, like {@link #saveUnique}.
      *
-     * @param entry1 one of the examined gradebook entries
-     * @param entry2 the other examined gradebook entry
-     * @return true if the entries only differ in grade value, false otherwise
+     * @throws DuplicateEntryException if an entry was saved after the check for existing entries
      */
-    private boolean areEntriesOnlyDifferInGrade(GradebookEntry entry1, GradebookEntry entry2) {
-        return entry1.getSubject().equals(entry2.getSubject())
-                && entry1.getStudent().equals(entry2.getStudent())
-                && entry1.getAssignment().equals(entry2.getAssignment());
+    private void saveAllUnique(List<GradebookEntry> entries, GradebookBatchInput batch) {
+        try {
+            repository.saveAll(entries);
+            repository.flush();
+        } catch (DataIntegrityViolationException ex) {
+            if (isUniqueKeyViolation(ex)) throw new DuplicateEntryException(batch);
+            throw ex;
+        }
+    }
+
+    private boolean isUniqueKeyViolation(DataIntegrityViolationException ex) {
+        String message = ex.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase().contains(GradebookEntry.UNIQUE_KEY);
     }
 }
@@ -5,17 +5,23 @@ import org.vasvari.gradebookapi.dto.StudentDto;
 import org.vasvari.gradebookapi.dto.mapper.SubjectMapper;
 import org.vasvari.gradebookapi.dto.mapper.StudentMapper;
 import org.vasvari.gradebookapi.model.specification.StudentSpecification;
-import org.vasvari.gradebookapi.model.Subject;
 import org.vasvari.gradebookapi.model.Student;
 import org.vasvari.gradebookapi.model.request.StudentRequest;
 import org.vasvari.gradebookapi.repository.SubjectRepository;
 import org.vasvari.gradebookapi.repository.StudentRepository;
+import org.vasvari.gradebookapi.etag.ChangesResources;
+import org.vasvari.gradebookapi.exception.StudentNotFoundException;
+import org.vasvari.gradebookapi.exception.VersionConflictException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import static org.vasvari.gradebookapi.etag.VersionedResource.STUDENTS;
+
 @Service
 @RequiredArgsConstructor
 public class StudentService {
@@ -34,6 +40,7 @@ public class StudentService {
         return studentMapper.mapAll(studentRepository.findAll(specification.getStudents(request)));
     }
 
+    @ChangesResources(STUDENTS)
     public StudentDto save(StudentDto studentDto) {
         Student studentToSave = studentMapper.map(studentDto);
         Student saved = studentRepository.save(studentToSave);
@@ -45,15 +52,35 @@ public class StudentService {
         return studentRepository.findById(id).map(studentMapper::map);
     }
 
-    public void deleteById(Long id) {
-        studentRepository.deleteById(id);
+    public List<StudentDto> findAllById(Collection<Long> ids) {
+        return studentMapper.mapAll(studentRepository.findAllById(ids));
     }
 
-    public List<SubjectOutput> findSubjectsOfStudent(StudentDto studentDto) {
-        Student student = studentMapper.map(studentDto);
-        List<Subject> subjects = subjectRepository.findSubjectsByStudentsContaining(student);
+    @Transactional
+    @ChangesResources(STUDENTS)
+    public StudentDto update(Long id, StudentDto studentDto, Long expectedVersion) {
+        Student student = studentRepository.findById(id).orElseThrow(() -> new StudentNotFoundException(id));
+        VersionConflictException.check("Student", student.getId(), student.getVersion(), expectedVersion);
+        Student update = studentMapper.map(studentDto);
+        update.setId(id);
+        update.setVersion(student.getVersion());
+        // flushed, so the output has the incremented version
+        Student updated = studentRepository.saveAndFlush(update);
+
+        return studentMapper.map(updated);
+    }
 
-        return subjectMapper.mapAll(subjects);
+    @Transactional
+    @ChangesResources(STUDENTS)
+    public void deleteById(Long id, Long expectedVersion) {
+        studentRepository.findById(id).ifPresent(student -> {
+            VersionConflictException.check("Student", student.getId(), student.getVersion(), expectedVersion);
+            studentRepository.delete(student);
+        });
     }
 
+    @Transactional(readOnly = true)
+    public List<SubjectOutput> findSubjectsOfStudent(Long studentId) {
+        return subjectMapper.mapAll(subjectRepository.findSubjectsByStudentsId(studentId));
+    }
 }
@@ -1,47 +1,54 @@
 package org.vasvari.gradebookapi.service;
 
+import org.vasvari.gradebookapi.dto.EnrollmentBatchInput;
+import org.vasvari.gradebookapi.dto.EnrollmentBatchResult;
 import org.vasvari.gradebookapi.dto.SubjectInput;
 import org.vasvari.gradebookapi.dto.SubjectOutput;
 import org.vasvari.gradebookapi.dto.StudentDto;
-import org.vasvari.gradebookapi.dto.TeacherDto;
 import org.vasvari.gradebookapi.dto.mapper.SubjectMapper;
 import org.vasvari.gradebookapi.dto.mapper.StudentMapper;
-import org.vasvari.gradebookapi.dto.mapper.TeacherMapper;
+import org.vasvari.gradebookapi.exception.StudentNotFoundException;
 import org.vasvari.gradebookapi.exception.SubjectNotFoundException;
 import org.vasvari.gradebookapi.model.Subject;
 import org.vasvari.gradebookapi.model.Student;
 import org.vasvari.gradebookapi.model.specification.SubjectSpecification;
-import org.vasvari.gradebookapi.model.Teacher;
 import org.vasvari.gradebookapi.model.request.SubjectRequest;
-import org.vasvari.gradebookapi.repository.SubjectRepository;
 import org.vasvari.gradebookapi.repository.StudentRepository;
+import org.vasvari.gradebookapi.repository.SubjectRepository;
 import org.vasvari.gradebookapi.repository.TeacherRepository;
+import org.vasvari.gradebookapi.etag.ChangesResources;
+import org.vasvari.gradebookapi.exception.VersionConflictException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
+import static org.vasvari.gradebookapi.etag.VersionedResource.SUBJECTS;
+
 @Service
 @RequiredArgsConstructor
 public class SubjectService {
 
-    private final StudentRepository studentRepository;
     private final TeacherRepository teacherRepository;
     private final SubjectRepository subjectRepository;
+    private final StudentRepository studentRepository;
     private final StudentMapper studentMapper;
-    private final TeacherMapper teacherMapper;
     private final SubjectMapper subjectMapper;
     private final SubjectSpecification specification;
 
+    @Transactional(readOnly = true)
     public List<SubjectOutput> findAll() {
         return subjectMapper.mapAll(subjectRepository.findAll());
     }
 
+    @Transactional(readOnly = true)
     public List<SubjectOutput> findSubjects(SubjectRequest request) {
         return subjectMapper.mapAll(subjectRepository.findAll(specification.getSubjects(request)));
     }
 
+    @ChangesResources(SUBJECTS)
     public SubjectOutput save(SubjectInput subjectInput) {
         Subject subject = Subject.builder()
                 .name(subjectInput.getName())
@@ -56,63 +63,107 @@ public class SubjectService {
         return subjectMapper.map(subjectCreated);
     }
 
-    public SubjectOutput update(Long id, SubjectInput subjectInput) {
-        Subject subject = Subject.builder()
-                .id(id)
-                .name(subjectInput.getName())
-                .teacher(
-                        teacherRepository.getById(subjectInput.getTeacherId())
-                )
-                .students(subjectRepository.getById(id).getStudents())
-                .build();
+    @Transactional
+    @ChangesResources(SUBJECTS)
+    public SubjectOutput update(Long id, SubjectInput subjectInput, Long expectedVersion) {
+        Subject subject = subjectRepository.findWithStudentsById(id).orElseThrow(() -> new SubjectNotFoundException(id));
+        VersionConflictException.check("Subject", subject.getId(), subject.getVersion(), expectedVersion);
+        subject.setName(subjectInput.getName());
+        subject.setTeacher(teacherRepository.getById(subjectInput.getTeacherId()));
 
-        Subject subjectUpdated = subjectRepository.save(subject);
+        // flushed, so the output has the incremented version
+        Subject subjectUpdated = subjectRepository.saveAndFlush(subject);
 
         return subjectMapper.map(subjectUpdated);
     }
 
     public Optional<SubjectOutput> findById(Long id) {
-        return subjectRepository.findById(id).map(subjectMapper::map);
+        return subjectRepository.findWithStudentsById(id).map(subjectMapper::map);
     }
 
-    public void deleteById(Long id) {
-        subjectRepository.deleteById(id);
+    public boolean existsById(Long id) {
+        return subjectRepository.existsById(id);
     }
 
+    @Transactional
+    @ChangesResources(SUBJECTS)
+    public void deleteById(Long id, Long expectedVersion) {
+        subjectRepository.findById(id).ifPresent(subject -> {
+            VersionConflictException.check("Subject", subject.getId(), subject.getVersion(), expectedVersion);
+            subjectRepository.delete(subject);
+        });
+    }
+
+    @Transactional
+    @ChangesResources(SUBJECTS)
     public SubjectOutput addStudentToSubject(Long studentId, Long subjectId) {
-        Student student = studentRepository.getById(studentId);
-        Subject subject = subjectRepository.getById(subjectId);
-        subject.addStudent(student);
+        subjectRepository.enrollStudents(subjectId, List.of(studentId));
 
-        return subjectMapper.map(subjectRepository.save(subject));
+        return findById(subjectId).orElseThrow(() -> new SubjectNotFoundException(subjectId));
     }
 
+    @Transactional
+    @ChangesResources(SUBJECTS)
     public SubjectOutput removeStudentFromSubject(Long studentId, Long subjectId) {
-        Student student = studentRepository.getById(studentId);
-        Subject subject = subjectRepository.getById(subjectId);
-        subject.getStudents().remove(student);
+        subjectRepository.unenrollStudents(subjectId, List.of(studentId));
 
-        return subjectMapper.map(subjectRepository.save(subject));
+        return findById(subjectId).orElseThrow(() -> new SubjectNotFoundException(subjectId));
     }
 
-    public boolean isStudentAddedToSubject(Long studentId, Long subjectId) {
-        Student student = studentRepository.getById(studentId);
+    /**
+     * Enrolls or unenrolls the students given by ID or by grade level with a single statement. Students already
+     * in the requested state are skipped.
+     *
+     * @throws StudentNotFoundException if any of the student IDs has no student, nothing is changed then
+     */
+    @Transactional
+    @ChangesResources(SUBJECTS)
+    public EnrollmentBatchResult changeEnrollments(Long subjectId, EnrollmentBatchInput batch) {
+        boolean enroll = batch.getAction() == EnrollmentBatchInput.Action.ENROLL;
+        int studentsAffected;
+        if (batch.getGradeLevel() != null) {
+            studentsAffected = enroll
+                    ? subjectRepository.enrollStudentsOfGradeLevel(subjectId, batch.getGradeLevel())
+                    : subjectRepository.unenrollStudentsOfGradeLevel(subjectId, batch.getGradeLevel());
+        } else {
+            checkStudentsExist(batch.getStudentIds());
+            studentsAffected = enroll
+                    ? subjectRepository.enrollStudents(subjectId, batch.getStudentIds())
+                    : subjectRepository.unenrollStudents(subjectId, batch.getStudentIds());
+        }
+
+        return EnrollmentBatchResult.builder()
+                .subjectId(subjectId)
+                .action(batch.getAction())
+                .studentsAffected(studentsAffected)
+                .build();
+    }
 
-        return subjectRepository.findSubjectsByStudentsContainingAndId(student, subjectId).isPresent();
+    private void checkStudentsExist(Collection<Long> studentIds) {
+        Set<Long> unknownIds = new TreeSet<>(studentIds);
+        unknownIds.removeAll(studentRepository.findExistingIds(studentIds));
+        if (!unknownIds.isEmpty()) throw new StudentNotFoundException(unknownIds);
+    }
+
+    public boolean isStudentAddedToSubject(Long studentId, Long subjectId) {
+        return !subjectRepository.findIdsOfEnrolledStudents(subjectId, List.of(studentId)).isEmpty();
     }
 
     public List<StudentDto> getStudentsOfSubject(Long subjectId) {
-        Subject subject = subjectRepository.findById(subjectId).orElseThrow(() -> new SubjectNotFoundException(subjectId));
+        Subject subject = subjectRepository.findWithStudentsById(subjectId)
+                .orElseThrow(() -> new SubjectNotFoundException(subjectId));
 
         return studentMapper.mapAll(subject.getStudents());
     }
 
-    public List<SubjectOutput> findSubjectsOfTeacher(TeacherDto teacherDto) {
-        return subjectMapper.mapAll(findSubjectsByTeacher(teacherDto));
+    @Transactional(readOnly = true)
+    public List<SubjectOutput> findSubjectsOfTeacher(Long teacherId) {
+        return subjectMapper.mapAll(subjectRepository.findSubjectsByTeacherId(teacherId));
     }
 
-    public List<StudentDto> findStudentsOfTeacher(TeacherDto teacherDto) {
-        List<Subject> subjects = findSubjectsByTeacher(teacherDto);
+    @Transactional(readOnly = true)
+    public List<StudentDto> findStudentsOfTeacher(Long teacherId) {
+        List<Subject> subjects = subjectRepository.findSubjectsByTeacherId(teacherId);
         Set<Student> studentsSet = new HashSet<>();
         for (Subject subject : subjects) {
             studentsSet.addAll(subject.getStudents());
@@ -123,9 +174,4 @@ public class SubjectService {
 
         return studentMapper.mapAll(studentsList);
     }
-
-    private List<Subject> findSubjectsByTeacher(TeacherDto teacherDto) {
-        Teacher teacher = teacherMapper.map(teacherDto);
-        return subjectRepository.findSubjectsByTeacher(teacher);
-    }
 }
@@ -6,12 +6,19 @@ import org.vasvari.gradebookapi.model.Teacher;
 import org.vasvari.gradebookapi.model.specification.TeacherSpecification;
 import org.vasvari.gradebookapi.model.request.TeacherRequest;
 import org.vasvari.gradebookapi.repository.TeacherRepository;
+import org.vasvari.gradebookapi.etag.ChangesResources;
+import org.vasvari.gradebookapi.exception.TeacherNotFoundException;
+import org.vasvari.gradebookapi.exception.VersionConflictException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import static org.vasvari.gradebookapi.etag.VersionedResource.TEACHERS;
+
 @Service
 @RequiredArgsConstructor
 public class TeacherService {
@@ -28,6 +35,7 @@ public class TeacherService {
         return teacherMapper.mapAll(teacherRepository.findAll(specification.getTeachers(request)));
     }
 
+    @ChangesResources(TEACHERS)
     public TeacherDto save(TeacherDto teacherDto) {
         Teacher teacherToSave = teacherMapper.map(teacherDto);
         Teacher saved = teacherRepository.save(teacherToSave);
@@ -39,8 +47,30 @@ public class TeacherService {
         return teacherRepository.findById(id).map(teacherMapper::map);
     }
 
-    public void deleteById(Long id) {
-        teacherRepository.deleteById(id);
+    public List<TeacherDto> findAllById(Collection<Long> ids) {
+        return teacherMapper.mapAll(teacherRepository.findAllById(ids));
     }
 
+    @Transactional
+    @ChangesResources(TEACHERS)
+    public TeacherDto update(Long id, TeacherDto teacherDto, Long expectedVersion) {
+        Teacher teacher = teacherRepository.findById(id).orElseThrow(() -> new TeacherNotFoundException(id));
+        VersionConflictException.check("Teacher", teacher.getId(), teacher.getVersion(), expectedVersion);
+        Teacher update = teacherMapper.map(teacherDto);
+        update.setId(id);
+        update.setVersion(teacher.getVersion());
+        // flushed, so the output has the incremented version
+        Teacher updated = teacherRepository.saveAndFlush(update);
+
+        return teacherMapper.map(updated);
+    }
+
+    @Transactional
+    @ChangesResources(TEACHERS)
+    public void deleteById(Long id, Long expectedVersion) {
+        teacherRepository.findById(id).ifPresent(teacher -> {
+            VersionConflictException.check("Teacher", teacher.getId(), teacher.getVersion(), expectedVersion);
+            teacherRepository.delete(teacher);
+        });
+    }
 }
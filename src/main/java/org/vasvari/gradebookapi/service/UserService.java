@@ -9,6 +9,8 @@ import org.vasvari.gradebookapi.exception.DuplicateAccountException;
 import org.vasvari.gradebookapi.exception.IncorrectPasswordException;
 import org.vasvari.gradebookapi.exception.UserNotFoundException;
 import org.vasvari.gradebookapi.exception.UsernameTakenException;
+import org.vasvari.gradebookapi.exception.UsernamesExhaustedException;
+import org.vasvari.gradebookapi.jwt.TokenRevocationList;
 import org.vasvari.gradebookapi.model.ApplicationUser;
 import org.vasvari.gradebookapi.model.SchoolActorApplicationUserRelation;
 import org.vasvari.gradebookapi.model.request.PasswordChangeRequest;
@@ -16,41 +18,92 @@ import org.vasvari.gradebookapi.model.request.UserRequest;
 import org.vasvari.gradebookapi.model.specification.UserSpecification;
 import org.vasvari.gradebookapi.repository.SchoolActorApplicationUserRelationRepository;
 import org.vasvari.gradebookapi.repository.UserRepository;
+import org.vasvari.gradebookapi.security.ApplicationUserDetails;
+import org.vasvari.gradebookapi.security.AuthenticatedUser;
 import org.vasvari.gradebookapi.security.ApplicationUserRole;
+import org.vasvari.gradebookapi.security.PasswordHashingExecutor;
+import org.vasvari.gradebookapi.etag.ChangesResources;
+import org.vasvari.gradebookapi.etag.ResourceVersions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+import com.google.common.math.IntMath;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
 import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.commons.lang3.RandomUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.text.Normalizer;
-import java.util.List;
-import java.util.Optional;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import static org.vasvari.gradebookapi.security.ApplicationUserRole.*;
+import static org.vasvari.gradebookapi.etag.VersionedResource.USERS;
 
 @Service
 public class UserService implements UserDetailsService {
     public static final int PASSWORD_LENGTH = 12;
+    // the accounts created in bulk are inserted, and their credentials handed over, in batches of this size
+    public static final int ACCOUNT_BATCH_SIZE = 50;
+    public static final int MIN_USERNAME_SUFFIX_DIGITS = 2;
+    public static final int MAX_USERNAME_SUFFIX_DIGITS = 4;
     private final UserRepository userRepository;
     private final SchoolActorApplicationUserRelationRepository relationRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final TokenRevocationList tokenRevocationList;
+    private final ResourceVersions resourceVersions;
     private final UserMapper mapper;
     private final UserSpecification specification;
+    // commits each batch of the accounts created in bulk before its credentials are handed over
+    private final TransactionTemplate accountBatchTransaction;
+
+    // the user details looked up by the authentication of every request, see loadUserByUsername
+    private final Cache<String, UserDetails> userDetailsCache;
 
     public UserService(UserRepository userRepository,
                        SchoolActorApplicationUserRelationRepository relationRepository,
                        PasswordEncoder passwordEncoder,
+                       PasswordHashingExecutor passwordHashingExecutor,
+                       TokenRevocationList tokenRevocationList,
+                       ResourceVersions resourceVersions,
                        UserMapper mapper,
-                       UserSpecification specification) {
+                       UserSpecification specification,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${user-details.cache.maximum-size:10000}") long cacheMaximumSize,
+                       @Value("${user-details.cache.time-to-live:60s}") Duration cacheTimeToLive) {
         this.userRepository = userRepository;
         this.relationRepository = relationRepository;
         this.passwordEncoder = passwordEncoder;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.tokenRevocationList = tokenRevocationList;
+        this.resourceVersions = resourceVersions;
         this.mapper = mapper;
         this.specification = specification;
+        this.accountBatchTransaction = new TransactionTemplate(transactionManager);
+        this.accountBatchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.userDetailsCache = CacheBuilder.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfterWrite(cacheTimeToLive)
+                .recordStats()
+                .build();
+        GuavaCacheMetrics.monitor(meterRegistry, userDetailsCache, "userDetails");
     }
 
     public List<UserDto> findAll() {
@@ -61,28 +114,65 @@ public class UserService implements UserDetailsService {
         return mapper.mapAll(userRepository.findAll(specification.getUsers(request)));
     }
 
+    @ChangesResources(USERS)
     public UserDto save(UserDto userDto) {
         ApplicationUser userToSave = mapper.map(userDto);
         ApplicationUser saved = userRepository.save(userToSave);
+        // the tokens issued before carry the previous username and role
+        if (userDto.getId() != null) tokenRevocationList.revokeTokensOf(saved.getId());
 
         return mapper.map(saved);
     }
 
+    @ChangesResources(USERS)
     public InitialCredentials createStudentUser(StudentDto studentDto) {
-        String name = String.format("%s %s", studentDto.getLastname(), studentDto.getFirstname());
-        return createNonAdminUser(studentDto.getId(), name, STUDENT);
+        return createNonAdminUser(studentDto.getId(), nameOf(studentDto), STUDENT);
     }
 
+    @ChangesResources(USERS)
     public InitialCredentials createTeacherUser(TeacherDto teacherDto) {
-        String name = String.format("%s %s", teacherDto.getLastname(), teacherDto.getFirstname());
-        return createNonAdminUser(teacherDto.getId(), name, TEACHER);
+        return createNonAdminUser(teacherDto.getId(), nameOf(teacherDto), TEACHER);
+    }
+
+    /**
+     * Creates accounts for the students, see {@link #createNonAdminUsers(Map, ApplicationUserRole, Consumer)}
+     *
+     * @return the number of accounts created
+     */
+    @ChangesResources(USERS)
+    public int createStudentUsers(List<StudentDto> students, Consumer<List<InitialCredentials>> consumer) {
+        Map<Long, String> names = new LinkedHashMap<>();
+        students.forEach(student -> names.put(student.getId(), nameOf(student)));
+        return createNonAdminUsers(names, STUDENT, consumer);
+    }
+
+    /**
+     * Creates accounts for the teachers, see {@link #createNonAdminUsers(Map, ApplicationUserRole, Consumer)}
+     *
+     * @return the number of accounts created
+     */
+    @ChangesResources(USERS)
+    public int createTeacherUsers(List<TeacherDto> teachers, Consumer<List<InitialCredentials>> consumer) {
+        Map<Long, String> names = new LinkedHashMap<>();
+        teachers.forEach(teacher -> names.put(teacher.getId(), nameOf(teacher)));
+        return createNonAdminUsers(names, TEACHER, consumer);
+    }
+
+    private String nameOf(StudentDto studentDto) {
+        return String.format("%s %s", studentDto.getLastname(), studentDto.getFirstname());
+    }
+
+    private String nameOf(TeacherDto teacherDto) {
+        return String.format("%s %s", teacherDto.getLastname(), teacherDto.getFirstname());
     }
 
     private InitialCredentials createNonAdminUser(Long id, String name, ApplicationUserRole role) {
         if (relationRepository.existsSchoolActorApplicationUserRelationByUserRoleAndSchoolActorId(role, id))
             throw new DuplicateAccountException(role);
 
-        String username = generateUsername(name);
+        String usernamePrefix = usernamePrefixOf(name);
+        String username = generateUsername(usernamePrefix,
+                userRepository.findUsernamesStartingWith(usernamePrefix)::contains);
         String password = generatePassword();
         UserDto newUser = new UserDto(username, passwordEncoder.encode(password), role);
         newUser = save(newUser);
@@ -101,6 +191,7 @@ public class UserService implements UserDetailsService {
                 .build();
     }
 
+    @ChangesResources(USERS)
     public InitialCredentials createAdminUser(String username) {
         if (isUsernameAlreadyTaken(username)) throw new UsernameTakenException(username);
 
@@ -115,13 +206,119 @@ public class UserService implements UserDetailsService {
                 .build();
     }
 
-    private String generateUsername(String name) {
-        String generatedUsername;
-        do {
-            generatedUsername = removeAccents(name.toLowerCase().replaceAll("[ .\\-']", "")) + RandomStringUtils.randomNumeric(2);
-        } while (isUsernameAlreadyTaken(generatedUsername));
+    /**
+     * Creates accounts for the school actors given by ID, in the order given, skipping those who already have an
+     * account of the role. The usernames are allocated in memory against the usernames taken, which are read in one
+     * query, the passwords are hashed in parallel by the {@link PasswordHashingExecutor}, and the users and their
+     * relations are inserted in batches. Each batch is committed in its own transaction before its credentials are
+     * handed to the consumer, while the passwords of the next batch are being hashed, so the credentials handed
+     * over stay valid if a later batch fails.
+     *
+     * @param namesById the names of the school actors by their ID
+     * @param role      the role of the accounts, STUDENT or TEACHER
+     * @param consumer  receives the credentials of the accounts created, batch by batch
+     * @return the number of accounts created
+     */
+    private int createNonAdminUsers(Map<Long, String> namesById, ApplicationUserRole role,
+                                    Consumer<List<InitialCredentials>> consumer) {
+        Set<Long> idsWithAccount = namesById.isEmpty()
+                ? Set.of()
+                : relationRepository.findSchoolActorIdsWithAccount(role, namesById.keySet());
+        List<Long> ids = namesById.keySet().stream()
+                .filter(id -> !idsWithAccount.contains(id))
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) return 0;
+
+        Set<String> takenUsernames = userRepository.findAllUsernames();
+        List<InitialCredentials> credentials = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            String username = generateUsername(usernamePrefixOf(namesById.get(id)), takenUsernames::contains);
+            takenUsernames.add(username);
+            credentials.add(InitialCredentials.builder().username(username).password(generatePassword()).build());
+        }
+
+        List<List<Long>> idBatches = Lists.partition(ids, ACCOUNT_BATCH_SIZE);
+        List<List<InitialCredentials>> credentialBatches = Lists.partition(credentials, ACCOUNT_BATCH_SIZE);
+        List<List<CompletableFuture<String>>> passwordHashBatches = new ArrayList<>(idBatches.size());
+        passwordHashBatches.add(hashPasswords(credentialBatches.get(0)));
+        try {
+            for (int batch = 0; batch < idBatches.size(); batch++) {
+                // the next batch is hashed while this one is inserted, the later ones do not queue up before logins
+                if (batch + 1 < idBatches.size())
+                    passwordHashBatches.add(hashPasswords(credentialBatches.get(batch + 1)));
+                int current = batch;
+                accountBatchTransaction.executeWithoutResult(status -> {
+                    insertAccounts(role, idBatches.get(current), credentialBatches.get(current),
+                            passwordHashBatches.get(current));
+                    // the batches committed stay, even if a later one fails
+                    resourceVersions.changed(USERS);
+                });
+                consumer.accept(credentialBatches.get(batch));
+            }
+        } finally {
+            // the hashes are not needed any more if a batch failed
+            passwordHashBatches.forEach(hashes -> hashes.forEach(hash -> hash.cancel(false)));
+        }
+
+        return ids.size();
+    }
 
-        return generatedUsername;
+    private List<CompletableFuture<String>> hashPasswords(List<InitialCredentials> credentials) {
+        return credentials.stream()
+                .map(credential -> passwordHashingExecutor.encodeInBulk(credential.getPassword()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Inserts a batch of users, waiting for their password hashes, and their relations, then sets the IDs of the
+     * users in their credentials
+     */
+    private void insertAccounts(ApplicationUserRole role, List<Long> schoolActorIds, List<InitialCredentials> credentials,
+                                List<CompletableFuture<String>> passwordHashes) {
+        List<ApplicationUser> users = new ArrayList<>(schoolActorIds.size());
+        for (int i = 0; i < schoolActorIds.size(); i++) {
+            users.add(ApplicationUser.builder()
+                    .username(credentials.get(i).getUsername())
+                    .password(passwordHashes.get(i).join())
+                    .role(role)
+                    .enabled(true)
+                    .build());
+        }
+        userRepository.insertAll(users);
+
+        List<SchoolActorApplicationUserRelation> relations = new ArrayList<>(schoolActorIds.size());
+        for (int i = 0; i < schoolActorIds.size(); i++) {
+            credentials.get(i).setUserId(users.get(i).getId());
+            relations.add(SchoolActorApplicationUserRelation.builder()
+                    .appUserId(users.get(i).getId())
+                    .userRole(role)
+                    .schoolActorId(schoolActorIds.get(i))
+                    .build());
+        }
+        relationRepository.insertAll(relations);
+    }
+
+    /**
+     * Appends the first free numeric suffix to the prefix, searching the suffixes of a width from a random one on,
+     * and widening the suffix once every suffix of the width is taken
+     *
+     * @throws UsernamesExhaustedException if every suffix of up to {@link #MAX_USERNAME_SUFFIX_DIGITS} digits is taken
+     */
+    private String generateUsername(String prefix, Predicate<String> isTaken) {
+        for (int digits = MIN_USERNAME_SUFFIX_DIGITS; digits <= MAX_USERNAME_SUFFIX_DIGITS; digits++) {
+            int suffixCount = IntMath.pow(10, digits);
+            int firstSuffix = RandomUtils.nextInt(0, suffixCount);
+            for (int i = 0; i < suffixCount; i++) {
+                String username = prefix + String.format("%0" + digits + "d", (firstSuffix + i) % suffixCount);
+                if (!isTaken.test(username)) return username;
+            }
+        }
+
+        throw new UsernamesExhaustedException(prefix, MAX_USERNAME_SUFFIX_DIGITS);
+    }
+
+    private String usernamePrefixOf(String name) {
+        return removeAccents(name.toLowerCase().replaceAll("[ .\\-']", ""));
     }
 
     private String removeAccents(String name) {
@@ -146,36 +343,53 @@ public class UserService implements UserDetailsService {
         return userRepository.findByUsername(username).map(mapper::map);
     }
 
+    @ChangesResources(USERS)
     public void changePassword(Long userId, PasswordChangeRequest request) {
-        ApplicationUser user = userRepository.getById(userId);
+        ApplicationUser user = userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
         if (!passwordEncoder.matches(request.getOldPassword(), user.getPassword()))
             throw new IncorrectPasswordException();
 
         user.setPassword(passwordEncoder.encode(request.getNewPassword()));
         userRepository.save(user);
+        userDetailsCache.invalidate(user.getUsername());
     }
 
+    @ChangesResources(USERS)
     public void changePasswordOfCurrentUser(PasswordChangeRequest request) {
-        long userId = getCurrentUser().getId();
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        long userId = principal instanceof AuthenticatedUser
+                ? ((AuthenticatedUser) principal).getUserId()
+                : getCurrentUser().getId();
         changePassword(userId, request);
     }
 
+    @ChangesResources(USERS)
     public void deleteById(Long id) {
+        Optional<ApplicationUser> user = userRepository.findById(id);
         relationRepository.findFirstByAppUserId(id)
                 .ifPresent(relation -> relationRepository.deleteById(relation.getId()));
         userRepository.deleteById(id);
+        user.ifPresent(deletedUser -> {
+            userDetailsCache.invalidate(deletedUser.getUsername());
+            tokenRevocationList.revokeTokensOf(id);
+        });
     }
 
+    @ChangesResources(USERS)
     public void setUserDisabled(Long id) {
         ApplicationUser user = userRepository.findById(id).orElseThrow(() -> new UserNotFoundException(id));
         user.setEnabled(false);
         userRepository.save(user);
+        userDetailsCache.invalidate(user.getUsername());
+        tokenRevocationList.revokeTokensOf(id);
     }
 
+    @ChangesResources(USERS)
     public void setUserEnabled(Long id) {
         ApplicationUser user = userRepository.findById(id).orElseThrow(() -> new UserNotFoundException(id));
         user.setEnabled(true);
         userRepository.save(user);
+        userDetailsCache.invalidate(user.getUsername());
     }
 
     public Optional<UserDto> getUserRelatedToStudent(Long studentId) {
@@ -213,13 +427,27 @@ public class UserService implements UserDetailsService {
     }
 
     public Long getStudentIdOfCurrentUser() {
-        UserDto user = getCurrentUser();
-        return findStudentIdByUserId(user.getId());
+        return getSchoolActorIdOfCurrentUser(STUDENT)
+                .orElseGet(() -> findStudentIdByUserId(getCurrentUser().getId()));
     }
 
     public Long getTeacherIdOfCurrentUser() {
-        UserDto user = getCurrentUser();
-        return findTeacherIdByUserId(user.getId());
+        return getSchoolActorIdOfCurrentUser(TEACHER)
+                .orElseGet(() -> findTeacherIdByUserId(getCurrentUser().getId()));
+    }
+
+    /**
+     * Returns the ID of the student or teacher related to the current user if the token of the user carried it,
+     * without querying the database
+     */
+    private Optional<Long> getSchoolActorIdOfCurrentUser(ApplicationUserRole role) {
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (!(principal instanceof AuthenticatedUser)) return Optional.empty();
+
+        AuthenticatedUser user = (AuthenticatedUser) principal;
+        if (user.getSchoolActorId() == null) throw new RuntimeException("No school actor related to user exists");
+        if (!user.getRole().equals(role)) throw new RuntimeException("User role is incorrect");
+        return Optional.of(user.getSchoolActorId());
     }
 
     private UserDto getCurrentUser() {
@@ -229,10 +457,29 @@ public class UserService implements UserDetailsService {
                 .orElseThrow(() -> new RuntimeException(String.format("No user with the name '%s' exists", username)));
     }
 
+    /**
+     * Looks up the user authenticating a request or a login. Outside of transactions the user is cached for a
+     * short time, and evicted when its password, its status or the user itself changes. Inside a transaction the
+     * user is read from the database, so the uncommitted changes of the transaction are never cached.
+     */
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) return findUserDetails(username);
+
+        UserDetails userDetails = userDetailsCache.getIfPresent(username);
+        if (userDetails == null) {
+            userDetails = findUserDetails(username);
+            userDetailsCache.put(username, userDetails);
+        }
+
+        return userDetails;
+    }
+
+    private UserDetails findUserDetails(String username) {
         return userRepository.findByUsername(username)
+                .map(user -> ApplicationUserDetails.of(user, relationRepository.findFirstByAppUserId(user.getId())
+                        .map(SchoolActorApplicationUserRelation::getSchoolActorId)
+                        .orElse(null)))
                 .orElseThrow(() -> new UsernameNotFoundException(String.format("User not found with username \"%s\"", username)));
     }
 }
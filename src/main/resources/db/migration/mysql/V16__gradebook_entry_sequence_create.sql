@@ -0,0 +1,11 @@
+drop table if exists gradebook_entry_seq CASCADE;
+
+-- MySQL has no sequences, Hibernate emulates gradebook_entry_seq with a single row table
+create table gradebook_entry_seq
+(
+    next_val bigint
+);
+
+insert into gradebook_entry_seq (next_val)
+select coalesce(max(id), 0) + 1
+from gradebook_entry;
@@ -0,0 +1,33 @@
+-- the entries removed below are kept here, along with the entry kept in their place, so their grades can be
+-- reviewed and restored
+create table gradebook_entry_removed_duplicate
+(
+    id            bigint    NOT NULL,
+    grade         integer,
+    assignment_id bigint,
+    subject_id    bigint,
+    student_id    bigint,
+    kept_id       bigint    NOT NULL,
+    removed_at    timestamp NOT NULL default current_timestamp,
+    primary key (id)
+);
+
+insert into gradebook_entry_removed_duplicate (id, grade, assignment_id, subject_id, student_id, kept_id)
+select duplicate.id, duplicate.grade, duplicate.assignment_id, duplicate.subject_id, duplicate.student_id, max(kept.id)
+from gradebook_entry duplicate
+         join gradebook_entry kept
+              on kept.student_id = duplicate.student_id
+                  and kept.subject_id = duplicate.subject_id
+                  and kept.assignment_id = duplicate.assignment_id
+                  and kept.id > duplicate.id
+group by duplicate.id, duplicate.grade, duplicate.assignment_id, duplicate.subject_id, duplicate.student_id;
+
+-- keeps the latest entry, the one with the greatest id, of each student, subject and assignment
+delete duplicate
+from gradebook_entry duplicate
+         join gradebook_entry_removed_duplicate removed
+              on removed.id = duplicate.id;
+
+alter table gradebook_entry
+    add constraint gradebook_entry_unique_key
+        unique (student_id, subject_id, assignment_id);
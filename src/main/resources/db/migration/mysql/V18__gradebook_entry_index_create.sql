@@ -0,0 +1,26 @@
+-- the grade becomes mandatory: the migration stops before changing anything while entries without a grade exist,
+-- they have to be graded or deleted by hand first
+drop procedure if exists check_gradebook_entry_grades;
+
+DELIMITER //
+create procedure check_gradebook_entry_grades()
+begin
+    if exists(select 1 from gradebook_entry where grade is null) then
+        signal sqlstate '45000'
+            set message_text = 'gradebook_entry has entries without a grade, grade or delete them before migrating';
+    end if;
+end //
+DELIMITER ;
+
+call check_gradebook_entry_grades();
+drop procedure check_gradebook_entry_grades;
+
+-- lookups by student, and by student and subject, are served by the leftmost columns of gradebook_entry_unique_key
+create index gradebook_entry_subject_student_index
+    on gradebook_entry (subject_id, student_id);
+
+create index gradebook_entry_assignment_grade_index
+    on gradebook_entry (assignment_id, grade);
+
+alter table gradebook_entry
+    modify grade tinyint NOT NULL;
@@ -0,0 +1,85 @@
+drop table if exists subject_statistics CASCADE;
+drop table if exists assignment_statistics CASCADE;
+drop table if exists student_subject_statistics CASCADE;
+
+-- maintained by the writes of gradebook entries, rows without grades are deleted
+create table subject_statistics
+(
+    subject_id    bigint  NOT NULL,
+    grade_count   integer NOT NULL,
+    grade_sum     integer NOT NULL,
+    grade_1_count integer NOT NULL,
+    grade_2_count integer NOT NULL,
+    grade_3_count integer NOT NULL,
+    grade_4_count integer NOT NULL,
+    grade_5_count integer NOT NULL,
+    primary key (subject_id)
+);
+
+create table assignment_statistics
+(
+    assignment_id bigint  NOT NULL,
+    grade_count   integer NOT NULL,
+    grade_sum     integer NOT NULL,
+    grade_1_count integer NOT NULL,
+    grade_2_count integer NOT NULL,
+    grade_3_count integer NOT NULL,
+    grade_4_count integer NOT NULL,
+    grade_5_count integer NOT NULL,
+    primary key (assignment_id)
+);
+
+create table student_subject_statistics
+(
+    student_id    bigint  NOT NULL,
+    subject_id    bigint  NOT NULL,
+    grade_count   integer NOT NULL,
+    grade_sum     integer NOT NULL,
+    grade_1_count integer NOT NULL,
+    grade_2_count integer NOT NULL,
+    grade_3_count integer NOT NULL,
+    grade_4_count integer NOT NULL,
+    grade_5_count integer NOT NULL,
+    primary key (student_id, subject_id)
+);
+
+alter table subject_statistics
+    add constraint subject_statistics_subject_constraint
+        foreign key (subject_id)
+            references subject (id);
+
+alter table assignment_statistics
+    add constraint assignment_statistics_assignment_constraint
+        foreign key (assignment_id)
+            references assignment (id);
+
+alter table student_subject_statistics
+    add constraint student_subject_statistics_student_constraint
+        foreign key (student_id)
+            references student (id);
+
+alter table student_subject_statistics
+    add constraint student_subject_statistics_subject_constraint
+        foreign key (subject_id)
+            references subject (id);
+
+insert into subject_statistics (subject_id, grade_count, grade_sum,
+                                grade_1_count, grade_2_count, grade_3_count, grade_4_count, grade_5_count)
+select subject_id, count(*), sum(grade),
+       sum(grade = 1), sum(grade = 2), sum(grade = 3), sum(grade = 4), sum(grade = 5)
+from gradebook_entry
+group by subject_id;
+
+insert into assignment_statistics (assignment_id, grade_count, grade_sum,
+                                   grade_1_count, grade_2_count, grade_3_count, grade_4_count, grade_5_count)
+select assignment_id, count(*), sum(grade),
+       sum(grade = 1), sum(grade = 2), sum(grade = 3), sum(grade = 4), sum(grade = 5)
+from gradebook_entry
+group by assignment_id;
+
+insert into student_subject_statistics (student_id, subject_id, grade_count, grade_sum,
+                                        grade_1_count, grade_2_count, grade_3_count, grade_4_count, grade_5_count)
+select student_id, subject_id, count(*), sum(grade),
+       sum(grade = 1), sum(grade = 2), sum(grade = 3), sum(grade = 4), sum(grade = 5)
+from gradebook_entry
+group by student_id, subject_id;
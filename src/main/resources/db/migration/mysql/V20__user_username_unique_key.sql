@@ -0,0 +1,30 @@
+-- the users renamed below are kept here, along with their former username, so their accounts can be reviewed and
+-- handed their new username
+create table user_renamed_duplicate
+(
+    id           bigint       NOT NULL,
+    username     varchar(255) NOT NULL,
+    new_username varchar(255) NOT NULL,
+    kept_id      bigint       NOT NULL,
+    renamed_at   timestamp    NOT NULL default current_timestamp,
+    primary key (id)
+);
+
+insert into user_renamed_duplicate (id, username, new_username, kept_id)
+select duplicate.id, duplicate.username, concat(duplicate.username, '_', duplicate.id), min(kept.id)
+from user duplicate
+         join user kept
+              on kept.username = duplicate.username
+                  and kept.id < duplicate.id
+group by duplicate.id, duplicate.username;
+
+-- keeps the username of the oldest user, the one with the least id, and suffixes the others with their id
+update user duplicate
+    join user_renamed_duplicate renamed
+    on renamed.id = duplicate.id
+set duplicate.username = renamed.new_username;
+
+-- usernames are allocated in memory by the bulk account creation, a concurrent allocation of the same name fails here
+alter table user
+    add constraint user_username_unique_key
+        unique (username);
@@ -0,0 +1,9 @@
+drop table if exists token_revocation CASCADE;
+
+-- the tokens of a user issued before revoked_before are rejected, rows are deleted once those tokens have expired
+create table token_revocation
+(
+    user_id        bigint   NOT NULL,
+    revoked_before datetime NOT NULL,
+    primary key (user_id)
+);
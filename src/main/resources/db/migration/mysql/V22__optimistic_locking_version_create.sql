@@ -0,0 +1,12 @@
+-- the version of each row, incremented by every update of the row through Hibernate, an update or delete expecting
+-- another version fails, so concurrent updates cannot overwrite each other
+alter table gradebook_entry
+    add column version bigint NOT NULL default 0;
+alter table subject
+    add column version bigint NOT NULL default 0;
+alter table assignment
+    add column version bigint NOT NULL default 0;
+alter table student
+    add column version bigint NOT NULL default 0;
+alter table teacher
+    add column version bigint NOT NULL default 0;
@@ -308,7 +308,7 @@ public class AssignmentIntegrationTests {
             ResponseEntity<AssignmentOutput> response = template.exchange(
                     linkToAssignment.getHref(),
                     HttpMethod.PUT,
-                    auth.createHttpEntityWithAuthorization(update),
+                    auth.createHttpEntityWithAuthorizationOverwritingAnyVersion(update),
                     AssignmentOutput.class
             );
 
@@ -329,7 +329,7 @@ public class AssignmentIntegrationTests {
             ResponseEntity<?> response = template.exchange(
                     linkToAssignment.getHref(),
                     HttpMethod.PUT,
-                    auth.createHttpEntityWithAuthorization(assignmentInput1),
+                    auth.createHttpEntityWithAuthorizationOverwritingAnyVersion(assignmentInput1),
                     String.class
             );
 
@@ -364,11 +364,11 @@ public class AssignmentIntegrationTests {
                     .build();
 
             Link linkToUpdate =
-                    linkTo(methodOn(AssignmentController.class).update(updateWithBlankName, id)).withSelfRel();
+                    linkTo(methodOn(AssignmentController.class).update(updateWithBlankName, id, null)).withSelfRel();
             ResponseEntity<?> response = template.exchange(
                     linkToUpdate.getHref(),
                     HttpMethod.PUT,
-                    auth.createHttpEntityWithAuthorization(updateWithBlankName),
+                    auth.createHttpEntityWithAuthorizationOverwritingAnyVersion(updateWithBlankName),
                     String.class
             );
 
@@ -387,11 +387,11 @@ public class AssignmentIntegrationTests {
                     .subjectId(subjectId)
                     .build();
             Link linkToUpdate =
-                    linkTo(methodOn(AssignmentController.class).update(updateWithWrongType, id)).withSelfRel();
+                    linkTo(methodOn(AssignmentController.class).update(updateWithWrongType, id, null)).withSelfRel();
             ResponseEntity<?> response = template.exchange(
                     linkToUpdate.getHref(),
                     HttpMethod.PUT,
-                    auth.createHttpEntityWithAuthorization(updateWithWrongType),
+                    auth.createHttpEntityWithAuthorizationOverwritingAnyVersion(updateWithWrongType),
                     String.class
             );
 
@@ -406,11 +406,11 @@ public class AssignmentIntegrationTests {
                     .subjectId(99L)
                     .build();
             Link linkToUpdate =
-                    linkTo(methodOn(AssignmentController.class).update(updateWithWrongType, id)).withSelfRel();
+                    linkTo(methodOn(AssignmentController.class).update(updateWithWrongType, id, null)).withSelfRel();
             ResponseEntity<?> response = template.exchange(
                     linkToUpdate.getHref(),
                     HttpMethod.PUT,
-                    auth.createHttpEntityWithAuthorization(updateWithWrongType),
+                    auth.createHttpEntityWithAuthorizationOverwritingAnyVersion(updateWithWrongType),
                     String.class
             );
 
@@ -435,7 +435,7 @@ public class AssignmentIntegrationTests {
             Link linkToAssignment = linkTo(methodOn(AssignmentController.class).getById(id)).withSelfRel();
             template.exchange(linkToAssignment.getHref(),
                     HttpMethod.DELETE,
-                    auth.createHttpEntityWithAuthorization(null),
+                    auth.createHttpEntityWithAuthorizationOverwritingAnyVersion(null),
                     AssignmentOutput.class
             );
 
@@ -457,7 +457,7 @@ public class AssignmentIntegrationTests {
             ResponseEntity<?> response = template.exchange(
                     linkToAssignment.getHref(),
                     HttpMethod.DELETE,
-                    auth.createHttpEntityWithAuthorization(null),
+                    auth.createHttpEntityWithAuthorizationOverwritingAnyVersion(null),
                     String.class
             );
 
@@ -479,7 +479,7 @@ public class AssignmentIntegrationTests {
             ResponseEntity<?> response = template.exchange(
                     linkToAssignment.getHref(),
                     HttpMethod.DELETE,
-                    auth.createHttpEntityWithAuthorization(null),
+                    auth.createHttpEntityWithAuthorizationOverwritingAnyVersion(null),
                     String.class
             );
 
@@ -0,0 +1,207 @@
+package org.vasvari.gradebookapi.integration;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.vasvari.gradebookapi.dto.*;
+import org.vasvari.gradebookapi.integration.util.AuthorizationManager;
+import org.vasvari.gradebookapi.integration.util.QueryCounter;
+import org.vasvari.gradebookapi.jwt.JwtTokenUtil;
+import org.vasvari.gradebookapi.model.AssignmentType;
+import org.vasvari.gradebookapi.service.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.vasvari.gradebookapi.security.ApplicationUserRole.ADMIN;
+
+/**
+ * The ETags of the GET endpoints, and the 304 answers to the requests whose ETag is still current, which run no
+ * statements at all
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@Import({AuthorizationManager.class, QueryCounter.class})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ConditionalGetIntegrationTests {
+
+    @Autowired
+    private TestRestTemplate template;
+    @Autowired
+    private AuthorizationManager auth;
+    @Autowired
+    private JwtTokenUtil jwtTokenUtil;
+    @Autowired
+    private QueryCounter queryCounter;
+    @Autowired
+    private StudentService studentService;
+    @Autowired
+    private TeacherService teacherService;
+    @Autowired
+    private SubjectService subjectService;
+    @Autowired
+    private AssignmentService assignmentService;
+    @Autowired
+    private GradebookService gradebookService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private long teacherId;
+    private long subjectId;
+    private long assignmentId;
+    private StudentDto student;
+    private StudentDto otherStudent;
+    private String studentUsername;
+    private String otherStudentUsername;
+    private HttpHeaders studentHeaders;
+    private HttpHeaders otherStudentHeaders;
+
+    @BeforeAll
+    public void setUp() {
+        // the services map their results lazily, as they do inside the requests
+        transactionTemplate.executeWithoutResult(status -> createFixture());
+        studentHeaders = headersOf(studentUsername);
+        otherStudentHeaders = headersOf(otherStudentUsername);
+        userService.loadUserByUsername("admin");
+        auth.setRole(ADMIN);
+    }
+
+    private void createFixture() {
+        teacherId = teacherService.save(TeacherDto.builder()
+                .firstname("Darrell")
+                .lastname("Etag")
+                .email("darrelletag@email.com")
+                .birthdate(LocalDate.of(1984, 2, 1))
+                .build()).getId();
+        student = saveStudent("Jane");
+        otherStudent = saveStudent("John");
+        subjectId = subjectService.save(SubjectInput.builder().name("Etag").teacherId(teacherId).build()).getId();
+        subjectService.addStudentToSubject(student.getId(), subjectId);
+        subjectService.addStudentToSubject(otherStudent.getId(), subjectId);
+        assignmentId = assignmentService.save(AssignmentInput.builder()
+                .name("Etag homework")
+                .type(AssignmentType.HOMEWORK)
+                .deadline(LocalDate.of(2051, 1, 1))
+                .subjectId(subjectId)
+                .build()).getId();
+
+        studentUsername = userService.createStudentUser(student).getUsername();
+        otherStudentUsername = userService.createStudentUser(otherStudent).getUsername();
+    }
+
+    @Test
+    @DisplayName("GET with a current ETag should answer 304 without running statements")
+    public void getWithCurrentEtag_shouldAnswer304WithoutRunningStatements() {
+        String etag = get("/api/subjects", adminHeaders(), null).getHeaders().getETag();
+        assertThat(etag).startsWith("\"");
+
+        AtomicReference<ResponseEntity<String>> response = new AtomicReference<>();
+        queryCounter.assertQueryCount(() -> response.set(get("/api/subjects", adminHeaders(), etag)))
+                .isZero();
+
+        assertThat(response.get().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.get().getHeaders().getETag()).isEqualTo(etag);
+        assertThat(response.get().getBody()).isNull();
+    }
+
+    @Test
+    @DisplayName("GET should answer 200 with a new ETag once a resource of the response changed")
+    public void get_shouldAnswer200WithNewEtag_onceAResourceOfTheResponseChanged() {
+        String path = "/api/subjects/" + subjectId;
+        String etag = get(path, adminHeaders(), null).getHeaders().getETag();
+
+        subjectService.update(subjectId, SubjectInput.builder().name("Etag renamed").teacherId(teacherId).build(), null);
+        ResponseEntity<String> response = get(path, adminHeaders(), etag);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isNotEqualTo(etag);
+        assertThat(response.getBody()).contains("Etag renamed");
+    }
+
+    @Test
+    @DisplayName("GET should answer 304 after the resources other than those of the response changed")
+    public void get_shouldAnswer304_afterTheResourcesOtherThanThoseOfTheResponseChanged() {
+        String etag = get("/api/teachers/" + teacherId, adminHeaders(), null).getHeaders().getETag();
+
+        assignmentService.update(assignmentId, AssignmentInput.builder()
+                .name("Etag homework")
+                .type(AssignmentType.HOMEWORK)
+                .description("changed")
+                .deadline(LocalDate.of(2051, 1, 1))
+                .subjectId(subjectId)
+                .build(), null);
+
+        assertThat(get("/api/teachers/" + teacherId, adminHeaders(), etag).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    @DisplayName("GET of the current user should have an ETag of its own for each user")
+    public void getOfCurrentUser_shouldHaveAnEtagOfItsOwnForEachUser() {
+        String path = "/api/student-user/gradebook-entries";
+        String etag = get(path, studentHeaders, null).getHeaders().getETag();
+
+        assertThat(get(path, studentHeaders, etag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        ResponseEntity<String> otherResponse = get(path, otherStudentHeaders, etag);
+        assertThat(otherResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(otherResponse.getHeaders().getETag()).isNotEqualTo(etag);
+    }
+
+    @Test
+    @DisplayName("GET should answer 200 with a new ETag once an entry of the current user was saved")
+    public void get_shouldAnswer200WithNewEtag_onceAnEntryOfTheCurrentUserWasSaved() {
+        String path = "/api/student-user/gradebook-entries";
+        String etag = get(path, otherStudentHeaders, null).getHeaders().getETag();
+
+        gradebookService.save(GradebookInput.builder()
+                .studentId(otherStudent.getId()).subjectId(subjectId).assignmentId(assignmentId).grade(5).build());
+        ResponseEntity<String> response = get(path, otherStudentHeaders, etag);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isNotEqualTo(etag);
+        assertThat(response.getBody()).contains("Etag homework");
+    }
+
+    private ResponseEntity<String> get(String path, HttpHeaders authorization, String ifNoneMatch) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(authorization);
+        if (ifNoneMatch != null) headers.setIfNoneMatch(ifNoneMatch);
+
+        return template.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
+    private HttpHeaders adminHeaders() {
+        return auth.getHeadersWithAuthorization();
+    }
+
+    private StudentDto saveStudent(String firstname) {
+        return studentService.save(StudentDto.builder()
+                .firstname(firstname)
+                .lastname("Etag")
+                .gradeLevel(11)
+                .email(firstname.toLowerCase() + "etag@email.com")
+                .birthdate(LocalDate.of(2004, 3, 1))
+                .build());
+    }
+
+    private HttpHeaders headersOf(String username) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtTokenUtil.generateToken(userService.loadUserByUsername(username)));
+
+        return headers;
+    }
+}
@@ -0,0 +1,140 @@
+package org.vasvari.gradebookapi.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.*;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.vasvari.gradebookapi.dto.*;
+import org.vasvari.gradebookapi.integration.util.AuthorizationManager;
+import org.vasvari.gradebookapi.model.AssignmentType;
+import org.vasvari.gradebookapi.service.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.vasvari.gradebookapi.security.ApplicationUserRole.ADMIN;
+
+/**
+ * The CBOR and Smile encodings of the responses, which should hold the same HAL documents as the JSON responses
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@Import(AuthorizationManager.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ContentNegotiationIntegrationTests {
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    @Autowired
+    private TestRestTemplate template;
+    @Autowired
+    private AuthorizationManager auth;
+    @Autowired
+    private StudentService studentService;
+    @Autowired
+    private TeacherService teacherService;
+    @Autowired
+    private SubjectService subjectService;
+    @Autowired
+    private AssignmentService assignmentService;
+    @Autowired
+    private GradebookService gradebookService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private long studentId;
+    private long entryId;
+
+    @BeforeAll
+    public void setUp() {
+        // the services map their results lazily, as they do inside the requests
+        transactionTemplate.executeWithoutResult(status -> createFixture());
+        auth.setRole(ADMIN);
+    }
+
+    private void createFixture() {
+        long teacherId = teacherService.save(TeacherDto.builder()
+                .firstname("Darrell")
+                .lastname("Binary")
+                .email("darrellbinary@email.com")
+                .birthdate(LocalDate.of(1984, 2, 1))
+                .build()).getId();
+        studentId = studentService.save(StudentDto.builder()
+                .firstname("Jane")
+                .lastname("Binary")
+                .gradeLevel(11)
+                .email("janebinary@email.com")
+                .birthdate(LocalDate.of(2004, 3, 1))
+                .build()).getId();
+        long subjectId = subjectService.save(SubjectInput.builder().name("Binary").teacherId(teacherId).build()).getId();
+        subjectService.addStudentToSubject(studentId, subjectId);
+        long assignmentId = assignmentService.save(AssignmentInput.builder()
+                .name("Binary homework")
+                .type(AssignmentType.HOMEWORK)
+                .deadline(LocalDate.of(2051, 1, 1))
+                .subjectId(subjectId)
+                .build()).getId();
+        entryId = gradebookService.save(GradebookInput.builder()
+                .studentId(studentId).subjectId(subjectId).assignmentId(assignmentId).grade(5).build()).getId();
+    }
+
+    private Stream<Arguments> binaryResponses() {
+        List<String> paths = List.of("/api/gradebook", "/api/gradebook/" + entryId, "/api/students",
+                "/api/students/" + studentId);
+        return Stream.of(MediaType.APPLICATION_CBOR, SMILE)
+                .flatMap(mediaType -> paths.stream().map(path -> Arguments.of(path, mediaType)));
+    }
+
+    @ParameterizedTest(name = "{1} {0}")
+    @MethodSource("binaryResponses")
+    @DisplayName("GET accepting a binary media type should answer the HAL document of the JSON response in it")
+    public void getAcceptingABinaryMediaType_shouldAnswerTheHalDocumentOfTheJsonResponseInIt(String path,
+                                                                                           MediaType mediaType)
+            throws Exception {
+        ResponseEntity<byte[]> jsonResponse = get(path, MediaTypes.HAL_JSON);
+        ResponseEntity<byte[]> binaryResponse = get(path, mediaType);
+
+        assertThat(binaryResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(binaryResponse.getHeaders().getContentType()).isEqualTo(mediaType);
+        assertThat(binaryResponse.getHeaders().getETag()).isNotEqualTo(jsonResponse.getHeaders().getETag());
+        JsonNode document = readerOf(mediaType).readTree(binaryResponse.getBody());
+        assertThat(document.at("/_links/self/href").asText()).endsWith(path);
+        assertThat(document).isEqualTo(new ObjectMapper().readTree(jsonResponse.getBody()));
+    }
+
+    @Test
+    @DisplayName("GET accepting any media type should answer JSON")
+    public void getAcceptingAnyMediaType_shouldAnswerJson() {
+        ResponseEntity<byte[]> response = get("/api/gradebook", MediaType.ALL);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaTypes.HAL_JSON);
+    }
+
+    private ResponseEntity<byte[]> get(String path, MediaType accept) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(auth.getHeadersWithAuthorization());
+        headers.setAccept(List.of(accept));
+
+        return template.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+    }
+
+    private ObjectMapper readerOf(MediaType mediaType) {
+        return mediaType.equals(SMILE) ? new ObjectMapper(new SmileFactory()) : new ObjectMapper(new CBORFactory());
+    }
+}
@@ -204,6 +204,40 @@ public class GradebookIntegrationTests {
             assertThat(response.getBody()).isEqualTo(entryPosted);
         }
 
+        @Test
+        @DisplayName("when entries exist, exportEntries should return entries as CSV")
+        public void whenEntriesExist_exportEntriesShouldReturnEntriesAsCsv() {
+            long studentId = postStudent(student1).getId();
+            long teacherId = postTeacher(teacher).getId();
+            subject.setTeacherId(teacherId);
+            long subjectId = postSubject(subject).getId();
+            assignment.setSubjectId(subjectId);
+            long assignmentId = postAssignment(assignment).getId();
+
+            subjectId = addStudentToSubject(studentId, subjectId).getId();
+
+            GradebookInput gradebookInput = GradebookInput.builder()
+                    .studentId(studentId)
+                    .subjectId(subjectId)
+                    .assignmentId(assignmentId)
+                    .grade(4)
+                    .build();
+            GradebookOutput entryPosted = postGradebookEntry(gradebookInput);
+
+            ResponseEntity<String> response = template.exchange(
+                    baseUrl + "/gradebook/export?format=CSV&subjectId=" + subjectId,
+                    HttpMethod.GET,
+                    auth.createHttpEntityWithAuthorization(null),
+                    String.class
+            );
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getBody()).isEqualTo(String.format(
+                    "id,studentId,studentFirstname,studentLastname,subjectId,subjectName,assignmentId,assignmentName,grade\n" +
+                            "%d,%d,John,Doe,%d,Algebra,%d,Homework 1,4\n",
+                    entryPosted.getId(), studentId, subjectId, assignmentId));
+        }
+
         @Test
         @DisplayName("when entry does not exist with given ID, getById should return response 'Not Found'")
         public void whenEntryDoesNotExistWithGivenId_getByIdShouldReturnResponseNotFound() {
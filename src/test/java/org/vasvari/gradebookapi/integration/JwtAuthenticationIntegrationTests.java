@@ -1,10 +1,15 @@
 package org.vasvari.gradebookapi.integration;
 
+import io.jsonwebtoken.JwtException;
+import org.vasvari.gradebookapi.dto.StudentDto;
+import org.vasvari.gradebookapi.dto.simpleTypes.InitialCredentials;
 import org.vasvari.gradebookapi.integration.util.DefaultUsersManager;
 import org.vasvari.gradebookapi.jwt.JwtAuthenticationController;
+import org.vasvari.gradebookapi.jwt.JwtClaims;
 import org.vasvari.gradebookapi.jwt.JwtRequest;
 import org.vasvari.gradebookapi.jwt.JwtResponse;
 import org.vasvari.gradebookapi.jwt.JwtTokenUtil;
+import org.vasvari.gradebookapi.service.UserService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,11 +19,15 @@ import org.springframework.context.annotation.Import;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
 import org.springframework.http.*;
+import org.springframework.security.core.userdetails.User;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+import static org.vasvari.gradebookapi.security.ApplicationUserRole.ADMIN;
+import static org.vasvari.gradebookapi.security.ApplicationUserRole.STUDENT;
 
 @SpringBootTest(webEnvironment = RANDOM_PORT)
 @Import(DefaultUsersManager.class)
@@ -30,6 +39,9 @@ public class JwtAuthenticationIntegrationTests {
     @Autowired
     private JwtTokenUtil jwtTokenUtil;
 
+    @Autowired
+    private UserService userService;
+
     @Test
     @DisplayName("given correct username and password, authentication token is created")
     public void givenCorrectUsernameAndPassword_authenticationTokenIsCreated() {
@@ -50,6 +62,30 @@ public class JwtAuthenticationIntegrationTests {
         assertThat(jwtTokenUtil.getUsernameFromToken(token)).isEqualTo("admin");
     }
 
+    @Test
+    @DisplayName("given User related to Student, authentication token carries the identity of the User")
+    public void givenUserRelatedToStudent_authenticationTokenCarriesTheIdentityOfTheUser() {
+        StudentDto student = StudentDto.builder().id(79L).firstname("John").lastname("Doe").build();
+        InitialCredentials credentials = userService.createStudentUser(student);
+        JwtRequest request = new JwtRequest(credentials.getUsername(), credentials.getPassword());
+        Link linkToAuthenticate =
+                linkTo(methodOn(JwtAuthenticationController.class).createAuthenticationToken(request)).withSelfRel();
+        ResponseEntity<JwtResponse> response = template.postForEntity(
+                linkToAuthenticate.getHref(),
+                createHttpEntity(request),
+                JwtResponse.class
+        );
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+
+        JwtClaims claims = jwtTokenUtil.parseToken(response.getBody().getJwtToken());
+        assertThat(claims.hasIdentity()).isTrue();
+        assertThat(claims.getUserId()).isEqualTo(credentials.getUserId());
+        assertThat(claims.getRole()).isEqualTo(STUDENT);
+        assertThat(claims.getSchoolActorId()).isEqualTo(79L);
+    }
+
     @Test
     @DisplayName("given wrong password, createAuthenticationToken returns with HttpResponse 'Bad Request'")
     public void givenWrongPassword_createAuthenticationToken_returnsWithHttpResponseBadRequest() {
@@ -80,6 +116,54 @@ public class JwtAuthenticationIntegrationTests {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
     }
 
+    @Test
+    @DisplayName("given User disabled, the tokens issued to the User before do not authenticate requests")
+    public void givenUserDisabled_theTokensIssuedToTheUserBeforeDoNotAuthenticateRequests() {
+        InitialCredentials credentials = userService.createAdminUser("revokedadmin");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtTokenUtil.generateToken(userService.loadUserByUsername(credentials.getUsername())));
+        String path = "/api/users/" + credentials.getUserId();
+
+        ResponseEntity<String> response = template.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).contains("revokedadmin");
+
+        userService.setUserDisabled(credentials.getUserId());
+        response = template.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(response.getBody()).doesNotContain("revokedadmin");
+    }
+
+    @Test
+    @DisplayName("given token parsed before, parseToken returns the cached claims")
+    public void givenTokenParsedBefore_parseToken_returnsTheCachedClaims() {
+        String token = jwtTokenUtil.generateToken(User.builder()
+                .username("admin").password("admin").authorities(ADMIN.getGrantedAuthorities()).build());
+
+        JwtClaims claims = jwtTokenUtil.parseToken(token);
+
+        assertThat(claims.getUsername()).isEqualTo("admin");
+        assertThat(claims.isExpired()).isFalse();
+        assertThat(jwtTokenUtil.parseToken(token)).isSameAs(claims);
+    }
+
+    @Test
+    @DisplayName("given token with tampered signature, parseToken throws exception even if the original token is cached")
+    public void givenTokenWithTamperedSignature_parseToken_throwsExceptionEvenIfTheOriginalTokenIsCached() {
+        String token = jwtTokenUtil.generateToken(User.builder()
+                .username("admin").password("admin").authorities(ADMIN.getGrantedAuthorities()).build());
+        jwtTokenUtil.parseToken(token);
+
+        // changes a character in the middle of the signature
+        int position = token.length() - 10;
+        char tamperedCharacter = token.charAt(position) == 'A' ? 'B' : 'A';
+        String tamperedToken = token.substring(0, position) + tamperedCharacter + token.substring(position + 1);
+
+        assertThatThrownBy(() -> jwtTokenUtil.parseToken(tamperedToken)).isInstanceOf(JwtException.class);
+    }
+
     private <T> HttpEntity<T> createHttpEntity(T object) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
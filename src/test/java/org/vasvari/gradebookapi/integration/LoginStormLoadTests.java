@@ -0,0 +1,187 @@
+package org.vasvari.gradebookapi.integration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.vasvari.gradebookapi.dto.*;
+import org.vasvari.gradebookapi.integration.util.AuthorizationManager;
+import org.vasvari.gradebookapi.model.AssignmentType;
+import org.vasvari.gradebookapi.service.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.vasvari.gradebookapi.security.ApplicationUserRole.ADMIN;
+
+/**
+ * Measures the latency of a grade lookup alone, then while a storm of logins is running. The logins hash on the
+ * bounded pool and the ones beyond its queue are rejected, so the lookups keep their latency.
+ * <p>
+ * The requests are sent by a JDK HTTP client, which opens as many connections as there are clients.
+ * <p>
+ * Runs only when asked for: mvn test -Dtest=LoginStormLoadTests -DloadTests=true
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT, properties = {
+        "password-hashing.pool-size=1",
+        "password-hashing.queue-capacity=10"
+})
+@Import(AuthorizationManager.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "loadTests", matches = "true")
+@Slf4j
+public class LoginStormLoadTests {
+    private static final Duration PHASE_DURATION = Duration.ofSeconds(10);
+    private static final int LOOKUP_CLIENTS = 4;
+    private static final int LOGIN_CLIENTS = 100;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private AuthorizationManager auth;
+    @Autowired
+    private StudentService studentService;
+    @Autowired
+    private TeacherService teacherService;
+    @Autowired
+    private SubjectService subjectService;
+    @Autowired
+    private AssignmentService assignmentService;
+    @Autowired
+    private GradebookService gradebookService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private long entryId;
+    private HttpRequest lookupRequest;
+
+    @BeforeAll
+    public void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Long teacherId = teacherService.save(TeacherDto.builder()
+                    .firstname("Darrell").lastname("Bowen").email("darrellbowen@email.com")
+                    .birthdate(LocalDate.of(1984, 2, 1)).build()).getId();
+            Long studentId = studentService.save(StudentDto.builder()
+                    .firstname("John").lastname("Doe").gradeLevel(10).email("johndoe@email.com")
+                    .birthdate(LocalDate.of(2005, 1, 1)).build()).getId();
+            Long subjectId = subjectService.save(SubjectInput.builder().name("Algebra").teacherId(teacherId).build()).getId();
+            Long assignmentId = assignmentService.save(AssignmentInput.builder()
+                    .name("Homework").type(AssignmentType.HOMEWORK).deadline(LocalDate.of(2051, 1, 1))
+                    .subjectId(subjectId).build()).getId();
+            subjectService.addStudentToSubject(studentId, subjectId);
+            entryId = gradebookService.save(GradebookInput.builder()
+                    .studentId(studentId).subjectId(subjectId).assignmentId(assignmentId).grade(4).build()).getId();
+        });
+        auth.setRole(ADMIN);
+        lookupRequest = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/gradebook/" + entryId))
+                .header(HttpHeaders.AUTHORIZATION, auth.getHeadersWithAuthorization().getFirst(HttpHeaders.AUTHORIZATION))
+                .build();
+    }
+
+    @Test
+    @DisplayName("during a login storm, the latency of grade lookups should stay flat")
+    public void duringALoginStorm_theLatencyOfGradeLookupsShouldStayFlat() throws Exception {
+        // warms up the endpoint and the cached user
+        measureLookups();
+        long[] baseline = measureLookups();
+
+        ExecutorService loginClients = Executors.newFixedThreadPool(LOGIN_CLIENTS);
+        AtomicBoolean storming = new AtomicBoolean(true);
+        AtomicInteger loginsSucceeded = new AtomicInteger();
+        AtomicInteger loginsRejected = new AtomicInteger();
+        HttpRequest login = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/authenticate"))
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"admin\",\"password\":\"admin\"}"))
+                .build();
+        for (int i = 0; i < LOGIN_CLIENTS; i++) {
+            loginClients.submit(() -> {
+                while (storming.get()) {
+                    HttpResponse<Void> response = client.send(login, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() == HttpStatus.OK.value()) loginsSucceeded.incrementAndGet();
+                    if (response.statusCode() == HttpStatus.SERVICE_UNAVAILABLE.value()
+                            && response.headers().firstValue(HttpHeaders.RETRY_AFTER).isPresent())
+                        loginsRejected.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        long[] duringStorm;
+        try {
+            duringStorm = measureLookups();
+        } finally {
+            storming.set(false);
+            loginClients.shutdown();
+            loginClients.awaitTermination(30, TimeUnit.SECONDS);
+        }
+
+        log.info("lookups alone: {}, p50 {} ms, p99 {} ms",
+                baseline.length, millis(percentile(baseline, 50)), millis(percentile(baseline, 99)));
+        log.info("lookups during storm: {}, p50 {} ms, p99 {} ms, logins succeeded {}, rejected {}",
+                duringStorm.length, millis(percentile(duringStorm, 50)), millis(percentile(duringStorm, 99)),
+                loginsSucceeded.get(), loginsRejected.get());
+
+        assertThat(loginsSucceeded.get()).isPositive();
+        assertThat(loginsRejected.get()).isPositive();
+        assertThat(percentile(duringStorm, 99)).isLessThanOrEqualTo(Math.max(3 * percentile(baseline, 99), 50));
+    }
+
+    /**
+     * Looks up the grade from several clients for a while
+     *
+     * @return the latencies of the lookups in nanoseconds
+     */
+    private long[] measureLookups() throws Exception {
+        ExecutorService lookupClients = Executors.newFixedThreadPool(LOOKUP_CLIENTS);
+        long end = System.nanoTime() + PHASE_DURATION.toNanos();
+        List<Future<List<Long>>> results = new ArrayList<>();
+        for (int i = 0; i < LOOKUP_CLIENTS; i++) {
+            results.add(lookupClients.submit(() -> {
+                List<Long> latencies = new ArrayList<>();
+                while (System.nanoTime() < end) {
+                    long start = System.nanoTime();
+                    HttpResponse<Void> response = client.send(lookupRequest, HttpResponse.BodyHandlers.discarding());
+                    latencies.add(System.nanoTime() - start);
+                    assertThat(response.statusCode()).isEqualTo(HttpStatus.OK.value());
+                }
+                return latencies;
+            }));
+        }
+        List<Long> latencies = new ArrayList<>();
+        for (Future<List<Long>> result : results) latencies.addAll(result.get());
+        lookupClients.shutdown();
+
+        return latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    private double percentile(long[] sortedLatencies, double percentile) {
+        int index = (int) Math.ceil(percentile / 100 * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private String millis(double millis) {
+        return String.format("%.1f", millis);
+    }
+}
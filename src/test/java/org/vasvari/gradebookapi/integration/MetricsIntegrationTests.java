@@ -0,0 +1,148 @@
+package org.vasvari.gradebookapi.integration;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.vasvari.gradebookapi.dto.StudentDto;
+import org.vasvari.gradebookapi.integration.util.AuthorizationManager;
+import org.vasvari.gradebookapi.service.StudentService;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.vasvari.gradebookapi.security.ApplicationUserRole.ADMIN;
+
+/**
+ * The metrics of the requests, the services, Hibernate and the connection pool, as scraped by Prometheus. The
+ * metrics are exported only by the tests asking for it with {@link AutoConfigureMetrics}.
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT, properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "metrics.prometheus.scrape-token=" + MetricsIntegrationTests.SCRAPE_TOKEN})
+@AutoConfigureMetrics
+@Import(AuthorizationManager.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class MetricsIntegrationTests {
+    static final String SCRAPE_TOKEN = "scrape-token";
+
+    @Autowired
+    private TestRestTemplate template;
+    @Autowired
+    private AuthorizationManager auth;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private StudentService studentService;
+
+    private long studentId;
+
+    @BeforeAll
+    public void setUp() {
+        studentId = studentService.save(StudentDto.builder()
+                .firstname("Jane")
+                .lastname("Metrics")
+                .gradeLevel(11)
+                .email("janemetrics@email.com")
+                .birthdate(LocalDate.of(2004, 3, 1))
+                .build()).getId();
+        auth.setRole(ADMIN);
+    }
+
+    @Test
+    @DisplayName("Prometheus endpoint should publish the metrics of the requests, services, Hibernate and Hikari")
+    public void prometheusEndpoint_shouldPublishTheMetricsOfTheRequestsServicesHibernateAndHikari() {
+        getAsAdmin("/api/students/" + studentId);
+
+        ResponseEntity<String> response = scrape(SCRAPE_TOKEN);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                .contains("http_server_requests_seconds_bucket{")
+                .contains("uri=\"/api/students/{id}\"")
+                .contains("service_method_seconds_bucket{")
+                .contains("class=\"StudentService\"")
+                .contains("method=\"findById\"")
+                .contains("hibernate_request_statements_count{")
+                .contains("sql_request_statements_count{")
+                .contains("hibernate_query_executions_total{")
+                .contains("hikaricp_connections_active{");
+    }
+
+    @Test
+    @DisplayName("Prometheus endpoint should answer admins")
+    public void prometheusEndpoint_shouldAnswerAdmins() {
+        ResponseEntity<String> response = template.exchange("/actuator/prometheus", HttpMethod.GET,
+                new HttpEntity<>(auth.getHeadersWithAuthorization()), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    @DisplayName("Prometheus endpoint should reject requests from the same host without the scrape token")
+    public void prometheusEndpoint_shouldRejectRequestsFromTheSameHostWithoutTheScrapeToken() {
+        assertThat(template.getForEntity("/actuator/prometheus", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(scrape("wrong-token").getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    @DisplayName("Hibernate request metrics should count the work of each request")
+    public void hibernateRequestMetrics_shouldCountTheWorkOfEachRequest() {
+        getAsAdmin("/api/students/" + studentId);
+
+        DistributionSummary statements = meterRegistry.get("hibernate.request.statements")
+                .tags("method", "GET", "uri", "/api/students/{id}")
+                .summary();
+        DistributionSummary entityLoads = meterRegistry.get("hibernate.request.entity.loads")
+                .tags("method", "GET", "uri", "/api/students/{id}")
+                .summary();
+
+        assertThat(statements.count()).isPositive();
+        assertThat(statements.max()).isPositive();
+        assertThat(entityLoads.max()).isPositive();
+    }
+
+    @Test
+    @DisplayName("SQL request metrics should count the statements and rows of each request")
+    public void sqlRequestMetrics_shouldCountTheStatementsAndRowsOfEachRequest() {
+        getAsAdmin("/api/students/" + studentId);
+
+        DistributionSummary statements = meterRegistry.get("sql.request.statements")
+                .tags("method", "GET", "uri", "/api/students/{id}")
+                .summary();
+        DistributionSummary rows = meterRegistry.get("sql.request.rows")
+                .tags("method", "GET", "uri", "/api/students/{id}")
+                .summary();
+
+        assertThat(statements.count()).isPositive();
+        assertThat(statements.max()).isPositive();
+        assertThat(rows.max()).isPositive();
+    }
+
+    private ResponseEntity<String> scrape(String token) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+
+        return template.exchange("/actuator/prometheus", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
+    private void getAsAdmin(String path) {
+        ResponseEntity<String> response = template.exchange(path, HttpMethod.GET,
+                new HttpEntity<>(auth.getHeadersWithAuthorization()), String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+}
@@ -0,0 +1,203 @@
+package org.vasvari.gradebookapi.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.vasvari.gradebookapi.dataset.DatasetGenerator;
+import org.vasvari.gradebookapi.dataset.DatasetSummary;
+import org.vasvari.gradebookapi.dto.simpleTypes.InitialCredentials;
+import org.vasvari.gradebookapi.integration.util.LoadGenerator;
+import org.vasvari.gradebookapi.jwt.JwtRequest;
+import org.vasvari.gradebookapi.jwt.JwtResponse;
+import org.vasvari.gradebookapi.service.StudentService;
+import org.vasvari.gradebookapi.service.TeacherService;
+import org.vasvari.gradebookapi.service.UserService;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+/**
+ * Replays a mix of logins, the queries of students and teachers, and grading against a generated school, each at
+ * its own rate, and fails if the 99th percentile latency of a request goes over its budget. The teachers are the
+ * busiest ones of the school, so their queries return the most entries.
+ * <p>
+ * The rates, the budgets and the size of the school are in load-test.properties, and can be overridden by system
+ * properties. Runs only when asked for: mvn test -Dtest=MixedTrafficLoadTests -DloadTests=true
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT, properties = "spring.jpa.show-sql=false")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "loadTests", matches = "true")
+@Slf4j
+public class MixedTrafficLoadTests {
+    private static final String[] SCENARIOS = {"authenticate", "student-entries", "student-averages",
+            "student-subjects", "teacher-entries", "teacher-students", "teacher-subjects", "grade"};
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private DatasetGenerator datasetGenerator;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private StudentService studentService;
+    @Autowired
+    private TeacherService teacherService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Properties settings;
+    private final List<InitialCredentials> credentials = new ArrayList<>();
+    private final List<String> studentTokens = new ArrayList<>();
+    // the tokens of the teachers by their IDs
+    private final Map<Long, String> teacherTokens = new LinkedHashMap<>();
+    // the student, subject, assignment and teacher of the entries not graded yet
+    private List<long[]> ungraded;
+
+    @BeforeAll
+    public void setUp() throws Exception {
+        settings = PropertiesLoaderUtils.loadProperties(new ClassPathResource("load-test.properties"));
+        settings.stringPropertyNames().forEach(name -> settings.setProperty(name, System.getProperty(name, settings.getProperty(name))));
+
+        DatasetSummary summary = datasetGenerator.generate(setting("seed"), (int) setting("entries"));
+        log.info("load test dataset: {}", summary);
+
+        List<Long> studentIds = jdbcTemplate.queryForList("select id from student order by id", Long.class);
+        Collections.shuffle(studentIds, new Random(setting("seed")));
+        for (Long studentId : studentIds.subList(0, (int) setting("student-users"))) {
+            InitialCredentials student = userService.createStudentUser(studentService.findById(studentId).orElseThrow());
+            credentials.add(student);
+            studentTokens.add(login(student));
+        }
+
+        List<Long> teacherIds = jdbcTemplate.queryForList("select teacher_id from subject " +
+                "group by teacher_id order by count(*) desc, teacher_id limit ?", Long.class, setting("teacher-users"));
+        for (Long teacherId : teacherIds) {
+            InitialCredentials teacher = userService.createTeacherUser(teacherService.findById(teacherId).orElseThrow());
+            credentials.add(teacher);
+            teacherTokens.put(teacherId, login(teacher));
+        }
+
+        ungraded = jdbcTemplate.query("select s.students_id, s.subject_id, a.id, sub.teacher_id " +
+                        "from subject_students s " +
+                        "join subject sub on sub.id = s.subject_id " +
+                        "join assignment a on a.subject_id = s.subject_id " +
+                        "where sub.teacher_id in (" + String.join(",", Collections.nCopies(teacherIds.size(), "?")) + ") " +
+                        "and not exists (select 1 from gradebook_entry e where e.student_id = s.students_id " +
+                        "and e.subject_id = s.subject_id and e.assignment_id = a.id) " +
+                        "order by s.subject_id, a.id, s.students_id",
+                (rs, row) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4)},
+                teacherIds.toArray());
+        assertThat((long) ungraded.size())
+                .as("entries left to grade")
+                .isGreaterThanOrEqualTo((long) Math.ceil(rate("grade") * (setting("warm-up-seconds") + setting("duration-seconds"))));
+    }
+
+    @Test
+    @DisplayName("under a mixed load, the 99th percentile latency of each request should stay within its budget")
+    public void underAMixedLoad_the99thPercentileLatencyOfEachRequestShouldStayWithinItsBudget() throws Exception {
+        LoadGenerator load = new LoadGenerator()
+                .scenario("authenticate", rate("authenticate"), HttpStatus.OK.value(), roundRobin(credentials,
+                        user -> post("/api/authenticate", null, new JwtRequest(user.getUsername(), user.getPassword()))))
+                .scenario("student-entries", rate("student-entries"), HttpStatus.OK.value(),
+                        roundRobin(studentTokens, token -> get("/api/student-user/gradebook-entries", token)))
+                .scenario("student-averages", rate("student-averages"), HttpStatus.OK.value(),
+                        roundRobin(studentTokens, token -> get("/api/student-user/averages", token)))
+                .scenario("student-subjects", rate("student-subjects"), HttpStatus.OK.value(),
+                        roundRobin(studentTokens, token -> get("/api/student-user/subjects", token)))
+                .scenario("teacher-entries", rate("teacher-entries"), HttpStatus.OK.value(),
+                        roundRobin(teacherTokens.values(), token -> get("/api/teacher-user/gradebook-entries", token)))
+                .scenario("teacher-students", rate("teacher-students"), HttpStatus.OK.value(),
+                        roundRobin(teacherTokens.values(), token -> get("/api/teacher-user/students", token)))
+                .scenario("teacher-subjects", rate("teacher-subjects"), HttpStatus.OK.value(),
+                        roundRobin(teacherTokens.values(), token -> get("/api/teacher-user/subjects", token)))
+                .scenario("grade", rate("grade"), HttpStatus.CREATED.value(), grades());
+
+        load.run(Duration.ofSeconds(setting("warm-up-seconds")));
+        Map<String, LoadGenerator.Result> results = load.run(Duration.ofSeconds(setting("duration-seconds")));
+        results.values().forEach(result -> log.info("{}", result));
+
+        assertSoftly(softly -> {
+            for (String scenario : SCENARIOS) {
+                LoadGenerator.Result result = results.get(scenario);
+                softly.assertThat(result.getFailures()).as("failed requests of %s", scenario).isZero();
+                softly.assertThat(result.percentile(99)).as("p99 of %s in ms", scenario)
+                        .isLessThanOrEqualTo(setting(scenario + ".p99-budget-ms"));
+            }
+        });
+    }
+
+    private Supplier<HttpRequest> grades() {
+        Iterator<long[]> entries = ungraded.iterator();
+        return () -> {
+            long[] entry = entries.next();
+            Map<String, Long> input = Map.of("studentId", entry[0], "subjectId", entry[1], "assignmentId", entry[2], "grade", 4L);
+            return post("/api/gradebook", teacherTokens.get(entry[3]), input);
+        };
+    }
+
+    private <T> Supplier<HttpRequest> roundRobin(Collection<T> values, Function<T, HttpRequest> request) {
+        List<T> list = new ArrayList<>(values);
+        int[] next = {0};
+        return () -> request.apply(list.get(next[0]++ % list.size()));
+    }
+
+    private String login(InitialCredentials user) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(post("/api/authenticate", null,
+                new JwtRequest(user.getUsername(), user.getPassword())), HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).isEqualTo(HttpStatus.OK.value());
+        return objectMapper.readValue(response.body(), JwtResponse.class).getJwtToken();
+    }
+
+    private HttpRequest get(String path, String token) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .build();
+    }
+
+    private HttpRequest post(String path, String token, Object body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+        if (token != null) request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        try {
+            return request.POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body))).build();
+        } catch (IOException ex) {
+            throw new IllegalArgumentException(ex);
+        }
+    }
+
+    private double rate(String scenario) {
+        return Double.parseDouble(settings.getProperty("load-test." + scenario + ".rate"));
+    }
+
+    private long setting(String name) {
+        return Long.parseLong(settings.getProperty("load-test." + name));
+    }
+}
@@ -0,0 +1,138 @@
+package org.vasvari.gradebookapi.integration;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.vasvari.gradebookapi.dto.StudentDto;
+import org.vasvari.gradebookapi.integration.util.AuthorizationManager;
+import org.vasvari.gradebookapi.service.StudentService;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.vasvari.gradebookapi.security.ApplicationUserRole.ADMIN;
+
+/**
+ * The updates and deletes conditional on the version given by their If-Match header
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@Import(AuthorizationManager.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class OptimisticLockingIntegrationTests {
+
+    @Autowired
+    private TestRestTemplate template;
+    @Autowired
+    private AuthorizationManager auth;
+    @Autowired
+    private StudentService studentService;
+
+    @BeforeAll
+    public void setUp() {
+        auth.setRole(ADMIN);
+    }
+
+    @Test
+    @DisplayName("PUT with the ETag of the current version should update the student and answer its new ETag")
+    public void putWithTheEtagOfTheCurrentVersion_shouldUpdateTheStudentAndAnswerItsNewEtag() {
+        StudentDto student = saveStudent("Current");
+        String path = "/api/students/" + student.getId();
+        String etag = exchange(path, HttpMethod.GET, null, null).getHeaders().getETag();
+
+        ResponseEntity<String> response = exchange(path, HttpMethod.PUT, renamed(student, "Renamed"), etag);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).contains("Renamed");
+        String newEtag = response.getHeaders().getETag();
+        assertThat(newEtag).isNotNull().isNotEqualTo(etag);
+        assertThat(exchange(path, HttpMethod.GET, null, null).getHeaders().getETag())
+                .startsWith(newEtag.substring(0, newEtag.length() - 1));
+    }
+
+    @Test
+    @DisplayName("PUT and DELETE with the ETag of an earlier version should answer 412 and change nothing")
+    public void putAndDeleteWithTheEtagOfAnEarlierVersion_shouldAnswer412AndChangeNothing() {
+        StudentDto student = saveStudent("Stale");
+        String path = "/api/students/" + student.getId();
+        String staleEtag = exchange(path, HttpMethod.GET, null, null).getHeaders().getETag();
+        assertThat(exchange(path, HttpMethod.PUT, renamed(student, "First"), staleEtag).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+
+        ResponseEntity<String> putResponse = exchange(path, HttpMethod.PUT, renamed(student, "Second"), staleEtag);
+        ResponseEntity<String> deleteResponse = exchange(path, HttpMethod.DELETE, null, staleEtag);
+
+        assertThat(putResponse.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(deleteResponse.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(studentService.findById(student.getId()).map(StudentDto::getFirstname)).contains("First");
+    }
+
+    @Test
+    @DisplayName("PUT and DELETE without If-Match should answer 428 and change nothing")
+    public void putAndDeleteWithoutIfMatch_shouldAnswer428AndChangeNothing() {
+        StudentDto student = saveStudent("Unconditional");
+        String path = "/api/students/" + student.getId();
+
+        ResponseEntity<String> putResponse = exchange(path, HttpMethod.PUT, renamed(student, "Renamed"), null);
+        ResponseEntity<String> deleteResponse = exchange(path, HttpMethod.DELETE, null, null);
+
+        assertThat(putResponse.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_REQUIRED);
+        assertThat(deleteResponse.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_REQUIRED);
+        assertThat(studentService.findById(student.getId()).map(StudentDto::getFirstname)).contains("Unconditional");
+    }
+
+    @Test
+    @DisplayName("PUT and DELETE with If-Match * should overwrite any version")
+    public void putAndDeleteWithIfMatchAny_shouldOverwriteAnyVersion() {
+        StudentDto student = saveStudent("Any");
+        String path = "/api/students/" + student.getId();
+
+        assertThat(exchange(path, HttpMethod.PUT, renamed(student, "Renamed"), "*").getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+        assertThat(exchange(path, HttpMethod.DELETE, null, "*").getStatusCode())
+                .isEqualTo(HttpStatus.NO_CONTENT);
+        assertThat(studentService.findById(student.getId())).isEmpty();
+    }
+
+    private ResponseEntity<String> exchange(String path, HttpMethod method, Object body, String ifMatch) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(auth.getHeadersWithAuthorization());
+        if (ifMatch != null) headers.setIfMatch(ifMatch);
+
+        return template.exchange(path, method, new HttpEntity<>(body, headers), String.class);
+    }
+
+    private StudentDto renamed(StudentDto student, String firstname) {
+        return StudentDto.builder()
+                .firstname(firstname)
+                .lastname(student.getLastname())
+                .gradeLevel(student.getGradeLevel())
+                .email(student.getEmail())
+                .address(student.getAddress())
+                .phone(student.getPhone())
+                .birthdate(student.getBirthdate())
+                .build();
+    }
+
+    private StudentDto saveStudent(String firstname) {
+        return studentService.save(StudentDto.builder()
+                .firstname(firstname)
+                .lastname("Locking")
+                .gradeLevel(10)
+                .email(firstname.toLowerCase() + "locking@email.com")
+                .address("Budapest")
+                .phone("+36301234567")
+                .birthdate(LocalDate.of(2005, 4, 1))
+                .build());
+    }
+}
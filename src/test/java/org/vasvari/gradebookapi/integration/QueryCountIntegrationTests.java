@@ -0,0 +1,377 @@
+package org.vasvari.gradebookapi.integration;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.vasvari.gradebookapi.dto.*;
+import org.vasvari.gradebookapi.dto.simpleTypes.InitialCredentials;
+import org.vasvari.gradebookapi.dto.simpleTypes.StudentGrade;
+import org.vasvari.gradebookapi.dto.simpleTypes.UsernameInput;
+import org.vasvari.gradebookapi.integration.util.AuthorizationManager;
+import org.vasvari.gradebookapi.integration.util.QueryCounter;
+import org.vasvari.gradebookapi.jwt.JwtTokenUtil;
+import org.vasvari.gradebookapi.model.AssignmentType;
+import org.vasvari.gradebookapi.service.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+/**
+ * Guards the number of SQL statements run by the endpoints, as counted on the data source, so the statements
+ * of every JDBC client count. The fixture has several subjects with several students each, so an endpoint loading
+ * rosters or associations one by one exceeds its limit. The writes have targets of their own, so they do not
+ * change what the GET endpoints read whatever the order of the tests. The {@link QueryCounter} gives the class
+ * its own application context and thus its own database.
+ * <p>
+ * Left out are {@code POST /api/users/batch}, whose statements grow with the number of batches by design and
+ * are covered by the tests of {@link UserService}, and {@code POST /api/users/password-change}, which would
+ * revoke the token of the student shared by the GET endpoints.
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@Import({AuthorizationManager.class, QueryCounter.class})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class QueryCountIntegrationTests {
+    private static final int SUBJECTS = 3;
+    private static final int STUDENTS_PER_SUBJECT = 4;
+
+    @Autowired
+    private TestRestTemplate template;
+    @Autowired
+    private AuthorizationManager auth;
+    @Autowired
+    private JwtTokenUtil jwtTokenUtil;
+    @Autowired
+    private QueryCounter queryCounter;
+    @Autowired
+    private StudentService studentService;
+    @Autowired
+    private TeacherService teacherService;
+    @Autowired
+    private SubjectService subjectService;
+    @Autowired
+    private AssignmentService assignmentService;
+    @Autowired
+    private GradebookService gradebookService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private long studentId;
+    private long teacherId;
+    private long subjectId;
+    private long assignmentId;
+    private long entryId;
+    private long userId;
+    private String studentUsername;
+    private String teacherUsername;
+    private HttpHeaders studentHeaders;
+    private HttpHeaders teacherHeaders;
+
+    // the targets of the writes
+    private long writeTeacherId;
+    private long deletedTeacherId;
+    private long writeSubjectId;
+    private long deletedSubjectId;
+    private long writeAssignmentId;
+    private long deletedAssignmentId;
+    private List<Long> writeStudentIds;
+    private long updatedEntryId;
+    private long deletedEntryId;
+    private long enabledUserId;
+    private long deletedUserId;
+
+    @BeforeAll
+    public void setUp() {
+        // the services map their results lazily, as they do inside the requests
+        transactionTemplate.executeWithoutResult(status -> {
+            createFixture();
+            createWriteFixture();
+        });
+        // outside of a transaction the users are cached, as after the first request of each, so only the
+        // statements of the endpoints count
+        studentHeaders = headersOf(studentUsername);
+        teacherHeaders = headersOf(teacherUsername);
+        userService.loadUserByUsername("admin");
+    }
+
+    private void createFixture() {
+        TeacherDto teacher = teacherService.save(TeacherDto.builder()
+                .firstname("Darrell")
+                .lastname("Bowen")
+                .email("darrellbowen@email.com")
+                .birthdate(LocalDate.of(1984, 2, 1))
+                .build());
+        teacherId = teacher.getId();
+        // the other subjects have teachers of their own, so an endpoint loading the teachers one by one exceeds its limit
+        List<Long> otherTeacherIds = new ArrayList<>();
+        for (int s = 1; s < SUBJECTS; s++) {
+            otherTeacherIds.add(teacherService.save(TeacherDto.builder()
+                    .firstname("Teacher")
+                    .lastname(String.valueOf(s))
+                    .email("teacher" + s + "@email.com")
+                    .birthdate(LocalDate.of(1980, 1, 1))
+                    .build()).getId());
+        }
+
+        List<StudentDto> students = new ArrayList<>();
+        for (int i = 0; i < SUBJECTS * STUDENTS_PER_SUBJECT; i++) {
+            students.add(studentService.save(StudentDto.builder()
+                    .firstname("Student")
+                    .lastname(String.valueOf(i))
+                    .gradeLevel(10)
+                    .email("student" + i + "@email.com")
+                    .birthdate(LocalDate.of(2005, 1, 1))
+                    .build()));
+        }
+        studentId = students.get(0).getId();
+
+        for (int s = 0; s < SUBJECTS; s++) {
+            Long subjectTeacherId = s == 0 ? teacherId : otherTeacherIds.get(s - 1);
+            Long subject = subjectService.save(SubjectInput.builder().name("Subject " + s).teacherId(subjectTeacherId).build()).getId();
+            Long assignment = assignmentService.save(AssignmentInput.builder()
+                    .name("Homework " + s)
+                    .type(AssignmentType.HOMEWORK)
+                    .deadline(LocalDate.of(2051, 1, 1))
+                    .subjectId(subject)
+                    .build()).getId();
+            // the first student takes every subject, the others one subject each
+            for (int i = 0; i < STUDENTS_PER_SUBJECT; i++) {
+                Long student = i == 0 ? studentId : students.get(s * STUDENTS_PER_SUBJECT + i).getId();
+                subjectService.addStudentToSubject(student, subject);
+                entryId = gradebookService.save(GradebookInput.builder()
+                        .studentId(student).subjectId(subject).assignmentId(assignment).grade(4).build()).getId();
+            }
+            subjectId = subject;
+            assignmentId = assignment;
+        }
+
+        InitialCredentials studentCredentials = userService.createStudentUser(students.get(0));
+        InitialCredentials teacherCredentials = userService.createTeacherUser(teacher);
+        userId = studentCredentials.getUserId();
+        studentUsername = studentCredentials.getUsername();
+        teacherUsername = teacherCredentials.getUsername();
+    }
+
+    /**
+     * A subject with a roster of graded students, as the writes that used to load the roster need, and the students,
+     * subjects, assignments, entries and users written or deleted by one write each
+     */
+    private void createWriteFixture() {
+        writeTeacherId = teacherService.save(teacherNamed("Writer")).getId();
+        deletedTeacherId = teacherService.save(teacherNamed("Deleted")).getId();
+        writeSubjectId = subjectService.save(SubjectInput.builder().name("Written subject").teacherId(writeTeacherId).build()).getId();
+        deletedSubjectId = subjectService.save(SubjectInput.builder().name("Deleted subject").teacherId(writeTeacherId).build()).getId();
+        writeAssignmentId = assignmentService.save(assignmentOf(writeSubjectId, "Written homework")).getId();
+        deletedAssignmentId = assignmentService.save(assignmentOf(writeSubjectId, "Deleted homework")).getId();
+
+        // 0-3 graded, 4-6 enrolled without grades, 7-8 to be enrolled, 9 to be removed, 10 updated, 11 deleted
+        writeStudentIds = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            writeStudentIds.add(studentService.save(StudentDto.builder()
+                    .firstname("Writer")
+                    .lastname(String.valueOf(i))
+                    .gradeLevel(11)
+                    .email("writer" + i + "@email.com")
+                    .birthdate(LocalDate.of(2004, 1, 1))
+                    .build()).getId());
+        }
+        for (int i = 0; i < 7; i++) subjectService.addStudentToSubject(writeStudentIds.get(i), writeSubjectId);
+        subjectService.addStudentToSubject(writeStudentIds.get(9), writeSubjectId);
+        List<Long> entryIds = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            entryIds.add(gradebookService.save(GradebookInput.builder()
+                    .studentId(writeStudentIds.get(i)).subjectId(writeSubjectId).assignmentId(writeAssignmentId)
+                    .grade(3).build()).getId());
+        }
+        updatedEntryId = entryIds.get(0);
+        deletedEntryId = entryIds.get(1);
+
+        enabledUserId = userService.createStudentUser(studentService.findById(writeStudentIds.get(0)).orElseThrow()).getUserId();
+        deletedUserId = userService.createStudentUser(studentService.findById(writeStudentIds.get(1)).orElseThrow()).getUserId();
+    }
+
+    private TeacherDto teacherNamed(String lastname) {
+        return TeacherDto.builder()
+                .firstname("Teacher")
+                .lastname(lastname)
+                .email("teacher" + lastname.toLowerCase() + "@email.com")
+                .address("1 Main Street")
+                .phone("555-1234")
+                .birthdate(LocalDate.of(1980, 1, 1))
+                .build();
+    }
+
+    private StudentDto studentOf(String email) {
+        return StudentDto.builder()
+                .firstname("Written")
+                .lastname("Student")
+                .gradeLevel(11)
+                .email(email)
+                .address("1 Main Street")
+                .phone("555-1234")
+                .birthdate(LocalDate.of(2004, 1, 1))
+                .build();
+    }
+
+    private AssignmentInput assignmentOf(long subjectId, String name) {
+        return AssignmentInput.builder()
+                .name(name)
+                .type(AssignmentType.HOMEWORK)
+                .deadline(LocalDate.of(2051, 1, 1))
+                .subjectId(subjectId)
+                .build();
+    }
+
+    private Stream<Arguments> getEndpoints() {
+        return Stream.of(
+                // role, path, maximum number of statements
+                Arguments.of("admin", "/api/gradebook", 1),
+                Arguments.of("admin", "/api/gradebook?limit=5", 1),
+                Arguments.of("admin", "/api/gradebook/search?subjectId=" + subjectId, 1),
+                Arguments.of("admin", "/api/gradebook/" + entryId, 1),
+                Arguments.of("student", "/api/student-user/gradebook-entries", 1),
+                Arguments.of("student", "/api/student-user/averages", 1),
+                Arguments.of("teacher", "/api/teacher-user/gradebook-entries", 1),
+                Arguments.of("admin", "/api/subjects", 3),
+                Arguments.of("admin", "/api/subjects/search?subjectName=subject", 3),
+                Arguments.of("admin", "/api/subjects/" + subjectId, 2),
+                Arguments.of("admin", "/api/subjects/" + subjectId + "/students", 1),
+                Arguments.of("admin", "/api/subjects/" + subjectId + "/statistics", 3),
+                Arguments.of("teacher", "/api/teacher-user/subjects", 3),
+                Arguments.of("student", "/api/student-user/subjects", 3),
+                Arguments.of("admin", "/api/students", 1),
+                Arguments.of("admin", "/api/students/search?gradeLevel=10", 1),
+                Arguments.of("admin", "/api/students/" + studentId, 1),
+                Arguments.of("admin", "/api/students/" + studentId + "/subjects", 4),
+                Arguments.of("teacher", "/api/teacher-user/students", 3),
+                Arguments.of("admin", "/api/assignments", 2),
+                Arguments.of("admin", "/api/assignments/search?subjectId=" + subjectId, 2),
+                Arguments.of("admin", "/api/assignments/" + assignmentId, 1),
+                Arguments.of("teacher", "/api/teacher-user/assignments", 3),
+                Arguments.of("student", "/api/student-user/assignments", 1),
+                Arguments.of("admin", "/api/teachers", 1),
+                Arguments.of("admin", "/api/teachers/" + teacherId, 1),
+                Arguments.of("admin", "/api/users", 1),
+                Arguments.of("admin", "/api/users/" + userId, 1),
+                Arguments.of("admin", "/api/users/students/" + studentId, 3),
+                Arguments.of("admin", "/api/users/teachers/" + teacherId, 3)
+        );
+    }
+
+    @ParameterizedTest(name = "{0} GET {1}")
+    @MethodSource("getEndpoints")
+    @DisplayName("GET endpoint should run at most the expected number of statements")
+    public void getEndpoint_shouldRunAtMostTheExpectedNumberOfStatements(String role, String path, int maxStatements) {
+        HttpEntity<?> request = new HttpEntity<>(headersOfRole(role));
+
+        queryCounter.assertQueryCount(() -> {
+            ResponseEntity<String> response = template.exchange(path, HttpMethod.GET, request, String.class);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        }).isLessThanOrEqualTo(maxStatements);
+    }
+
+    private Stream<Arguments> writeEndpoints() {
+        long student = writeStudentIds.get(10);
+        EnrollmentBatchInput enrollment = EnrollmentBatchInput.builder()
+                .action(EnrollmentBatchInput.Action.ENROLL)
+                .studentIds(List.of(writeStudentIds.get(7), writeStudentIds.get(8)))
+                .build();
+        GradebookBatchInput grades = GradebookBatchInput.builder()
+                .subjectId(writeSubjectId)
+                .assignmentId(writeAssignmentId)
+                .grades(List.of(new StudentGrade(writeStudentIds.get(5), 4), new StudentGrade(writeStudentIds.get(6), 5)))
+                .build();
+
+        return Stream.of(
+                // method, path, body, maximum number of statements
+                Arguments.of(HttpMethod.POST, "/api/students", studentOf("createdstudent@email.com"), 1),
+                Arguments.of(HttpMethod.PUT, "/api/students/" + student, studentOf("writtenstudent@email.com"), 2),
+                Arguments.of(HttpMethod.DELETE, "/api/students/" + writeStudentIds.get(11), null, 3),
+                Arguments.of(HttpMethod.PUT, "/api/teachers/" + writeTeacherId, teacherNamed("Written"), 2),
+                Arguments.of(HttpMethod.DELETE, "/api/teachers/" + deletedTeacherId, null, 2),
+                Arguments.of(HttpMethod.POST, "/api/subjects",
+                        SubjectInput.builder().name("Created subject").teacherId(writeTeacherId).build(), 2),
+                Arguments.of(HttpMethod.PUT, "/api/subjects/" + writeSubjectId,
+                        SubjectInput.builder().name("Renamed subject").teacherId(writeTeacherId).build(), 4),
+                Arguments.of(HttpMethod.DELETE, "/api/subjects/" + deletedSubjectId, null, 5),
+                Arguments.of(HttpMethod.POST, "/api/subjects/" + writeSubjectId + "/add_student/" + writeStudentIds.get(7), null, 5),
+                Arguments.of(HttpMethod.POST, "/api/subjects/" + writeSubjectId + "/remove_student/" + writeStudentIds.get(9), null, 5),
+                Arguments.of(HttpMethod.POST, "/api/subjects/" + writeSubjectId + "/students:batch", enrollment, 3),
+                Arguments.of(HttpMethod.POST, "/api/assignments", assignmentOf(writeSubjectId, "Created homework"), 3),
+                Arguments.of(HttpMethod.PUT, "/api/assignments/" + writeAssignmentId,
+                        assignmentOf(writeSubjectId, "Renamed homework"), 3),
+                Arguments.of(HttpMethod.DELETE, "/api/assignments/" + deletedAssignmentId, null, 3),
+                Arguments.of(HttpMethod.POST, "/api/gradebook", GradebookInput.builder()
+                        .studentId(writeStudentIds.get(4)).subjectId(writeSubjectId).assignmentId(writeAssignmentId)
+                        .grade(2).build(), 14),
+                Arguments.of(HttpMethod.POST, "/api/gradebook/batch", grades, 15),
+                Arguments.of(HttpMethod.PUT, "/api/gradebook/" + updatedEntryId, GradebookInput.builder()
+                        .studentId(writeStudentIds.get(0)).subjectId(writeSubjectId).assignmentId(writeAssignmentId)
+                        .grade(5).build(), 15),
+                Arguments.of(HttpMethod.PUT, "/api/gradebook/by-key", GradebookInput.builder()
+                        .studentId(writeStudentIds.get(2)).subjectId(writeSubjectId).assignmentId(writeAssignmentId)
+                        .grade(1).build(), 16),
+                Arguments.of(HttpMethod.DELETE, "/api/gradebook/" + deletedEntryId, null, 11),
+                Arguments.of(HttpMethod.POST, "/api/users/create-student-user?studentId=" + writeStudentIds.get(3), null, 5),
+                Arguments.of(HttpMethod.POST, "/api/users/create-admin-user", new UsernameInput("writer"), 2),
+                Arguments.of(HttpMethod.POST, "/api/users/" + enabledUserId + "/disable", null, 4),
+                Arguments.of(HttpMethod.POST, "/api/users/" + enabledUserId + "/enable", null, 2),
+                Arguments.of(HttpMethod.DELETE, "/api/users/" + deletedUserId, null, 6)
+        );
+    }
+
+    @ParameterizedTest(name = "admin {0} {1}")
+    @MethodSource("writeEndpoints")
+    @DisplayName("write endpoint should run at most the expected number of statements")
+    public void writeEndpoint_shouldRunAtMostTheExpectedNumberOfStatements(HttpMethod method, String path, Object body,
+                                                                         int maxStatements) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(headersOfRole("admin"));
+        // the updates and deletes overwrite any version
+        headers.setIfMatch("*");
+        HttpEntity<?> request = new HttpEntity<>(body, headers);
+
+        queryCounter.assertQueryCount(() -> {
+            ResponseEntity<String> response = template.exchange(path, method, request, String.class);
+            assertThat(response.getStatusCode().is2xxSuccessful()).as(response.getBody()).isTrue();
+        }).isLessThanOrEqualTo(maxStatements);
+    }
+
+    private HttpHeaders headersOfRole(String role) {
+        switch (role) {
+            case "student":
+                return studentHeaders;
+            case "teacher":
+                return teacherHeaders;
+            default:
+                auth.setRole(org.vasvari.gradebookapi.security.ApplicationUserRole.ADMIN);
+                return auth.getHeadersWithAuthorization();
+        }
+    }
+
+    private HttpHeaders headersOf(String username) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtTokenUtil.generateToken(userService.loadUserByUsername(username)));
+
+        return headers;
+    }
+}
@@ -294,7 +294,7 @@ public class StudentIntegrationTests {
             ResponseEntity<StudentDto> response = template.exchange(
                     linkToUpdateStudent.getHref(),
                     HttpMethod.PUT,
-                    auth.createHttpEntityWithAuthorization(student1),
+                    auth.createHttpEntityWithAuthorizationOverwritingAnyVersion(student1),
                     StudentDto.class
             );
 
@@ -313,7 +313,7 @@ public class StudentIntegrationTests {
             ResponseEntity<?> response = template.exchange(
                     linkToStudent.getHref(),
                     HttpMethod.PUT,
-                    auth.createHttpEntityWithAuthorization(student1),
+                    auth.createHttpEntityWithAuthorizationOverwritingAnyVersion(student1),
                     String.class
             );
 
@@ -332,7 +332,7 @@ public class StudentIntegrationTests {
             ResponseEntity<?> response = template.exchange(
                     linkToStudent.getHref(),
                     HttpMethod.PUT,
-                    auth.createHttpEntityWithAuthorization(student),
+                    auth.createHttpEntityWithAuthorizationOverwritingAnyVersion(student),
                     String.class
             );
 
@@ -353,7 +353,7 @@ public class StudentIntegrationTests {
             template.exchange(
                     linkToStudent.getHref(),
                     HttpMethod.DELETE,
-                    auth.createHttpEntityWithAuthorization(null),
+                    auth.createHttpEntityWithAuthorizationOverwritingAnyVersion(null),
                     String.class
             );
 
@@ -375,7 +375,7 @@ public class StudentIntegrationTests {
             ResponseEntity<?> deleteResponse = template.exchange(
                     linkToStudent.getHref(),
                     HttpMethod.DELETE,
-                    auth.createHttpEntityWithAuthorization(null),
+                    auth.createHttpEntityWithAuthorizationOverwritingAnyVersion(null),
                     String.class
             );
 
@@ -393,7 +393,7 @@ public class StudentIntegrationTests {
             ResponseEntity<?> deleteResponse = template.exchange(
                     linkToStudent.getHref(),
                     HttpMethod.DELETE,
-                    auth.createHttpEntityWithAuthorization(null),
+                    auth.createHttpEntityWithAuthorizationOverwritingAnyVersion(null),
                     String.class
             );
 
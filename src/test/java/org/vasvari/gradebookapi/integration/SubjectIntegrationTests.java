@@ -25,6 +25,7 @@ import org.vasvari.gradebookapi.model.AssignmentType;
 import java.net.URI;
 import java.time.LocalDate;
 import java.util.Collections;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
@@ -154,6 +155,40 @@ public class SubjectIntegrationTests {
             assertThat(response.getBody().getStudents()).containsExactly(expectedStudent);
         }
 
+        @Test
+        @DisplayName("enroll Students in batch should add the Students to the Subject")
+        public void enrollStudentsInBatch_shouldAddTheStudentsToTheSubject() {
+            long student1Id = postStudent(student).getId();
+            student.setEmail("janedoe@email.com");
+            long student2Id = postStudent(student).getId();
+            long teacherId = postTeacher(teacher).getId();
+            subjectInput1.setTeacherId(teacherId);
+            long subjectId = postSubject(subjectInput1).getId();
+            EnrollmentBatchInput batchInput = EnrollmentBatchInput.builder()
+                    .action(EnrollmentBatchInput.Action.ENROLL)
+                    .studentIds(List.of(student1Id, student2Id))
+                    .build();
+
+            Link linkToBatchEnrollment =
+                    linkTo(methodOn(SubjectController.class).changeEnrollments(subjectId, batchInput)).withSelfRel();
+            ResponseEntity<EnrollmentBatchResult> response = template.exchange(
+                    linkToBatchEnrollment.getHref(),
+                    HttpMethod.POST,
+                    auth.createHttpEntityWithAuthorization(batchInput),
+                    EnrollmentBatchResult.class
+            );
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getBody()).isNotNull();
+            assertThat(response.getBody().getStudentsAffected()).isEqualTo(2);
+            Link linkToSubject = linkTo(methodOn(SubjectController.class).getById(subjectId)).withSelfRel();
+            SubjectOutput subject = template.exchange(linkToSubject.getHref(), HttpMethod.GET,
+                    auth.createHttpEntityWithAuthorization(null), SubjectOutput.class).getBody();
+            assertThat(subject).isNotNull();
+            assertThat(subject.getStudents()).extracting(SimpleStudent::getId)
+                    .containsExactlyInAnyOrder(student1Id, student2Id);
+        }
+
         @Test
         @DisplayName("when Student does not exist with given ID, should return response 'Not Found'")
         public void whenStudentDoesNotExistWithGivenId_shouldReturnResponseNotFound() {
@@ -291,7 +326,7 @@ public class SubjectIntegrationTests {
             ResponseEntity<SubjectOutput> response = template.exchange(
                     linkToClass.getHref(),
                     HttpMethod.PUT,
-                    auth.createHttpEntityWithAuthorization(update),
+                    auth.createHttpEntityWithAuthorizationOverwritingAnyVersion(update),
                     SubjectOutput.class
             );
 
@@ -310,7 +345,7 @@ public class SubjectIntegrationTests {
             ResponseEntity<?> response = template.exchange(
                     linkToClass.getHref(),
                     HttpMethod.PUT,
-                    auth.createHttpEntityWithAuthorization(subjectInput1),
+                    auth.createHttpEntityWithAuthorizationOverwritingAnyVersion(subjectInput1),
                     String.class
             );
 
@@ -330,7 +365,7 @@ public class SubjectIntegrationTests {
             ResponseEntity<?> response = template.exchange(
                     linkToClass.getHref(),
                     HttpMethod.PUT,
-                    auth.createHttpEntityWithAuthorization(updateWithBlankName),
+                    auth.createHttpEntityWithAuthorizationOverwritingAnyVersion(updateWithBlankName),
                     String.class
             );
 
@@ -354,7 +389,7 @@ public class SubjectIntegrationTests {
             template.exchange(
                     linkToClass.getHref(),
                     HttpMethod.DELETE,
-                    auth.createHttpEntityWithAuthorization(null),
+                    auth.createHttpEntityWithAuthorizationOverwritingAnyVersion(null),
                     SubjectOutput.class
             );
 
@@ -376,7 +411,7 @@ public class SubjectIntegrationTests {
             ResponseEntity<?> response = template.exchange(
                     linkToClass.getHref(),
                     HttpMethod.DELETE,
-                    auth.createHttpEntityWithAuthorization(null),
+                    auth.createHttpEntityWithAuthorizationOverwritingAnyVersion(null),
                     String.class
             );
 
@@ -396,7 +431,7 @@ public class SubjectIntegrationTests {
             ResponseEntity<?> response = template.exchange(
                     linkToClass.getHref(),
                     HttpMethod.DELETE,
-                    auth.createHttpEntityWithAuthorization(null),
+                    auth.createHttpEntityWithAuthorizationOverwritingAnyVersion(null),
                     String.class
             );
 
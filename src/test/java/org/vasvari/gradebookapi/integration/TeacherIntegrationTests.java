@@ -215,7 +215,7 @@ public class TeacherIntegrationTests {
             ResponseEntity<TeacherDto> putResponse = template.exchange(
                     linkToUpdateTeacher.getHref(),
                     HttpMethod.PUT,
-                    auth.createHttpEntityWithAuthorization(teacher1),
+                    auth.createHttpEntityWithAuthorizationOverwritingAnyVersion(teacher1),
                     TeacherDto.class
             );
 
@@ -234,7 +234,7 @@ public class TeacherIntegrationTests {
             ResponseEntity<?> response = template.exchange(
                     linkToTeacher.getHref(),
                     HttpMethod.PUT,
-                    auth.createHttpEntityWithAuthorization(teacher1),
+                    auth.createHttpEntityWithAuthorizationOverwritingAnyVersion(teacher1),
                     String.class
             );
 
@@ -253,7 +253,7 @@ public class TeacherIntegrationTests {
             ResponseEntity<?> response = template.exchange(
                     linkToTeacher.getHref(),
                     HttpMethod.PUT,
-                    auth.createHttpEntityWithAuthorization(teacher),
+                    auth.createHttpEntityWithAuthorizationOverwritingAnyVersion(teacher),
                     String.class
             );
 
@@ -274,7 +274,7 @@ public class TeacherIntegrationTests {
             template.exchange(
                     linkToTeacher.getHref(),
                     HttpMethod.DELETE,
-                    auth.createHttpEntityWithAuthorization(null),
+                    auth.createHttpEntityWithAuthorizationOverwritingAnyVersion(null),
                     String.class
             );
 
@@ -296,7 +296,7 @@ public class TeacherIntegrationTests {
             ResponseEntity<?> response = template.exchange(
                     linkToTeacher.getHref(),
                     HttpMethod.DELETE,
-                    auth.createHttpEntityWithAuthorization(null),
+                    auth.createHttpEntityWithAuthorizationOverwritingAnyVersion(null),
                     String.class
             );
 
@@ -63,6 +63,18 @@ public class AuthorizationManager {
         return new HttpEntity<>(object, headers);
     }
 
+    /**
+     * @return the entity of an update or delete overwriting any version, with the If-Match header *
+     */
+    public <T> HttpEntity<T> createHttpEntityWithAuthorizationOverwritingAnyVersion(T object) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(headersWithAuthorization);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setIfMatch("*");
+
+        return new HttpEntity<>(object, headers);
+    }
+
     private HttpHeaders createAuthorizationHeader(UserDetails userDetails) {
         String token = jwtTokenUtil.generateToken(userDetails);
 
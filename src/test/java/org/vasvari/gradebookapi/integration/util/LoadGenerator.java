@@ -0,0 +1,142 @@
+package org.vasvari.gradebookapi.integration.util;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Sends the requests of several scenarios, each at its own constant rate, and records their latencies in
+ * histograms. The load is open: a request is sent at its scheduled time, whether the earlier ones have been
+ * answered or not, and its latency is measured from the scheduled time, so a stalled server shows up in the
+ * latencies instead of slowing down the load.
+ */
+public class LoadGenerator {
+    // the latencies are recorded in microseconds, up to a minute with three significant digits
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final List<Scenario> scenarios = new ArrayList<>();
+
+    /**
+     * Adds a scenario sending the requests supplied at the given rate, which succeed with the given status
+     */
+    public LoadGenerator scenario(String name, double requestsPerSecond, int expectedStatus, Supplier<HttpRequest> requests) {
+        scenarios.add(new Scenario(name, requestsPerSecond, expectedStatus, requests));
+        return this;
+    }
+
+    /**
+     * Runs the scenarios for the given duration, and waits for the responses of their requests
+     *
+     * @return the results by the names of the scenarios
+     */
+    public Map<String, Result> run(Duration duration) throws InterruptedException {
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        List<Thread> dispatchers = new ArrayList<>();
+        Map<String, Result> results = new LinkedHashMap<>();
+        List<List<CompletableFuture<?>>> responses = new ArrayList<>();
+
+        for (Scenario scenario : scenarios) {
+            Result result = new Result(scenario.name, duration);
+            results.put(scenario.name, result);
+            // written by the dispatcher only, read once it has finished
+            List<CompletableFuture<?>> responsesOfScenario = new ArrayList<>();
+            responses.add(responsesOfScenario);
+            Thread dispatcher = new Thread(() -> dispatch(scenario, result, start, end, responsesOfScenario),
+                    "load-" + scenario.name);
+            dispatchers.add(dispatcher);
+            dispatcher.start();
+        }
+        for (Thread dispatcher : dispatchers) dispatcher.join();
+        for (List<CompletableFuture<?>> responsesOfScenario : responses)
+            CompletableFuture.allOf(responsesOfScenario.toArray(new CompletableFuture[0])).join();
+
+        return results;
+    }
+
+    private void dispatch(Scenario scenario, Result result, long start, long end, List<CompletableFuture<?>> responses) {
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / scenario.requestsPerSecond);
+        for (long scheduled = start; scheduled < end; scheduled += interval) {
+            long delay;
+            while ((delay = scheduled - System.nanoTime()) > 0) LockSupport.parkNanos(delay);
+
+            long sent = scheduled;
+            responses.add(client.sendAsync(scenario.requests.get(), HttpResponse.BodyHandlers.discarding())
+                    .handle((response, ex) -> {
+                        result.record(System.nanoTime() - sent,
+                                ex == null && response.statusCode() == scenario.expectedStatus);
+                        return null;
+                    }));
+        }
+    }
+
+    private static final class Scenario {
+        final String name;
+        final double requestsPerSecond;
+        final int expectedStatus;
+        final Supplier<HttpRequest> requests;
+
+        Scenario(String name, double requestsPerSecond, int expectedStatus, Supplier<HttpRequest> requests) {
+            this.name = name;
+            this.requestsPerSecond = requestsPerSecond;
+            this.expectedStatus = expectedStatus;
+            this.requests = requests;
+        }
+    }
+
+    /**
+     * The latencies of the requests of a scenario, and the number of the requests failed
+     */
+    public static final class Result {
+        private final String name;
+        private final Duration duration;
+        private final Histogram latencies = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private final AtomicLong failures = new AtomicLong();
+
+        Result(String name, Duration duration) {
+            this.name = name;
+            this.duration = duration;
+        }
+
+        void record(long latencyNanos, boolean succeeded) {
+            latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+            if (!succeeded) failures.incrementAndGet();
+        }
+
+        public long getRequests() {
+            return latencies.getTotalCount();
+        }
+
+        public long getFailures() {
+            return failures.get();
+        }
+
+        /**
+         * @return the latency at the percentile in milliseconds
+         */
+        public double percentile(double percentile) {
+            return latencies.getValueAtPercentile(percentile) / 1000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-28s %6d requests %6.1f/s %4d failed   p50 %8.1f ms   p90 %8.1f ms   p99 %8.1f ms   max %8.1f ms",
+                    name, getRequests(), getRequests() / (double) duration.toSeconds(), getFailures(),
+                    percentile(50), percentile(90), percentile(99), latencies.getMaxValue() / 1000.0);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.vasvari.gradebookapi.integration.util;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.assertj.core.api.AbstractIntegerAssert;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestComponent;
+import org.vasvari.gradebookapi.metrics.SqlRequestStatistics;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Records the statements executed on the data source while a request is sent, by any thread, e.g.
+ * <pre>
+ * queryCounter.assertQueryCount(() -> template.exchange("/api/teacher-user/students", GET, request, String.class))
+ *         .isLessThanOrEqualTo(3);
+ * </pre>
+ * The statements of a request are executed before its response is sent, so they are all recorded by the time
+ * the request returns. The requests recorded must not overlap.
+ */
+@TestComponent
+public class QueryCounter implements QueryExecutionListener {
+    private final List<String> queries = new ArrayList<>();
+    private volatile boolean recording;
+
+    @Autowired
+    public QueryCounter(DataSource dataSource) {
+        ((ProxyDataSource) dataSource).getProxyConfig().getQueryListener().addListener(this);
+    }
+
+    /**
+     * @return the statements executed while the request was sent
+     */
+    public synchronized List<String> queriesOf(Runnable request) {
+        synchronized (queries) {
+            queries.clear();
+        }
+        recording = true;
+        try {
+            request.run();
+        } finally {
+            recording = false;
+        }
+        synchronized (queries) {
+            return new ArrayList<>(queries);
+        }
+    }
+
+    /**
+     * @return an assertion on the number of statements executed while the request was sent, describing the
+     * statements by their shapes if it fails
+     */
+    public AbstractIntegerAssert<?> assertQueryCount(Runnable request) {
+        List<String> queriesOfRequest = queriesOf(request);
+        Map<String, Long> executionsByShape = queriesOfRequest.stream()
+                .collect(Collectors.groupingBy(SqlRequestStatistics::shapeOf, TreeMap::new, Collectors.counting()));
+        String description = executionsByShape.entrySet().stream()
+                .map(shape -> shape.getValue() + " x " + shape.getKey())
+                .collect(Collectors.joining("\n  ", "statements executed:\n  ", "\n"));
+
+        return assertThat(queriesOfRequest.size()).as(description);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execution, List<QueryInfo> queryInfos) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execution, List<QueryInfo> queryInfos) {
+        if (!recording) return;
+        synchronized (queries) {
+            queryInfos.forEach(query -> queries.add(query.getQuery()));
+        }
+    }
+}
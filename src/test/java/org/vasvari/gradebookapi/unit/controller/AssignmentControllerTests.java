@@ -8,6 +8,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -20,10 +21,13 @@ import org.vasvari.gradebookapi.dto.assembler.AssignmentModelAssembler;
 import org.vasvari.gradebookapi.dto.simpleTypes.SimpleData;
 import org.vasvari.gradebookapi.dto.simpleTypes.SimpleTeacher;
 import org.vasvari.gradebookapi.jwt.JwtAuthenticationEntryPoint;
+import org.vasvari.gradebookapi.metrics.PrometheusScrapeToken;
 import org.vasvari.gradebookapi.jwt.JwtTokenUtil;
+import org.vasvari.gradebookapi.jwt.TokenRevocationList;
 import org.vasvari.gradebookapi.model.AssignmentType;
 import org.vasvari.gradebookapi.model.request.GradebookRequest;
 import org.vasvari.gradebookapi.security.PasswordConfig;
+import org.vasvari.gradebookapi.security.PasswordHashingExecutor;
 import org.vasvari.gradebookapi.service.*;
 
 import java.time.LocalDate;
@@ -39,7 +43,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(AssignmentController.class)
-@Import({AssignmentModelAssembler.class, PasswordConfig.class, JwtAuthenticationEntryPoint.class})
+@Import({AssignmentModelAssembler.class, PasswordConfig.class, JwtAuthenticationEntryPoint.class,
+        PrometheusScrapeToken.class})
 public class AssignmentControllerTests {
 
     @Autowired
@@ -59,6 +64,10 @@ public class AssignmentControllerTests {
     private UserService userService;
     @MockBean
     private JwtTokenUtil jwtTokenUtil;
+    @MockBean
+    private PasswordHashingExecutor passwordHashingExecutor;
+    @MockBean
+    private TokenRevocationList tokenRevocationList;
 
     @Autowired
     private ObjectMapper mapper;
@@ -77,7 +86,7 @@ public class AssignmentControllerTests {
                 .students(new ArrayList<>())
                 .build();
 
-        when(subjectService.findById(1L)).thenReturn(Optional.of(subject));
+        when(subjectService.existsById(1L)).thenReturn(true);
 
         assignmentInput1 = AssignmentInput.builder()
                 .name("Homework 1")
@@ -242,7 +251,7 @@ public class AssignmentControllerTests {
 
         this.mockMvc
                 .perform(
-                        put("/api/assignments/99")
+                        put("/api/assignments/99").header(HttpHeaders.IF_MATCH, "*")
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(inputAsString)
                 )
@@ -255,14 +264,14 @@ public class AssignmentControllerTests {
     @DisplayName("when Assignment exists with given ID, update should return updated Assignment")
     public void whenAssignmentExistsWithGivenId_updateShouldReturnUpdatedAssignment() throws Exception {
         when(assignmentService.findById(1L)).thenReturn(Optional.of(assignmentOutput1));
-        when(assignmentService.update(1L, assignmentInput1)).thenReturn(assignmentOutput1);
+        when(assignmentService.update(1L, assignmentInput1, null)).thenReturn(assignmentOutput1);
 
         String inputAsString = mapper.writeValueAsString(assignmentInput1);
         String outputAsString = mapper.writeValueAsString(assignmentOutput1);
 
         this.mockMvc
                 .perform(
-                        put("/api/assignments/1")
+                        put("/api/assignments/1").header(HttpHeaders.IF_MATCH, "*")
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(inputAsString)
                 )
@@ -292,7 +301,7 @@ public class AssignmentControllerTests {
 
         this.mockMvc
                 .perform(
-                        put("/api/assignments/1")
+                        put("/api/assignments/1").header(HttpHeaders.IF_MATCH, "*")
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(inputAsString)
                 )
@@ -312,7 +321,7 @@ public class AssignmentControllerTests {
 
         this.mockMvc
                 .perform(
-                        put("/api/assignments/1")
+                        put("/api/assignments/1").header(HttpHeaders.IF_MATCH, "*")
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(inputAsString)
                 )
@@ -327,7 +336,7 @@ public class AssignmentControllerTests {
         when(assignmentService.findById(2L)).thenReturn(Optional.of(assignmentOutput2));
 
         this.mockMvc
-                .perform(delete("/api/assignments/2"))
+                .perform(delete("/api/assignments/2").header(HttpHeaders.IF_MATCH, "*"))
                 .andDo(print())
                 .andExpect(status().isNoContent());
     }
@@ -339,7 +348,7 @@ public class AssignmentControllerTests {
         when(assignmentService.findById(99L)).thenReturn(Optional.empty());
 
         this.mockMvc
-                .perform(delete("/api/assignments/99"))
+                .perform(delete("/api/assignments/99").header(HttpHeaders.IF_MATCH, "*"))
                 .andDo(print())
                 .andExpect(status().isNotFound());
     }
@@ -356,7 +365,7 @@ public class AssignmentControllerTests {
         when(gradebookService.findGradebookEntries(request)).thenReturn(List.of(entry));
 
         this.mockMvc
-                .perform(delete("/api/assignments/1"))
+                .perform(delete("/api/assignments/1").header(HttpHeaders.IF_MATCH, "*"))
                 .andDo(print())
                 .andExpect(status().isMethodNotAllowed());
     }
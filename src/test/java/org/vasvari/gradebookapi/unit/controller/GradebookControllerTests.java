@@ -15,33 +15,49 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.vasvari.gradebookapi.controller.GradebookController;
 import org.vasvari.gradebookapi.dto.*;
 import org.vasvari.gradebookapi.dto.assembler.GradebookModelAssembler;
+import org.vasvari.gradebookapi.dto.simpleTypes.Cursor;
 import org.vasvari.gradebookapi.dto.simpleTypes.SimpleData;
 import org.vasvari.gradebookapi.dto.simpleTypes.SimpleStudent;
+import org.vasvari.gradebookapi.dto.simpleTypes.StudentGrade;
 import org.vasvari.gradebookapi.exception.DuplicateEntryException;
 import org.vasvari.gradebookapi.jwt.JwtAuthenticationEntryPoint;
+import org.vasvari.gradebookapi.metrics.PrometheusScrapeToken;
 import org.vasvari.gradebookapi.jwt.JwtTokenUtil;
+import org.vasvari.gradebookapi.jwt.TokenRevocationList;
+import org.vasvari.gradebookapi.model.request.GradebookRequest;
 import org.vasvari.gradebookapi.security.PasswordConfig;
+import org.vasvari.gradebookapi.security.PasswordHashingExecutor;
 import org.vasvari.gradebookapi.service.*;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(GradebookController.class)
-@Import({GradebookModelAssembler.class, PasswordConfig.class, JwtAuthenticationEntryPoint.class})
+@Import({GradebookModelAssembler.class, PasswordConfig.class, JwtAuthenticationEntryPoint.class,
+        PrometheusScrapeToken.class})
 public class GradebookControllerTests {
 
     @Autowired
@@ -60,7 +76,13 @@ public class GradebookControllerTests {
     @MockBean
     private UserService userService;
     @MockBean
+    private GradeStatisticsService gradeStatisticsService;
+    @MockBean
     private JwtTokenUtil jwtTokenUtil;
+    @MockBean
+    private PasswordHashingExecutor passwordHashingExecutor;
+    @MockBean
+    private TokenRevocationList tokenRevocationList;
 
     private static ObjectMapper mapper;
 
@@ -159,6 +181,148 @@ public class GradebookControllerTests {
                 .andExpect(jsonPath("$._embedded.entries[1].student.id", is(2)));
     }
 
+    @Test
+    @WithMockUser(username = "admin", password = "admin", roles = "ADMIN")
+    @DisplayName("when entries posted, getAll should link each entry to its student, subject and assignment")
+    public void whenEntriesPosted_getAllShouldLinkEachEntryToItsStudentSubjectAndAssignment() throws Exception {
+        when(gradebookService.findAll()).thenReturn(List.of(savedEntry1, savedEntry2));
+
+        this.mockMvc
+                .perform(get("/api/gradebook"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._links.self.href", is("http://localhost/api/gradebook")))
+                .andExpect(jsonPath("$._embedded.entries[1]._links.self.href", is("http://localhost/api/gradebook/1")))
+                .andExpect(jsonPath("$._embedded.entries[1]._links.student.href", is("http://localhost/api/students/2")))
+                .andExpect(jsonPath("$._embedded.entries[1]._links.subject.href", is("http://localhost/api/subjects/1")))
+                .andExpect(jsonPath("$._embedded.entries[1]._links.assignment.href", is("http://localhost/api/assignments/1")))
+                .andExpect(jsonPath("$._embedded.entries[1]._links.entries.href", is("http://localhost/api/gradebook")));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", password = "admin", roles = "ADMIN")
+    @DisplayName("when limit is given, getAll should return page of entries with cursor links")
+    public void whenLimitIsGiven_getAllShouldReturnPageOfEntriesWithCursorLinks() throws Exception {
+        CursorPage<GradebookOutput> page = new CursorPage<>(List.of(savedEntry1), Cursor.after(1L), null);
+        when(gradebookService.findGradebookEntries(new GradebookRequest(), null, 1)).thenReturn(page);
+
+        this.mockMvc
+                .perform(get("/api/gradebook?limit=1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.entries", hasSize(1)))
+                .andExpect(jsonPath("$._links.self.href", endsWith("/api/gradebook?limit=1")))
+                .andExpect(jsonPath("$._links.next.href",
+                        endsWith("/api/gradebook?cursor=" + Cursor.after(1L).encode() + "&limit=1")))
+                .andExpect(jsonPath("$._links.prev").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", password = "admin", roles = "ADMIN")
+    @DisplayName("when cursor is given, searchEntries should return page of filtered entries")
+    public void whenCursorIsGiven_searchEntriesShouldReturnPageOfFilteredEntries() throws Exception {
+        GradebookRequest request = GradebookRequest.builder().subjectId(1L).build();
+        CursorPage<GradebookOutput> page = new CursorPage<>(List.of(savedEntry2), null, Cursor.before(1L));
+        when(gradebookService.findGradebookEntries(request, Cursor.after(0L), GradebookService.DEFAULT_PAGE_LIMIT))
+                .thenReturn(page);
+
+        this.mockMvc
+                .perform(get("/api/gradebook/search?subjectId=1&cursor=" + Cursor.after(0L).encode()))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.entries", hasSize(1)))
+                .andExpect(jsonPath("$._links.next").doesNotExist())
+                .andExpect(jsonPath("$._links.prev.href",
+                        endsWith("/api/gradebook/search?subjectId=1&cursor=" + Cursor.before(1L).encode())));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", password = "admin", roles = "ADMIN")
+    @DisplayName("when cursor is invalid, getAll should return response 'Bad Request'")
+    public void whenCursorIsInvalid_getAllShouldReturnResponseBadRequest() throws Exception {
+        this.mockMvc
+                .perform(get("/api/gradebook?cursor=invalid"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", password = "admin", roles = "ADMIN")
+    @DisplayName("exportEntries should stream entries as newline delimited JSON")
+    public void exportEntries_shouldStreamEntriesAsNewlineDelimitedJson() throws Exception {
+        GradebookRequest request = GradebookRequest.builder().subjectId(1L).build();
+        when(gradebookService.exportGradebookEntries(eq(request), any())).thenAnswer(invocation -> {
+            Consumer<GradebookOutput> consumer = invocation.getArgument(1);
+            consumer.accept(savedEntry1);
+            consumer.accept(savedEntry2);
+            return 2L;
+        });
+
+        MvcResult result = this.mockMvc
+                .perform(get("/api/gradebook/export?subjectId=1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = this.mockMvc
+                .perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString().split("\n");
+
+        assertThat(lines).hasSize(2);
+        assertThat(mapper.readValue(lines[0], GradebookOutput.class)).isEqualTo(savedEntry1);
+        assertThat(mapper.readValue(lines[1], GradebookOutput.class)).isEqualTo(savedEntry2);
+    }
+
+    @Test
+    @WithMockUser(username = "student", password = "student", roles = "STUDENT")
+    @DisplayName("when user is a student, exportEntries should return response 'Forbidden'")
+    public void whenUserIsAStudent_exportEntriesShouldReturnResponseForbidden() throws Exception {
+        this.mockMvc
+                .perform(get("/api/gradebook/export"))
+                .andDo(print())
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(username = "student", password = "student", roles = "STUDENT")
+    @DisplayName("getAveragesOfCurrentUserAsStudent should return statistics of the student in each subject")
+    public void getAveragesOfCurrentUserAsStudent_shouldReturnStatisticsOfTheStudentInEachSubject() throws Exception {
+        GradeStatisticsOutput averageInAlgebra = GradeStatisticsOutput.builder()
+                .studentId(1L).subjectId(1L).count(2).average(3.5).build();
+        when(userService.getStudentIdOfCurrentUser()).thenReturn(1L);
+        when(studentService.findById(1L)).thenReturn(Optional.of(student1));
+        when(gradeStatisticsService.findStatisticsOfStudent(1L)).thenReturn(List.of(averageInAlgebra));
+
+        this.mockMvc
+                .perform(get("/api/student-user/averages"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.statistics", hasSize(1)))
+                .andExpect(jsonPath("$._embedded.statistics[0].subjectId", is(1)))
+                .andExpect(jsonPath("$._embedded.statistics[0].average", is(3.5)));
+    }
+
+    @Test
+    @WithMockUser(username = "teacher", password = "teacher", roles = "TEACHER")
+    @DisplayName("getGradebookEntriesOfCurrentUserAsTeacher should return entries filtered by teacher in a single search")
+    public void getGradebookEntriesOfCurrentUserAsTeacher_shouldReturnEntriesFilteredByTeacherInASingleSearch() throws Exception {
+        GradebookRequest request = GradebookRequest.builder().subjectId(1L).teacherId(3L).build();
+        when(userService.getTeacherIdOfCurrentUser()).thenReturn(3L);
+        when(teacherService.findById(3L)).thenReturn(Optional.of(TeacherDto.builder().id(3L).build()));
+        when(gradebookService.findGradebookEntries(request)).thenReturn(List.of(savedEntry1, savedEntry2));
+
+        this.mockMvc
+                .perform(get("/api/teacher-user/gradebook-entries").param("subjectId", "1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.entries", hasSize(2)));
+
+        verify(gradebookService, times(1)).findGradebookEntries(any(GradebookRequest.class));
+        verify(subjectService, never()).findSubjectsOfTeacher(any());
+    }
+
     @Test
     @WithMockUser(username = "admin", password = "admin", roles = "ADMIN")
     @DisplayName("when entry with given ID exists, getById should return entry")
@@ -192,7 +356,7 @@ public class GradebookControllerTests {
     @DisplayName("when Student does not exist with given ID, gradeAssignment should return response 'Not Found'")
     public void whenStudentDoesNotExistWithGivenId_gradeAssignmentShouldReturnResponseNotFound() throws Exception {
         when(studentService.findById(99L)).thenReturn(Optional.empty());
-        when(subjectService.findById(1L)).thenReturn(Optional.of(subject));
+        when(subjectService.existsById(1L)).thenReturn(true);
         when(assignmentService.findById(1L)).thenReturn(Optional.of(assignment));
 
         GradebookInput entry = GradebookInput.builder().studentId(99L).subjectId(1L).assignmentId(1L).grade(4).build();
@@ -213,7 +377,7 @@ public class GradebookControllerTests {
     @DisplayName("when Subject does not exist with given ID, gradeAssignment should return response 'Not Found'")
     public void whenSubjectDoesNotExistWithGivenId_gradeAssignmentShouldReturnResponseNotFound() throws Exception {
         when(studentService.findById(1L)).thenReturn(Optional.of(student1));
-        when(subjectService.findById(99L)).thenReturn(Optional.empty());
+        when(subjectService.existsById(99L)).thenReturn(false);
         when(assignmentService.findById(1L)).thenReturn(Optional.of(assignment));
 
         GradebookInput entry = GradebookInput.builder().studentId(1L).subjectId(99L).assignmentId(1L).grade(5).build();
@@ -234,7 +398,7 @@ public class GradebookControllerTests {
     @DisplayName("when Assignment does not exist with given ID, gradeAssignment should return response 'Not Found'")
     public void whenAssignmentDoesNotExistWithGivenId_gradeAssignmentShouldReturnResponseNotFound() throws Exception {
         when(studentService.findById(1L)).thenReturn(Optional.of(student1));
-        when(subjectService.findById(1L)).thenReturn(Optional.of(subject));
+        when(subjectService.existsById(1L)).thenReturn(true);
         when(assignmentService.findById(99L)).thenReturn(Optional.empty());
 
         GradebookInput entry = GradebookInput.builder().studentId(1L).subjectId(1L).assignmentId(99L).grade(4).build();
@@ -255,7 +419,7 @@ public class GradebookControllerTests {
     @DisplayName("when an entry exists with the given IDs, gradeAssignment should return response 'Conflict'")
     public void whenAnEntryExistsWithTheGivenIds_gradeAssignmentShouldReturnResponseConflict() throws Exception {
         when(studentService.findById(2L)).thenReturn(Optional.of(student2));
-        when(subjectService.findById(1L)).thenReturn(Optional.of(subject));
+        when(subjectService.existsById(1L)).thenReturn(true);
         when(assignmentService.findById(1L)).thenReturn(Optional.of(assignment));
         when(subjectService.isStudentAddedToSubject(2L, 1L)).thenReturn(true);
         when(gradebookService.save(entry2)).thenThrow(DuplicateEntryException.class);
@@ -277,7 +441,7 @@ public class GradebookControllerTests {
     @DisplayName("when Student not enrolled in given Subject, gradeAssignment should return response 'Bad Request'")
     public void whenStudentNotEnrolledInGivenSubject_gradeAssignmentShouldReturnResponseBadRequest() throws Exception {
         when(studentService.findById(2L)).thenReturn(Optional.of(student2));
-        when(subjectService.findById(1L)).thenReturn(Optional.of(subject));
+        when(subjectService.existsById(1L)).thenReturn(true);
         when(assignmentService.findById(1L)).thenReturn(Optional.of(assignment));
         when(subjectService.isStudentAddedToSubject(2L, 1L)).thenReturn(false);
 
@@ -317,7 +481,7 @@ public class GradebookControllerTests {
     @DisplayName("when entities found with given IDs, gradeAssignment should return created GradebookEntry")
     public void whenEntitiesFoundWithGivenIds_gradeAssignmentShouldReturnCreatedGradebookEntry() throws Exception {
         when(studentService.findById(1L)).thenReturn(Optional.of(student1));
-        when(subjectService.findById(1L)).thenReturn(Optional.of(subject));
+        when(subjectService.existsById(1L)).thenReturn(true);
         when(assignmentService.findById(1L)).thenReturn(Optional.of(assignment));
         when(gradebookService.save(entry1)).thenReturn(savedEntry1);
         when(subjectService.isStudentAddedToSubject(1L, 1L)).thenReturn(true);
@@ -338,21 +502,119 @@ public class GradebookControllerTests {
                 .andExpect(jsonPath("$.grade", is(4)));
     }
 
+    @Test
+    @WithMockUser(username = "admin", password = "admin", roles = "ADMIN")
+    @DisplayName("when entities found with given IDs, upsertGradebookEntry should return saved GradebookEntry")
+    public void whenEntitiesFoundWithGivenIds_upsertGradebookEntryShouldReturnSavedGradebookEntry() throws Exception {
+        when(studentService.findById(1L)).thenReturn(Optional.of(student1));
+        when(subjectService.existsById(1L)).thenReturn(true);
+        when(assignmentService.findById(1L)).thenReturn(Optional.of(assignment));
+        when(subjectService.isStudentAddedToSubject(1L, 1L)).thenReturn(true);
+        when(gradebookService.upsert(entry1)).thenReturn(savedEntry1);
+
+        this.mockMvc
+                .perform(
+                        put("/api/gradebook/by-key")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(mapper.writeValueAsString(entry1))
+                )
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.grade", is(4)));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", password = "admin", roles = "ADMIN")
+    @DisplayName("when subject and assignment exist, gradeAssignmentBatch should return outcome of each grade")
+    public void whenSubjectAndAssignmentExist_gradeAssignmentBatchShouldReturnOutcomeOfEachGrade() throws Exception {
+        GradebookBatchInput batch = GradebookBatchInput.builder()
+                .subjectId(1L)
+                .assignmentId(1L)
+                .grades(List.of(new StudentGrade(1L, 4), new StudentGrade(2L, 5)))
+                .build();
+        List<GradebookBatchResult> results = List.of(
+                GradebookBatchResult.builder().index(0).studentId(1L)
+                        .status(GradebookBatchResult.Status.CREATED).entry(savedEntry1).build(),
+                GradebookBatchResult.builder().index(1).studentId(2L)
+                        .status(GradebookBatchResult.Status.DUPLICATE).build());
+        when(subjectService.existsById(1L)).thenReturn(true);
+        when(assignmentService.findById(1L)).thenReturn(Optional.of(assignment));
+        when(gradebookService.saveAll(batch)).thenReturn(results);
+
+        this.mockMvc
+                .perform(
+                        post("/api/gradebook/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(mapper.writeValueAsString(batch))
+                )
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.results", hasSize(2)))
+                .andExpect(jsonPath("$._embedded.results[0].status", is("CREATED")))
+                .andExpect(jsonPath("$._embedded.results[0].entry.id", is(1)))
+                .andExpect(jsonPath("$._embedded.results[1].status", is("DUPLICATE")));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", password = "admin", roles = "ADMIN")
+    @DisplayName("when assignment does not exist, gradeAssignmentBatch should return response 'Not Found'")
+    public void whenAssignmentDoesNotExist_gradeAssignmentBatchShouldReturnResponseNotFound() throws Exception {
+        GradebookBatchInput batch = GradebookBatchInput.builder()
+                .subjectId(1L)
+                .assignmentId(99L)
+                .grades(List.of(new StudentGrade(1L, 4)))
+                .build();
+        when(subjectService.existsById(1L)).thenReturn(true);
+        when(assignmentService.findById(99L)).thenReturn(Optional.empty());
+
+        this.mockMvc
+                .perform(
+                        post("/api/gradebook/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(mapper.writeValueAsString(batch))
+                )
+                .andDo(print())
+                .andExpect(status().isNotFound());
+
+        verify(gradebookService, times(0)).saveAll(any());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", password = "admin", roles = "ADMIN")
+    @DisplayName("when a grade is invalid, gradeAssignmentBatch should return response 'Bad Request'")
+    public void whenAGradeIsInvalid_gradeAssignmentBatchShouldReturnResponseBadRequest() throws Exception {
+        GradebookBatchInput batch = GradebookBatchInput.builder()
+                .subjectId(1L)
+                .assignmentId(1L)
+                .grades(List.of(new StudentGrade(1L, 4), new StudentGrade(2L, 6)))
+                .build();
+
+        this.mockMvc
+                .perform(
+                        post("/api/gradebook/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(mapper.writeValueAsString(batch))
+                )
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser(username = "admin", password = "admin", roles = "ADMIN")
     @DisplayName("when User exists with given ID, delete should return response 'No Content'")
     public void whenUserExistsWithGivenId_delete_shouldReturnResponseNoContent() throws Exception {
         when(gradebookService.findById(1L)).thenReturn(Optional.of(savedEntry1));
-        doNothing().when(gradebookService).deleteById(1L);
+        doNothing().when(gradebookService).deleteById(1L, null);
 
         this.mockMvc
                 .perform(
-                        delete("/api/gradebook/1")
+                        delete("/api/gradebook/1").header(HttpHeaders.IF_MATCH, "*")
                 )
                 .andDo(print())
                 .andExpect(status().isNoContent());
 
-        verify(gradebookService).deleteById(1L);
+        verify(gradebookService).deleteById(1L, null);
     }
 
     @Test
@@ -363,12 +625,12 @@ public class GradebookControllerTests {
 
         this.mockMvc
                 .perform(
-                        delete("/api/gradebook/99")
+                        delete("/api/gradebook/99").header(HttpHeaders.IF_MATCH, "*")
                 )
                 .andDo(print())
                 .andExpect(status().isNotFound());
 
-        verify(gradebookService, times(0)).deleteById(99L);
+        verify(gradebookService, times(0)).deleteById(99L, null);
     }
 
     private static class GradebookInputAggregator implements ArgumentsAggregator {
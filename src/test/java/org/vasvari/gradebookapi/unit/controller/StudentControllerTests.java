@@ -17,6 +17,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -30,9 +31,12 @@ import org.vasvari.gradebookapi.dto.assembler.SubjectModelAssembler;
 import org.vasvari.gradebookapi.dto.simpleTypes.SimpleStudent;
 import org.vasvari.gradebookapi.dto.simpleTypes.SimpleTeacher;
 import org.vasvari.gradebookapi.jwt.JwtAuthenticationEntryPoint;
+import org.vasvari.gradebookapi.metrics.PrometheusScrapeToken;
 import org.vasvari.gradebookapi.jwt.JwtTokenUtil;
+import org.vasvari.gradebookapi.jwt.TokenRevocationList;
 import org.vasvari.gradebookapi.model.request.GradebookRequest;
 import org.vasvari.gradebookapi.security.PasswordConfig;
+import org.vasvari.gradebookapi.security.PasswordHashingExecutor;
 import org.vasvari.gradebookapi.service.*;
 
 import java.time.LocalDate;
@@ -47,7 +51,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(StudentController.class)
-@Import({StudentModelAssembler.class, SubjectModelAssembler.class, PasswordConfig.class, JwtAuthenticationEntryPoint.class})
+@Import({StudentModelAssembler.class, SubjectModelAssembler.class, PasswordConfig.class, JwtAuthenticationEntryPoint.class,
+        PrometheusScrapeToken.class})
 public class StudentControllerTests {
 
     @Autowired
@@ -67,6 +72,10 @@ public class StudentControllerTests {
 
     @MockBean
     private JwtTokenUtil jwtTokenUtil;
+    @MockBean
+    private PasswordHashingExecutor passwordHashingExecutor;
+    @MockBean
+    private TokenRevocationList tokenRevocationList;
 
     @MockBean
     private GradebookService gradebookService;
@@ -207,7 +216,7 @@ public class StudentControllerTests {
 
         this.mockMvc
                 .perform(
-                        put("/api/students/99")
+                        put("/api/students/99").header(HttpHeaders.IF_MATCH, "*")
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(student1AsString)
                 )
@@ -226,7 +235,7 @@ public class StudentControllerTests {
 
         this.mockMvc
                 .perform(
-                        put("/api/students/1")
+                        put("/api/students/1").header(HttpHeaders.IF_MATCH, "*")
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(studentAsString)
                 )
@@ -239,14 +248,14 @@ public class StudentControllerTests {
     @DisplayName("when Student exists with given ID, update should return updated Student")
     public void whenStudentExistsWithGivenId_updateShouldReturnUpdatedStudent() throws Exception {
         when(studentService.findById(1L)).thenReturn(Optional.of(student1));
-        when(studentService.save(student1)).thenReturn(student1);
+        when(studentService.update(1L, student1, null)).thenReturn(student1);
 
         student1.setId(1L);
         String student1AsString = mapper.writeValueAsString(student1);
 
         this.mockMvc
                 .perform(
-                        put("/api/students/1")
+                        put("/api/students/1").header(HttpHeaders.IF_MATCH, "*")
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(student1AsString)
                 )
@@ -262,7 +271,7 @@ public class StudentControllerTests {
         when(studentService.findById(99L)).thenReturn(Optional.empty());
 
         this.mockMvc
-                .perform(delete("/api/students/99"))
+                .perform(delete("/api/students/99").header(HttpHeaders.IF_MATCH, "*"))
                 .andDo(print())
                 .andExpect(status().isNotFound());
     }
@@ -274,7 +283,7 @@ public class StudentControllerTests {
         when(studentService.findById(1L)).thenReturn(Optional.of(student1));
 
         this.mockMvc
-                .perform(delete("/api/students/1"))
+                .perform(delete("/api/students/1").header(HttpHeaders.IF_MATCH, "*"))
                 .andDo(print())
                 .andExpect(status().isNoContent());
     }
@@ -308,7 +317,7 @@ public class StudentControllerTests {
         when(gradebookService.findGradebookEntries(request)).thenReturn(List.of(savedEntry));
 
         this.mockMvc
-                .perform(delete("/api/students/1"))
+                .perform(delete("/api/students/1").header(HttpHeaders.IF_MATCH, "*"))
                 .andDo(print())
                 .andExpect(status().isMethodNotAllowed());
     }
@@ -335,7 +344,7 @@ public class StudentControllerTests {
 
         when(studentService.findById(1L)).thenReturn(Optional.of(student1));
         when(teacherService.findById(1L)).thenReturn(Optional.of(teacher));
-        when(studentService.findSubjectsOfStudent(student1)).thenReturn(subjectsOfStudent1);
+        when(studentService.findSubjectsOfStudent(1L)).thenReturn(subjectsOfStudent1);
 
         this.mockMvc
                 .perform(get("/api/students/1/subjects"))
@@ -8,6 +8,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -18,10 +19,14 @@ import org.vasvari.gradebookapi.dto.assembler.SubjectModelAssembler;
 import org.vasvari.gradebookapi.dto.simpleTypes.SimpleData;
 import org.vasvari.gradebookapi.dto.simpleTypes.SimpleStudent;
 import org.vasvari.gradebookapi.dto.simpleTypes.SimpleTeacher;
+import org.vasvari.gradebookapi.exception.StudentNotFoundException;
 import org.vasvari.gradebookapi.jwt.JwtAuthenticationEntryPoint;
+import org.vasvari.gradebookapi.metrics.PrometheusScrapeToken;
 import org.vasvari.gradebookapi.jwt.JwtTokenUtil;
+import org.vasvari.gradebookapi.jwt.TokenRevocationList;
 import org.vasvari.gradebookapi.model.request.GradebookRequest;
 import org.vasvari.gradebookapi.security.PasswordConfig;
+import org.vasvari.gradebookapi.security.PasswordHashingExecutor;
 import org.vasvari.gradebookapi.service.*;
 
 import java.util.Collections;
@@ -39,7 +44,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @Import({SubjectModelAssembler.class,
         StudentModelAssembler.class,
         JwtAuthenticationEntryPoint.class,
-        PasswordConfig.class})
+        PasswordConfig.class,
+        PrometheusScrapeToken.class})
 public class SubjectControllerTests {
 
     @Autowired
@@ -60,8 +66,15 @@ public class SubjectControllerTests {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private GradeStatisticsService gradeStatisticsService;
+
     @MockBean
     private JwtTokenUtil jwtTokenUtil;
+    @MockBean
+    private PasswordHashingExecutor passwordHashingExecutor;
+    @MockBean
+    private TokenRevocationList tokenRevocationList;
 
     private static ObjectMapper mapper;
 
@@ -136,6 +149,28 @@ public class SubjectControllerTests {
                 .andExpect(jsonPath("$._embedded.subjects[1].name", is("Biology")));
     }
 
+    @Test
+    @WithMockUser(username = "teacher", password = "teacher", roles = "TEACHER")
+    @DisplayName("when Subject with given ID exists, getStatisticsOfSubject should return statistics of Subject and its assignments")
+    public void whenSubjectWithGivenIdExists_getStatisticsOfSubjectShouldReturnStatisticsOfSubjectAndItsAssignments() throws Exception {
+        GradeStatisticsOutput statisticsOfSubject = GradeStatisticsOutput.builder()
+                .subjectId(1L).count(2).average(4.5).build();
+        GradeStatisticsOutput statisticsOfAssignment = GradeStatisticsOutput.builder()
+                .assignmentId(3L).count(2).average(4.5).build();
+        when(subjectService.existsById(1L)).thenReturn(true);
+        when(gradeStatisticsService.findStatisticsOfSubject(1L))
+                .thenReturn(new SubjectStatisticsOutput(statisticsOfSubject, List.of(statisticsOfAssignment)));
+
+        this.mockMvc
+                .perform(get("/api/subjects/1/statistics"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.subject.count", is(2)))
+                .andExpect(jsonPath("$.subject.average", is(4.5)))
+                .andExpect(jsonPath("$.assignments[0].assignmentId", is(3)))
+                .andExpect(jsonPath("$._links.self.href").exists());
+    }
+
     @Test
     @WithMockUser(username = "admin", password = "admin", roles = "ADMIN")
     @DisplayName("when Subject with given ID exists, getById should return Subject")
@@ -203,13 +238,13 @@ public class SubjectControllerTests {
     @WithMockUser(username = "admin", password = "admin", roles = "ADMIN")
     @DisplayName("when Subject does not exists with given ID, update should return response 'Not Found'")
     public void whenSubjectDoesNotExistWithGivenId_updateShouldReturnResponseNotFound() throws Exception {
-        when(subjectService.findById(99L)).thenReturn(Optional.empty());
+        when(subjectService.existsById(99L)).thenReturn(false);
 
         String subject2AsString = mapper.writeValueAsString(subjectInput2);
 
         this.mockMvc
                 .perform(
-                        put("/api/subjects/99")
+                        put("/api/subjects/99").header(HttpHeaders.IF_MATCH, "*")
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(subject2AsString)
                 )
@@ -221,7 +256,7 @@ public class SubjectControllerTests {
     @WithMockUser(username = "admin", password = "admin", roles = "ADMIN")
     @DisplayName("when Subject exists with given ID and SubjectInput parameters are valid, update should return updated Subject")
     public void whenSubjectExistsWithGivenIdAndSubjectInputParametersAreValid_updateShouldReturnUpdatedSubject() throws Exception {
-        when(subjectService.findById(1L)).thenReturn(Optional.of(subjectOutput1));
+        when(subjectService.existsById(1L)).thenReturn(true);
         SubjectInput updateInput = SubjectInput.builder()
                 .name("Algebra II")
                 .teacherId(subjectInput1.getTeacherId())
@@ -231,14 +266,14 @@ public class SubjectControllerTests {
                 .name("Algebra II")
                 .teacher(subjectOutput1.getTeacher())
                 .build();
-        when(subjectService.update(1L, updateInput)).thenReturn(subjectUpdated);
+        when(subjectService.update(1L, updateInput, null)).thenReturn(subjectUpdated);
 
         String inputAsString = mapper.writeValueAsString(updateInput);
         String outputAsString = mapper.writeValueAsString(subjectUpdated);
 
         this.mockMvc
                 .perform(
-                        put("/api/subjects/1")
+                        put("/api/subjects/1").header(HttpHeaders.IF_MATCH, "*")
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(inputAsString)
                 )
@@ -252,13 +287,13 @@ public class SubjectControllerTests {
     @DisplayName("given SubjectInput has invalid parameters, update should return response 'Bad Request")
     public void givenSubjectInputHasInvalidParameters_updateShouldReturnResponseBadRequest() throws Exception {
         SubjectInput inputWithBlankName = SubjectInput.builder().name("  ").build();
-        when(subjectService.findById(1L)).thenReturn(Optional.of(subjectOutput1));
+        when(subjectService.existsById(1L)).thenReturn(true);
 
         String inputAsString = mapper.writeValueAsString(inputWithBlankName);
 
         this.mockMvc
                 .perform(
-                        put("/api/subjects/1")
+                        put("/api/subjects/1").header(HttpHeaders.IF_MATCH, "*")
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(inputAsString)
                 )
@@ -270,10 +305,10 @@ public class SubjectControllerTests {
     @WithMockUser(username = "admin", password = "admin", roles = "ADMIN")
     @DisplayName("when Subject exists with given ID, delete should return response 'No Content'")
     public void whenSubjectExistsWithGivenId_deleteShouldReturnResponseNoContent() throws Exception {
-        when(subjectService.findById(2L)).thenReturn(Optional.of(subjectOutput2));
+        when(subjectService.existsById(2L)).thenReturn(true);
 
         this.mockMvc
-                .perform(delete("/api/subjects/2"))
+                .perform(delete("/api/subjects/2").header(HttpHeaders.IF_MATCH, "*"))
                 .andDo(print())
                 .andExpect(status().isNoContent());
     }
@@ -282,10 +317,10 @@ public class SubjectControllerTests {
     @WithMockUser(username = "admin", password = "admin", roles = "ADMIN")
     @DisplayName("when Subject does not exist with given ID, delete should return response 'Not Found'")
     public void whenSubjectDoesNotExistWithGivenId_deleteShouldReturnResponseNotFound() throws Exception {
-        when(subjectService.findById(99L)).thenReturn(Optional.empty());
+        when(subjectService.existsById(99L)).thenReturn(false);
 
         this.mockMvc
-                .perform(delete("/api/subjects/99"))
+                .perform(delete("/api/subjects/99").header(HttpHeaders.IF_MATCH, "*"))
                 .andDo(print())
                 .andExpect(status().isNotFound());
     }
@@ -298,12 +333,12 @@ public class SubjectControllerTests {
                 .id(1L)
                 .subject(new SimpleData(1L, "Algebra"))
                 .build();
-        when(subjectService.findById(1L)).thenReturn(Optional.of(subjectOutput1));
+        when(subjectService.existsById(1L)).thenReturn(true);
         GradebookRequest request = GradebookRequest.builder().subjectId(1L).build();
         when(gradebookService.findGradebookEntries(request)).thenReturn(List.of(savedEntry));
 
         this.mockMvc
-                .perform(delete("/api/subjects/1"))
+                .perform(delete("/api/subjects/1").header(HttpHeaders.IF_MATCH, "*"))
                 .andDo(print())
                 .andExpect(status().isMethodNotAllowed());
     }
@@ -323,7 +358,7 @@ public class SubjectControllerTests {
 
         when(studentService.findById(1L)).thenReturn(Optional.of(johnDoe));
         when(teacherService.findById(1L)).thenReturn(Optional.of(darrellBowen));
-        when(subjectService.findById(1L)).thenReturn(Optional.of(algebra));
+        when(subjectService.existsById(1L)).thenReturn(true);
         when(subjectService.addStudentToSubject(1L, 1L)).thenReturn(algebra);
 
         this.mockMvc
@@ -343,7 +378,7 @@ public class SubjectControllerTests {
     @DisplayName("when Student does not exist with given ID, addStudentToSubject should return response 'Not Found'")
     public void whenStudentDoesNotExistWithGivenId_addStudentToSubject_shouldReturnResponseNotFound() throws Exception {
         when(studentService.findById(99L)).thenReturn(Optional.empty());
-        when(subjectService.findById(1L)).thenReturn(Optional.of(subjectOutput1));
+        when(subjectService.existsById(1L)).thenReturn(true);
 
         this.mockMvc
                 .perform(post("/api/subjects/1/add_student/99"))
@@ -355,7 +390,7 @@ public class SubjectControllerTests {
     @WithMockUser(username = "admin", password = "admin", roles = "ADMIN")
     @DisplayName("when Subject does not exist with given ID, addStudentToSubject should return response 'Not Found'")
     public void whenSubjectDoesNotExistWithGivenId_addStudentToSubject_shouldReturnResponseNotFound() throws Exception {
-        when(subjectService.findById(99L)).thenReturn(Optional.empty());
+        when(subjectService.existsById(99L)).thenReturn(false);
 
         this.mockMvc
                 .perform(post("/api/subjects/99/add_student/1"))
@@ -363,4 +398,99 @@ public class SubjectControllerTests {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @WithMockUser(username = "teacher", password = "teacher", roles = "TEACHER")
+    @DisplayName("given valid EnrollmentBatchInput, changeEnrollments should return number of Students affected")
+    public void givenValidEnrollmentBatchInput_changeEnrollmentsShouldReturnNumberOfStudentsAffected() throws Exception {
+        EnrollmentBatchInput input = EnrollmentBatchInput.builder()
+                .action(EnrollmentBatchInput.Action.ENROLL)
+                .gradeLevel(11)
+                .build();
+        when(subjectService.existsById(1L)).thenReturn(true);
+        when(subjectService.changeEnrollments(1L, input)).thenReturn(EnrollmentBatchResult.builder()
+                .subjectId(1L).action(EnrollmentBatchInput.Action.ENROLL).studentsAffected(25).build());
+
+        String inputAsString = mapper.writeValueAsString(input);
+
+        this.mockMvc
+                .perform(
+                        post("/api/subjects/1/students:batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(inputAsString)
+                )
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.action", is("ENROLL")))
+                .andExpect(jsonPath("$.studentsAffected", is(25)))
+                .andExpect(jsonPath("$._links.students-of-subject.href").exists());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", password = "admin", roles = "ADMIN")
+    @DisplayName("given both Student IDs and grade level, changeEnrollments should return response 'Bad Request'")
+    public void givenBothStudentIdsAndGradeLevel_changeEnrollmentsShouldReturnResponseBadRequest() throws Exception {
+        EnrollmentBatchInput input = EnrollmentBatchInput.builder()
+                .action(EnrollmentBatchInput.Action.UNENROLL)
+                .studentIds(List.of(1L, 2L))
+                .gradeLevel(11)
+                .build();
+        when(subjectService.existsById(1L)).thenReturn(true);
+
+        String inputAsString = mapper.writeValueAsString(input);
+
+        this.mockMvc
+                .perform(
+                        post("/api/subjects/1/students:batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(inputAsString)
+                )
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", password = "admin", roles = "ADMIN")
+    @DisplayName("when Subject does not exist with given ID, changeEnrollments should return response 'Not Found'")
+    public void whenSubjectDoesNotExistWithGivenId_changeEnrollmentsShouldReturnResponseNotFound() throws Exception {
+        EnrollmentBatchInput input = EnrollmentBatchInput.builder()
+                .action(EnrollmentBatchInput.Action.ENROLL)
+                .studentIds(List.of(1L))
+                .build();
+        when(subjectService.existsById(99L)).thenReturn(false);
+
+        String inputAsString = mapper.writeValueAsString(input);
+
+        this.mockMvc
+                .perform(
+                        post("/api/subjects/99/students:batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(inputAsString)
+                )
+                .andDo(print())
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", password = "admin", roles = "ADMIN")
+    @DisplayName("when a Student does not exist with given ID, changeEnrollments should return response 'Not Found'")
+    public void whenStudentDoesNotExistWithGivenId_changeEnrollmentsShouldReturnResponseNotFound() throws Exception {
+        EnrollmentBatchInput input = EnrollmentBatchInput.builder()
+                .action(EnrollmentBatchInput.Action.ENROLL)
+                .studentIds(List.of(1L, 99L))
+                .build();
+        when(subjectService.existsById(1L)).thenReturn(true);
+        when(subjectService.changeEnrollments(1L, input)).thenThrow(new StudentNotFoundException(List.of(99L)));
+
+        String inputAsString = mapper.writeValueAsString(input);
+
+        this.mockMvc
+                .perform(
+                        post("/api/subjects/1/students:batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(inputAsString)
+                )
+                .andDo(print())
+                .andExpect(status().isNotFound());
+    }
+
 }
@@ -4,8 +4,11 @@ import org.vasvari.gradebookapi.controller.TeacherController;
 import org.vasvari.gradebookapi.dto.TeacherDto;
 import org.vasvari.gradebookapi.dto.assembler.TeacherModelAssembler;
 import org.vasvari.gradebookapi.jwt.JwtAuthenticationEntryPoint;
+import org.vasvari.gradebookapi.metrics.PrometheusScrapeToken;
 import org.vasvari.gradebookapi.jwt.JwtTokenUtil;
+import org.vasvari.gradebookapi.jwt.TokenRevocationList;
 import org.vasvari.gradebookapi.security.PasswordConfig;
+import org.vasvari.gradebookapi.security.PasswordHashingExecutor;
 import org.vasvari.gradebookapi.service.TeacherService;
 import org.vasvari.gradebookapi.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -26,6 +29,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -42,7 +46,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(TeacherController.class)
-@Import({TeacherModelAssembler.class, PasswordConfig.class, JwtAuthenticationEntryPoint.class})
+@Import({TeacherModelAssembler.class, PasswordConfig.class, JwtAuthenticationEntryPoint.class,
+        PrometheusScrapeToken.class})
 public class TeacherControllerTests {
 
     @Autowired
@@ -56,6 +61,10 @@ public class TeacherControllerTests {
 
     @MockBean
     private JwtTokenUtil jwtTokenUtil;
+    @MockBean
+    private PasswordHashingExecutor passwordHashingExecutor;
+    @MockBean
+    private TokenRevocationList tokenRevocationList;
 
     private static ObjectMapper mapper;
 
@@ -192,7 +201,7 @@ public class TeacherControllerTests {
 
         this.mockMvc
                 .perform(
-                        put("/api/teachers/99")
+                        put("/api/teachers/99").header(HttpHeaders.IF_MATCH, "*")
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(teacher1AsString)
                 )
@@ -211,7 +220,7 @@ public class TeacherControllerTests {
 
         this.mockMvc
                 .perform(
-                        put("/api/teachers/1")
+                        put("/api/teachers/1").header(HttpHeaders.IF_MATCH, "*")
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(teacherAsString)
                 )
@@ -224,14 +233,14 @@ public class TeacherControllerTests {
     @DisplayName("when Teacher exists with given ID, update should return updated Teacher")
     public void whenTeacherExistsWithGivenId_updateShouldReturnUpdatedTeacher() throws Exception {
         when(service.findById(1L)).thenReturn(Optional.of(teacher1));
-        when(service.save(teacher1)).thenReturn(teacher1);
+        when(service.update(1L, teacher1, null)).thenReturn(teacher1);
 
         teacher1.setId(1L);
         String teacher1AsString = mapper.writeValueAsString(teacher1);
 
         this.mockMvc
                 .perform(
-                        put("/api/teachers/1")
+                        put("/api/teachers/1").header(HttpHeaders.IF_MATCH, "*")
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(teacher1AsString)
                 )
@@ -247,7 +256,7 @@ public class TeacherControllerTests {
         when(service.findById(99L)).thenReturn(Optional.empty());
 
         this.mockMvc
-                .perform(delete("/api/teachers/99"))
+                .perform(delete("/api/teachers/99").header(HttpHeaders.IF_MATCH, "*"))
                 .andDo(print())
                 .andExpect(status().isNotFound());
     }
@@ -259,7 +268,7 @@ public class TeacherControllerTests {
         when(service.findById(1L)).thenReturn(Optional.of(teacher1));
 
         this.mockMvc
-                .perform(delete("/api/teachers/1"))
+                .perform(delete("/api/teachers/1").header(HttpHeaders.IF_MATCH, "*"))
                 .andDo(print())
                 .andExpect(status().isNoContent());
     }
@@ -11,7 +11,9 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.vasvari.gradebookapi.controller.UserController;
+import org.vasvari.gradebookapi.dto.AccountBatchInput;
 import org.vasvari.gradebookapi.dto.StudentDto;
 import org.vasvari.gradebookapi.dto.TeacherDto;
 import org.vasvari.gradebookapi.dto.UserDto;
@@ -21,30 +23,36 @@ import org.vasvari.gradebookapi.dto.simpleTypes.InitialCredentials;
 import org.vasvari.gradebookapi.dto.simpleTypes.UsernameInput;
 import org.vasvari.gradebookapi.exception.*;
 import org.vasvari.gradebookapi.jwt.JwtAuthenticationEntryPoint;
+import org.vasvari.gradebookapi.metrics.PrometheusScrapeToken;
 import org.vasvari.gradebookapi.jwt.JwtTokenUtil;
+import org.vasvari.gradebookapi.jwt.TokenRevocationList;
 import org.vasvari.gradebookapi.model.request.PasswordChangeRequest;
 import org.vasvari.gradebookapi.security.ApplicationUserRole;
 import org.vasvari.gradebookapi.security.PasswordConfig;
+import org.vasvari.gradebookapi.security.PasswordHashingExecutor;
 import org.vasvari.gradebookapi.service.StudentService;
 import org.vasvari.gradebookapi.service.TeacherService;
 import org.vasvari.gradebookapi.service.UserService;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.vasvari.gradebookapi.security.ApplicationUserRole.STUDENT;
 
 @WebMvcTest(UserController.class)
 @WithMockUser(username = "admin", password = "admin", roles = "ADMIN")
-@Import({UserModelAssembler.class, InitialCredentialsModelAssembler.class, PasswordConfig.class, JwtAuthenticationEntryPoint.class})
+@Import({UserModelAssembler.class, InitialCredentialsModelAssembler.class, PasswordConfig.class, JwtAuthenticationEntryPoint.class,
+        PrometheusScrapeToken.class})
 public class UserControllerTests {
 
     private static ObjectMapper mapper;
@@ -60,6 +68,10 @@ public class UserControllerTests {
     private TeacherService teacherService;
     @MockBean
     private JwtTokenUtil jwtTokenUtil;
+    @MockBean
+    private PasswordHashingExecutor passwordHashingExecutor;
+    @MockBean
+    private TokenRevocationList tokenRevocationList;
 
     private UserDto adminUser;
     private UserDto teacherUser;
@@ -172,6 +184,28 @@ public class UserControllerTests {
                 .andExpect(jsonPath("$.password", is("password1234")));
     }
 
+    @Test
+    @DisplayName("given every username of the Student's name is taken, createAccountForStudent should return response 'Conflict'")
+    public void givenEveryUsernameOfTheStudentsNameIsTaken_createAccountForStudent_shouldReturnResponseConflict() throws Exception {
+        StudentDto student = StudentDto.builder()
+                .id(1L)
+                .firstname("John")
+                .lastname("Doe")
+                .build();
+
+        when(studentService.findById(1L)).thenReturn(Optional.of(student));
+        when(userService.createStudentUser(student)).thenThrow(new UsernamesExhaustedException("doejohn", 4));
+
+        this.mockMvc
+                .perform(
+                        post("/api/users/create-student-user")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .param("studentId", "1")
+                )
+                .andDo(print())
+                .andExpect(status().isConflict());
+    }
+
     @Test
     @DisplayName("when Student does not exist with given ID, createAccountForStudent should return response 'Not Found'")
     public void whenStudentDoesNotExistWithGivenId_createAccountForStudent_shouldReturnResponseNotFound() throws Exception {
@@ -224,6 +258,63 @@ public class UserControllerTests {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @DisplayName("given grade level, createAccountsInBulk should stream initial credentials of the students of the grade level")
+    public void givenGradeLevel_createAccountsInBulk_shouldStreamInitialCredentialsOfTheStudentsOfTheGradeLevel() throws Exception {
+        StudentDto student1 = StudentDto.builder().id(1L).firstname("John").lastname("Doe").gradeLevel(9).build();
+        StudentDto student2 = StudentDto.builder().id(2L).firstname("Jane").lastname("Doe").gradeLevel(9).build();
+        InitialCredentials credentials1 = new InitialCredentials(11L, "doejohn12", "password1234");
+        InitialCredentials credentials2 = new InitialCredentials(12L, "doejane34", "password5678");
+        when(studentService.findStudents(argThat(request -> request.getGradeLevel() == 9)))
+                .thenReturn(List.of(student1, student2));
+        when(userService.createStudentUsers(eq(List.of(student1, student2)), any())).thenAnswer(invocation -> {
+            Consumer<List<InitialCredentials>> consumer = invocation.getArgument(1);
+            consumer.accept(List.of(credentials1));
+            consumer.accept(List.of(credentials2));
+            return 2;
+        });
+        AccountBatchInput batchInput = AccountBatchInput.builder().role(STUDENT).gradeLevel(9).build();
+
+        MvcResult result = this.mockMvc
+                .perform(
+                        post("/api/users/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(mapper.writeValueAsString(batchInput))
+                )
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = this.mockMvc
+                .perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString().split("\n");
+
+        assertThat(lines).hasSize(2);
+        assertThat(mapper.readValue(lines[0], InitialCredentials.class))
+                .usingRecursiveComparison().isEqualTo(credentials1);
+        assertThat(mapper.readValue(lines[1], InitialCredentials.class))
+                .usingRecursiveComparison().isEqualTo(credentials2);
+    }
+
+    @Test
+    @DisplayName("given grade level for teachers, createAccountsInBulk should return response 'Bad Request'")
+    public void givenGradeLevelForTeachers_createAccountsInBulk_shouldReturnResponseBadRequest() throws Exception {
+        AccountBatchInput batchInput = AccountBatchInput.builder().role(ApplicationUserRole.TEACHER).gradeLevel(9).build();
+
+        this.mockMvc
+                .perform(
+                        post("/api/users/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(mapper.writeValueAsString(batchInput))
+                )
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(userService);
+    }
+
     @Test
     @DisplayName("when UsernameInput is valid, createAccountForAdmin should return initial credentials")
     public void whenUsernameInputIsValid_createAccountForTeacher_shouldReturnInitialCredentials() throws Exception {
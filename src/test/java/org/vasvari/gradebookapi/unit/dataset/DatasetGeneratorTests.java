@@ -0,0 +1,61 @@
+package org.vasvari.gradebookapi.unit.dataset;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.vasvari.gradebookapi.dataset.DatasetGenerator;
+import org.vasvari.gradebookapi.dataset.DatasetSummary;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.annotation.DirtiesContext.MethodMode.AFTER_METHOD;
+import static org.springframework.test.annotation.DirtiesContext.MethodMode.BEFORE_METHOD;
+
+@SpringBootTest
+public class DatasetGeneratorTests {
+
+    @Autowired
+    private DatasetGenerator datasetGenerator;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Generate writes the requested number of entries of enrolled students, with their statistics")
+    @DirtiesContext(methodMode = BEFORE_METHOD)
+    public void generateWritesEntries() {
+        DatasetSummary summary = datasetGenerator.generate(42, 2000);
+
+        assertThat(summary.getEntries()).isEqualTo(2000);
+        assertThat(countOf("gradebook_entry")).isEqualTo(2000);
+        assertThat(countOf("student")).isEqualTo(summary.getStudents());
+        assertThat(countOf("teacher")).isEqualTo(summary.getTeachers());
+        assertThat(countOf("subject")).isEqualTo(summary.getSubjects());
+        assertThat(countOf("subject_students")).isEqualTo(summary.getEnrollments());
+        assertThat(countOf("assignment")).isEqualTo(summary.getAssignments());
+        assertThat(jdbcTemplate.queryForObject("select sum(grade_count) from subject_statistics", Long.class))
+                .isEqualTo(2000);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from gradebook_entry e where not exists " +
+                "(select 1 from subject_students s where s.subject_id = e.subject_id and s.students_id = e.student_id)",
+                Long.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from gradebook_entry e " +
+                "join assignment a on a.id = e.assignment_id where a.subject_id <> e.subject_id", Long.class)).isZero();
+    }
+
+    @Test
+    @DisplayName("Generate with the same seed generates the same dataset")
+    @DirtiesContext(methodMode = AFTER_METHOD)
+    public void generateIsDeterministic() {
+        DatasetSummary first = datasetGenerator.generate(7, 500);
+        DatasetSummary second = datasetGenerator.generate(7, 500);
+        DatasetSummary other = datasetGenerator.generate(8, 500);
+
+        assertThat(second).isEqualTo(first);
+        assertThat(other.getChecksum()).isNotEqualTo(first.getChecksum());
+    }
+
+    private long countOf(String table) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table, Long.class);
+    }
+}
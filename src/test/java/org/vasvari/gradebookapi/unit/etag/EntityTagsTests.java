@@ -0,0 +1,54 @@
+package org.vasvari.gradebookapi.unit.etag;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.vasvari.gradebookapi.etag.ConditionalGetInterceptor;
+import org.vasvari.gradebookapi.etag.EntityTags;
+import org.vasvari.gradebookapi.exception.PreconditionRequiredException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class EntityTagsTests {
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("etagOf should combine the version with the ETag of the response, if it has one")
+    public void etagOf_shouldCombineTheVersionWithTheEtagOfTheResponse_ifItHasOne() {
+        assertThat(EntityTags.etagOf(3)).isEqualTo("\"3\"");
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(ConditionalGetInterceptor.ETAG_ATTRIBUTE, "\"9f2c\"");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        assertThat(EntityTags.etagOf(3)).isEqualTo("\"3-9f2c\"");
+    }
+
+    @Test
+    @DisplayName("headersOf should have no ETag for an entity without version")
+    public void headersOf_shouldHaveNoEtagForAnEntityWithoutVersion() {
+        assertThat(EntityTags.headersOf(null).getETag()).isNull();
+        assertThat(EntityTags.headersOf(0L).getETag()).isEqualTo("\"0\"");
+    }
+
+    @Test
+    @DisplayName("expectedVersionOf should parse the version of the If-Match header and require the header")
+    public void expectedVersionOf_shouldParseTheVersionOfTheIfMatchHeaderAndRequireTheHeader() {
+        assertThatThrownBy(() -> EntityTags.expectedVersionOf(null))
+                .isInstanceOf(PreconditionRequiredException.class);
+        assertThat(EntityTags.expectedVersionOf("*")).isNull();
+        assertThat(EntityTags.expectedVersionOf("\"7\"")).isEqualTo(7L);
+        assertThat(EntityTags.expectedVersionOf("\"7-9f2c\"")).isEqualTo(7L);
+        assertThat(EntityTags.expectedVersionOf("W/\"7\"")).isEqualTo(EntityTags.NO_VERSION);
+        assertThat(EntityTags.expectedVersionOf("\"7\", \"8\"")).isEqualTo(EntityTags.NO_VERSION);
+        assertThat(EntityTags.expectedVersionOf("\"abc\"")).isEqualTo(EntityTags.NO_VERSION);
+    }
+}
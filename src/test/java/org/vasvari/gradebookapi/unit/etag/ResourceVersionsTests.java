@@ -0,0 +1,94 @@
+package org.vasvari.gradebookapi.unit.etag;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.vasvari.gradebookapi.etag.ResourceVersions;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.vasvari.gradebookapi.etag.VersionedResource.*;
+
+public class ResourceVersionsTests {
+    private final ResourceVersions resourceVersions = new ResourceVersions(Duration.ofHours(1));
+
+    @Test
+    @DisplayName("changed should bump only the versions of the resources changed")
+    public void changed_shouldBumpOnlyTheVersionsOfTheResourcesChanged() {
+        resourceVersions.changed(SUBJECTS, STUDENTS);
+        resourceVersions.changed(SUBJECTS);
+
+        assertThat(resourceVersions.versionOf(SUBJECTS)).isEqualTo(2);
+        assertThat(resourceVersions.versionOf(STUDENTS)).isEqualTo(1);
+        assertThat(resourceVersions.versionOf(TEACHERS)).isZero();
+    }
+
+    @Test
+    @DisplayName("given a transaction, changed should bump the versions once the transaction commits")
+    public void givenATransaction_changed_shouldBumpTheVersionsOnceTheTransactionCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            resourceVersions.changed(ASSIGNMENTS);
+            assertThat(resourceVersions.versionOf(ASSIGNMENTS)).isZero();
+
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations())
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(resourceVersions.versionOf(ASSIGNMENTS)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("given a transaction rolled back, changed should not bump the versions")
+    public void givenATransactionRolledBack_changed_shouldNotBumpTheVersions() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            resourceVersions.changed(ASSIGNMENTS);
+
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations())
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(resourceVersions.versionOf(ASSIGNMENTS)).isZero();
+    }
+
+    @Test
+    @DisplayName("etagOf should change with the versions of the resources, the request and the user only")
+    public void etagOf_shouldChangeWithTheVersionsOfTheResourcesTheRequestAndTheUserOnly() {
+        String etag = resourceVersions.etagOf(request("/api/subjects", null, "admin"), SUBJECTS, TEACHERS);
+
+        assertThat(etag).matches("\"[0-9a-f]{32}\"");
+        assertThat(resourceVersions.etagOf(request("/api/subjects", null, "admin"), SUBJECTS, TEACHERS))
+                .isEqualTo(etag);
+        assertThat(resourceVersions.etagOf(request("/api/subjects", "subjectName=a", "admin"), SUBJECTS, TEACHERS))
+                .isNotEqualTo(etag);
+        assertThat(resourceVersions.etagOf(request("/api/subjects", null, "teacher"), SUBJECTS, TEACHERS))
+                .isNotEqualTo(etag);
+
+        MockHttpServletRequest acceptingCbor = request("/api/subjects", null, "admin");
+        acceptingCbor.addHeader(HttpHeaders.ACCEPT, "application/cbor");
+        assertThat(resourceVersions.etagOf(acceptingCbor, SUBJECTS, TEACHERS)).isNotEqualTo(etag);
+
+        resourceVersions.changed(STUDENTS);
+        assertThat(resourceVersions.etagOf(request("/api/subjects", null, "admin"), SUBJECTS, TEACHERS))
+                .isEqualTo(etag);
+        resourceVersions.changed(TEACHERS);
+        assertThat(resourceVersions.etagOf(request("/api/subjects", null, "admin"), SUBJECTS, TEACHERS))
+                .isNotEqualTo(etag);
+    }
+
+    private MockHttpServletRequest request(String uri, String query, String user) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setQueryString(query);
+        request.setRemoteUser(user);
+        return request;
+    }
+}
@@ -0,0 +1,87 @@
+package org.vasvari.gradebookapi.unit.jwt;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.vasvari.gradebookapi.jwt.JwtTokenUtil;
+import org.vasvari.gradebookapi.jwt.TokenRevocationList;
+import org.vasvari.gradebookapi.model.TokenRevocation;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.vasvari.gradebookapi.repository.TokenRevocationRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class TokenRevocationListTests {
+    private final TokenRevocationRepository repository = mock(TokenRevocationRepository.class);
+    private final TokenRevocationList revocationList = new TokenRevocationList(repository);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    @DisplayName("given tokens of Users revoked, isRevoked should be true only for their tokens issued until the revocation")
+    public void givenTokensOfUsersRevoked_isRevoked_shouldBeTrueOnlyForTheirTokensIssuedUntilTheRevocation() {
+        Instant issuedAt = Instant.now();
+        for (long userId = 1; userId <= 1000; userId++) revocationList.revokeTokensOf(userId);
+
+        for (long userId = 1; userId <= 1000; userId++) {
+            assertThat(revocationList.isRevoked(userId, issuedAt)).isTrue();
+            assertThat(revocationList.isRevoked(userId, issuedAt.plusSeconds(2))).isFalse();
+        }
+        for (long userId = 1001; userId <= 2000; userId++)
+            assertThat(revocationList.isRevoked(userId, issuedAt)).isFalse();
+        verify(repository, times(1000)).save(any(TokenRevocation.class));
+    }
+
+    @Test
+    @DisplayName("given a transaction, revokeTokensOf should revoke the tokens once it commits")
+    public void givenATransaction_revokeTokensOf_shouldRevokeTheTokensOnceItCommits() {
+        Instant issuedAt = Instant.now();
+        TransactionSynchronizationManager.initSynchronization();
+
+        revocationList.revokeTokensOf(1L);
+
+        assertThat(revocationList.isRevoked(1L, issuedAt)).isFalse();
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        assertThat(revocationList.isRevoked(1L, issuedAt)).isTrue();
+    }
+
+    @Test
+    @DisplayName("given a transaction rolled back, revokeTokensOf should not revoke the tokens")
+    public void givenATransactionRolledBack_revokeTokensOf_shouldNotRevokeTheTokens() {
+        Instant issuedAt = Instant.now();
+        TransactionSynchronizationManager.initSynchronization();
+
+        revocationList.revokeTokensOf(1L);
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(revocationList.isRevoked(1L, issuedAt)).isFalse();
+    }
+
+    @Test
+    @DisplayName("refresh should delete the revocations of expired tokens and load the others")
+    public void refresh_shouldDeleteTheRevocationsOfExpiredTokensAndLoadTheOthers() {
+        Instant now = Instant.now();
+        revocationList.revokeTokensOf(1L);
+        when(repository.findAll()).thenReturn(List.of(new TokenRevocation(2L, now.plusSeconds(1))));
+
+        revocationList.refresh();
+
+        verify(repository).deleteRevokedBefore(argThat(revokedBefore -> Duration.between(revokedBefore,
+                now.minusSeconds(JwtTokenUtil.JWT_TOKEN_VALIDITY)).abs().getSeconds() <= 1));
+        assertThat(revocationList.isRevoked(1L, now)).isFalse();
+        assertThat(revocationList.isRevoked(2L, now)).isTrue();
+    }
+}
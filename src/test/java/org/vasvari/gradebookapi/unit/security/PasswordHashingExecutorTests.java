@@ -0,0 +1,99 @@
+package org.vasvari.gradebookapi.unit.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.vasvari.gradebookapi.exception.AuthenticationOverloadedException;
+import org.vasvari.gradebookapi.security.PasswordHashingExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PasswordHashingExecutorTests {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+    private final CountDownLatch verificationStarted = new CountDownLatch(1);
+    private final CountDownLatch verificationReleased = new CountDownLatch(1);
+
+    // one hashing thread and no verification waiting for it, one bulk hashing thread and one bulk hash waiting for it
+    private final PasswordHashingExecutor executor =
+            new PasswordHashingExecutor(passwordEncoder, meterRegistry, 1, 0, 1, 1, Duration.ofSeconds(2));
+
+    @AfterEach
+    void tearDown() {
+        verificationReleased.countDown();
+        executor.destroy();
+    }
+
+    @Test
+    @DisplayName("given verifications exceed the pool and the queue, matches should fail at once")
+    public void givenVerificationsExceedThePoolAndTheQueue_matchesShouldFailAtOnce() throws Exception {
+        when(passwordEncoder.matches(any(), anyString())).thenAnswer(invocation -> {
+            verificationStarted.countDown();
+            return verificationReleased.await(10, TimeUnit.SECONDS);
+        });
+        CompletableFuture<Boolean> firstVerification =
+                CompletableFuture.supplyAsync(() -> executor.matches("password", "hash"));
+        assertThat(verificationStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> executor.matches("password", "hash"))
+                .isInstanceOf(AuthenticationOverloadedException.class)
+                .hasMessage(AuthenticationOverloadedException.ERROR_MESSAGE)
+                .extracting("retryAfter").isEqualTo(Duration.ofSeconds(2));
+        assertThat(meterRegistry.counter("password.hashing.rejected").count()).isEqualTo(1);
+
+        verificationReleased.countDown();
+        assertThat(firstVerification.get(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(executor.matches("password", "hash")).isTrue();
+        assertThat(meterRegistry.get("password.hashing").tag("operation", "verify").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("encode should hash on the pool of the logins")
+    public void encode_shouldHashOnThePoolOfTheLogins() {
+        when(passwordEncoder.encode("password")).thenAnswer(invocation -> Thread.currentThread().getName());
+
+        String hashingThread = executor.encode("password");
+
+        assertThat(hashingThread).startsWith("password-hashing-");
+        assertThat(meterRegistry.get("executor.queued").tag("name", "passwordHashing").gauge()).isNotNull();
+        assertThat(meterRegistry.get("password.hashing.queued").tag("pool", "login").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("given the bulk pool and its queue are full, encodeInBulk should hash on the calling thread")
+    public void givenTheBulkPoolAndItsQueueAreFull_encodeInBulkShouldHashOnTheCallingThread() throws Exception {
+        CountDownLatch hashStarted = new CountDownLatch(1);
+        CountDownLatch hashReleased = new CountDownLatch(1);
+        when(passwordEncoder.encode("password")).thenAnswer(invocation -> {
+            hashStarted.countDown();
+            hashReleased.await(10, TimeUnit.SECONDS);
+            return Thread.currentThread().getName();
+        });
+        when(passwordEncoder.encode("other")).thenAnswer(invocation -> Thread.currentThread().getName());
+        CompletableFuture<String> runningHash = executor.encodeInBulk("password");
+        assertThat(hashStarted.await(10, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queuedHash = executor.encodeInBulk("other");
+        assertThat(meterRegistry.get("password.hashing.queued").tag("pool", "bulk").gauge().value()).isEqualTo(1);
+
+        String overflowingHashThread = executor.encodeInBulk("other").join();
+
+        assertThat(overflowingHashThread).isEqualTo(Thread.currentThread().getName());
+        hashReleased.countDown();
+        assertThat(runningHash.get(10, TimeUnit.SECONDS)).startsWith("bulk-password-hashing-");
+        assertThat(queuedHash.get(10, TimeUnit.SECONDS)).startsWith("bulk-password-hashing-");
+        assertThat(meterRegistry.counter("password.hashing.rejected").count()).isZero();
+    }
+}
@@ -8,8 +8,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import org.vasvari.gradebookapi.dto.*;
-import org.vasvari.gradebookapi.exception.StudentNotFoundException;
-import org.vasvari.gradebookapi.exception.TeacherNotFoundException;
 import org.vasvari.gradebookapi.model.AssignmentType;
 import org.vasvari.gradebookapi.model.request.AssignmentRequest;
 import org.vasvari.gradebookapi.service.AssignmentService;
@@ -25,7 +23,6 @@ import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.springframework.test.annotation.DirtiesContext.MethodMode.BEFORE_METHOD;
 
 @SpringBootTest
@@ -154,7 +151,7 @@ public class AssignmentServiceTests {
     public void deleteById_shouldDeleteAssignmentWithGivenId() {
         long id = assignmentService.save(assignmentInput1).getId();
 
-        assignmentService.deleteById(id);
+        assignmentService.deleteById(id, null);
         Optional<AssignmentOutput> assignmentFound = assignmentService.findById(id);
 
         assertThat(assignmentFound).isEmpty();
@@ -167,7 +164,7 @@ public class AssignmentServiceTests {
         long id = assignmentService.save(assignmentInput1).getId();
         AssignmentInput update = assignmentInput1;
         update.setName("Updated name");
-        assignmentService.update(id, update);
+        assignmentService.update(id, update, null);
 
         AssignmentOutput updatedAssignment = assignmentService.findById(id).orElse(null);
 
@@ -198,11 +195,11 @@ public class AssignmentServiceTests {
 
     @Test
     @Transactional
-    @DisplayName("when Teacher does not exist with given ID, findAssignmentsOfTeacher should throw exception")
-    public void whenTeacherDoesNotExistWithGivenId_findAssignmentsOfTeacher_shouldThrowException() {
-        assertThatThrownBy(() -> assignmentService.findAssignmentsOfTeacher(teacherId + 1))
-                .isInstanceOf(TeacherNotFoundException.class)
-                .hasMessage(String.format(TeacherNotFoundException.ERROR_MESSAGE, teacherId + 1));
+    @DisplayName("when Teacher does not exist with given ID, findAssignmentsOfTeacher should return empty list")
+    public void whenTeacherDoesNotExistWithGivenId_findAssignmentsOfTeacher_shouldReturnEmptyList() {
+        assignmentService.save(assignmentInput1);
+
+        assertThat(assignmentService.findAssignmentsOfTeacher(teacherId + 1)).isEmpty();
     }
 
     @Test
@@ -228,11 +225,11 @@ public class AssignmentServiceTests {
 
     @Test
     @Transactional
-    @DisplayName("when Student with given ID does not exist, findAssignmentsOfStudent should throw exception")
-    public void whenStudentWithGivenIdDoesNotExist_findAssignmentsOfStudent_shouldThrowException() {
-        assertThatThrownBy(() -> assignmentService.findAssignmentsOfStudent(studentId + 1))
-                .isInstanceOf(StudentNotFoundException.class)
-                .hasMessage(String.format(StudentNotFoundException.ERROR_MESSAGE, studentId + 1));
+    @DisplayName("when Student with given ID does not exist, findAssignmentsOfStudent should return empty list")
+    public void whenStudentWithGivenIdDoesNotExist_findAssignmentsOfStudent_shouldReturnEmptyList() {
+        assignmentService.save(assignmentInput1);
+
+        assertThat(assignmentService.findAssignmentsOfStudent(studentId + 1)).isEmpty();
 
     }
 
@@ -1,22 +1,33 @@
 package org.vasvari.gradebookapi.unit.service;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.vasvari.gradebookapi.dto.*;
+import org.vasvari.gradebookapi.dto.simpleTypes.StudentGrade;
 import org.vasvari.gradebookapi.exception.DuplicateEntryException;
 import org.vasvari.gradebookapi.model.AssignmentType;
+import org.vasvari.gradebookapi.model.request.GradebookRequest;
+import org.vasvari.gradebookapi.repository.GradebookEntryRepository;
 import org.vasvari.gradebookapi.service.*;
 
 import javax.transaction.Transactional;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.reset;
 
 @SpringBootTest
 public class GradebookServiceTests {
@@ -24,6 +35,8 @@ public class GradebookServiceTests {
     @Autowired
     private GradebookService gradebookService;
     @Autowired
+    private GradeStatisticsService gradeStatisticsService;
+    @Autowired
     private StudentService studentService;
     @Autowired
     private SubjectService subjectService;
@@ -31,6 +44,8 @@ public class GradebookServiceTests {
     private TeacherService teacherService;
     @Autowired
     private AssignmentService assignmentService;
+    @SpyBean
+    private GradebookEntryRepository gradebookEntryRepository;
 
     private GradebookInput entry1;
     private GradebookInput entry2;
@@ -102,6 +117,12 @@ public class GradebookServiceTests {
                 .build();
     }
 
+    // the spied repository is wrapped by the proxy of Spring Data, so it is not reset by Spring Boot
+    @AfterEach
+    public void tearDown() {
+        reset(gradebookEntryRepository);
+    }
+
     @Test
     @Transactional
     @DisplayName("save should return saved GradebookEntry")
@@ -155,12 +176,110 @@ public class GradebookServiceTests {
     public void deleteById_shouldDeleteEntryWithId() {
         long id = gradebookService.save(entry1).getId();
 
-        gradebookService.deleteById(id);
+        gradebookService.deleteById(id, null);
         Optional<GradebookOutput> entryFound = gradebookService.findById(id);
 
         assertThat(entryFound).isEmpty();
     }
 
+    @Test
+    @Transactional
+    @DisplayName("findGradebookEntries with limit should return pages of GradebookEntries in ID order")
+    public void findGradebookEntriesWithLimit_shouldReturnPagesOfGradebookEntriesInIdOrder() {
+        GradebookOutput saved1 = gradebookService.save(entry1);
+        GradebookOutput saved2 = gradebookService.save(entry2);
+        GradebookRequest request = new GradebookRequest();
+
+        CursorPage<GradebookOutput> firstPage = gradebookService.findGradebookEntries(request, null, 1);
+        assertThat(firstPage.getContent()).containsExactly(saved1);
+        assertThat(firstPage.hasPrevious()).isFalse();
+        assertThat(firstPage.hasNext()).isTrue();
+
+        CursorPage<GradebookOutput> secondPage = gradebookService.findGradebookEntries(request, firstPage.getNext(), 1);
+        assertThat(secondPage.getContent()).containsExactly(saved2);
+        assertThat(secondPage.hasNext()).isFalse();
+        assertThat(secondPage.hasPrevious()).isTrue();
+
+        CursorPage<GradebookOutput> previousPage = gradebookService.findGradebookEntries(request, secondPage.getPrevious(), 1);
+        assertThat(previousPage.getContent()).containsExactly(saved1);
+        assertThat(previousPage.hasPrevious()).isFalse();
+        assertThat(previousPage.hasNext()).isTrue();
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("findGradebookEntries with limit should apply filters")
+    public void findGradebookEntriesWithLimit_shouldApplyFilters() {
+        gradebookService.save(entry1);
+        GradebookOutput saved2 = gradebookService.save(entry2);
+        GradebookRequest request = GradebookRequest.builder().studentId(entry2.getStudentId()).build();
+
+        CursorPage<GradebookOutput> page = gradebookService.findGradebookEntries(request, null, 10);
+
+        assertThat(page.getContent()).containsExactly(saved2);
+        assertThat(page.hasNext()).isFalse();
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("exportGradebookEntries should pass filtered GradebookEntries to the consumer in ID order")
+    public void exportGradebookEntries_shouldPassFilteredGradebookEntriesToTheConsumerInIdOrder() {
+        GradebookOutput saved1 = gradebookService.save(entry1);
+        GradebookOutput saved2 = gradebookService.save(entry2);
+        List<GradebookOutput> exported = new ArrayList<>();
+
+        long count = gradebookService.exportGradebookEntries(new GradebookRequest(), exported::add);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(exported).containsExactly(saved1, saved2);
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("saveAll should save valid grades and report the outcome of each grade")
+    public void saveAll_shouldSaveValidGradesAndReportTheOutcomeOfEachGrade() {
+        subjectService.addStudentToSubject(entry1.getStudentId(), entry1.getSubjectId());
+        GradebookBatchInput batch = GradebookBatchInput.builder()
+                .subjectId(entry1.getSubjectId())
+                .assignmentId(entry1.getAssignmentId())
+                .grades(List.of(
+                        new StudentGrade(entry1.getStudentId(), 4),
+                        new StudentGrade(entry2.getStudentId(), 5),
+                        new StudentGrade(99L, 3),
+                        new StudentGrade(entry1.getStudentId(), 2)))
+                .build();
+
+        List<GradebookBatchResult> results = gradebookService.saveAll(batch);
+
+        assertThat(results).extracting(GradebookBatchResult::getStatus).containsExactly(
+                GradebookBatchResult.Status.CREATED,
+                GradebookBatchResult.Status.NOT_ENROLLED,
+                GradebookBatchResult.Status.STUDENT_NOT_FOUND,
+                GradebookBatchResult.Status.DUPLICATE);
+        GradebookOutput created = results.get(0).getEntry();
+        assertThat(created.getGrade()).isEqualTo(4);
+        assertThat(gradebookService.findById(created.getId())).contains(created);
+        assertThat(gradebookService.findAll()).containsExactly(created);
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("when grade of batch is saved after the check, saveAll should throw exception")
+    public void whenGradeOfBatchIsSavedAfterTheCheck_saveAll_shouldThrowException() {
+        subjectService.addStudentToSubject(entry1.getStudentId(), entry1.getSubjectId());
+        gradebookService.save(entry1);
+        // the check misses the grade, as if another request saved it meanwhile
+        doReturn(Set.of()).when(gradebookEntryRepository).findIdsOfGradedStudents(any(), any(), any());
+        GradebookBatchInput batch = GradebookBatchInput.builder()
+                .subjectId(entry1.getSubjectId())
+                .assignmentId(entry1.getAssignmentId())
+                .grades(List.of(new StudentGrade(entry1.getStudentId(), 2)))
+                .build();
+
+        assertThatThrownBy(() -> gradebookService.saveAll(batch))
+                .isInstanceOf(DuplicateEntryException.class);
+    }
+
 //    @Test
 //    @Transactional
 //    @DisplayName("when entries related to given Student exist, findByStudent should return list of GradebookEntries")
@@ -209,6 +328,90 @@ public class GradebookServiceTests {
 //        assertThat(entries).isEmpty();
 //    }
 
+    @Test
+    @Transactional
+    @DisplayName("when teacher ID given, findGradebookEntries should return entries of the subjects taught by the teacher")
+    public void whenTeacherIdGiven_findGradebookEntries_shouldReturnEntriesOfSubjectsTaughtByTeacher() {
+        GradebookOutput entry1Saved = gradebookService.save(entry1);
+        GradebookOutput entry2Saved = gradebookService.save(entry2);
+        Long teacherId = subjectService.findById(entry1.getSubjectId()).orElseThrow().getTeacher().getId();
+
+        GradebookRequest requestOfTeacher = GradebookRequest.builder().teacherId(teacherId).build();
+        GradebookRequest requestOfOtherTeacher = GradebookRequest.builder().teacherId(teacherId + 1).build();
+        GradebookRequest requestOfTeacherFiltered = GradebookRequest.builder()
+                .teacherId(teacherId)
+                .subjectId(entry2.getSubjectId())
+                .build();
+
+        assertThat(gradebookService.findGradebookEntries(requestOfTeacher)).containsExactly(entry1Saved, entry2Saved);
+        assertThat(gradebookService.findGradebookEntries(requestOfOtherTeacher)).isEmpty();
+        assertThat(gradebookService.findGradebookEntries(requestOfTeacherFiltered)).containsExactly(entry2Saved);
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("save, update and deleteById should keep the grade statistics up to date")
+    public void saveUpdateAndDeleteById_shouldKeepGradeStatisticsUpToDate() {
+        GradebookOutput entry1Saved = gradebookService.save(entry1);
+        gradebookService.save(entry2);
+
+        SubjectStatisticsOutput statisticsOfSubject1 = gradeStatisticsService.findStatisticsOfSubject(entry1.getSubjectId());
+        assertThat(statisticsOfSubject1.getSubject().getCount()).isEqualTo(1);
+        assertThat(statisticsOfSubject1.getSubject().getAverage()).isEqualTo(4.0);
+        assertThat(statisticsOfSubject1.getAssignments()).hasSize(1);
+        assertThat(statisticsOfSubject1.getAssignments().get(0).getAverage()).isEqualTo(4.5);
+
+        entry1.setGrade(2);
+        gradebookService.update(entry1Saved.getId(), entry1, null);
+        List<GradeStatisticsOutput> statisticsOfStudent1 = gradeStatisticsService.findStatisticsOfStudent(entry1.getStudentId());
+        assertThat(statisticsOfStudent1).hasSize(1);
+        assertThat(statisticsOfStudent1.get(0).getCount()).isEqualTo(1);
+        assertThat(statisticsOfStudent1.get(0).getDistribution()).containsEntry(2, 1).containsEntry(4, 0);
+
+        gradebookService.deleteById(entry1Saved.getId(), null);
+        assertThat(gradeStatisticsService.findStatisticsOfStudent(entry1.getStudentId())).isEmpty();
+        assertThat(gradeStatisticsService.findStatisticsOfSubject(entry1.getSubjectId()).getSubject().getCount()).isZero();
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("when GradebookEntry exists with same student, subject and assignment, save should throw exception")
+    public void whenGradebookEntryExistsWithSameStudentSubjectAndAssignment_save_shouldThrowException() {
+        gradebookService.save(entry1);
+
+        assertThatThrownBy(() -> gradebookService.save(entry1))
+                .isInstanceOf(DuplicateEntryException.class);
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("upsert should create GradebookEntry, then overwrite its grade and its statistics")
+    public void upsertShouldCreateGradebookEntryThenOverwriteItsGradeAndItsStatistics() {
+        GradebookOutput entryCreated = gradebookService.upsert(entry1);
+        entry1.setGrade(2);
+        GradebookOutput entryUpdated = gradebookService.upsert(entry1);
+
+        assertThat(entryUpdated.getId()).isEqualTo(entryCreated.getId());
+        assertThat(entryUpdated.getGrade()).isEqualTo(2);
+        assertThat(gradebookService.findById(entryCreated.getId()).map(GradebookOutput::getGrade)).contains(2);
+        List<GradeStatisticsOutput> statisticsOfStudent1 = gradeStatisticsService.findStatisticsOfStudent(entry1.getStudentId());
+        assertThat(statisticsOfStudent1).hasSize(1);
+        assertThat(statisticsOfStudent1.get(0).getCount()).isEqualTo(1);
+        assertThat(statisticsOfStudent1.get(0).getDistribution()).containsEntry(2, 1);
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("when GradebookEntry is created after the read, upsert should throw exception")
+    public void whenGradebookEntryIsCreatedAfterTheRead_upsert_shouldThrowException() {
+        gradebookService.upsert(entry1);
+        // the read misses the entry, as if another request created it meanwhile
+        doReturn(Optional.empty()).when(gradebookEntryRepository).findGradeByKey(any(), any(), any());
+
+        assertThatThrownBy(() -> gradebookService.upsert(entry1))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+    }
+
     @Test
     @Transactional
     @DisplayName("when no GradebookEntry exists with same student, subject and assignment, update should overwrite GradebookEntry with given ID")
@@ -221,7 +424,7 @@ public class GradebookServiceTests {
                 .assignmentId(entry1.getAssignmentId())
                 .grade(5)
                 .build();
-        GradebookOutput entry1Updated = gradebookService.update(entry1Saved.getId(), update);
+        GradebookOutput entry1Updated = gradebookService.update(entry1Saved.getId(), update, null);
 
         assertThat(entry1Updated.getStudent().getId()).isEqualTo(entry2.getStudentId());
     }
@@ -239,7 +442,7 @@ public class GradebookServiceTests {
                 .grade(5)
                 .build();
 
-        assertThatThrownBy(() -> gradebookService.update(entry1Saved.getId(), update))
+        assertThatThrownBy(() -> gradebookService.update(entry1Saved.getId(), update, null))
                 .isInstanceOf(DuplicateEntryException.class);
     }
 
@@ -100,7 +100,7 @@ public class StudentServiceTests {
     public void deleteById_shouldDeleteStudentWithGivenId() {
         long id = service.save(student1).getId();
 
-        service.deleteById(id);
+        service.deleteById(id, null);
         Optional<StudentDto> studentFound = service.findById(id);
 
         assertThat(studentFound).isEmpty();
@@ -1,10 +1,13 @@
 package org.vasvari.gradebookapi.unit.service;
 
+import org.vasvari.gradebookapi.dto.EnrollmentBatchInput;
+import org.vasvari.gradebookapi.dto.EnrollmentBatchResult;
 import org.vasvari.gradebookapi.dto.StudentDto;
 import org.vasvari.gradebookapi.dto.SubjectInput;
 import org.vasvari.gradebookapi.dto.SubjectOutput;
 import org.vasvari.gradebookapi.dto.TeacherDto;
 import org.vasvari.gradebookapi.dto.simpleTypes.SimpleStudent;
+import org.vasvari.gradebookapi.exception.StudentNotFoundException;
 import org.vasvari.gradebookapi.exception.SubjectNotFoundException;
 import org.vasvari.gradebookapi.service.StudentService;
 import org.vasvari.gradebookapi.service.SubjectService;
@@ -147,7 +150,7 @@ public class SubjectServiceTests {
         subject1.setTeacherId(teacherId);
         long id = subjectService.save(subject1).getId();
 
-        subjectService.deleteById(id);
+        subjectService.deleteById(id, null);
         Optional<SubjectOutput> subjectFound = subjectService.findById(id);
 
         assertThat(subjectFound).isEmpty();
@@ -161,7 +164,7 @@ public class SubjectServiceTests {
         subject1.setTeacherId(teacherId);
         long id = subjectService.save(subject1).getId();
         subject1.setName("Algebra II");
-        SubjectOutput updatedSubject = subjectService.update(id, subject1);
+        SubjectOutput updatedSubject = subjectService.update(id, subject1, null);
 
         assertThat(updatedSubject).isNotNull();
         assertThat(updatedSubject.getName()).isEqualTo("Algebra II");
@@ -216,7 +219,7 @@ public class SubjectServiceTests {
         subject1Saved = subjectService.addStudentToSubject(student.getId(), subject1Saved.getId());
         subject2Saved = subjectService.addStudentToSubject(student.getId(), subject2Saved.getId());
 
-        List<SubjectOutput> listOfSubjects = studentService.findSubjectsOfStudent(student);
+        List<SubjectOutput> listOfSubjects = studentService.findSubjectsOfStudent(student.getId());
 
         assertThat(listOfSubjects).containsExactly(subject1Saved, subject2Saved);
     }
@@ -246,6 +249,80 @@ public class SubjectServiceTests {
         assertFalse(subjectService.isStudentAddedToSubject(studentId, subjectId));
     }
 
+    @Test
+    @Transactional
+    @DisplayName("changeEnrollments should enroll the given Students not enrolled yet")
+    public void changeEnrollments_shouldEnrollTheGivenStudentsNotEnrolledYet() {
+        long teacherId = teacherService.save(teacher1).getId();
+        subject1.setTeacherId(teacherId);
+        long subjectId = subjectService.save(subject1).getId();
+        long student1Id = studentService.save(student).getId();
+        student.setEmail("janedoe@email.com");
+        long student2Id = studentService.save(student).getId();
+        subjectService.addStudentToSubject(student1Id, subjectId);
+        EnrollmentBatchInput batch = EnrollmentBatchInput.builder()
+                .action(EnrollmentBatchInput.Action.ENROLL)
+                .studentIds(List.of(student1Id, student2Id))
+                .build();
+
+        EnrollmentBatchResult result = subjectService.changeEnrollments(subjectId, batch);
+
+        assertThat(result.getStudentsAffected()).isEqualTo(1);
+        assertTrue(subjectService.isStudentAddedToSubject(student1Id, subjectId));
+        assertTrue(subjectService.isStudentAddedToSubject(student2Id, subjectId));
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("given a Student ID without a Student, changeEnrollments should throw exception and enroll no one")
+    public void givenStudentIdWithoutStudent_changeEnrollments_shouldThrowExceptionAndEnrollNoOne() {
+        long teacherId = teacherService.save(teacher1).getId();
+        subject1.setTeacherId(teacherId);
+        long subjectId = subjectService.save(subject1).getId();
+        long studentId = studentService.save(student).getId();
+        EnrollmentBatchInput batch = EnrollmentBatchInput.builder()
+                .action(EnrollmentBatchInput.Action.ENROLL)
+                .studentIds(List.of(studentId, 99L))
+                .build();
+
+        assertThatThrownBy(() -> subjectService.changeEnrollments(subjectId, batch))
+                .isInstanceOf(StudentNotFoundException.class)
+                .hasMessage(String.format(StudentNotFoundException.BATCH_ERROR_MESSAGE, List.of(99L)));
+        assertFalse(subjectService.isStudentAddedToSubject(studentId, subjectId));
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("changeEnrollments should enroll and unenroll the Students of the given grade level")
+    public void changeEnrollments_shouldEnrollAndUnenrollTheStudentsOfTheGivenGradeLevel() {
+        long teacherId = teacherService.save(teacher1).getId();
+        subject1.setTeacherId(teacherId);
+        long subjectId = subjectService.save(subject1).getId();
+        long studentOfGradeLevelId = studentService.save(student).getId();
+        student.setEmail("janedoe@email.com");
+        student.setGradeLevel(10);
+        long otherStudentId = studentService.save(student).getId();
+        EnrollmentBatchInput enroll = EnrollmentBatchInput.builder()
+                .action(EnrollmentBatchInput.Action.ENROLL)
+                .gradeLevel(11)
+                .build();
+        EnrollmentBatchInput unenroll = EnrollmentBatchInput.builder()
+                .action(EnrollmentBatchInput.Action.UNENROLL)
+                .gradeLevel(11)
+                .build();
+
+        EnrollmentBatchResult enrolled = subjectService.changeEnrollments(subjectId, enroll);
+
+        assertThat(enrolled.getStudentsAffected()).isEqualTo(subjectService.getStudentsOfSubject(subjectId).size());
+        assertTrue(subjectService.isStudentAddedToSubject(studentOfGradeLevelId, subjectId));
+        assertFalse(subjectService.isStudentAddedToSubject(otherStudentId, subjectId));
+
+        EnrollmentBatchResult unenrolled = subjectService.changeEnrollments(subjectId, unenroll);
+
+        assertThat(unenrolled.getStudentsAffected()).isEqualTo(enrolled.getStudentsAffected());
+        assertThat(subjectService.getStudentsOfSubject(subjectId)).isEmpty();
+    }
+
     @Test
     @Transactional
     @DisplayName("given Subject exists with ID, getStudentOfSubject should return list of Students")
@@ -273,7 +350,7 @@ public class SubjectServiceTests {
     @DisplayName("given Teacher is not set as teacher of any Subjects, findSubjectsOfTeacher should return empty list")
     public void givenTeacherIsNotSetAsTeacherOfAnySubjects_findSubjectsOfTeacher_shouldReturnListOfSubjects() {
         TeacherDto teacherSaved = teacherService.save(teacher1);
-        List<SubjectOutput> subjectsOfTeacher = subjectService.findSubjectsOfTeacher(teacherSaved);
+        List<SubjectOutput> subjectsOfTeacher = subjectService.findSubjectsOfTeacher(teacherSaved.getId());
 
         assertThat(subjectsOfTeacher).isEmpty();
     }
@@ -288,7 +365,7 @@ public class SubjectServiceTests {
         SubjectOutput subject1Saved = subjectService.save(subject1);
         SubjectOutput subject2Saved = subjectService.save(subject2);
 
-        List<SubjectOutput> subjectsOfTeacher = subjectService.findSubjectsOfTeacher(teacher1);
+        List<SubjectOutput> subjectsOfTeacher = subjectService.findSubjectsOfTeacher(teacher1.getId());
 
         assertThat(subjectsOfTeacher).containsExactly(subject1Saved, subject2Saved);
     }
@@ -354,7 +431,7 @@ public class SubjectServiceTests {
         physics = subjectService.addStudentToSubject(johnDoe.getId(), physics.getId());
         biology = subjectService.addStudentToSubject(jackDoe.getId(), biology.getId());
 
-        List<StudentDto> studentsOfTeacher = subjectService.findStudentsOfTeacher(darrelBowen);
+        List<StudentDto> studentsOfTeacher = subjectService.findStudentsOfTeacher(darrelBowen.getId());
 
         assertThat(studentsOfTeacher).containsExactlyInAnyOrder(johnDoe, janeDoe, jimDoe);
     }
@@ -98,7 +98,7 @@ public class TeacherServiceTests {
     public void deleteById_shouldDeleteTeacherWithGivenId() {
         long id = service.save(teacher1).getId();
 
-        service.deleteById(id);
+        service.deleteById(id, null);
         Optional<TeacherDto> teacherFound = service.findById(id);
 
         assertThat(teacherFound).isEmpty();
@@ -8,8 +8,14 @@ import org.vasvari.gradebookapi.exception.DuplicateAccountException;
 import org.vasvari.gradebookapi.exception.IncorrectPasswordException;
 import org.vasvari.gradebookapi.exception.UserNotFoundException;
 import org.vasvari.gradebookapi.exception.UsernameTakenException;
+import org.vasvari.gradebookapi.exception.UsernamesExhaustedException;
+import org.vasvari.gradebookapi.jwt.TokenRevocationList;
+import org.vasvari.gradebookapi.model.ApplicationUser;
 import org.vasvari.gradebookapi.model.request.PasswordChangeRequest;
+import org.vasvari.gradebookapi.repository.UserRepository;
+import org.vasvari.gradebookapi.security.AuthenticatedUser;
 import org.vasvari.gradebookapi.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -21,11 +27,16 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.transaction.Transactional;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import static org.vasvari.gradebookapi.security.ApplicationUserRole.*;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -40,6 +51,18 @@ public class UserServiceTests {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     private UserDto adminUser;
     private UserDto teacherUser;
     private UserDto studentUser;
@@ -65,6 +88,7 @@ public class UserServiceTests {
 
     @Test
     @DisplayName("save should return saved user")
+    @DirtiesContext(methodMode = BEFORE_METHOD)
     public void saveShouldReturnSavedUser() {
         UserDto userSaved = userService.save(adminUser);
 
@@ -103,6 +127,55 @@ public class UserServiceTests {
         assertThat(credentials.getPassword()).matches("([a-zA-Z\\d]){" + UserService.PASSWORD_LENGTH + "}");
     }
 
+    @Test
+    @DisplayName("given every two-digit username of the name is taken, createStudentUser should widen the suffix")
+    @DirtiesContext(methodMode = BEFORE_METHOD)
+    public void givenEveryTwoDigitUsernameOfTheNameIsTaken_createStudentUserShouldWidenTheSuffix() {
+        insertUsers("doejohn", 2);
+        StudentDto student = StudentDto.builder()
+                .id(79L)
+                .firstname("John")
+                .lastname("Doe")
+                .build();
+
+        InitialCredentials credentials = userService.createStudentUser(student);
+
+        assertThat(credentials.getUsername()).matches("doejohn\\d{3}");
+    }
+
+    @Test
+    @DisplayName("given every username of the name is taken, createStudentUser should throw exception")
+    @DirtiesContext(methodMode = BEFORE_METHOD)
+    public void givenEveryUsernameOfTheNameIsTaken_createStudentUserShouldThrowException() {
+        for (int digits = UserService.MIN_USERNAME_SUFFIX_DIGITS; digits <= UserService.MAX_USERNAME_SUFFIX_DIGITS; digits++)
+            insertUsers("doejohn", digits);
+        StudentDto student = StudentDto.builder()
+                .id(79L)
+                .firstname("John")
+                .lastname("Doe")
+                .build();
+
+        assertThatThrownBy(() -> userService.createStudentUser(student))
+                .isInstanceOf(UsernamesExhaustedException.class)
+                .hasMessage(String.format(UsernamesExhaustedException.ERROR_MESSAGE,
+                        "doejohn", UserService.MAX_USERNAME_SUFFIX_DIGITS));
+        assertThat(userService.getUserRelatedToStudent(79L)).isEmpty();
+    }
+
+    // takes every username of the prefix with a suffix of the given number of digits
+    private void insertUsers(String prefix, int suffixDigits) {
+        List<ApplicationUser> users = new ArrayList<>();
+        for (int suffix = 0; suffix < Math.pow(10, suffixDigits); suffix++) {
+            users.add(ApplicationUser.builder()
+                    .username(prefix + String.format("%0" + suffixDigits + "d", suffix))
+                    .password("password")
+                    .role(STUDENT)
+                    .enabled(true)
+                    .build());
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> userRepository.insertAll(users));
+    }
+
     @Test
     @DisplayName("given Student already has user account, createStudentUser should throw exception")
     @DirtiesContext(methodMode = BEFORE_METHOD)
@@ -151,6 +224,74 @@ public class UserServiceTests {
                 .hasMessage(String.format(DuplicateAccountException.ERROR_MESSAGE, TEACHER));
     }
 
+    @Test
+    @DisplayName("createStudentUsers should create accounts and hand over their credentials in batches")
+    @DirtiesContext(methodMode = BEFORE_METHOD)
+    public void createStudentUsers_shouldCreateAccountsAndHandOverTheirCredentialsInBatches() {
+        // more students of the same name than fit in a batch
+        List<StudentDto> students = new ArrayList<>();
+        for (long id = 1; id <= UserService.ACCOUNT_BATCH_SIZE + 10; id++) {
+            students.add(StudentDto.builder().id(id).firstname("John").lastname("Doe").build());
+        }
+        List<List<InitialCredentials>> batches = new ArrayList<>();
+
+        int created = userService.createStudentUsers(students, batches::add);
+
+        assertThat(created).isEqualTo(students.size());
+        assertThat(batches).extracting(List::size).containsExactly(UserService.ACCOUNT_BATCH_SIZE, 10);
+        List<InitialCredentials> credentials = batches.stream().flatMap(List::stream).collect(Collectors.toList());
+        assertThat(credentials).extracting(InitialCredentials::getUsername)
+                .doesNotHaveDuplicates()
+                .allMatch(username -> username.matches("doejohn\\d{2}"));
+        for (int i = 0; i < students.size(); i++) {
+            assertThat(userService.findStudentIdByUserId(credentials.get(i).getUserId())).isEqualTo(students.get(i).getId());
+        }
+        UserDto user = userService.findByUsername(credentials.get(0).getUsername()).orElseThrow();
+        assertThat(user.getId()).isEqualTo(credentials.get(0).getUserId());
+        assertThat(user.getRole()).isEqualTo(STUDENT);
+        assertThat(user.isEnabled()).isTrue();
+        assertThat(passwordEncoder.matches(credentials.get(0).getPassword(), user.getPassword())).isTrue();
+    }
+
+    @Test
+    @DisplayName("when a batch cannot be handed over, createStudentUsers should keep the batches committed before")
+    @DirtiesContext(methodMode = BEFORE_METHOD)
+    public void whenBatchCannotBeHandedOver_createStudentUsersShouldKeepTheBatchesCommittedBefore() {
+        List<StudentDto> students = new ArrayList<>();
+        for (long id = 1; id <= UserService.ACCOUNT_BATCH_SIZE + 10; id++) {
+            students.add(StudentDto.builder().id(id).firstname("John").lastname("Doe").build());
+        }
+        List<InitialCredentials> credentials = new ArrayList<>();
+
+        assertThatThrownBy(() -> userService.createStudentUsers(students, batch -> {
+            credentials.addAll(batch);
+            throw new IllegalStateException("connection closed");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(credentials).hasSize(UserService.ACCOUNT_BATCH_SIZE);
+        for (InitialCredentials credential : credentials) {
+            assertThat(userService.findByUsername(credential.getUsername())).isPresent();
+        }
+        assertThat(userService.getUserRelatedToStudent(students.get(students.size() - 1).getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("given Teacher already has user account, createTeacherUsers should skip the teacher")
+    @DirtiesContext(methodMode = BEFORE_METHOD)
+    public void givenTeacherAlreadyHasUserAccount_createTeacherUsersShouldSkipTheTeacher() {
+        TeacherDto teacherWithAccount = TeacherDto.builder().id(44L).firstname("Darrell").lastname("Bowen").build();
+        TeacherDto teacherWithoutAccount = TeacherDto.builder().id(45L).firstname("Lilla").lastname("Kovacs").build();
+        userService.createTeacherUser(teacherWithAccount);
+        List<InitialCredentials> credentials = new ArrayList<>();
+
+        int created = userService.createTeacherUsers(List.of(teacherWithAccount, teacherWithoutAccount), credentials::addAll);
+
+        assertThat(created).isEqualTo(1);
+        assertThat(credentials).hasSize(1);
+        assertThat(credentials.get(0).getUsername()).matches("kovacslilla\\d{2}");
+        assertThat(userService.findTeacherIdByUserId(credentials.get(0).getUserId())).isEqualTo(45L);
+    }
+
     @Test
     @DisplayName("given username is not in use, createAdminUser should return admin user's initial credentials")
     @DirtiesContext(methodMode = BEFORE_METHOD)
@@ -228,6 +369,30 @@ public class UserServiceTests {
         assertThat(userService.findById(userId).get().isEnabled()).isFalse();
     }
 
+    @Test
+    @DisplayName("given User disabled or deleted, the tokens issued to the User before should be revoked")
+    @DirtiesContext(methodMode = BEFORE_METHOD)
+    public void givenUserDisabledOrDeleted_theTokensIssuedToTheUserBeforeShouldBeRevoked() {
+        long disabledUserId = userService.save(adminUser).getId();
+        long deletedUserId = userService.save(teacherUser).getId();
+        long otherUserId = userService.save(studentUser).getId();
+        Instant issuedAt = Instant.now();
+
+        userService.setUserDisabled(disabledUserId);
+        userService.deleteById(deletedUserId);
+
+        assertThat(tokenRevocationList.isRevoked(disabledUserId, issuedAt)).isTrue();
+        assertThat(tokenRevocationList.isRevoked(deletedUserId, issuedAt)).isTrue();
+        assertThat(tokenRevocationList.isRevoked(otherUserId, issuedAt)).isFalse();
+        assertThat(tokenRevocationList.isRevoked(disabledUserId, issuedAt.plusSeconds(2))).isFalse();
+
+        // the revocations survive a reload from the database
+        tokenRevocationList.refresh();
+
+        assertThat(tokenRevocationList.isRevoked(disabledUserId, issuedAt)).isTrue();
+        assertThat(tokenRevocationList.isRevoked(deletedUserId, issuedAt)).isTrue();
+    }
+
     @Test
     @DisplayName("given User does not exist with ID, setUserDisabled should throw exception")
     @DirtiesContext(methodMode = BEFORE_METHOD)
@@ -335,6 +500,18 @@ public class UserServiceTests {
         assertThat(studentId).isEqualTo(79L);
     }
 
+    @Test
+    @DisplayName("given User is authenticated with identity in token, getStudentIdOfCurrentUser should return Student ID of token")
+    public void givenUserIsAuthenticatedWithIdentityInToken_getStudentIdOfCurrentUser_shouldReturnStudentIdOfToken() {
+        // no user or relation exists in the database
+        setCurrentUser(new AuthenticatedUser(5L, "student", STUDENT, 79L));
+
+        assertThat(userService.getStudentIdOfCurrentUser()).isEqualTo(79L);
+        assertThatThrownBy(() -> userService.getTeacherIdOfCurrentUser())
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("User role is incorrect");
+    }
+
     @Test
     @DisplayName("given User is ADMIN, getStudentIdOfCurrentUser should throw exception")
     @DirtiesContext(methodMode = BEFORE_METHOD)
@@ -410,6 +587,11 @@ public class UserServiceTests {
                 .hasMessage("No school actor related to user exists");
     }
 
+    private void setCurrentUser(AuthenticatedUser user) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getRole().getGrantedAuthorities()));
+    }
+
     private void setCurrentUser(String username) {
         UserDetails userDetails = userService.loadUserByUsername(username);
         UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken =
@@ -439,6 +621,41 @@ public class UserServiceTests {
                 .hasMessage(String.format("User not found with username \"%s\"", "anonymous"));
     }
 
+    @Test
+    @DisplayName("given User was loaded before, loadUserByUsername should return cached UserDetails until the User changes")
+    @DirtiesContext(methodMode = BEFORE_METHOD)
+    public void givenUserWasLoadedBefore_loadUserByUsername_shouldReturnCachedUserDetailsUntilTheUserChanges() {
+        Long id = userService.save(adminUser).getId();
+        UserDetails loaded = userService.loadUserByUsername(adminUser.getUsername());
+
+        assertThat(userService.loadUserByUsername(adminUser.getUsername())).isSameAs(loaded);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "userDetails").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "userDetails").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+
+        userService.setUserDisabled(id);
+
+        assertThat(userService.loadUserByUsername(adminUser.getUsername()).isEnabled()).isFalse();
+
+        userService.deleteById(id);
+
+        assertThatThrownBy(() -> userService.loadUserByUsername(adminUser.getUsername()))
+                .isInstanceOf(UsernameNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("given password of User changed, loadUserByUsername should return the new password")
+    @DirtiesContext(methodMode = BEFORE_METHOD)
+    public void givenPasswordOfUserChanged_loadUserByUsername_shouldReturnTheNewPassword() {
+        InitialCredentials credentials = userService.createAdminUser("admin");
+        userService.loadUserByUsername("admin");
+
+        userService.changePassword(credentials.getUserId(), new PasswordChangeRequest(credentials.getPassword(), "new_password"));
+
+        assertThat(passwordEncoder.matches("new_password", userService.loadUserByUsername("admin").getPassword())).isTrue();
+    }
+
     @Test
     @Transactional
     @DisplayName("given UserDto related to Student exists, getUserRelatedToStudent should return UserDto")